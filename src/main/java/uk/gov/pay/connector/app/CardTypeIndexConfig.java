@@ -0,0 +1,13 @@
+package uk.gov.pay.connector.app;
+
+import io.dropwizard.Configuration;
+import io.dropwizard.util.Duration;
+
+public class CardTypeIndexConfig extends Configuration {
+
+    private Duration refreshInterval = Duration.minutes(10);
+
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+}
@@ -0,0 +1,28 @@
+package uk.gov.pay.connector.app;
+
+import io.dropwizard.Configuration;
+import io.dropwizard.util.Duration;
+
+public class ChargeStatusLongPollConfig extends Configuration {
+
+    private Duration defaultTimeout = Duration.seconds(20);
+    private Duration maximumTimeout = Duration.seconds(30);
+    private boolean crossNodeNotificationsEnabled = true;
+    private int completionThreads = 4;
+
+    public Duration getDefaultTimeout() {
+        return defaultTimeout;
+    }
+
+    public Duration getMaximumTimeout() {
+        return maximumTimeout;
+    }
+
+    public boolean isCrossNodeNotificationsEnabled() {
+        return crossNodeNotificationsEnabled;
+    }
+
+    public int getCompletionThreads() {
+        return completionThreads;
+    }
+}
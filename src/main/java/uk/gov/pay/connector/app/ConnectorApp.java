@@ -26,6 +26,7 @@ import uk.gov.pay.commons.utils.healthchecks.DatabaseHealthCheck;
 import uk.gov.pay.commons.utils.logging.LoggingFilter;
 import uk.gov.pay.commons.utils.xray.Xray;
 import uk.gov.pay.commons.utils.metrics.DatabaseMetricsService;
+import uk.gov.pay.connector.cardtype.managed.CardTypeIndexRefresher;
 import uk.gov.pay.connector.cardtype.resource.CardTypesResource;
 import uk.gov.pay.connector.charge.exception.ZeroAmountNotAllowedForGatewayAccountExceptionMapper;
 import uk.gov.pay.connector.charge.resource.ChargesApiResource;
@@ -35,6 +36,7 @@ import uk.gov.pay.connector.command.RenderStateTransitionGraphCommand;
 import uk.gov.pay.connector.common.exception.ConstraintViolationExceptionMapper;
 import uk.gov.pay.connector.common.exception.UnsupportedOperationExceptionMapper;
 import uk.gov.pay.connector.common.exception.ValidationExceptionMapper;
+import uk.gov.pay.connector.common.managed.DatabaseNotificationListener;
 import uk.gov.pay.connector.filters.SchemeRewriteFilter;
 import uk.gov.pay.connector.gateway.smartpay.auth.BasicAuthUser;
 import uk.gov.pay.connector.gateway.smartpay.auth.SmartpayAccountSpecificAuthenticator;
@@ -42,6 +44,7 @@ import uk.gov.pay.connector.gatewayaccount.resource.GatewayAccountResource;
 import uk.gov.pay.connector.gatewayaccount.resource.StripeAccountResource;
 import uk.gov.pay.connector.gatewayaccount.resource.StripeAccountSetupResource;
 import uk.gov.pay.connector.healthcheck.CardExecutorServiceHealthCheck;
+import uk.gov.pay.connector.healthcheck.GatewayCircuitBreakerHealthCheck;
 import uk.gov.pay.connector.healthcheck.Ping;
 import uk.gov.pay.connector.healthcheck.SQSHealthCheck;
 import uk.gov.pay.connector.healthcheck.resource.HealthCheckResource;
@@ -50,6 +53,7 @@ import uk.gov.pay.connector.paymentprocessor.resource.DiscrepancyResource;
 import uk.gov.pay.connector.queue.managed.QueueMessageReceiver;
 import uk.gov.pay.connector.refund.resource.ChargeRefundsResource;
 import uk.gov.pay.connector.refund.resource.SearchRefundsResource;
+import uk.gov.pay.connector.report.managed.RollupBackfillWorker;
 import uk.gov.pay.connector.report.resource.PerformanceReportResource;
 import uk.gov.pay.connector.report.resource.TransactionsSummaryResource;
 import uk.gov.pay.connector.tasks.HistoricalEventEmitterTask;
@@ -57,6 +61,8 @@ import uk.gov.pay.connector.token.resource.SecurityTokensResource;
 import uk.gov.pay.connector.usernotification.resource.EmailNotificationResource;
 import uk.gov.pay.connector.util.DependentResourceWaitCommand;
 import uk.gov.pay.connector.util.JsonMappingExceptionMapper;
+import uk.gov.pay.connector.webhook.managed.NotificationDeduplicationFilterLoader;
+import uk.gov.pay.connector.webhook.managed.NotificationInboxWorker;
 import uk.gov.pay.connector.webhook.resource.NotificationResource;
 
 import java.util.Optional;
@@ -134,6 +140,22 @@ public class ConnectorApp extends Application<ConnectorConfiguration> {
             setupSchedulers(environment, injector);
         }
 
+        if (configuration.getNotificationInboxConfig().isEnabled()) {
+            environment.lifecycle().manage(injector.getInstance(NotificationInboxWorker.class));
+        }
+
+        if (configuration.getNotificationDeduplicationConfig().isEnabled()) {
+            environment.lifecycle().manage(injector.getInstance(NotificationDeduplicationFilterLoader.class));
+        }
+
+        environment.lifecycle().manage(injector.getInstance(CardTypeIndexRefresher.class));
+        environment.lifecycle().manage(injector.getInstance(RollupBackfillWorker.class));
+
+        DatabaseNotificationListener databaseNotificationListener = injector.getInstance(DatabaseNotificationListener.class);
+        if (databaseNotificationListener.hasChannels()) {
+            environment.lifecycle().manage(databaseNotificationListener);
+        }
+
         setupSmartpayBasicAuth(environment, injector.getInstance(SmartpayAccountSpecificAuthenticator.class));
 
         environment.servlets().addFilter("LoggingFilter", injector.getInstance(LoggingFilter.class))
@@ -142,6 +164,7 @@ public class ConnectorApp extends Application<ConnectorConfiguration> {
         environment.healthChecks().register("ping", new Ping());
         environment.healthChecks().register("database", new DatabaseHealthCheck(configuration.getDataSourceFactory()));
         environment.healthChecks().register("cardExecutorService", injector.getInstance(CardExecutorServiceHealthCheck.class));
+        environment.healthChecks().register("gatewayCircuitBreakers", injector.getInstance(GatewayCircuitBreakerHealthCheck.class));
         environment.healthChecks().register("sqsQueue", injector.getInstance(SQSHealthCheck.class));
 
         environment.admin().addTask(injector.getInstance(HistoricalEventEmitterTask.class));
@@ -23,6 +23,71 @@ public class ConnectorConfiguration extends Configuration {
     @NotNull
     private CaptureProcessConfig captureProcessConfig;
 
+    @Valid
+    @NotNull
+    @JsonProperty("gatewayCircuitBreaker")
+    private GatewayCircuitBreakerConfig gatewayCircuitBreakerConfig = new GatewayCircuitBreakerConfig();
+
+    @Valid
+    @NotNull
+    @JsonProperty("gatewayAdaptiveTimeouts")
+    private GatewayAdaptiveTimeoutConfig gatewayAdaptiveTimeoutConfig = new GatewayAdaptiveTimeoutConfig();
+
+    @Valid
+    @NotNull
+    @JsonProperty("reverseDnsCache")
+    private ReverseDnsCacheConfig reverseDnsCacheConfig = new ReverseDnsCacheConfig();
+
+    @Valid
+    @NotNull
+    @JsonProperty("notificationCredentialsCache")
+    private NotificationCredentialsCacheConfig notificationCredentialsCacheConfig = new NotificationCredentialsCacheConfig();
+
+    @Valid
+    @NotNull
+    @JsonProperty("notificationInbox")
+    private NotificationInboxConfig notificationInboxConfig = new NotificationInboxConfig();
+
+    @Valid
+    @NotNull
+    @JsonProperty("notificationDeduplication")
+    private NotificationDeduplicationConfig notificationDeduplicationConfig = new NotificationDeduplicationConfig();
+
+    @Valid
+    @NotNull
+    @JsonProperty("frontendChargeCache")
+    private FrontendChargeCacheConfig frontendChargeCacheConfig = new FrontendChargeCacheConfig();
+
+    @Valid
+    @NotNull
+    @JsonProperty("chargeStatusLongPoll")
+    private ChargeStatusLongPollConfig chargeStatusLongPollConfig = new ChargeStatusLongPollConfig();
+
+    @Valid
+    @NotNull
+    @JsonProperty("gatewayAccountCache")
+    private GatewayAccountCacheConfig gatewayAccountCacheConfig = new GatewayAccountCacheConfig();
+
+    @Valid
+    @NotNull
+    @JsonProperty("databaseNotifications")
+    private DatabaseNotificationsConfig databaseNotificationsConfig = new DatabaseNotificationsConfig();
+
+    @Valid
+    @NotNull
+    @JsonProperty("cardTypeIndex")
+    private CardTypeIndexConfig cardTypeIndexConfig = new CardTypeIndexConfig();
+
+    @Valid
+    @NotNull
+    @JsonProperty("searchTotals")
+    private SearchTotalsConfig searchTotalsConfig = new SearchTotalsConfig();
+
+    @Valid
+    @NotNull
+    @JsonProperty("transactionExport")
+    private TransactionExportConfig transactionExportConfig = new TransactionExportConfig();
+
     @Valid
     @NotNull
     @JsonProperty("transactionsPaginationServiceConfig")
@@ -145,6 +210,58 @@ public class ConnectorConfiguration extends Configuration {
         return executorServiceConfig;
     }
 
+    public GatewayCircuitBreakerConfig getGatewayCircuitBreakerConfig() {
+        return gatewayCircuitBreakerConfig;
+    }
+
+    public GatewayAdaptiveTimeoutConfig getGatewayAdaptiveTimeoutConfig() {
+        return gatewayAdaptiveTimeoutConfig;
+    }
+
+    public ReverseDnsCacheConfig getReverseDnsCacheConfig() {
+        return reverseDnsCacheConfig;
+    }
+
+    public NotificationCredentialsCacheConfig getNotificationCredentialsCacheConfig() {
+        return notificationCredentialsCacheConfig;
+    }
+
+    public NotificationInboxConfig getNotificationInboxConfig() {
+        return notificationInboxConfig;
+    }
+
+    public NotificationDeduplicationConfig getNotificationDeduplicationConfig() {
+        return notificationDeduplicationConfig;
+    }
+
+    public FrontendChargeCacheConfig getFrontendChargeCacheConfig() {
+        return frontendChargeCacheConfig;
+    }
+
+    public ChargeStatusLongPollConfig getChargeStatusLongPollConfig() {
+        return chargeStatusLongPollConfig;
+    }
+
+    public GatewayAccountCacheConfig getGatewayAccountCacheConfig() {
+        return gatewayAccountCacheConfig;
+    }
+
+    public DatabaseNotificationsConfig getDatabaseNotificationsConfig() {
+        return databaseNotificationsConfig;
+    }
+
+    public CardTypeIndexConfig getCardTypeIndexConfig() {
+        return cardTypeIndexConfig;
+    }
+
+    public SearchTotalsConfig getSearchTotalsConfig() {
+        return searchTotalsConfig;
+    }
+
+    public TransactionExportConfig getTransactionExportConfig() {
+        return transactionExportConfig;
+    }
+
     public TransactionsPaginationServiceConfig getTransactionsPaginationConfig() {
         return transactionsPaginationServiceConfig;
     }
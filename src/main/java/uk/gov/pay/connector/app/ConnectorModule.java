@@ -10,18 +10,24 @@ import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.google.inject.Singleton;
 import com.google.inject.assistedinject.FactoryModuleBuilder;
+import com.google.inject.persist.Transactional;
 import com.google.inject.persist.jpa.JpaPersistModule;
 import io.dropwizard.db.DataSourceFactory;
 import io.dropwizard.setup.Environment;
+import uk.gov.pay.connector.charge.service.FrontendChargeCache;
 import uk.gov.pay.connector.common.validator.RequestValidator;
+import uk.gov.pay.connector.gateway.ClientFactory;
 import uk.gov.pay.connector.gateway.PaymentProviders;
 import uk.gov.pay.connector.gateway.epdq.EpdqSha512SignatureGenerator;
 import uk.gov.pay.connector.gateway.epdq.SignatureGenerator;
 import uk.gov.pay.connector.gatewayaccount.resource.GatewayAccountRequestValidator;
+import uk.gov.pay.connector.gatewayaccount.service.GatewayAccountCache;
 import uk.gov.pay.connector.gatewayaccount.service.GatewayAccountServicesFactory;
 import uk.gov.pay.connector.paymentprocessor.service.CardExecutorService;
 import uk.gov.pay.connector.queue.StateTransitionQueue;
 import uk.gov.pay.connector.usernotification.govuknotify.NotifyClientFactory;
+import uk.gov.pay.connector.util.CachingDnsUtils;
+import uk.gov.pay.connector.util.DnsUtils;
 import uk.gov.pay.connector.util.HashUtil;
 import uk.gov.pay.connector.util.JsonObjectMapper;
 import uk.gov.pay.connector.util.XrayUtils;
@@ -29,6 +35,9 @@ import uk.gov.pay.connector.wallets.applepay.ApplePayDecrypter;
 
 import java.util.Properties;
 
+import static com.google.inject.matcher.Matchers.annotatedWith;
+import static com.google.inject.matcher.Matchers.any;
+
 public class ConnectorModule extends AbstractModule {
     final ConnectorConfiguration configuration;
     final Environment environment;
@@ -45,11 +54,21 @@ public class ConnectorModule extends AbstractModule {
         bind(CardExecutorService.class).in(Singleton.class);
         bind(ApplePayDecrypter.class).in(Singleton.class);
         bind(PaymentProviders.class).in(Singleton.class);
+        bind(ClientFactory.class).in(Singleton.class);
+        bind(DnsUtils.class).to(CachingDnsUtils.class);
         bind(HashUtil.class);
         bind(RequestValidator.class);
         bind(GatewayAccountRequestValidator.class).in(Singleton.class);
         bind(StateTransitionQueue.class).in(Singleton.class);
 
+        // must be bound before the JPA module so that it runs outside the transaction interceptor
+        FrontendChargeCache.AfterTransaction afterTransaction = new FrontendChargeCache.AfterTransaction(getProvider(FrontendChargeCache.class));
+        bindInterceptor(annotatedWith(Transactional.class), any(), afterTransaction);
+        bindInterceptor(any(), annotatedWith(Transactional.class), afterTransaction);
+        GatewayAccountCache.AfterTransaction afterAccountTransaction = new GatewayAccountCache.AfterTransaction(getProvider(GatewayAccountCache.class));
+        bindInterceptor(annotatedWith(Transactional.class), any(), afterAccountTransaction);
+        bindInterceptor(any(), annotatedWith(Transactional.class), afterAccountTransaction);
+
         install(jpaModule(configuration));
         install(new FactoryModuleBuilder().build(GatewayAccountServicesFactory.class));
     }
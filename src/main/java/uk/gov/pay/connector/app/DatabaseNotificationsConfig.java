@@ -0,0 +1,18 @@
+package uk.gov.pay.connector.app;
+
+import io.dropwizard.Configuration;
+import io.dropwizard.util.Duration;
+
+public class DatabaseNotificationsConfig extends Configuration {
+
+    private Duration reconnectDelay = Duration.seconds(5);
+    private Duration healthCheckInterval = Duration.seconds(30);
+
+    public Duration getReconnectDelay() {
+        return reconnectDelay;
+    }
+
+    public Duration getHealthCheckInterval() {
+        return healthCheckInterval;
+    }
+}
@@ -2,11 +2,21 @@ package uk.gov.pay.connector.app;
 
 import io.dropwizard.Configuration;
 
+import javax.validation.constraints.NotNull;
+
 public class ExecutorServiceConfig extends Configuration {
 
+    public enum ExecutionMode {
+        THREAD_POOL,
+        VIRTUAL_THREADS
+    }
+
     private int threadsPerCpu;
     private int timeoutInSeconds;
 
+    @NotNull
+    private ExecutionMode executionMode = ExecutionMode.THREAD_POOL;
+
     public int getThreadsPerCpu() {
         return threadsPerCpu;
     }
@@ -14,4 +24,8 @@ public class ExecutorServiceConfig extends Configuration {
     public int getTimeoutInSeconds() {
         return timeoutInSeconds;
     }
+
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
 }
@@ -0,0 +1,28 @@
+package uk.gov.pay.connector.app;
+
+import io.dropwizard.Configuration;
+import io.dropwizard.util.Duration;
+
+public class GatewayAccountCacheConfig extends Configuration {
+
+    private boolean enabled = true;
+    private long maximumSize = 5_000;
+    private Duration expireAfterWrite = Duration.minutes(5);
+    private boolean crossNodeInvalidationEnabled = true;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public Duration getExpireAfterWrite() {
+        return expireAfterWrite;
+    }
+
+    public boolean isCrossNodeInvalidationEnabled() {
+        return crossNodeInvalidationEnabled;
+    }
+}
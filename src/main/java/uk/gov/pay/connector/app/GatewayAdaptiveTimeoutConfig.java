@@ -0,0 +1,43 @@
+package uk.gov.pay.connector.app;
+
+import io.dropwizard.Configuration;
+import io.dropwizard.util.Duration;
+
+public class GatewayAdaptiveTimeoutConfig extends Configuration {
+
+    private boolean enabled = false;
+    private double percentile = 0.99;
+    private double multiplier = 2.0;
+    private int minimumNumberOfCalls = 100;
+    private Duration floor = Duration.seconds(1);
+    private Duration ceiling = Duration.seconds(50);
+    private Duration recalculationInterval = Duration.seconds(10);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public double getMultiplier() {
+        return multiplier;
+    }
+
+    public int getMinimumNumberOfCalls() {
+        return minimumNumberOfCalls;
+    }
+
+    public Duration getFloor() {
+        return floor;
+    }
+
+    public Duration getCeiling() {
+        return ceiling;
+    }
+
+    public Duration getRecalculationInterval() {
+        return recalculationInterval;
+    }
+}
@@ -0,0 +1,53 @@
+package uk.gov.pay.connector.app;
+
+import io.dropwizard.Configuration;
+import io.dropwizard.util.Duration;
+
+public class GatewayCircuitBreakerConfig extends Configuration {
+
+    private boolean enabled = false;
+    private int slidingWindowSize = 100;
+    private int minimumNumberOfCalls = 20;
+    private int failureRateThreshold = 50;
+    private Duration slowCallDurationThreshold = Duration.seconds(10);
+    private int slowCallRateThreshold = 80;
+    private Duration waitDurationInOpenState = Duration.seconds(30);
+    private int permittedCallsInHalfOpenState = 5;
+    private int maxConcurrentCalls = 200;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getSlidingWindowSize() {
+        return slidingWindowSize;
+    }
+
+    public int getMinimumNumberOfCalls() {
+        return minimumNumberOfCalls;
+    }
+
+    public int getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public Duration getSlowCallDurationThreshold() {
+        return slowCallDurationThreshold;
+    }
+
+    public int getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    public Duration getWaitDurationInOpenState() {
+        return waitDurationInOpenState;
+    }
+
+    public int getPermittedCallsInHalfOpenState() {
+        return permittedCallsInHalfOpenState;
+    }
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+}
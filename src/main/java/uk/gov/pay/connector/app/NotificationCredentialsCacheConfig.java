@@ -0,0 +1,23 @@
+package uk.gov.pay.connector.app;
+
+import io.dropwizard.Configuration;
+import io.dropwizard.util.Duration;
+
+public class NotificationCredentialsCacheConfig extends Configuration {
+
+    private boolean enabled = true;
+    private long maximumSize = 100;
+    private Duration expireAfterWrite = Duration.minutes(5);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public Duration getExpireAfterWrite() {
+        return expireAfterWrite;
+    }
+}
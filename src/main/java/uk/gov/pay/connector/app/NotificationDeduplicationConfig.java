@@ -0,0 +1,33 @@
+package uk.gov.pay.connector.app;
+
+import io.dropwizard.Configuration;
+import io.dropwizard.util.Duration;
+
+public class NotificationDeduplicationConfig extends Configuration {
+
+    private boolean enabled = true;
+    private int expectedInsertions = 1_000_000;
+    private double falsePositiveProbability = 0.01;
+    private Duration retention = Duration.days(7);
+    private Duration filterRebuildInterval = Duration.days(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getExpectedInsertions() {
+        return expectedInsertions;
+    }
+
+    public double getFalsePositiveProbability() {
+        return falsePositiveProbability;
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public Duration getFilterRebuildInterval() {
+        return filterRebuildInterval;
+    }
+}
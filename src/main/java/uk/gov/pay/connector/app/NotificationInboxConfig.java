@@ -0,0 +1,43 @@
+package uk.gov.pay.connector.app;
+
+import io.dropwizard.Configuration;
+import io.dropwizard.util.Duration;
+
+public class NotificationInboxConfig extends Configuration {
+
+    private boolean enabled = false;
+    private int workerThreads = 2;
+    private int batchSize = 50;
+    private Duration pollInterval = Duration.seconds(1);
+    private Duration leaseDuration = Duration.minutes(5);
+    private int maximumAttempts = 10;
+    private Duration retryDelay = Duration.seconds(30);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public Duration getLeaseDuration() {
+        return leaseDuration;
+    }
+
+    public int getMaximumAttempts() {
+        return maximumAttempts;
+    }
+
+    public Duration getRetryDelay() {
+        return retryDelay;
+    }
+}
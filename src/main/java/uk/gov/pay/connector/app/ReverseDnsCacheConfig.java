@@ -0,0 +1,33 @@
+package uk.gov.pay.connector.app;
+
+import io.dropwizard.Configuration;
+import io.dropwizard.util.Duration;
+
+public class ReverseDnsCacheConfig extends Configuration {
+
+    private boolean enabled = true;
+    private long maximumSize = 1000;
+    private Duration positiveTtl = Duration.minutes(10);
+    private Duration negativeTtl = Duration.seconds(30);
+    private Duration refreshAhead = Duration.minutes(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public Duration getPositiveTtl() {
+        return positiveTtl;
+    }
+
+    public Duration getNegativeTtl() {
+        return negativeTtl;
+    }
+
+    public Duration getRefreshAhead() {
+        return refreshAhead;
+    }
+}
@@ -0,0 +1,33 @@
+package uk.gov.pay.connector.app;
+
+import io.dropwizard.Configuration;
+import io.dropwizard.util.Duration;
+
+public class SearchTotalsConfig extends Configuration {
+
+    private boolean enabled = true;
+    private long maximumSize = 10_000;
+    private Duration expireAfterWrite = Duration.seconds(30);
+    private boolean estimatesEnabled = false;
+    private long estimateThreshold = 100_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public Duration getExpireAfterWrite() {
+        return expireAfterWrite;
+    }
+
+    public boolean isEstimatesEnabled() {
+        return estimatesEnabled;
+    }
+
+    public long getEstimateThreshold() {
+        return estimateThreshold;
+    }
+}
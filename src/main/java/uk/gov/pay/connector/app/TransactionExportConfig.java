@@ -0,0 +1,17 @@
+package uk.gov.pay.connector.app;
+
+import io.dropwizard.Configuration;
+
+public class TransactionExportConfig extends Configuration {
+
+    private int fetchSize = 1_000;
+    private int maximumConcurrentExports = 4;
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public int getMaximumConcurrentExports() {
+        return maximumConcurrentExports;
+    }
+}
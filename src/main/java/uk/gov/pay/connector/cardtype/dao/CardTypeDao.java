@@ -31,6 +31,16 @@ public class CardTypeDao extends JpaDao<CardTypeEntity> {
                 .getResultList();
     }
 
+    public List<CardTypeEntity> findByIds(List<UUID> ids) {
+        String query = "SELECT ct FROM CardTypeEntity ct " +
+                "WHERE ct.id IN :ids";
+
+        return entityManager.get()
+                .createQuery(query, CardTypeEntity.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
     public List<CardTypeEntity> findByBrand(String brand) {
         String query = "SELECT ct FROM CardTypeEntity ct " +
                 "WHERE ct.brand = :brand ";
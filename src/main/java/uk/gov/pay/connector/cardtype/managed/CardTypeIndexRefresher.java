@@ -0,0 +1,60 @@
+package uk.gov.pay.connector.cardtype.managed;
+
+import io.dropwizard.lifecycle.Managed;
+import io.dropwizard.setup.Environment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.pay.connector.app.CardTypeIndexConfig;
+import uk.gov.pay.connector.app.ConnectorConfiguration;
+import uk.gov.pay.connector.cardtype.service.CardTypeIndex;
+
+import javax.inject.Inject;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the {@link CardTypeIndex} at startup, before the application serves requests, and reloads it periodically, so
+ * card types added by a migration while the application is running are picked up.
+ */
+public class CardTypeIndexRefresher implements Managed {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CardTypeIndexRefresher.class);
+
+    private final CardTypeIndex cardTypeIndex;
+    private final CardTypeIndexConfig config;
+    private final ScheduledExecutorService executorService;
+
+    @Inject
+    public CardTypeIndexRefresher(CardTypeIndex cardTypeIndex, ConnectorConfiguration configuration, Environment environment) {
+        this.cardTypeIndex = cardTypeIndex;
+        this.config = configuration.getCardTypeIndexConfig();
+        this.executorService = environment
+                .lifecycle()
+                .scheduledExecutorService("card-type-index-refresher")
+                .threads(1)
+                .build();
+    }
+
+    @Override
+    public void start() {
+        cardTypeIndex.refresh();
+        executorService.scheduleWithFixedDelay(
+                this::refresh,
+                config.getRefreshInterval().toMilliseconds(),
+                config.getRefreshInterval().toMilliseconds(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        executorService.shutdown();
+    }
+
+    private void refresh() {
+        try {
+            cardTypeIndex.refresh();
+        } catch (Exception e) {
+            LOGGER.error("Failed to refresh card type index [message={}]", e.getMessage());
+        }
+    }
+}
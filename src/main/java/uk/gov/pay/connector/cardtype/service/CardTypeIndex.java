@@ -0,0 +1,114 @@
+package uk.gov.pay.connector.cardtype.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimaps;
+import com.google.common.hash.Hashing;
+import com.google.inject.persist.UnitOfWork;
+import io.dropwizard.setup.Environment;
+import uk.gov.pay.connector.cardtype.dao.CardTypeDao;
+import uk.gov.pay.connector.cardtype.model.domain.CardTypeEntity;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * An immutable in-memory copy of the card_types table, which only changes when seed data is migrated. It is loaded at
+ * startup by {@link uk.gov.pay.connector.cardtype.managed.CardTypeIndexRefresher}, before requests are served, and
+ * replaced as a whole on each refresh, so readers always see one consistent version.
+ * <p>
+ * Each refresh loads the card types in a unit of work of its own, which is closed before they are published, so the
+ * entities it holds are detached and shared between threads. They must not be attached to other entities; code that
+ * needs managed card types, such as setting the ones an account accepts, should still load them through
+ * {@link CardTypeDao}.
+ */
+@Singleton
+public class CardTypeIndex {
+
+    private static final String CARD_TYPES_FIELD_NAME = "card_types";
+
+    private final CardTypeDao cardTypeDao;
+    private final UnitOfWork unitOfWork;
+    private final ObjectMapper objectMapper;
+    private volatile Index index;
+
+    @Inject
+    public CardTypeIndex(CardTypeDao cardTypeDao, UnitOfWork unitOfWork, Environment environment) {
+        this(cardTypeDao, unitOfWork, environment.getObjectMapper());
+    }
+
+    public CardTypeIndex(CardTypeDao cardTypeDao, UnitOfWork unitOfWork, ObjectMapper objectMapper) {
+        this.cardTypeDao = cardTypeDao;
+        this.unitOfWork = unitOfWork;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Must not be called from a thread that is already in a unit of work, such as inside a {@code @Transactional}
+     * method.
+     */
+    public void refresh() {
+        List<CardTypeEntity> cardTypes;
+        unitOfWork.begin();
+        try {
+            cardTypes = cardTypeDao.findAll();
+        } finally {
+            unitOfWork.end();
+        }
+        try {
+            index = new Index(cardTypes, objectMapper.writeValueAsBytes(ImmutableMap.of(CARD_TYPES_FIELD_NAME, cardTypes)));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialise card types", e);
+        }
+    }
+
+    public boolean brandRequires3ds(String brand) {
+        return current().byBrand.get(brand).stream()
+                .anyMatch(CardTypeEntity::isRequires3ds);
+    }
+
+    public boolean contains(UUID id) {
+        return current().byId.containsKey(id);
+    }
+
+    /**
+     * The body of {@code GET /v1/api/card-types}.
+     */
+    public byte[] getJson() {
+        return current().json;
+    }
+
+    /**
+     * A strong entity tag for {@link #getJson()}, which changes only when the card types do.
+     */
+    public String getETag() {
+        return current().eTag;
+    }
+
+    private Index current() {
+        Index current = index;
+        if (current == null) {
+            throw new IllegalStateException("Card type index has not been loaded");
+        }
+        return current;
+    }
+
+    private static class Index {
+        private final ImmutableListMultimap<String, CardTypeEntity> byBrand;
+        private final ImmutableMap<UUID, CardTypeEntity> byId;
+        private final byte[] json;
+        private final String eTag;
+
+        private Index(List<CardTypeEntity> cardTypes, byte[] json) {
+            this.byBrand = Multimaps.index(cardTypes, CardTypeEntity::getBrand);
+            this.byId = Maps.uniqueIndex(cardTypes, CardTypeEntity::getId);
+            this.json = json;
+            this.eTag = Hashing.sha256().hashBytes(json).toString().substring(0, 32);
+        }
+    }
+}
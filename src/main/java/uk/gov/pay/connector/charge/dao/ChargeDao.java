@@ -3,13 +3,19 @@ package uk.gov.pay.connector.charge.dao;
 import com.google.inject.Provider;
 import com.google.inject.persist.Transactional;
 import org.apache.commons.lang3.StringUtils;
+import org.jooq.Field;
+import org.jooq.SelectSeekStep2;
+import org.jooq.impl.DSL;
 import uk.gov.pay.connector.charge.model.domain.ChargeEntity;
+import uk.gov.pay.connector.charge.model.domain.ChargeSearchResult;
 import uk.gov.pay.connector.common.dao.JpaDao;
 import uk.gov.pay.connector.charge.model.domain.ChargeStatus;
+import uk.gov.pay.connector.refund.model.domain.RefundStatus;
 
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
 import javax.persistence.Query;
+import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Path;
@@ -18,17 +24,30 @@ import javax.persistence.criteria.Root;
 import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
+import static java.util.stream.Collectors.toList;
+import static org.jooq.impl.DSL.field;
+import static org.jooq.impl.DSL.select;
+import static org.jooq.impl.DSL.selectDistinct;
+import static org.jooq.impl.DSL.table;
+import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.CAPTURED;
 import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.CAPTURE_APPROVED;
 import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.CAPTURE_APPROVED_RETRY;
+import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.CAPTURE_SUBMITTED;
+import static uk.gov.pay.connector.charge.util.RefundCalculator.REFUNDED_AMOUNT_STATUSES;
 
 @Transactional
 public class ChargeDao extends JpaDao<ChargeEntity> {
 
+    public static final String STATUS_CHANGE_CHANNEL = "charge_status_changes";
+
     private static final String STATUS = "status";
     private static final String CREATED_DATE = "createdDate";
+    private static final String ID = "id";
     private static final String GATEWAY_ACCOUNT = "gatewayAccount";
     private static final String CARD_DETAILS = "cardDetails";
     private static final String REFERENCE = "reference";
@@ -55,6 +74,18 @@ public class ChargeDao extends JpaDao<ChargeEntity> {
                 .getResultList().stream().findFirst();
     }
 
+    /**
+     * Tells every node listening on {@link #STATUS_CHANGE_CHANNEL} that the charge has changed. Postgres only delivers
+     * the notification once the current transaction commits.
+     */
+    public void publishStatusChange(String externalId) {
+        entityManager.get()
+                .createNativeQuery("SELECT pg_notify(?1, ?2)")
+                .setParameter(1, STATUS_CHANGE_CHANNEL)
+                .setParameter(2, externalId)
+                .getResultList();
+    }
+
     public Optional<ChargeEntity> findByTokenId(String tokenId) {
         String query = "SELECT te.chargeEntity FROM TokenEntity te WHERE te.token=:tokenId";
 
@@ -102,20 +133,24 @@ public class ChargeDao extends JpaDao<ChargeEntity> {
                 .setParameter("provider", provider).getResultList().stream().findFirst();
     }
 
-    public List<ChargeEntity> findBeforeDateWithStatusIn(ZonedDateTime date, List<ChargeStatus> statuses) {
-        SearchParams params = new SearchParams()
-                .withToDate(date)
-                .withInternalStates(statuses);
-        return findAllBy(params);
+    public List<ChargeEntity> findByProviderAndTransactionIds(String provider, Collection<String> transactionIds) {
+        if (transactionIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        String query = "SELECT c FROM ChargeEntity c " +
+                "WHERE c.gatewayTransactionId IN :gatewayTransactionIds " +
+                "AND c.gatewayAccount.gatewayName = :provider";
+
+        return entityManager.get()
+                .createQuery(query, ChargeEntity.class)
+                .setParameter("gatewayTransactionIds", transactionIds)
+                .setParameter("provider", provider).getResultList();
     }
 
-    public List<ChargeEntity> findByAccountBetweenDatesWithStatusIn(Long gatewayAccountId,
-                                                                    ZonedDateTime from, ZonedDateTime to,
-                                                                    List<ChargeStatus> statuses) {
+    public List<ChargeEntity> findBeforeDateWithStatusIn(ZonedDateTime date, List<ChargeStatus> statuses) {
         SearchParams params = new SearchParams()
-                .withGatewayAccountId(gatewayAccountId)
-                .withFromDate(from)
-                .withToDate(to)
+                .withToDate(date)
                 .withInternalStates(statuses);
         return findAllBy(params);
     }
@@ -125,20 +160,87 @@ public class ChargeDao extends JpaDao<ChargeEntity> {
         CriteriaQuery<ChargeEntity> cq = cb.createQuery(ChargeEntity.class);
         Root<ChargeEntity> charge = cq.from(ChargeEntity.class);
 
-        List<Predicate> predicates = buildParamPredicates(params, cb, charge);
-        cq.select(charge)
-                .where(predicates.toArray(new Predicate[]{}))
-                .orderBy(cb.desc(charge.get(CREATED_DATE)));
-        Query query = entityManager.get().createQuery(cq);
+        return pageOf(params, cb, cq.select(charge), charge).getResultList();
+    }
 
-        if (params.getPage() != null && params.getDisplaySize() != null) {
-            long displaySize = params.getDisplaySize();
-            long firstResult = (params.getPage() - 1) * displaySize; // page coming from params is 1 based, so -1
+    /**
+     * A page of charges matching a search, read as {@link ChargeSearchResult}s in two statements however long the page
+     * is: one for the IDs of the charges on the page, and one for everything shown about them. Fees and card brand
+     * labels are joined, refunds are summed in one grouped subquery and capture times are read from the charge events.
+     */
+    public List<ChargeSearchResult> findSearchResultsBy(SearchParams params) {
+        CriteriaBuilder cb = entityManager.get().getCriteriaBuilder();
+        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+        Root<ChargeEntity> charge = cq.from(ChargeEntity.class);
 
-            query.setFirstResult((int) firstResult);
-            query.setMaxResults((int) displaySize);
+        List<Long> chargeIds = pageOf(params, cb, cq.select(charge.get(ID)), charge).getResultList();
+        if (chargeIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        SelectSeekStep2 query = DSL
+                .select(field("c.id").as("charge_id"),
+                        field("c.external_id"),
+                        field("c.amount"),
+                        field("c.reference"),
+                        field("c.description"),
+                        field("c.status"),
+                        field("c.email"),
+                        field("c.gateway_account_id"),
+                        field("g.payment_provider"),
+                        field("c.gateway_transaction_id"),
+                        field("c.created_date"),
+                        field("c.return_url"),
+                        field("c.language"),
+                        field("c.delayed_capture"),
+                        field("c.corporate_surcharge"),
+                        field("c.wallet"),
+                        field("f.amount_collected").as("fee_amount"),
+                        field("c.external_metadata"),
+                        field("c.card_brand"),
+                        field("t.label").as("card_brand_label"),
+                        field("c.cardholder_name"),
+                        field("c.expiry_date"),
+                        field("c.last_digits_card_number"),
+                        field("c.first_digits_card_number"),
+                        field("c.address_line1"),
+                        field("c.address_line2"),
+                        field("c.address_postcode"),
+                        field("c.address_city"),
+                        field("c.address_county"),
+                        field("c.address_country"),
+                        field("(c.pa_request_3ds IS NOT NULL OR c.issuer_url_3ds IS NOT NULL"
+                                + " OR c.html_out_3ds IS NOT NULL OR c.md_3ds IS NOT NULL)").as("has_3ds_details"),
+                        field("c.pa_request_3ds"),
+                        field("c.issuer_url_3ds"),
+                        field("COALESCE(r.amount, 0)").as("refunded_amount"),
+                        latestChargeEventField("e.updated", CAPTURE_SUBMITTED).as("capture_submit_time"),
+                        // use updated for old CAPTURED events that do not have a generated time recorded
+                        latestChargeEventField("COALESCE(e.gateway_event_date, e.updated)", CAPTURED).as("captured_time"))
+                .from(table("charges").as("c")
+                        .join(table("gateway_accounts").as("g")).on("c.gateway_account_id = g.id")
+                        .leftJoin(table("fees").as("f")).on("c.id = f.charge_id")
+                        .leftJoin(selectDistinct(field("brand"), field("label")).on(field("brand")).from("card_types")
+                                .orderBy(field("brand"), field("label")).asTable("t"))
+                        .on("c.card_brand = t.brand")
+                        .leftJoin(select(field("charge_id"), field("CAST(SUM(amount) AS bigint)").as("amount"))
+                                .from("refunds")
+                                .where(field("charge_id").in(chargeIds))
+                                .and(field("status").in(REFUNDED_AMOUNT_STATUSES.stream().map(RefundStatus::getValue).collect(toList())))
+                                .groupBy(field("charge_id"))
+                                .asTable("r"))
+                        .on("c.id = r.charge_id"))
+                .where(field("c.id").in(chargeIds))
+                .orderBy(field("c.created_date").desc(), field("c.id").desc());
+
+        Query result = entityManager.get().createNativeQuery(query.getSQL(), "ChargeSearchResultMapping");
+
+        List<Object> values = query.getBindValues();
+        for (int i = 0; i < values.size(); i++) {
+            result.setParameter(i + 1, values.get(i));
         }
-        return query.getResultList();
+
+        return result.getResultList();
     }
 
     public Long getTotalFor(SearchParams params) {
@@ -152,6 +254,36 @@ public class ChargeDao extends JpaDao<ChargeEntity> {
         return entityManager.get().createQuery(cq).getSingleResult();
     }
 
+    private <T> TypedQuery<T> pageOf(SearchParams params, CriteriaBuilder cb, CriteriaQuery<T> cq, Root<ChargeEntity> charge) {
+        List<Predicate> predicates = buildParamPredicates(params, cb, charge);
+        if (params.isCursorPaging() && !params.getAfter().isStart()) {
+            predicates.add(seekPredicate(params.getAfter(), cb, charge));
+        }
+        cq.where(predicates.toArray(new Predicate[]{}))
+                .orderBy(cb.desc(charge.get(CREATED_DATE)), cb.desc(charge.get(ID)));
+        TypedQuery<T> query = entityManager.get().createQuery(cq);
+
+        if (params.isCursorPaging() && params.getDisplaySize() != null) {
+            query.setMaxResults(params.getDisplaySize().intValue());
+        } else if (params.getPage() != null && params.getDisplaySize() != null) {
+            long displaySize = params.getDisplaySize();
+            long firstResult = (params.getPage() - 1) * displaySize; // page coming from params is 1 based, so -1
+
+            query.setFirstResult((int) firstResult);
+            query.setMaxResults((int) displaySize);
+        }
+        return query;
+    }
+
+    /**
+     * The latest event of a charge with the given status, as {@link ChargeEntity#getCaptureSubmitTime()} and
+     * {@link ChargeEntity#getCapturedTime()} read it from the charge's events.
+     */
+    private Field<Object> latestChargeEventField(String column, ChargeStatus status) {
+        return field("(SELECT " + column + " FROM charge_events e"
+                + " WHERE e.charge_id = c.id AND e.status = ? ORDER BY e.updated DESC LIMIT 1)", status.getValue());
+    }
+
     private List<Predicate> buildParamPredicates(SearchParams params, CriteriaBuilder cb, Root<ChargeEntity> charge) {
         List<Predicate> predicates = new ArrayList<>();
         if (params.getCardHolderName() != null && StringUtils.isNotBlank(params.getCardHolderName().toString()))
@@ -179,6 +311,19 @@ public class ChargeDao extends JpaDao<ChargeEntity> {
         return predicates;
     }
 
+    /**
+     * Charges that sort after the cursor. The leading {@code created_date <=} bound is implied by the rest, but Postgres
+     * can only use it, not the OR, to start the scan of the (gateway_account_id, created_date, id) index at the cursor.
+     */
+    private Predicate seekPredicate(SearchCursor after, CriteriaBuilder cb, Root<ChargeEntity> charge) {
+        Path<ZonedDateTime> createdDate = charge.get(CREATED_DATE);
+        return cb.and(
+                cb.lessThanOrEqualTo(createdDate, after.getCreatedDate()),
+                cb.or(
+                        cb.lessThan(createdDate, after.getCreatedDate()),
+                        cb.and(cb.equal(createdDate, after.getCreatedDate()), cb.lessThan(charge.get(ID), after.getId()))));
+    }
+
     private Predicate likePredicate(CriteriaBuilder cb, Path<String> expression, String element) {
         String escapedReference = element
                 .replaceAll("\\\\", SQL_ESCAPE_SEQ + "\\\\")
@@ -0,0 +1,111 @@
+package uk.gov.pay.connector.charge.dao;
+
+import uk.gov.pay.connector.charge.model.domain.TransactionType;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+
+/**
+ * Position in a search ordered newest first, identifying the last result a client has seen so the next page can be
+ * found by seeking past it rather than counting rows from the start.
+ * <p>
+ * Charges are ordered by created date then ID. Transactions also include refunds, whose IDs come from another table,
+ * so they are ordered by created date, transaction type and then ID, and their cursors carry the type.
+ * <p>
+ * Clients see cursors as opaque strings from {@link #encode()}. The empty string is {@link #START}, the position
+ * before the first result.
+ */
+public class SearchCursor {
+
+    public static final SearchCursor START = new SearchCursor(null, null, null);
+
+    private static final String SEPARATOR = "|";
+
+    private final ZonedDateTime createdDate;
+    private final Long id;
+    private final TransactionType transactionType;
+
+    private SearchCursor(ZonedDateTime createdDate, Long id, TransactionType transactionType) {
+        this.createdDate = createdDate;
+        this.id = id;
+        this.transactionType = transactionType;
+    }
+
+    public static SearchCursor after(ZonedDateTime createdDate, long id) {
+        return new SearchCursor(createdDate.withZoneSameInstant(ZoneOffset.UTC), id, null);
+    }
+
+    public static SearchCursor after(ZonedDateTime createdDate, TransactionType transactionType, long id) {
+        return new SearchCursor(createdDate.withZoneSameInstant(ZoneOffset.UTC), id, transactionType);
+    }
+
+    public static Optional<SearchCursor> decode(String cursor) {
+        if (isEmpty(cursor)) {
+            return Optional.of(START);
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), UTF_8).split("\\" + SEPARATOR, -1);
+            if (parts.length < 2 || parts.length > 3) {
+                return Optional.empty();
+            }
+            ZonedDateTime createdDate = Instant.parse(parts[0]).atZone(ZoneOffset.UTC);
+            long id = Long.parseLong(parts[1]);
+            TransactionType transactionType = parts.length == 3 ? TransactionType.fromString(parts[2]) : null;
+            return Optional.of(new SearchCursor(createdDate, id, transactionType));
+        } catch (RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    public String encode() {
+        if (isStart()) {
+            return "";
+        }
+        String position = createdDate.toInstant() + SEPARATOR + id
+                + (transactionType == null ? "" : SEPARATOR + transactionType.getValue());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(UTF_8));
+    }
+
+    public boolean isStart() {
+        return createdDate == null;
+    }
+
+    public ZonedDateTime getCreatedDate() {
+        return createdDate;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Optional<TransactionType> getTransactionType() {
+        return Optional.ofNullable(transactionType);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SearchCursor that = (SearchCursor) o;
+        return Objects.equals(createdDate, that.createdDate) &&
+                Objects.equals(id, that.id) &&
+                transactionType == that.transactionType;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(createdDate, id, transactionType);
+    }
+
+    @Override
+    public String toString() {
+        return encode();
+    }
+}
@@ -36,6 +36,7 @@ public class SearchParams {
     private ZonedDateTime toDate;
     private Long page;
     private Long displaySize;
+    private SearchCursor after;
     private List<String> cardBrands = new ArrayList<>();
     private Set<ChargeStatus> internalStates = new HashSet<>();
     private Set<String> externalChargeStates = new HashSet<>();
@@ -237,6 +238,23 @@ public class SearchParams {
         return this;
     }
 
+    public SearchCursor getAfter() {
+        return after;
+    }
+
+    /**
+     * Pages by seeking past {@code after} instead of by page number, so a page deep into the results costs the same
+     * as the first. Page number is ignored while this is set.
+     */
+    public SearchParams withAfter(SearchCursor after) {
+        this.after = after;
+        return this;
+    }
+
+    public boolean isCursorPaging() {
+        return after != null;
+    }
+
     public List<String> getCardBrands() {
         return cardBrands;
     }
@@ -267,7 +285,9 @@ public class SearchParams {
             builder.append("&from_date=").append(fromDate);
         if (toDate != null)
             builder.append("&to_date=").append(toDate);
-        if (page != null)
+        if (after != null)
+            builder.append("&after=").append(after.encode());
+        else if (page != null)
             builder.append("&page=").append(page);
         if (displaySize != null)
             builder.append("&display_size=").append(displaySize);
@@ -298,6 +318,39 @@ public class SearchParams {
         return builder.toString().replaceFirst("&", "");
     }
 
+    /**
+     * The filters of this search in a canonical form, leaving out paging, for caching what depends only on which rows
+     * match. Text filters are matched case-insensitively, so they are lower-cased, and dates are compared as instants.
+     */
+    public String buildFilterKey() {
+        List<String> filters = new ArrayList<>();
+        filters.add("gateway_account_id=" + gatewayAccountId);
+        filters.add("transaction_type=" + transactionSearchStrategyTransactionType);
+        filters.add("reference=" + lowerCase(reference));
+        filters.add("email=" + lowerCase(email));
+        filters.add("cardholder_name=" + lowerCase(cardHolderName));
+        filters.add("first_digits_card_number=" + firstDigitsCardNumber);
+        filters.add("last_digits_card_number=" + lastDigitsCardNumber);
+        filters.add("from_date=" + (fromDate == null ? null : fromDate.toInstant()));
+        filters.add("to_date=" + (toDate == null ? null : toDate.toInstant()));
+        filters.add("card_brands=" + sorted(cardBrands));
+        filters.add("states=" + sorted(internalStates));
+        filters.add("charge_statuses=" + sorted(internalChargeStatuses));
+        filters.add("refund_statuses=" + sorted(internalRefundStatuses));
+        return String.join("&", filters);
+    }
+
+    private static String lowerCase(Object value) {
+        return value == null ? null : value.toString().toLowerCase();
+    }
+
+    private static String sorted(Collection<?> values) {
+        return values.stream()
+                .map(String::valueOf)
+                .sorted()
+                .collect(Collectors.joining(","));
+    }
+
     private List<ExternalChargeState> parseChargeState(String state) {
         if (isBlank(state)) {
             return new ArrayList<>();
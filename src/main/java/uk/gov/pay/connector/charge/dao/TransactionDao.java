@@ -1,5 +1,7 @@
 package uk.gov.pay.connector.charge.dao;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.google.inject.persist.Transactional;
@@ -7,8 +9,11 @@ import org.jooq.Condition;
 import org.jooq.SelectConditionStep;
 import org.jooq.SelectJoinStep;
 import org.jooq.SelectOrderByStep;
-import org.jooq.SelectSeekStep1;
+import org.jooq.SelectSeekStep3;
 import org.jooq.impl.DSL;
+import org.postgresql.util.PGobject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import uk.gov.pay.connector.charge.model.LastDigitsCardNumberConverter;
 import uk.gov.pay.connector.charge.model.TransactionSearchStrategyTransactionType;
 import uk.gov.pay.connector.charge.model.domain.ChargeStatus;
@@ -18,9 +23,18 @@ import uk.gov.pay.connector.common.model.domain.UTCDateTimeConverter;
 import uk.gov.pay.connector.refund.model.domain.RefundStatus;
 
 import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
 import javax.persistence.Query;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
@@ -33,55 +47,30 @@ import static org.jooq.impl.DSL.table;
 @Transactional
 public class TransactionDao {
 
+    private static final Logger logger = LoggerFactory.getLogger(TransactionDao.class);
+
     private enum QueryType {SELECT, COUNT}
 
     private final Provider<EntityManager> entityManager;
     private final UTCDateTimeConverter utcDateTimeConverter;
     private final LastDigitsCardNumberConverter lastDigitsCardNumberConverter;
+    private final ObjectMapper objectMapper;
 
     @Inject
-    public TransactionDao(Provider<EntityManager> entityManager, UTCDateTimeConverter utcDateTimeConverter, LastDigitsCardNumberConverter lastDigitsCardNumberConverter) {
+    public TransactionDao(Provider<EntityManager> entityManager, UTCDateTimeConverter utcDateTimeConverter, LastDigitsCardNumberConverter lastDigitsCardNumberConverter,
+                          ObjectMapper objectMapper) {
         this.entityManager = entityManager;
         this.utcDateTimeConverter = utcDateTimeConverter;
         this.lastDigitsCardNumberConverter = lastDigitsCardNumberConverter;
+        this.objectMapper = objectMapper;
     }
 
     public List<Transaction> findAllBy(Long gatewayAccountId, SearchParams params) {
-        SelectSeekStep1 query = DSL
-                .select(field("transaction_type"),
-                        field("charge_id"),
-                        field("external_id"),
-                        field("reference"),
-                        field("description"),
-                        field("status"),
-                        field("email"),
-                        field("gateway_account_id"),
-                        field("gateway_transaction_id"),
-                        field("date_created"),
-                        field("card_brand"),
-                        field("card_brand_label"),
-                        field("cardholder_name"),
-                        field("expiry_date"),
-                        field("last_digits_card_number"),
-                        field("first_digits_card_number"),
-                        field("user_external_id"),
-                        field("address_city"),
-                        field("address_country"),
-                        field("address_county"),
-                        field("address_line1"),
-                        field("address_line2"),
-                        field("address_postcode"),
-                        field("amount"),
-                        field("language"),
-                        field("delayed_capture"),
-                        field("corporate_surcharge"),
-                        field("wallet"),
-                        field("fee_amount"),
-                        field("external_metadata"))
-                .from(buildQueryFor(gatewayAccountId, QueryType.SELECT, params))
-                .orderBy(field("date_created").desc());
+        SelectSeekStep3 query = selectTransactions(gatewayAccountId, params);
 
-        if (params.getPage() != null && params.getDisplaySize() != null) {
+        if (params.isCursorPaging() && params.getDisplaySize() != null) {
+            query.limit(params.getDisplaySize().intValue());
+        } else if (params.getPage() != null && params.getDisplaySize() != null) {
             int offset = Long.valueOf((params.getPage() - 1) * params.getDisplaySize()).intValue();
             int limit = params.getDisplaySize().intValue();
 
@@ -101,6 +90,33 @@ public class TransactionDao {
         return result.getResultList();
     }
 
+    /**
+     * Passes every transaction matching a search to {@code consumer}, newest first, without holding them all in memory.
+     * Rows are read through a database cursor {@code fetchSize} at a time, which Postgres only uses inside a
+     * transaction, so the whole search runs in one.
+     */
+    public void streamAllBy(Long gatewayAccountId, SearchParams params, int fetchSize, Consumer<Transaction> consumer) {
+        SelectSeekStep3 query = selectTransactions(gatewayAccountId, params);
+
+        Connection connection = entityManager.get().unwrap(Connection.class);
+        try (PreparedStatement statement = connection.prepareStatement(query.getSQL(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            statement.setFetchSize(fetchSize);
+
+            List<Object> values = query.getBindValues();
+            for (int i = 0; i < values.size(); i++) {
+                statement.setObject(i + 1, values.get(i));
+            }
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    consumer.accept(toTransaction(resultSet));
+                }
+            }
+        } catch (SQLException e) {
+            throw new PersistenceException("Could not read transactions for gateway account " + gatewayAccountId, e);
+        }
+    }
+
     public Long getTotalFor(Long gatewayAccountId, SearchParams params) {
         SelectJoinStep query = DSL
                 .select(count())
@@ -118,6 +134,106 @@ public class TransactionDao {
         return (long) result.getSingleResult();
     }
 
+    /**
+     * The query planner's estimate of the rows matching a search, read from {@code EXPLAIN} without running the query.
+     * It comes from table statistics, so it can be some way off, and is empty if the plan cannot be read.
+     */
+    public Optional<Long> estimateTotalFor(Long gatewayAccountId, SearchParams params) {
+        SelectOrderByStep query = buildQueryFor(gatewayAccountId, QueryType.COUNT, params);
+
+        Query result = entityManager.get().createNativeQuery("EXPLAIN (FORMAT JSON) " + query.getSQL());
+
+        List<Object> values = query.getBindValues();
+        for (int i = 0; i < values.size(); i++) {
+            result.setParameter(i + 1, values.get(i));
+        }
+
+        Object plan = result.getSingleResult();
+        try {
+            JsonNode planRows = objectMapper.readTree(plan instanceof PGobject ? ((PGobject) plan).getValue() : plan.toString())
+                    .path(0).path("Plan").path("Plan Rows");
+            return planRows.isNumber() ? Optional.of(planRows.asLong()) : Optional.empty();
+        } catch (IOException e) {
+            logger.warn("Could not read the query plan of a transaction search: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private SelectSeekStep3 selectTransactions(Long gatewayAccountId, SearchParams params) {
+        return DSL
+                .select(field("transaction_type"),
+                        field("charge_id"),
+                        field("transaction_id"),
+                        field("external_id"),
+                        field("reference"),
+                        field("description"),
+                        field("status"),
+                        field("email"),
+                        field("gateway_account_id"),
+                        field("gateway_transaction_id"),
+                        field("date_created"),
+                        field("card_brand"),
+                        field("card_brand_label"),
+                        field("cardholder_name"),
+                        field("expiry_date"),
+                        field("last_digits_card_number"),
+                        field("first_digits_card_number"),
+                        field("user_external_id"),
+                        field("address_city"),
+                        field("address_country"),
+                        field("address_county"),
+                        field("address_line1"),
+                        field("address_line2"),
+                        field("address_postcode"),
+                        field("amount"),
+                        field("language"),
+                        field("delayed_capture"),
+                        field("corporate_surcharge"),
+                        field("wallet"),
+                        field("fee_amount"),
+                        field("external_metadata"))
+                .from(buildQueryFor(gatewayAccountId, QueryType.SELECT, params))
+                .orderBy(field("date_created").desc(), field("transaction_type").desc(), field("transaction_id").desc());
+    }
+
+    /**
+     * Same mapping as the {@code TransactionMapping} result set mapping on {@link Transaction}.
+     */
+    private Transaction toTransaction(ResultSet resultSet) throws SQLException {
+        return new Transaction(
+                resultSet.getString("transaction_type"),
+                resultSet.getLong("charge_id"),
+                resultSet.getLong("transaction_id"),
+                resultSet.getString("external_id"),
+                resultSet.getString("reference"),
+                resultSet.getString("description"),
+                resultSet.getString("status"),
+                resultSet.getString("email"),
+                resultSet.getLong("gateway_account_id"),
+                resultSet.getString("gateway_transaction_id"),
+                resultSet.getTimestamp("date_created"),
+                resultSet.getString("card_brand"),
+                resultSet.getString("card_brand_label"),
+                resultSet.getString("cardholder_name"),
+                resultSet.getString("expiry_date"),
+                resultSet.getString("last_digits_card_number"),
+                resultSet.getString("first_digits_card_number"),
+                resultSet.getString("user_external_id"),
+                resultSet.getString("address_city"),
+                resultSet.getString("address_country"),
+                resultSet.getString("address_county"),
+                resultSet.getString("address_line1"),
+                resultSet.getString("address_line2"),
+                resultSet.getString("address_postcode"),
+                resultSet.getLong("amount"),
+                resultSet.getString("language"),
+                resultSet.getBoolean("delayed_capture"),
+                resultSet.getObject("corporate_surcharge", Long.class),
+                resultSet.getString("wallet"),
+                resultSet.getObject("fee_amount", Long.class),
+                (PGobject) resultSet.getObject("external_metadata"));
+    }
+
     private SelectOrderByStep buildQueryFor(Long gatewayAccountId, QueryType queryType, SearchParams params) {
         Condition queryFilters = field("c.gateway_account_id").eq(gatewayAccountId);
 
@@ -176,6 +292,12 @@ public class TransactionDao {
             queryFiltersForRefunds = queryFiltersForRefunds.and(
                     field("r.created_date").lessThan(utcDateTimeConverter.convertToDatabaseColumn(params.getToDate())));
         }
+        if (params.isCursorPaging() && !params.getAfter().isStart()) {
+            queryFiltersForCharges = queryFiltersForCharges.and(
+                    seekCondition(params.getAfter(), TransactionType.CHARGE, "c.created_date", "c.id"));
+            queryFiltersForRefunds = queryFiltersForRefunds.and(
+                    seekCondition(params.getAfter(), TransactionType.REFUND, "r.created_date", "r.id"));
+        }
         if (params.getExternalChargeStates() != null && !params.getExternalChargeStates().isEmpty()) {
             queryFiltersForCharges = queryFiltersForCharges.and(
                     field("c.status").in(mapChargeStatuses(params.getInternalChargeStatuses())));
@@ -188,6 +310,7 @@ public class TransactionDao {
         SelectConditionStep queryForCharges = DSL.select(
                 field("'" + TransactionType.CHARGE + "'").as("transaction_type"),
                 field("c.id").as("charge_id"),
+                field("c.id").as("transaction_id"),
                 field("c.external_id"),
                 field("c.reference"),
                 field("c.description"),
@@ -224,6 +347,7 @@ public class TransactionDao {
         SelectConditionStep queryForRefunds = DSL.select(
                 field("'" + TransactionType.REFUND + "'").as("transaction_type"),
                 field("c.id").as("charge_id"),
+                field("r.id").as("transaction_id"),
                 field("c.external_id"),
                 field("c.reference"),
                 field("c.description"),
@@ -259,10 +383,13 @@ public class TransactionDao {
                 .where(queryFiltersForRefunds);
 
         if (queryType == QueryType.SELECT) {
-            queryForCharges.orderBy(field("c.created_date").desc());
-            queryForRefunds.orderBy(field("r.created_date").desc());
+            queryForCharges.orderBy(field("c.created_date").desc(), field("c.id").desc());
+            queryForRefunds.orderBy(field("r.created_date").desc(), field("r.id").desc());
 
-            if (params.getPage() != null && params.getDisplaySize() != null) {
+            if (params.isCursorPaging() && params.getDisplaySize() != null) {
+                queryForCharges.limit(params.getDisplaySize().intValue());
+                queryForRefunds.limit(params.getDisplaySize().intValue());
+            } else if (params.getPage() != null && params.getDisplaySize() != null) {
                 int offset = Long.valueOf((params.getPage() - 1) * params.getDisplaySize()).intValue();
                 int limit = params.getDisplaySize().intValue();
 
@@ -274,6 +401,27 @@ public class TransactionDao {
         return queryForCharges.unionAll(queryForRefunds);
     }
 
+    /**
+     * Rows of one transaction type that sort after the cursor. Transactions are ordered by created date, transaction
+     * type and ID, all descending; the type is constant within each half of the union, so its part of the comparison
+     * is made here rather than in SQL. A cursor without a type came from a charge search and points at a charge.
+     * The {@code created_date <=} bound repeats part of the comparison so that it can be used as an index condition.
+     */
+    private Condition seekCondition(SearchCursor after, TransactionType rowType, String createdDateColumn, String idColumn) {
+        Timestamp createdDate = utcDateTimeConverter.convertToDatabaseColumn(after.getCreatedDate());
+        int typeComparison = rowType.getValue().compareTo(after.getTransactionType().orElse(TransactionType.CHARGE).getValue());
+
+        if (typeComparison < 0) {
+            return field(createdDateColumn).lessOrEqual(createdDate);
+        }
+        if (typeComparison > 0) {
+            return field(createdDateColumn).lessThan(createdDate);
+        }
+        return field(createdDateColumn).lessOrEqual(createdDate)
+                .and(field(createdDateColumn).lessThan(createdDate)
+                        .or(field(createdDateColumn).eq(createdDate).and(field(idColumn).lessThan(after.getId()))));
+    }
+
     private String buildLikeClauseContaining(String textToFind) {
         String escapedLikeClause = textToFind
                 .replaceAll("\\\\", "\\\\\\\\")
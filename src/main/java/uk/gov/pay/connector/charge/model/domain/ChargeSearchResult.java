@@ -0,0 +1,323 @@
+package uk.gov.pay.connector.charge.model.domain;
+
+import org.eclipse.persistence.annotations.ReadOnly;
+import org.postgresql.util.PGobject;
+import uk.gov.pay.commons.model.SupportedLanguage;
+import uk.gov.pay.commons.model.charge.ExternalMetadata;
+import uk.gov.pay.connector.charge.model.FirstDigitsCardNumber;
+import uk.gov.pay.connector.charge.model.FirstDigitsCardNumberConverter;
+import uk.gov.pay.connector.charge.model.LastDigitsCardNumber;
+import uk.gov.pay.connector.charge.model.LastDigitsCardNumberConverter;
+import uk.gov.pay.connector.charge.model.ServicePaymentReference;
+import uk.gov.pay.connector.charge.util.ExternalMetadataConverter;
+import uk.gov.pay.connector.common.model.domain.Address;
+import uk.gov.pay.connector.common.model.domain.UTCDateTimeConverter;
+import uk.gov.pay.connector.wallets.WalletType;
+
+import javax.persistence.ColumnResult;
+import javax.persistence.ConstructorResult;
+import javax.persistence.Convert;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.SqlResultSetMapping;
+import java.sql.Timestamp;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * A charge as shown in search results, read with the columns a {@code ChargeResponse} needs rather than as a
+ * {@link ChargeEntity}, so that a page of results does not load each charge's fee, refunds and events one by one.
+ */
+@SqlResultSetMapping(
+        name = "ChargeSearchResultMapping",
+        classes = @ConstructorResult(
+                targetClass = ChargeSearchResult.class,
+                columns = {
+                        @ColumnResult(name = "charge_id", type = Long.class),
+                        @ColumnResult(name = "external_id", type = String.class),
+                        @ColumnResult(name = "amount", type = Long.class),
+                        @ColumnResult(name = "reference", type = String.class),
+                        @ColumnResult(name = "description", type = String.class),
+                        @ColumnResult(name = "status", type = String.class),
+                        @ColumnResult(name = "email", type = String.class),
+                        @ColumnResult(name = "gateway_account_id", type = Long.class),
+                        @ColumnResult(name = "payment_provider", type = String.class),
+                        @ColumnResult(name = "gateway_transaction_id", type = String.class),
+                        @ColumnResult(name = "created_date", type = Timestamp.class),
+                        @ColumnResult(name = "return_url", type = String.class),
+                        @ColumnResult(name = "language", type = String.class),
+                        @ColumnResult(name = "delayed_capture", type = Boolean.class),
+                        @ColumnResult(name = "corporate_surcharge", type = Long.class),
+                        @ColumnResult(name = "wallet", type = String.class),
+                        @ColumnResult(name = "fee_amount", type = Long.class),
+                        @ColumnResult(name = "external_metadata", type = PGobject.class),
+                        @ColumnResult(name = "card_brand", type = String.class),
+                        @ColumnResult(name = "card_brand_label", type = String.class),
+                        @ColumnResult(name = "cardholder_name", type = String.class),
+                        @ColumnResult(name = "expiry_date", type = String.class),
+                        @ColumnResult(name = "last_digits_card_number", type = String.class),
+                        @ColumnResult(name = "first_digits_card_number", type = String.class),
+                        @ColumnResult(name = "address_line1", type = String.class),
+                        @ColumnResult(name = "address_line2", type = String.class),
+                        @ColumnResult(name = "address_postcode", type = String.class),
+                        @ColumnResult(name = "address_city", type = String.class),
+                        @ColumnResult(name = "address_county", type = String.class),
+                        @ColumnResult(name = "address_country", type = String.class),
+                        @ColumnResult(name = "has_3ds_details", type = Boolean.class),
+                        @ColumnResult(name = "pa_request_3ds", type = String.class),
+                        @ColumnResult(name = "issuer_url_3ds", type = String.class),
+                        @ColumnResult(name = "refunded_amount", type = Long.class),
+                        @ColumnResult(name = "capture_submit_time", type = Timestamp.class),
+                        @ColumnResult(name = "captured_time", type = Timestamp.class)
+                }))
+@Entity
+@ReadOnly
+public class ChargeSearchResult implements Nettable {
+
+    @Id
+    private Long chargeId;
+    private String externalId;
+    private long amount;
+    private String reference;
+    private String description;
+    private String status;
+    private String email;
+    private long gatewayAccountId;
+    private String paymentProvider;
+    private String gatewayTransactionId;
+    private ZonedDateTime createdDate;
+    private String returnUrl;
+    private SupportedLanguage language;
+    private boolean delayedCapture;
+    private Long corporateSurcharge;
+    private WalletType walletType;
+    private Long feeAmount;
+    @Convert(converter = ExternalMetadataConverter.class)
+    private ExternalMetadata externalMetadata;
+    private String cardBrand;
+    private String cardBrandLabel;
+    private String cardHolderName;
+    private String expiryDate;
+    @Convert(converter = LastDigitsCardNumberConverter.class)
+    private LastDigitsCardNumber lastDigitsCardNumber;
+    @Convert(converter = FirstDigitsCardNumberConverter.class)
+    private FirstDigitsCardNumber firstDigitsCardNumber;
+    private String addressLine1;
+    private String addressLine2;
+    private String addressPostcode;
+    private String addressCity;
+    private String addressCounty;
+    private String addressCountry;
+    private boolean has3dsDetails;
+    private String paRequest3ds;
+    private String issuerUrl3ds;
+    private long refundedAmount;
+    private ZonedDateTime captureSubmitTime;
+    private ZonedDateTime capturedTime;
+
+    public ChargeSearchResult() {
+    }
+
+    public ChargeSearchResult(long chargeId,
+                              String externalId,
+                              long amount,
+                              String reference,
+                              String description,
+                              String status,
+                              String email,
+                              long gatewayAccountId,
+                              String paymentProvider,
+                              String gatewayTransactionId,
+                              Timestamp createdDate,
+                              String returnUrl,
+                              String language,
+                              boolean delayedCapture,
+                              Long corporateSurcharge,
+                              String walletType,
+                              Long feeAmount,
+                              PGobject externalMetadata,
+                              String cardBrand,
+                              String cardBrandLabel,
+                              String cardHolderName,
+                              String expiryDate,
+                              String lastDigitsCardNumber,
+                              String firstDigitsCardNumber,
+                              String addressLine1,
+                              String addressLine2,
+                              String addressPostcode,
+                              String addressCity,
+                              String addressCounty,
+                              String addressCountry,
+                              boolean has3dsDetails,
+                              String paRequest3ds,
+                              String issuerUrl3ds,
+                              long refundedAmount,
+                              Timestamp captureSubmitTime,
+                              Timestamp capturedTime) {
+        UTCDateTimeConverter utcDateTimeConverter = new UTCDateTimeConverter();
+        this.chargeId = chargeId;
+        this.externalId = externalId;
+        this.amount = amount;
+        this.reference = reference;
+        this.description = description;
+        this.status = status;
+        this.email = email;
+        this.gatewayAccountId = gatewayAccountId;
+        this.paymentProvider = paymentProvider;
+        this.gatewayTransactionId = gatewayTransactionId;
+        this.createdDate = utcDateTimeConverter.convertToEntityAttribute(createdDate);
+        this.returnUrl = returnUrl;
+        this.language = SupportedLanguage.fromIso639AlphaTwoCode(language);
+        this.delayedCapture = delayedCapture;
+        this.corporateSurcharge = corporateSurcharge;
+        this.walletType = walletType == null ? null : WalletType.valueOf(walletType);
+        this.feeAmount = feeAmount;
+        this.externalMetadata = new ExternalMetadataConverter().convertToEntityAttribute(externalMetadata);
+        this.cardBrand = cardBrand;
+        this.cardBrandLabel = cardBrandLabel;
+        this.cardHolderName = cardHolderName;
+        this.expiryDate = expiryDate;
+        this.lastDigitsCardNumber = new LastDigitsCardNumberConverter().convertToEntityAttribute(lastDigitsCardNumber);
+        this.firstDigitsCardNumber = new FirstDigitsCardNumberConverter().convertToEntityAttribute(firstDigitsCardNumber);
+        this.addressLine1 = addressLine1;
+        this.addressLine2 = addressLine2;
+        this.addressPostcode = addressPostcode;
+        this.addressCity = addressCity;
+        this.addressCounty = addressCounty;
+        this.addressCountry = addressCountry;
+        this.has3dsDetails = has3dsDetails;
+        this.paRequest3ds = paRequest3ds;
+        this.issuerUrl3ds = issuerUrl3ds;
+        this.refundedAmount = refundedAmount;
+        this.captureSubmitTime = utcDateTimeConverter.convertToEntityAttribute(captureSubmitTime);
+        this.capturedTime = utcDateTimeConverter.convertToEntityAttribute(capturedTime);
+    }
+
+    public Long getChargeId() {
+        return chargeId;
+    }
+
+    public String getExternalId() {
+        return externalId;
+    }
+
+    @Override
+    public Long getAmount() {
+        return amount;
+    }
+
+    public ServicePaymentReference getReference() {
+        return ServicePaymentReference.of(reference);
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public long getGatewayAccountId() {
+        return gatewayAccountId;
+    }
+
+    public String getPaymentProvider() {
+        return paymentProvider;
+    }
+
+    public String getGatewayTransactionId() {
+        return gatewayTransactionId;
+    }
+
+    public ZonedDateTime getCreatedDate() {
+        return createdDate;
+    }
+
+    public String getReturnUrl() {
+        return returnUrl;
+    }
+
+    public SupportedLanguage getLanguage() {
+        return language;
+    }
+
+    public boolean isDelayedCapture() {
+        return delayedCapture;
+    }
+
+    @Override
+    public Optional<Long> getCorporateSurcharge() {
+        return Optional.ofNullable(corporateSurcharge);
+    }
+
+    public WalletType getWalletType() {
+        return walletType;
+    }
+
+    @Override
+    public Optional<Long> getFeeAmount() {
+        return Optional.ofNullable(feeAmount);
+    }
+
+    public Optional<ExternalMetadata> getExternalMetadata() {
+        return Optional.ofNullable(externalMetadata);
+    }
+
+    /**
+     * Card details as a {@link ChargeEntity} would have them: absent when none of the card columns are set, and with
+     * the label of the card brand in place of the brand.
+     */
+    public Optional<PersistedCard> getCardDetails() {
+        boolean hasBillingAddress = Stream.of(addressLine1, addressLine2, addressPostcode, addressCity, addressCounty, addressCountry)
+                .anyMatch(Objects::nonNull);
+        if (!hasBillingAddress && Stream.of(cardBrand, cardHolderName, expiryDate, lastDigitsCardNumber, firstDigitsCardNumber)
+                .allMatch(Objects::isNull)) {
+            return Optional.empty();
+        }
+
+        PersistedCard card = new PersistedCard();
+        card.setLastDigitsCardNumber(lastDigitsCardNumber);
+        card.setFirstDigitsCardNumber(firstDigitsCardNumber);
+        card.setCardBrand(cardBrand == null || cardBrandLabel == null ? "" : cardBrandLabel);
+        card.setBillingAddress(hasBillingAddress
+                ? new Address(addressLine1, addressLine2, addressPostcode, addressCity, addressCounty, addressCountry)
+                : null);
+        card.setExpiryDate(expiryDate);
+        card.setCardHolderName(cardHolderName);
+        return Optional.of(card);
+    }
+
+    public boolean has3dsDetails() {
+        return has3dsDetails;
+    }
+
+    public String getPaRequest3ds() {
+        return paRequest3ds;
+    }
+
+    public String getIssuerUrl3ds() {
+        return issuerUrl3ds;
+    }
+
+    /**
+     * Total of the charge's refunds that have not failed.
+     */
+    public long getRefundedAmount() {
+        return refundedAmount;
+    }
+
+    public ZonedDateTime getCaptureSubmitTime() {
+        return captureSubmitTime;
+    }
+
+    public ZonedDateTime getCapturedTime() {
+        return capturedTime;
+    }
+}
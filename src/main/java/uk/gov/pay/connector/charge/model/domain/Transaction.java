@@ -30,6 +30,7 @@ import java.util.Optional;
                 columns = {
                         @ColumnResult(name = "transaction_type", type = String.class),
                         @ColumnResult(name = "charge_id", type = Long.class),
+                        @ColumnResult(name = "transaction_id", type = Long.class),
                         @ColumnResult(name = "external_id", type = String.class),
                         @ColumnResult(name = "reference", type = String.class),
                         @ColumnResult(name = "description", type = String.class),
@@ -65,6 +66,7 @@ public class Transaction implements Nettable {
 
     @Id
     private Long chargeId;
+    private Long transactionId;
     private String externalId;
     private String reference;
     private String description;
@@ -105,6 +107,7 @@ public class Transaction implements Nettable {
 
     public Transaction(String transactionType,
                        long chargeId,
+                       long transactionId,
                        String externalId,
                        String reference,
                        String description,
@@ -134,6 +137,7 @@ public class Transaction implements Nettable {
                        Long feeAmount,
                        PGobject externalMetadata) {
         this.chargeId = chargeId;
+        this.transactionId = transactionId;
         this.externalId = externalId;
         this.reference = reference;
         this.description = description;
@@ -169,6 +173,13 @@ public class Transaction implements Nettable {
         return chargeId;
     }
 
+    /**
+     * ID of the charge or refund row this transaction was read from.
+     */
+    public Long getTransactionId() {
+        return transactionId;
+    }
+
     public String getExternalId() {
         return externalId;
     }
@@ -5,9 +5,11 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
+import org.glassfish.jersey.server.CloseableService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.gov.pay.connector.app.ConnectorConfiguration;
+import uk.gov.pay.connector.charge.dao.SearchCursor;
 import uk.gov.pay.connector.charge.dao.SearchParams;
 import uk.gov.pay.connector.charge.model.CardHolderName;
 import uk.gov.pay.connector.charge.model.ChargeCreateRequest;
@@ -17,6 +19,7 @@ import uk.gov.pay.connector.charge.model.ServicePaymentReference;
 import uk.gov.pay.connector.charge.service.ChargeExpiryService;
 import uk.gov.pay.connector.charge.service.ChargeService;
 import uk.gov.pay.connector.charge.service.SearchService;
+import uk.gov.pay.connector.charge.service.TransactionExportService;
 import uk.gov.pay.connector.common.model.CommaDelimitedSetParameter;
 import uk.gov.pay.connector.common.validator.ApiValidators;
 import uk.gov.pay.connector.gatewayaccount.dao.GatewayAccountDao;
@@ -25,6 +28,7 @@ import uk.gov.pay.connector.util.ResponseUtil;
 import javax.inject.Inject;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
@@ -39,6 +43,7 @@ import java.time.ZonedDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import static java.lang.String.format;
@@ -48,10 +53,12 @@ import static org.apache.commons.lang3.StringUtils.isNotBlank;
 import static uk.gov.pay.connector.charge.model.TransactionSearchStrategyTransactionType.inferTransactionTypeFrom;
 import static uk.gov.pay.connector.charge.service.SearchService.TYPE.CHARGE;
 import static uk.gov.pay.connector.charge.service.SearchService.TYPE.TRANSACTION;
+import static uk.gov.pay.connector.util.ResponseUtil.badRequestResponse;
 import static uk.gov.pay.connector.util.ResponseUtil.notFoundResponse;
 import static uk.gov.pay.connector.util.ResponseUtil.responseWithChargeNotFound;
 import static uk.gov.pay.connector.util.ResponseUtil.responseWithGatewayTransactionNotFound;
 import static uk.gov.pay.connector.util.ResponseUtil.successResponseWithEntity;
+import static uk.gov.pay.connector.util.ResponseUtil.tooManyRequestsResponse;
 
 @Path("/")
 public class ChargesApiResource {
@@ -78,6 +85,8 @@ public class ChargesApiResource {
     private static final String ACCOUNT_ID = "accountId";
     private static final String PAGE = "page";
     private static final String DISPLAY_SIZE = "display_size";
+    private static final String AFTER = "after";
+    private static final String FORMAT = "format";
     private static final Logger logger = LoggerFactory.getLogger(ChargesApiResource.class);
     public static final int MIN_AMOUNT = 1;
     public static final int MAX_AMOUNT = 10_000_000;
@@ -86,16 +95,19 @@ public class ChargesApiResource {
     private final ConnectorConfiguration configuration;
     private final ChargeExpiryService chargeExpiryService;
     private SearchService searchService;
+    private final TransactionExportService transactionExportService;
 
     @Inject
     public ChargesApiResource(GatewayAccountDao gatewayAccountDao,
                               ChargeService chargeService, SearchService searchService,
-                              ChargeExpiryService chargeExpiryService, ConnectorConfiguration configuration) {
+                              ChargeExpiryService chargeExpiryService, ConnectorConfiguration configuration,
+                              TransactionExportService transactionExportService) {
         this.gatewayAccountDao = gatewayAccountDao;
         this.chargeService = chargeService;
         this.searchService = searchService;
         this.chargeExpiryService = chargeExpiryService;
         this.configuration = configuration;
+        this.transactionExportService = transactionExportService;
     }
 
 
@@ -126,16 +138,18 @@ public class ChargesApiResource {
                                    @QueryParam(TO_DATE_KEY) String toDate,
                                    @QueryParam(PAGE) Long pageNumber,
                                    @QueryParam(DISPLAY_SIZE) Long displaySize,
+                                   @QueryParam(AFTER) String after,
                                    @HeaderParam("features") CommaDelimitedSetParameter features,
                                    @Context UriInfo uriInfo) {
 
         List<Pair<String, String>> inputDatePairMap = ImmutableList.of(Pair.of(FROM_DATE_KEY, fromDate), Pair.of(TO_DATE_KEY, toDate));
         List<Pair<String, Long>> nonNegativePairMap = ImmutableList.of(Pair.of(PAGE, pageNumber), Pair.of(DISPLAY_SIZE, displaySize));
+        List<Pair<String, String>> cursorPairMap = Collections.singletonList(Pair.of(AFTER, after));
 
         boolean isFeatureTransactionsEnabled = features != null && features.has("REFUNDS_IN_TX_LIST");
 
         return ApiValidators
-                .validateQueryParams(inputDatePairMap, nonNegativePairMap) //TODO - improvement, get the entire searchparam object into the validateQueryParams
+                .validateQueryParams(inputDatePairMap, nonNegativePairMap, cursorPairMap) //TODO - improvement, get the entire searchparam object into the validateQueryParams
                 .map(ResponseUtil::badRequestResponse)
                 .orElseGet(() -> {
                     SearchParams searchParams = new SearchParams()
@@ -149,7 +163,8 @@ public class ChargesApiResource {
                             .withFromDate(parseDate(fromDate))
                             .withToDate(parseDate(toDate))
                             .withDisplaySize(displaySize != null ? displaySize : configuration.getTransactionsPaginationConfig().getDisplayPageSize())
-                            .withPage(pageNumber != null ? pageNumber : 1);
+                            .withPage(pageNumber != null ? pageNumber : 1)
+                            .withAfter(parseCursor(after));
 
                     if (isFeatureTransactionsEnabled) {
                         searchParams
@@ -182,15 +197,17 @@ public class ChargesApiResource {
                                      @QueryParam(TO_DATE_KEY) String toDate,
                                      @QueryParam(PAGE) Long pageNumber,
                                      @QueryParam(DISPLAY_SIZE) Long displaySize,
+                                     @QueryParam(AFTER) String after,
                                      @Context UriInfo uriInfo) {
 
         List<Pair<String, String>> inputDatePairMap = ImmutableList.of(Pair.of(FROM_DATE_KEY, fromDate), Pair.of(TO_DATE_KEY, toDate));
         List<Pair<String, Long>> nonNegativePairMap = ImmutableList.of(Pair.of(PAGE, pageNumber), Pair.of(DISPLAY_SIZE, displaySize));
+        List<Pair<String, String>> cursorPairMap = Collections.singletonList(Pair.of(AFTER, after));
         //Client using v2 API will have the feature flag enabled by default
         boolean isFeatureTransactionsEnabled = true;
 
         return ApiValidators
-                .validateQueryParams(inputDatePairMap, nonNegativePairMap) //TODO - improvement, get the entire searchparam object into the validateQueryParams
+                .validateQueryParams(inputDatePairMap, nonNegativePairMap, cursorPairMap) //TODO - improvement, get the entire searchparam object into the validateQueryParams
                 .map(ResponseUtil::badRequestResponse)
                 .orElseGet(() -> {
                     SearchParams searchParams = new SearchParams()
@@ -205,6 +222,7 @@ public class ChargesApiResource {
                             .withToDate(parseDate(toDate))
                             .withDisplaySize(displaySize != null ? displaySize : configuration.getTransactionsPaginationConfig().getDisplayPageSize())
                             .withPage(pageNumber != null ? pageNumber : 1)
+                            .withAfter(parseCursor(after))
                             .withTransactionType(inferTransactionTypeFrom(toList(paymentStates), toList(refundStates)))
                             .addExternalChargeStatesV2(toList(paymentStates))
                             .addExternalRefundStates(toList(refundStates));
@@ -215,6 +233,60 @@ public class ChargesApiResource {
                 }); // always the first page if its missing
     }
 
+    @GET
+    @Path("/v1/api/accounts/{accountId}/transactions/export")
+    @Timed
+    @Produces({"application/x-ndjson", "text/csv", APPLICATION_JSON})
+    public Response exportTransactions(@PathParam(ACCOUNT_ID) Long accountId,
+                                       @QueryParam(EMAIL_KEY) String email,
+                                       @QueryParam(REFERENCE_KEY) String reference,
+                                       @QueryParam(CARDHOLDER_NAME_KEY) String cardHolderName,
+                                       @QueryParam(LAST_DIGITS_CARD_NUMBER_KEY) String lastDigitsCardNumber,
+                                       @QueryParam(FIRST_DIGITS_CARD_NUMBER_KEY) String firstDigitsCardNumber,
+                                       @QueryParam(PAYMENT_STATES_KEY) CommaDelimitedSetParameter paymentStates,
+                                       @QueryParam(REFUND_STATES_KEY) CommaDelimitedSetParameter refundStates,
+                                       @QueryParam(CARD_BRAND_KEY) List<String> cardBrands,
+                                       @QueryParam(FROM_DATE_KEY) String fromDate,
+                                       @QueryParam(TO_DATE_KEY) String toDate,
+                                       @QueryParam(FORMAT) @DefaultValue("ndjson") String format,
+                                       @Context UriInfo uriInfo,
+                                       @Context CloseableService closeableService) {
+
+        List<Pair<String, String>> inputDatePairMap = ImmutableList.of(Pair.of(FROM_DATE_KEY, fromDate), Pair.of(TO_DATE_KEY, toDate));
+        Optional<TransactionExportService.Format> exportFormat = TransactionExportService.Format.fromString(format);
+        if (!exportFormat.isPresent()) {
+            return badRequestResponse(format("query param '%s' not in correct format", FORMAT));
+        }
+
+        return ApiValidators
+                .validateQueryParams(inputDatePairMap, Collections.emptyList())
+                .map(ResponseUtil::badRequestResponse)
+                .orElseGet(() -> {
+                    SearchParams searchParams = new SearchParams()
+                            .withGatewayAccountId(accountId)
+                            .withEmailLike(email)
+                            .withCardHolderNameLike(cardHolderName != null ? CardHolderName.of(cardHolderName) : null)
+                            .withLastDigitsCardNumber(LastDigitsCardNumber.ofNullable(lastDigitsCardNumber))
+                            .withFirstDigitsCardNumber(FirstDigitsCardNumber.ofNullable(firstDigitsCardNumber))
+                            .withReferenceLike(reference != null ? ServicePaymentReference.of(reference) : null)
+                            .withCardBrands(removeBlanks(cardBrands))
+                            .withFromDate(parseDate(fromDate))
+                            .withToDate(parseDate(toDate))
+                            .withTransactionType(inferTransactionTypeFrom(toList(paymentStates), toList(refundStates)))
+                            .addExternalChargeStatesV2(toList(paymentStates))
+                            .addExternalRefundStates(toList(refundStates));
+
+                    return gatewayAccountDao.findById(accountId)
+                            .map(gatewayAccount -> transactionExportService.export(searchParams, exportFormat.get(), uriInfo)
+                                    .map(export -> {
+                                        closeableService.add(export);
+                                        return Response.ok(export, exportFormat.get().getMediaType()).build();
+                                    })
+                                    .orElseGet(() -> tooManyRequestsResponse("Too many transaction exports in progress, try again later")))
+                            .orElseGet(() -> notFoundResponse(format("account with id %s not found", accountId)));
+                });
+    }
+
     private List<String> toList(CommaDelimitedSetParameter commaDelimitedSetParameter) {
         if (commaDelimitedSetParameter != null) {
             return commaDelimitedSetParameter.stream().collect(Collectors.toList());
@@ -266,6 +338,10 @@ public class ChargesApiResource {
         return parse;
     }
 
+    private SearchCursor parseCursor(String after) {
+        return after == null ? null : SearchCursor.decode(after).orElse(null);
+    }
+
     private Response listCharges(SearchParams searchParams, boolean isFeatureTransactionsEnabled, UriInfo uriInfo) {
         long startTime = System.nanoTime();
         try {
@@ -5,6 +5,8 @@ import com.google.common.collect.ImmutableSet;
 import io.dropwizard.jersey.PATCH;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import uk.gov.pay.connector.app.ChargeStatusLongPollConfig;
+import uk.gov.pay.connector.app.ConnectorConfiguration;
 import uk.gov.pay.connector.cardtype.dao.CardTypeDao;
 import uk.gov.pay.connector.cardtype.model.domain.CardTypeEntity;
 import uk.gov.pay.connector.charge.dao.ChargeDao;
@@ -15,6 +17,8 @@ import uk.gov.pay.connector.charge.model.domain.ChargeEntity;
 import uk.gov.pay.connector.charge.model.domain.ChargeStatus;
 import uk.gov.pay.connector.charge.model.domain.PersistedCard;
 import uk.gov.pay.connector.charge.service.ChargeService;
+import uk.gov.pay.connector.charge.service.ChargeStatusWatcher;
+import uk.gov.pay.connector.charge.service.FrontendChargeCache;
 import uk.gov.pay.connector.charge.util.CorporateCardSurchargeCalculator;
 import uk.gov.pay.connector.common.service.PatchRequestBuilder;
 import uk.gov.pay.connector.gatewayaccount.model.GatewayAccountEntity;
@@ -27,6 +31,9 @@ import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
@@ -34,7 +41,11 @@ import java.net.URI;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static javax.ws.rs.HttpMethod.GET;
 import static javax.ws.rs.HttpMethod.POST;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
@@ -52,22 +63,88 @@ public class ChargesFrontendResource {
     private final ChargeDao chargeDao;
     private final ChargeService chargeService;
     private final CardTypeDao cardTypeDao;
+    private final FrontendChargeCache frontendChargeCache;
+    private final ChargeStatusWatcher chargeStatusWatcher;
+    private final ChargeStatusLongPollConfig longPollConfig;
 
     @Inject
-    public ChargesFrontendResource(ChargeDao chargeDao, ChargeService chargeService, CardTypeDao cardTypeDao) {
+    public ChargesFrontendResource(ChargeDao chargeDao, ChargeService chargeService, CardTypeDao cardTypeDao,
+                                   FrontendChargeCache frontendChargeCache, ChargeStatusWatcher chargeStatusWatcher,
+                                   ConnectorConfiguration configuration) {
         this.chargeDao = chargeDao;
         this.chargeService = chargeService;
         this.cardTypeDao = cardTypeDao;
+        this.frontendChargeCache = frontendChargeCache;
+        this.chargeStatusWatcher = chargeStatusWatcher;
+        this.longPollConfig = configuration.getChargeStatusLongPollConfig();
     }
 
     @GET
     @Path("/v1/frontend/charges/{chargeId}")
     @Produces(APPLICATION_JSON)
-    @JsonView(GatewayAccountEntity.Views.FrontendView.class)
     public Response getCharge(@PathParam("chargeId") String chargeId, @Context UriInfo uriInfo) {
+        return frontendChargeResponse(chargeId, uriInfo);
+    }
+
+    /**
+     * Responds as {@link #getCharge} does once the charge is no longer waiting to be authorised, or when the timeout
+     * (in seconds, capped by configuration) runs out, whichever is first. A timeout of zero or less responds straight
+     * away.
+     */
+    @GET
+    @Path("/v1/frontend/charges/{chargeId}/await-authorisation")
+    @Produces(APPLICATION_JSON)
+    public void awaitAuthorisation(@PathParam("chargeId") String chargeId,
+                                   @QueryParam("timeout") Long timeoutInSeconds,
+                                   @Context UriInfo uriInfo,
+                                   @Suspended AsyncResponse asyncResponse) {
+        long timeoutMillis = longPollTimeoutMillis(timeoutInSeconds);
+        if (timeoutMillis <= 0) {
+            asyncResponse.resume(frontendChargeResponse(chargeId, uriInfo));
+            return;
+        }
+
+        AtomicReference<CompletableFuture<Void>> nextChange = new AtomicReference<>();
+        asyncResponse.setTimeoutHandler(response -> {
+            nextChange.get().cancel(false);
+            response.resume(frontendChargeResponse(chargeId, uriInfo));
+        });
+        asyncResponse.setTimeout(timeoutMillis, MILLISECONDS);
+        respondOnceAuthorisationIsNotAwaited(chargeId, uriInfo, asyncResponse, nextChange);
+    }
+
+    private void respondOnceAuthorisationIsNotAwaited(String chargeId, UriInfo uriInfo, AsyncResponse asyncResponse,
+                                                      AtomicReference<CompletableFuture<Void>> nextChange) {
+        if (asyncResponse.isDone()) {
+            return;
+        }
+
+        CompletableFuture<Void> change = chargeStatusWatcher.nextChange(chargeId);
+        nextChange.set(change);
+        boolean awaitingAuthorisation = chargeDao.findByExternalId(chargeId)
+                .map(charge -> ChargeStatusWatcher.isAwaitingAuthorisation(ChargeStatus.fromString(charge.getStatus())))
+                .orElse(false);
+
+        if (awaitingAuthorisation) {
+            change.thenRun(() -> respondOnceAuthorisationIsNotAwaited(chargeId, uriInfo, asyncResponse, nextChange));
+        } else {
+            change.cancel(false);
+            asyncResponse.resume(frontendChargeResponse(chargeId, uriInfo));
+        }
+    }
+
+    private long longPollTimeoutMillis(Long timeoutInSeconds) {
+        long maximum = longPollConfig.getMaximumTimeout().toMilliseconds();
+        if (timeoutInSeconds == null) {
+            return Math.min(longPollConfig.getDefaultTimeout().toMilliseconds(), maximum);
+        }
+        return Math.min(SECONDS.toMillis(timeoutInSeconds), maximum);
+    }
 
-        return chargeDao.findByExternalId(chargeId)
-                .map(charge -> Response.ok(buildChargeResponse(uriInfo, charge)).build())
+    private Response frontendChargeResponse(String chargeId, UriInfo uriInfo) {
+        return frontendChargeCache.get(chargeId, uriInfo.getBaseUri(),
+                () -> chargeDao.findByExternalId(chargeId), charge -> buildChargeResponse(uriInfo, charge))
+                .map(json -> Response.ok(json, APPLICATION_JSON).build())
                 .orElseGet(() -> responseWithChargeNotFound(chargeId));
     }
 
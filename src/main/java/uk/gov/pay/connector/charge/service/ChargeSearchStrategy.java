@@ -1,24 +1,40 @@
 package uk.gov.pay.connector.charge.service;
 
 import uk.gov.pay.connector.charge.dao.ChargeDao;
+import uk.gov.pay.connector.charge.dao.SearchCursor;
 import uk.gov.pay.connector.charge.dao.SearchParams;
 import uk.gov.pay.connector.charge.model.ChargeResponse;
-import uk.gov.pay.connector.charge.model.domain.ChargeEntity;
+import uk.gov.pay.connector.charge.model.ChargeResponse.Auth3dsData;
+import uk.gov.pay.connector.charge.model.ChargeResponse.RefundSummary;
+import uk.gov.pay.connector.charge.model.ChargeResponse.SettlementSummary;
+import uk.gov.pay.connector.charge.model.domain.ChargeSearchResult;
+import uk.gov.pay.connector.charge.model.domain.ChargeStatus;
+import uk.gov.pay.connector.charge.util.CorporateCardSurchargeCalculator;
+import uk.gov.pay.connector.charge.util.RefundCalculator;
+import uk.gov.pay.connector.common.model.api.ExternalChargeState;
+import uk.gov.pay.connector.common.model.api.ExternalTransactionState;
 import uk.gov.pay.connector.common.service.search.AbstractSearchStrategy;
 import uk.gov.pay.connector.common.service.search.SearchStrategy;
+import uk.gov.pay.connector.common.service.search.SearchTotals;
+import uk.gov.pay.connector.gateway.PaymentGatewayName;
+import uk.gov.pay.connector.gateway.PaymentProviders;
 
 import javax.ws.rs.core.UriInfo;
 import java.util.List;
+import java.util.Optional;
 
+import static javax.ws.rs.HttpMethod.GET;
+import static javax.ws.rs.HttpMethod.POST;
 import static uk.gov.pay.connector.charge.model.ChargeResponse.aChargeResponseBuilder;
 
-public class ChargeSearchStrategy extends AbstractSearchStrategy<ChargeEntity, ChargeResponse> implements SearchStrategy {
+public class ChargeSearchStrategy extends AbstractSearchStrategy<ChargeSearchResult, ChargeResponse> implements SearchStrategy {
 
-    private ChargeService chargeService;
+    private PaymentProviders providers;
     private ChargeDao chargeDao;
 
-    public ChargeSearchStrategy(ChargeService chargeService, ChargeDao chargeDao) {
-        this.chargeService = chargeService;
+    public ChargeSearchStrategy(PaymentProviders providers, ChargeDao chargeDao, SearchTotals searchTotals) {
+        super(searchTotals);
+        this.providers = providers;
         this.chargeDao = chargeDao;
     }
 
@@ -28,12 +44,88 @@ public class ChargeSearchStrategy extends AbstractSearchStrategy<ChargeEntity, C
     }
 
     @Override
-    public List<ChargeEntity> findAllBy(SearchParams params) {
-        return chargeDao.findAllBy(params);
+    public List<ChargeSearchResult> findAllBy(SearchParams params) {
+        return chargeDao.findSearchResultsBy(params);
     }
 
+    /**
+     * Builds the same response as {@link ChargeService#populateResponseBuilderWith} does for a search result.
+     */
     @Override
-    public ChargeResponse buildResponse(UriInfo uriInfo, ChargeEntity chargeEntity) {
-        return chargeService.populateResponseBuilderWith(aChargeResponseBuilder(), uriInfo, chargeEntity, true).build();
+    public ChargeResponse buildResponse(UriInfo uriInfo, ChargeSearchResult charge) {
+        ChargeStatus chargeStatus = ChargeStatus.fromString(charge.getStatus());
+        ExternalChargeState externalChargeState = chargeStatus.toExternal();
+
+        Auth3dsData auth3dsData = null;
+        if (charge.has3dsDetails()) {
+            auth3dsData = new Auth3dsData();
+            auth3dsData.setPaRequest(charge.getPaRequest3ds());
+            auth3dsData.setIssuerUrl(charge.getIssuerUrl3ds());
+        }
+
+        ChargeResponse.ChargeResponseBuilder responseBuilder = aChargeResponseBuilder()
+                .withChargeId(charge.getExternalId())
+                .withAmount(charge.getAmount())
+                .withReference(charge.getReference())
+                .withDescription(charge.getDescription())
+                .withState(new ExternalTransactionState(externalChargeState.getStatus(), externalChargeState.isFinished(), externalChargeState.getCode(), externalChargeState.getMessage()))
+                .withGatewayTransactionId(charge.getGatewayTransactionId())
+                .withProviderName(charge.getPaymentProvider())
+                .withCreatedDate(charge.getCreatedDate())
+                .withReturnUrl(charge.getReturnUrl())
+                .withEmail(charge.getEmail())
+                .withLanguage(charge.getLanguage())
+                .withDelayedCapture(charge.isDelayedCapture())
+                .withRefunds(buildRefundSummary(charge, chargeStatus))
+                .withSettlement(buildSettlementSummary(charge))
+                .withCardDetails(charge.getCardDetails().orElse(null))
+                .withAuth3dsData(auth3dsData)
+                .withLink("self", GET, uriInfo.getBaseUriBuilder()
+                        .path("/v1/api/accounts/{accountId}/charges/{chargeId}")
+                        .build(charge.getGatewayAccountId(), charge.getExternalId()))
+                .withLink("refunds", GET, uriInfo.getBaseUriBuilder()
+                        .path("/v1/api/accounts/{accountId}/charges/{chargeId}/refunds")
+                        .build(charge.getGatewayAccountId(), charge.getExternalId()))
+                .withWalletType(charge.getWalletType());
+
+        charge.getFeeAmount().ifPresent(responseBuilder::withFee);
+        charge.getExternalMetadata().ifPresent(responseBuilder::withExternalMetadata);
+
+        if (ChargeStatus.AWAITING_CAPTURE_REQUEST == chargeStatus) {
+            responseBuilder.withLink("capture", POST, uriInfo.getBaseUriBuilder()
+                    .path("/v1/api/accounts/{accountId}/charges/{chargeId}/capture")
+                    .build(charge.getGatewayAccountId(), charge.getExternalId()));
+        }
+
+        charge.getCorporateSurcharge().ifPresent(corporateSurcharge ->
+                responseBuilder.withCorporateCardSurcharge(corporateSurcharge)
+                        .withTotalAmount(CorporateCardSurchargeCalculator.getTotalAmountFor(charge)));
+
+        charge.getNetAmount().ifPresent(responseBuilder::withNetAmount);
+
+        return responseBuilder.build();
+    }
+
+    @Override
+    protected Optional<SearchCursor> cursorOf(ChargeSearchResult charge) {
+        return Optional.of(SearchCursor.after(charge.getCreatedDate(), charge.getChargeId()));
+    }
+
+    private RefundSummary buildRefundSummary(ChargeSearchResult charge, ChargeStatus chargeStatus) {
+        long amountAvailable = RefundCalculator.getTotalAmountAvailableToBeRefunded(charge);
+
+        RefundSummary refund = new RefundSummary();
+        refund.setStatus(providers.byName(PaymentGatewayName.valueFrom(charge.getPaymentProvider()))
+                .getExternalChargeRefundAvailability(chargeStatus, amountAvailable).getStatus());
+        refund.setAmountSubmitted(charge.getRefundedAmount());
+        refund.setAmountAvailable(amountAvailable);
+        return refund;
+    }
+
+    private SettlementSummary buildSettlementSummary(ChargeSearchResult charge) {
+        SettlementSummary settlement = new SettlementSummary();
+        settlement.setCaptureSubmitTime(charge.getCaptureSubmitTime());
+        settlement.setCapturedTime(charge.getCapturedTime());
+        return settlement;
     }
 }
@@ -102,12 +102,14 @@ public class ChargeService {
     private final StateTransitionQueue stateTransitionQueue;
     private final Boolean shouldEmitPaymentStateTransitionEvents;
     private EventQueue eventQueue;
+    private final FrontendChargeCache frontendChargeCache;
 
     @Inject
     public ChargeService(TokenDao tokenDao, ChargeDao chargeDao, ChargeEventDao chargeEventDao,
                          CardTypeDao cardTypeDao, GatewayAccountDao gatewayAccountDao,
                          ConnectorConfiguration config, PaymentProviders providers,
-                         StateTransitionQueue stateTransitionQueue, EventQueue eventQueue) {
+                         StateTransitionQueue stateTransitionQueue, EventQueue eventQueue,
+                         FrontendChargeCache frontendChargeCache) {
         this.tokenDao = tokenDao;
         this.chargeDao = chargeDao;
         this.chargeEventDao = chargeEventDao;
@@ -119,6 +121,7 @@ public class ChargeService {
         this.stateTransitionQueue = stateTransitionQueue;
         this.shouldEmitPaymentStateTransitionEvents = config.getEmitPaymentStateTransitionEvents();
         this.eventQueue = eventQueue;
+        this.frontendChargeCache = frontendChargeCache;
     }
 
     public Optional<ChargeResponse> create(ChargeCreateRequest chargeRequest, Long accountId, UriInfo uriInfo) {
@@ -193,6 +196,7 @@ public class ChargeService {
                 .map(chargeEntity -> {
                     if (chargePatchRequest.getPath().equals(ChargesApiResource.EMAIL_KEY)) {
                         chargeEntity.setEmail(sanitize(chargePatchRequest.getValue()));
+                        frontendChargeCache.invalidate(chargeEntity.getExternalId());
                     }
                     return Optional.of(chargeEntity);
                 })
@@ -417,6 +421,7 @@ public class ChargeService {
                         operationType.getLockingStatus());
 
                 chargeEntity.setStatus(operationType.getLockingStatus());
+                frontendChargeCache.invalidate(chargeEntity.getExternalId());
 
             } catch (InvalidStateTransitionException e) {
                 if (chargeIsInLockedStatus(operationType, chargeEntity)) {
@@ -449,6 +454,7 @@ public class ChargeService {
     ) {
         ChargeStatus fromChargeState = ChargeStatus.fromString(charge.getStatus());
         charge.setStatus(targetChargeState);
+        frontendChargeCache.invalidate(charge.getExternalId());
         ChargeEventEntity chargeEventEntity = chargeEventDao.persistChargeEventOf(charge, gatewayEventTime);
 
         PaymentGatewayStateTransitions.getInstance()
@@ -0,0 +1,95 @@
+package uk.gov.pay.connector.charge.service;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.setup.Environment;
+import uk.gov.pay.connector.app.ConnectorConfiguration;
+import uk.gov.pay.connector.charge.model.domain.ChargeStatus;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.AUTHORISATION_READY;
+import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.AUTHORISATION_SUBMITTED;
+
+/**
+ * Lets a request wait for a charge to change instead of polling for it.
+ * <p>
+ * Changes made on this node are reported by {@link FrontendChargeCache} once their transaction has ended; changes made
+ * on other nodes arrive through {@link uk.gov.pay.connector.common.managed.DatabaseNotificationListener}. Each waiter
+ * is completed separately on a bounded pool, so neither the committing request nor the listener thread does their
+ * work, and waiters for different charges do not queue up behind one another.
+ */
+@Singleton
+public class ChargeStatusWatcher {
+
+    private static final Set<ChargeStatus> AWAITING_AUTHORISATION = EnumSet.of(AUTHORISATION_READY, AUTHORISATION_SUBMITTED);
+
+    private final Map<String, Set<CompletableFuture<Void>>> waiting = new ConcurrentHashMap<>();
+    private final Executor executor;
+
+    @Inject
+    public ChargeStatusWatcher(FrontendChargeCache frontendChargeCache, ConnectorConfiguration configuration,
+                               Environment environment) {
+        this(frontendChargeCache,
+                environment.lifecycle()
+                        .executorService("charge-status-watcher")
+                        .minThreads(configuration.getChargeStatusLongPollConfig().getCompletionThreads())
+                        .maxThreads(configuration.getChargeStatusLongPollConfig().getCompletionThreads())
+                        .build(),
+                environment.metrics());
+    }
+
+    public ChargeStatusWatcher(FrontendChargeCache frontendChargeCache, Executor executor, MetricRegistry metricRegistry) {
+        this.executor = executor;
+        frontendChargeCache.addChangeListener(this::changed);
+        metricRegistry.gauge("charge-status-watcher.waiting", () -> (Gauge<Integer>) this::waitingCount);
+    }
+
+    public static boolean isAwaitingAuthorisation(ChargeStatus status) {
+        return AWAITING_AUTHORISATION.contains(status);
+    }
+
+    /**
+     * Returns a future completed the next time the charge changes. Register before reading the charge, so a change
+     * committed in between is not missed. Cancelling the future stops waiting.
+     */
+    public CompletableFuture<Void> nextChange(String externalId) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        waiting.compute(externalId, (id, futures) -> {
+            Set<CompletableFuture<Void>> set = futures == null ? ConcurrentHashMap.newKeySet() : futures;
+            set.add(future);
+            return set;
+        });
+        future.whenComplete((ignored, throwable) -> waiting.computeIfPresent(externalId, (id, futures) -> {
+            futures.remove(future);
+            return futures.isEmpty() ? null : futures;
+        }));
+        return future;
+    }
+
+    public void changed(String externalId) {
+        Set<CompletableFuture<Void>> futures = waiting.remove(externalId);
+        if (futures != null) {
+            futures.forEach(future -> future.completeAsync(() -> null, executor));
+        }
+    }
+
+    /**
+     * Wakes every waiter, for when changes may have been missed. Each rereads its charge and waits again if nothing
+     * has happened to it.
+     */
+    public void changedAll() {
+        waiting.keySet().forEach(this::changed);
+    }
+
+    private int waitingCount() {
+        return waiting.values().stream().mapToInt(Set::size).sum();
+    }
+}
@@ -0,0 +1,283 @@
+package uk.gov.pay.connector.charge.service;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.dropwizard.setup.Environment;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import uk.gov.pay.connector.app.ConnectorConfiguration;
+import uk.gov.pay.connector.app.FrontendChargeCacheConfig;
+import uk.gov.pay.connector.charge.dao.ChargeDao;
+import uk.gov.pay.connector.charge.model.domain.ChargeEntity;
+import uk.gov.pay.connector.gatewayaccount.dao.GatewayAccountDao;
+import uk.gov.pay.connector.gatewayaccount.model.GatewayAccountEntity;
+import uk.gov.pay.connector.gatewayaccount.service.GatewayAccountService;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import java.net.URI;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Holds the serialised frontend view of recently requested charges, so frontend polling a charge while it is being
+ * authorised is served from memory.
+ * <p>
+ * {@link ChargeService} calls {@link #invalidate} whenever it changes a charge. The entry is dropped straight away and
+ * again when the outermost {@code @Transactional} call on the thread returns (see {@link AfterTransaction}), so a copy
+ * read by another request before the change was committed does not outlive the commit. A load that overlaps either
+ * invalidation of its charge is returned but not cached.
+ * <p>
+ * Each change is also published on {@link ChargeDao#STATUS_CHANGE_CHANNEL} in the transaction that makes it, so Postgres
+ * delivers it to the other nodes once it commits and not at all if it rolls back. They apply it with
+ * {@link #invalidateFromAnotherNode}.
+ * <p>
+ * Listeners added with {@link #addChangeListener} are told about each changed charge at the same point, once the
+ * change is visible to other requests.
+ * <p>
+ * The view includes the charge's gateway account, so {@link GatewayAccountService#accountChanged} also drops every entry
+ * for the account with {@link #invalidateAccount}, straight away and again once its transaction has ended. Other nodes
+ * do the same when the change reaches them on {@link GatewayAccountDao#CHANGE_CHANNEL}. A load that overlaps a change
+ * to any account is returned but not cached.
+ */
+@Singleton
+public class FrontendChargeCache {
+
+    private static final int GENERATION_STRIPES = 1024;
+    private static final ThreadLocal<TransactionScope> TRANSACTION_SCOPE = new ThreadLocal<>();
+
+    private final FrontendChargeCacheConfig config;
+    private final boolean publishesChanges;
+    private final Consumer<String> publisher;
+    private final ObjectWriter writer;
+    private final Cache<String, CachedCharge> charges;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final AtomicLong accountGeneration = new AtomicLong();
+    private final List<Consumer<String>> changeListeners = new CopyOnWriteArrayList<>();
+    private final Counter hits;
+    private final Counter misses;
+
+    @Inject
+    public FrontendChargeCache(ConnectorConfiguration configuration, Environment environment, ChargeDao chargeDao) {
+        this(configuration.getFrontendChargeCacheConfig(), environment.getObjectMapper(), environment.metrics(),
+                configuration.getFrontendChargeCacheConfig().isEnabled()
+                        || configuration.getChargeStatusLongPollConfig().isCrossNodeNotificationsEnabled(),
+                chargeDao::publishStatusChange);
+    }
+
+    public FrontendChargeCache(FrontendChargeCacheConfig config, ObjectMapper objectMapper, MetricRegistry metricRegistry) {
+        this(config, objectMapper, metricRegistry, false, externalId -> {});
+    }
+
+    public FrontendChargeCache(FrontendChargeCacheConfig config, ObjectMapper objectMapper, MetricRegistry metricRegistry,
+                               boolean publishesChanges, Consumer<String> publisher) {
+        this.config = config;
+        this.publishesChanges = publishesChanges;
+        this.publisher = publisher;
+        this.writer = objectMapper.writerWithView(GatewayAccountEntity.Views.FrontendView.class);
+        this.charges = CacheBuilder.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getExpireAfterWrite().toMilliseconds(), TimeUnit.MILLISECONDS)
+                .build();
+        this.hits = metricRegistry.counter("frontend-charge-cache.hits");
+        this.misses = metricRegistry.counter("frontend-charge-cache.misses");
+        metricRegistry.gauge("frontend-charge-cache.size", () -> (Gauge<Long>) charges::size);
+    }
+
+    /**
+     * Returns the frontend view of a charge as JSON, calling {@code loader} for the charge and {@code view} for the
+     * response object when it is not cached. Links in the response depend on the base URI of the request, so an entry
+     * is only used for the same one.
+     */
+    public Optional<byte[]> get(String externalId, URI baseUri, Supplier<Optional<ChargeEntity>> loader,
+                                Function<ChargeEntity, ?> view) {
+        if (config.isEnabled()) {
+            CachedCharge cached = charges.getIfPresent(externalId);
+            if (cached != null && cached.baseUri.equals(baseUri)) {
+                hits.inc();
+                return Optional.of(cached.json);
+            }
+            misses.inc();
+        }
+
+        long generation = generationOf(externalId);
+        long accountGenerationBefore = accountGeneration.get();
+        Optional<ChargeEntity> charge = loader.get();
+        Optional<byte[]> json = charge.map(view).map(this::serialise);
+
+        if (config.isEnabled() && json.isPresent() && generation == generationOf(externalId)
+                && accountGenerationBefore == accountGeneration.get() && !isPendingOnThisThread(externalId)) {
+            charges.put(externalId, new CachedCharge(baseUri, charge.get().getGatewayAccount().getId(), json.get()));
+        }
+        return json;
+    }
+
+    public void invalidate(String externalId) {
+        invalidateNow(externalId);
+        TransactionScope scope = TRANSACTION_SCOPE.get();
+        if (scope == null) {
+            publish(externalId);
+            notifyChangeListeners(externalId);
+        } else if (scope.pending.add(externalId)) {
+            publish(externalId);
+        }
+    }
+
+    /**
+     * Applies a change committed on another node, without publishing it again.
+     */
+    public void invalidateFromAnotherNode(String externalId) {
+        invalidateNow(externalId);
+        notifyChangeListeners(externalId);
+    }
+
+    /**
+     * Drops every entry for charges of a changed gateway account. It is not published, as the account change is
+     * published by itself.
+     */
+    public void invalidateAccount(long gatewayAccountId) {
+        invalidateAccountNow(gatewayAccountId);
+        TransactionScope scope = TRANSACTION_SCOPE.get();
+        if (scope != null) {
+            scope.pendingAccounts.add(gatewayAccountId);
+        }
+    }
+
+    /**
+     * Drops every entry, for when changes made on other nodes may have been missed.
+     */
+    public void invalidateAll() {
+        for (int stripe = 0; stripe < GENERATION_STRIPES; stripe++) {
+            generations.incrementAndGet(stripe);
+        }
+        charges.invalidateAll();
+    }
+
+    /**
+     * Whether changes are published to other nodes, which is needed while either the cache or cross-node long polling
+     * is enabled.
+     */
+    public boolean publishesChanges() {
+        return publishesChanges;
+    }
+
+    public void addChangeListener(Consumer<String> listener) {
+        changeListeners.add(listener);
+    }
+
+    private void publish(String externalId) {
+        if (publishesChanges) {
+            publisher.accept(externalId);
+        }
+    }
+
+    private void invalidateNow(String externalId) {
+        generations.incrementAndGet(stripeOf(externalId));
+        charges.invalidate(externalId);
+    }
+
+    private void invalidateAccountNow(long gatewayAccountId) {
+        accountGeneration.incrementAndGet();
+        charges.asMap().values().removeIf(cached -> cached.gatewayAccountId == gatewayAccountId);
+    }
+
+    private void transactionEnded(String externalId) {
+        invalidateNow(externalId);
+        notifyChangeListeners(externalId);
+    }
+
+    private void notifyChangeListeners(String externalId) {
+        changeListeners.forEach(listener -> listener.accept(externalId));
+    }
+
+    private boolean isPendingOnThisThread(String externalId) {
+        TransactionScope scope = TRANSACTION_SCOPE.get();
+        return scope != null && (scope.pending.contains(externalId) || !scope.pendingAccounts.isEmpty());
+    }
+
+    private long generationOf(String externalId) {
+        return generations.get(stripeOf(externalId));
+    }
+
+    private static int stripeOf(String externalId) {
+        return Math.floorMod(externalId.hashCode(), GENERATION_STRIPES);
+    }
+
+    private byte[] serialise(Object response) {
+        try {
+            return writer.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialise frontend charge response", e);
+        }
+    }
+
+    private static class CachedCharge {
+        private final URI baseUri;
+        private final long gatewayAccountId;
+        private final byte[] json;
+
+        private CachedCharge(URI baseUri, long gatewayAccountId, byte[] json) {
+            this.baseUri = baseUri;
+            this.gatewayAccountId = gatewayAccountId;
+            this.json = json;
+        }
+    }
+
+    private static class TransactionScope {
+        private int depth;
+        private final Set<String> pending = new HashSet<>();
+        private final Set<Long> pendingAccounts = new HashSet<>();
+    }
+
+    /**
+     * Bound around every {@code @Transactional} method ahead of the JPA transaction interceptor, so it sees the
+     * outermost call on a thread return after the transaction has been committed or rolled back, and repeats the
+     * invalidations made during it.
+     */
+    public static class AfterTransaction implements MethodInterceptor {
+
+        private final Provider<FrontendChargeCache> frontendChargeCache;
+
+        public AfterTransaction(Provider<FrontendChargeCache> frontendChargeCache) {
+            this.frontendChargeCache = frontendChargeCache;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            TransactionScope scope = TRANSACTION_SCOPE.get();
+            if (scope == null) {
+                scope = new TransactionScope();
+                TRANSACTION_SCOPE.set(scope);
+            }
+            scope.depth++;
+            try {
+                return invocation.proceed();
+            } finally {
+                if (--scope.depth == 0) {
+                    TRANSACTION_SCOPE.remove();
+                    if (!scope.pending.isEmpty() || !scope.pendingAccounts.isEmpty()) {
+                        FrontendChargeCache cache = frontendChargeCache.get();
+                        scope.pending.forEach(cache::transactionEnded);
+                        scope.pendingAccounts.forEach(cache::invalidateAccountNow);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -3,6 +3,8 @@ package uk.gov.pay.connector.charge.service;
 import uk.gov.pay.connector.charge.dao.ChargeDao;
 import uk.gov.pay.connector.charge.dao.TransactionDao;
 import uk.gov.pay.connector.common.service.search.SearchStrategy;
+import uk.gov.pay.connector.common.service.search.SearchTotals;
+import uk.gov.pay.connector.gateway.PaymentProviders;
 
 import javax.inject.Inject;
 
@@ -12,21 +14,23 @@ public class SearchService {
 
     private ChargeDao chargeDao;
     private TransactionDao transactionDao;
-    private ChargeService chargeService;
+    private PaymentProviders providers;
+    private SearchTotals searchTotals;
 
     @Inject
-    public SearchService(ChargeDao chargeDao, TransactionDao transactionDao, ChargeService chargeService) {
+    public SearchService(ChargeDao chargeDao, TransactionDao transactionDao, PaymentProviders providers, SearchTotals searchTotals) {
         this.chargeDao = chargeDao;
         this.transactionDao=transactionDao;
-        this.chargeService = chargeService;
+        this.providers = providers;
+        this.searchTotals = searchTotals;
     }
 
     public SearchStrategy ofType(TYPE type) {
         switch (type) {
             case TRANSACTION:
-                return new TransactionSearchStrategy(transactionDao);
+                return new TransactionSearchStrategy(transactionDao, searchTotals);
             default:
-                return new ChargeSearchStrategy(chargeService, chargeDao);
+                return new ChargeSearchStrategy(providers, chargeDao, searchTotals);
         }
     }
 }
@@ -0,0 +1,250 @@
+package uk.gov.pay.connector.charge.service;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.dropwizard.setup.Environment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.pay.connector.app.ConnectorConfiguration;
+import uk.gov.pay.connector.app.TransactionExportConfig;
+import uk.gov.pay.connector.charge.dao.SearchParams;
+import uk.gov.pay.connector.charge.dao.TransactionDao;
+import uk.gov.pay.connector.charge.model.ChargeResponse;
+import uk.gov.pay.connector.common.service.search.SearchTotals;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriInfo;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writes every transaction matching a search straight to the response, for services exporting their transactions.
+ * Rows are read from the database a batch at a time and written as they arrive, so memory use does not grow with the
+ * size of the export, and nothing is counted.
+ * <p>
+ * Each transaction is written as it would appear in the results of {@code GET /v2/api/accounts/{accountId}/charges},
+ * either whole as a line of NDJSON or as a CSV row of its main fields.
+ */
+@Singleton
+public class TransactionExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionExportService.class);
+
+    public enum Format {
+        NDJSON("application/x-ndjson"),
+        CSV("text/csv");
+
+        private final String mediaType;
+
+        Format(String mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public String getMediaType() {
+            return mediaType;
+        }
+
+        public static Optional<Format> fromString(String format) {
+            return Arrays.stream(values())
+                    .filter(value -> value.name().equalsIgnoreCase(format))
+                    .findFirst();
+        }
+    }
+
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+    private static final Pattern NUMBER = Pattern.compile("-?\\d+(\\.\\d+)?");
+
+    private static final List<CsvColumn> CSV_COLUMNS = List.of(
+            new CsvColumn("transaction_type", "/transaction_type"),
+            new CsvColumn("charge_id", "/charge_id"),
+            new CsvColumn("reference", "/reference"),
+            new CsvColumn("description", "/description"),
+            new CsvColumn("email", "/email"),
+            new CsvColumn("amount", "/amount"),
+            new CsvColumn("state", "/state/status"),
+            new CsvColumn("finished", "/state/finished"),
+            new CsvColumn("code", "/state/code"),
+            new CsvColumn("card_brand", "/card_details/card_brand"),
+            new CsvColumn("cardholder_name", "/card_details/cardholder_name"),
+            new CsvColumn("expiry_date", "/card_details/expiry_date"),
+            new CsvColumn("first_digits_card_number", "/card_details/first_digits_card_number"),
+            new CsvColumn("last_digits_card_number", "/card_details/last_digits_card_number"),
+            new CsvColumn("gateway_transaction_id", "/gateway_transaction_id"),
+            new CsvColumn("created_date", "/created_date"),
+            new CsvColumn("fee", "/fee"),
+            new CsvColumn("net_amount", "/net_amount"),
+            new CsvColumn("corporate_card_surcharge", "/corporate_card_surcharge"),
+            new CsvColumn("total_amount", "/total_amount"),
+            new CsvColumn("wallet_type", "/wallet_type"),
+            new CsvColumn("language", "/language"),
+            new CsvColumn("delayed_capture", "/delayed_capture"));
+
+    private final TransactionDao transactionDao;
+    private final TransactionSearchStrategy transactionSearchStrategy;
+    private final TransactionExportConfig config;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter ndjsonWriter;
+    private final Semaphore exports;
+    private final Counter rowsExported;
+    private final Counter exportsRejected;
+
+    @Inject
+    public TransactionExportService(TransactionDao transactionDao, SearchTotals searchTotals,
+                                    ConnectorConfiguration configuration, Environment environment) {
+        this(transactionDao, new TransactionSearchStrategy(transactionDao, searchTotals),
+                configuration.getTransactionExportConfig(), environment.getObjectMapper(), environment.metrics());
+    }
+
+    public TransactionExportService(TransactionDao transactionDao, TransactionSearchStrategy transactionSearchStrategy,
+                                    TransactionExportConfig config, ObjectMapper objectMapper, MetricRegistry metricRegistry) {
+        this.transactionDao = transactionDao;
+        this.transactionSearchStrategy = transactionSearchStrategy;
+        this.config = config;
+        this.objectMapper = objectMapper;
+        this.ndjsonWriter = objectMapper.writer();
+        this.exports = new Semaphore(config.getMaximumConcurrentExports());
+        this.rowsExported = metricRegistry.counter("transaction-export.rows");
+        this.exportsRejected = metricRegistry.counter("transaction-export.rejected");
+    }
+
+    /**
+     * Returns the export to write as the response entity, or nothing if too many exports are already running. The
+     * slot taken here is given back when the export is closed, which writing it does.
+     */
+    public Optional<Export> export(SearchParams params, Format format, UriInfo uriInfo) {
+        if (!exports.tryAcquire()) {
+            exportsRejected.inc();
+            return Optional.empty();
+        }
+
+        return Optional.of(new Export(params, format, uriInfo));
+    }
+
+    /**
+     * An export holding one of the export slots. A response that is never written, such as the response to a
+     * {@code HEAD} request or one that fails before its entity is reached, must still be closed to give the slot back,
+     * so it should also be closed once the request has finished. Closing it again has no effect.
+     */
+    public class Export implements StreamingOutput, Closeable {
+        private final SearchParams params;
+        private final Format format;
+        private final UriInfo uriInfo;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Export(SearchParams params, Format format, UriInfo uriInfo) {
+            this.params = params;
+            this.format = format;
+            this.uriInfo = uriInfo;
+        }
+
+        @Override
+        public void write(OutputStream outputStream) throws IOException {
+            long startTime = System.nanoTime();
+            long rows = 0;
+            try {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, UTF_8));
+                if (format == Format.CSV) {
+                    writeCsvRow(writer, CSV_COLUMNS.stream().map(column -> column.name).collect(Collectors.toList()));
+                }
+                rows = TransactionExportService.this.write(params, format, uriInfo, writer);
+                writer.flush();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                close();
+                logger.info("Transaction export - format [{}] rows [{}] took [{}] params [{}]",
+                        format, rows, (System.nanoTime() - startTime) / 1000000000.0,
+                        params.buildQueryParamsWithPiiRedaction());
+            }
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                exports.release();
+            }
+        }
+    }
+
+    private long write(SearchParams params, Format format, UriInfo uriInfo, Writer writer) {
+        long[] rows = {0};
+        transactionDao.streamAllBy(params.getGatewayAccountId(), params, config.getFetchSize(), transaction -> {
+            ChargeResponse response = transactionSearchStrategy.buildResponse(uriInfo, transaction);
+            try {
+                if (format == Format.CSV) {
+                    JsonNode json = objectMapper.valueToTree(response);
+                    writeCsvRow(writer, CSV_COLUMNS.stream().map(column -> column.valueIn(json)).collect(Collectors.toList()));
+                } else {
+                    writer.write(ndjsonWriter.writeValueAsString(response));
+                    writer.write('\n');
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            rows[0]++;
+            rowsExported.inc();
+        });
+        return rows[0];
+    }
+
+    private static void writeCsvRow(Writer writer, List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvField(values.get(i)));
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * Values that a spreadsheet would read as a formula are prefixed with {@code '} so that they are shown as text.
+     * Plain numbers, such as a negative net amount, are left as they are.
+     */
+    static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (!value.isEmpty() && FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0 && !NUMBER.matcher(value).matches()) {
+            value = "'" + value;
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+
+    private static class CsvColumn {
+        private final String name;
+        private final String pointer;
+
+        private CsvColumn(String name, String pointer) {
+            this.name = name;
+            this.pointer = pointer;
+        }
+
+        private String valueIn(JsonNode json) {
+            JsonNode value = json.at(pointer);
+            return value.isMissingNode() || value.isNull() ? null : value.asText();
+        }
+    }
+}
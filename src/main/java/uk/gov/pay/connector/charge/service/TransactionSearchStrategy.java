@@ -1,6 +1,7 @@
 package uk.gov.pay.connector.charge.service;
 
 import com.google.inject.Inject;
+import uk.gov.pay.connector.charge.dao.SearchCursor;
 import uk.gov.pay.connector.charge.dao.SearchParams;
 import uk.gov.pay.connector.charge.dao.TransactionDao;
 import uk.gov.pay.connector.charge.model.ChargeResponse;
@@ -16,10 +17,12 @@ import uk.gov.pay.connector.common.model.api.ExternalRefundStatus;
 import uk.gov.pay.connector.common.model.api.ExternalTransactionState;
 import uk.gov.pay.connector.common.service.search.AbstractSearchStrategy;
 import uk.gov.pay.connector.common.service.search.SearchStrategy;
+import uk.gov.pay.connector.common.service.search.SearchTotals;
 import uk.gov.pay.connector.refund.model.domain.RefundStatus;
 
 import javax.ws.rs.core.UriInfo;
 import java.util.List;
+import java.util.Optional;
 
 import static javax.ws.rs.HttpMethod.GET;
 import static javax.ws.rs.HttpMethod.POST;
@@ -30,7 +33,8 @@ public class TransactionSearchStrategy extends AbstractSearchStrategy<Transactio
     private TransactionDao transactionDao;
 
     @Inject
-    public TransactionSearchStrategy(TransactionDao transactionDao) {
+    public TransactionSearchStrategy(TransactionDao transactionDao, SearchTotals searchTotals) {
+        super(searchTotals);
         this.transactionDao = transactionDao;
     }
 
@@ -44,6 +48,16 @@ public class TransactionSearchStrategy extends AbstractSearchStrategy<Transactio
         return transactionDao.findAllBy(params.getGatewayAccountId(), params);
     }
 
+    @Override
+    protected Optional<Long> estimateTotalFor(SearchParams params) {
+        return transactionDao.estimateTotalFor(params.getGatewayAccountId(), params);
+    }
+
+    @Override
+    protected Optional<SearchCursor> cursorOf(Transaction transaction) {
+        return Optional.of(SearchCursor.after(transaction.getCreatedDate(), transaction.getTransactionType(), transaction.getTransactionId()));
+    }
+
     @Override
     public ChargeResponse buildResponse(UriInfo uriInfo, Transaction transaction) {
         ExternalTransactionState externalTransactionState;
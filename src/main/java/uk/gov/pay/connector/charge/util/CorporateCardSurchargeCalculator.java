@@ -1,6 +1,7 @@
 package uk.gov.pay.connector.charge.util;
 
 import uk.gov.pay.connector.charge.model.domain.ChargeEntity;
+import uk.gov.pay.connector.charge.model.domain.ChargeSearchResult;
 import uk.gov.pay.connector.charge.model.domain.Transaction;
 import uk.gov.pay.connector.gateway.model.AuthCardDetails;
 
@@ -20,6 +21,12 @@ public class CorporateCardSurchargeCalculator {
                 .orElseGet(charge::getAmount);
     }
 
+    public static Long getTotalAmountFor(ChargeSearchResult chargeSearchResult) {
+        return chargeSearchResult.getCorporateSurcharge()
+                .map(surcharge -> surcharge + chargeSearchResult.getAmount())
+                .orElseGet(chargeSearchResult::getAmount);
+    }
+
     /**
      * Utility method to calculate total amount for a charge that has a corporate
      * surcharge.
@@ -1,14 +1,24 @@
 package uk.gov.pay.connector.charge.util;
 
+import com.google.common.collect.ImmutableList;
 import uk.gov.pay.connector.charge.model.domain.ChargeEntity;
+import uk.gov.pay.connector.charge.model.domain.ChargeSearchResult;
 import uk.gov.pay.connector.refund.model.domain.RefundEntity;
 import uk.gov.pay.connector.refund.model.domain.RefundStatus;
 
+import java.util.List;
+
 /**
  * Holder for utility methods used to calculate refund amounts
  */
 public class RefundCalculator {
 
+    /**
+     * Statuses of the refunds that count towards the amount refunded from a charge
+     */
+    public static final List<RefundStatus> REFUNDED_AMOUNT_STATUSES = ImmutableList.of(
+            RefundStatus.CREATED, RefundStatus.REFUND_SUBMITTED, RefundStatus.REFUNDED);
+
     private RefundCalculator() {
         // prevent Java for adding a public constructor
     }
@@ -17,9 +27,13 @@ public class RefundCalculator {
         return CorporateCardSurchargeCalculator.getTotalAmountFor(chargeEntity) - getRefundedAmount(chargeEntity);
     }
 
+    public static long getTotalAmountAvailableToBeRefunded(ChargeSearchResult chargeSearchResult) {
+        return CorporateCardSurchargeCalculator.getTotalAmountFor(chargeSearchResult) - chargeSearchResult.getRefundedAmount();
+    }
+
     public static long getRefundedAmount(ChargeEntity chargeEntity) {
         return chargeEntity.getRefunds().stream()
-                .filter(p -> p.hasStatus(RefundStatus.CREATED, RefundStatus.REFUND_SUBMITTED, RefundStatus.REFUNDED))
+                .filter(p -> REFUNDED_AMOUNT_STATUSES.contains(p.getStatus()))
                 .mapToLong(RefundEntity::getAmount)
                 .sum();
     }
@@ -0,0 +1,183 @@
+package uk.gov.pay.connector.common.managed;
+
+import com.google.common.collect.ImmutableMap;
+import io.dropwizard.db.DataSourceFactory;
+import io.dropwizard.lifecycle.Managed;
+import io.dropwizard.setup.Environment;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.pay.connector.app.ConnectorConfiguration;
+import uk.gov.pay.connector.app.DatabaseNotificationsConfig;
+import uk.gov.pay.connector.charge.dao.ChargeDao;
+import uk.gov.pay.connector.charge.service.ChargeStatusWatcher;
+import uk.gov.pay.connector.charge.service.FrontendChargeCache;
+import uk.gov.pay.connector.gatewayaccount.dao.GatewayAccountDao;
+import uk.gov.pay.connector.gatewayaccount.service.GatewayAccountCache;
+
+import javax.inject.Inject;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Holds a dedicated database connection listening for changes committed on any node, and applies them to the
+ * in-memory state of this one:
+ * <ul>
+ *     <li>a charge on {@link ChargeDao#STATUS_CHANGE_CHANNEL} is invalidated in the {@link FrontendChargeCache}, which
+ *     passes it on to the {@link ChargeStatusWatcher}, while the cache or cross-node long polling is enabled</li>
+ *     <li>an account on {@link GatewayAccountDao#CHANGE_CHANNEL} is invalidated in the {@link GatewayAccountCache}
+ *     when cross-node invalidation is enabled for it, and its charges in the {@link FrontendChargeCache} while that
+ *     cache is enabled</li>
+ * </ul>
+ * The connection is opened with the same driver properties as the connection pool. Waiting for notifications does
+ * not notice a connection that has silently gone away, so it is also checked with {@code SELECT 1} every
+ * {@link DatabaseNotificationsConfig#getHealthCheckInterval()}. It reconnects after a delay if the connection is
+ * lost. Notifications sent in between are lost, so once it is back it empties the frontend charge and gateway account
+ * caches and wakes every charge status waiter.
+ */
+public class DatabaseNotificationListener implements Managed {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DatabaseNotificationListener.class);
+    private static final int RECEIVE_TIMEOUT_MILLIS = 1000;
+
+    private final FrontendChargeCache frontendChargeCache;
+    private final ChargeStatusWatcher chargeStatusWatcher;
+    private final GatewayAccountCache gatewayAccountCache;
+    private final DataSourceFactory dataSourceFactory;
+    private final DatabaseNotificationsConfig config;
+    private final Map<String, Consumer<String>> handlers;
+    private final ExecutorService executorService;
+    private volatile boolean running;
+
+    @Inject
+    public DatabaseNotificationListener(FrontendChargeCache frontendChargeCache,
+                                        ChargeStatusWatcher chargeStatusWatcher,
+                                        GatewayAccountCache gatewayAccountCache,
+                                        ConnectorConfiguration configuration,
+                                        Environment environment) {
+        this.frontendChargeCache = frontendChargeCache;
+        this.chargeStatusWatcher = chargeStatusWatcher;
+        this.gatewayAccountCache = gatewayAccountCache;
+        this.dataSourceFactory = configuration.getDataSourceFactory();
+        this.config = configuration.getDatabaseNotificationsConfig();
+
+        ImmutableMap.Builder<String, Consumer<String>> handlers = ImmutableMap.builder();
+        if (frontendChargeCache.publishesChanges()) {
+            handlers.put(ChargeDao.STATUS_CHANGE_CHANNEL, frontendChargeCache::invalidateFromAnotherNode);
+        }
+        boolean gatewayAccountCacheListens = configuration.getGatewayAccountCacheConfig().isCrossNodeInvalidationEnabled();
+        boolean frontendChargeCacheListens = configuration.getFrontendChargeCacheConfig().isEnabled();
+        if (gatewayAccountCacheListens || frontendChargeCacheListens) {
+            handlers.put(GatewayAccountDao.CHANGE_CHANNEL, accountId -> {
+                if (gatewayAccountCacheListens) {
+                    gatewayAccountCache.invalidate(Long.parseLong(accountId));
+                }
+                if (frontendChargeCacheListens) {
+                    frontendChargeCache.invalidateAccount(Long.parseLong(accountId));
+                }
+            });
+        }
+        this.handlers = handlers.build();
+
+        this.executorService = environment
+                .lifecycle()
+                .executorService("database-notification-listener")
+                .minThreads(1)
+                .maxThreads(1)
+                .build();
+    }
+
+    public boolean hasChannels() {
+        return !handlers.isEmpty();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        executorService.submit(this::listen);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        executorService.shutdown();
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = connect()) {
+                try (Statement statement = connection.createStatement()) {
+                    for (String channel : handlers.keySet()) {
+                        statement.execute("LISTEN " + channel);
+                    }
+                }
+                frontendChargeCache.invalidateAll();
+                chargeStatusWatcher.changedAll();
+                gatewayAccountCache.invalidateAll();
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                long healthCheckIntervalNanos = MILLISECONDS.toNanos(config.getHealthCheckInterval().toMilliseconds());
+                long lastHealthCheck = System.nanoTime();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(RECEIVE_TIMEOUT_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            handle(notification);
+                        }
+                    }
+                    if (System.nanoTime() - lastHealthCheck >= healthCheckIntervalNanos) {
+                        checkHealth(connection);
+                        lastHealthCheck = System.nanoTime();
+                    }
+                }
+            } catch (SQLException e) {
+                LOGGER.error("Database notification listener lost its connection [message={}]", e.getMessage());
+                sleepBeforeReconnecting();
+            }
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        Properties properties = new Properties();
+        properties.putAll(dataSourceFactory.getProperties());
+        if (dataSourceFactory.getUser() != null) {
+            properties.setProperty("user", dataSourceFactory.getUser());
+        }
+        if (dataSourceFactory.getPassword() != null) {
+            properties.setProperty("password", dataSourceFactory.getPassword());
+        }
+        return DriverManager.getConnection(dataSourceFactory.getUrl(), properties);
+    }
+
+    private static void checkHealth(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SELECT 1");
+        }
+    }
+
+    private void handle(PGNotification notification) {
+        try {
+            handlers.get(notification.getName()).accept(notification.getParameter());
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to handle database notification [channel={}] [payload={}] [message={}]",
+                    notification.getName(), notification.getParameter(), e.getMessage());
+        }
+    }
+
+    private void sleepBeforeReconnecting() {
+        try {
+            Thread.sleep(config.getReconnectDelay().toMilliseconds());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
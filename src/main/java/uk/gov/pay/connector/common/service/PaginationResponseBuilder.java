@@ -5,6 +5,7 @@ import black.door.hate.JacksonHalResource;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import uk.gov.pay.connector.charge.dao.SearchCursor;
 import uk.gov.pay.connector.charge.dao.SearchParams;
 
 import javax.ws.rs.core.Response;
@@ -23,12 +24,14 @@ public class PaginationResponseBuilder<T> {
     private UriInfo uriInfo;
     private List<T> responses;
     private Long totalCount;
+    private boolean totalEstimated;
     private Long selfPageNum;
     private String selfLink;
     private String firstLink;
     private String lastLink;
     private String prevLink;
     private String nextLink;
+    private SearchCursor nextCursor;
 
     public PaginationResponseBuilder(SearchParams searchParams, UriInfo uriInfo) {
         this.searchParams = searchParams;
@@ -47,7 +50,25 @@ public class PaginationResponseBuilder<T> {
         return this;
     }
 
+    public PaginationResponseBuilder withTotalEstimated(boolean totalEstimated) {
+        this.totalEstimated = totalEstimated;
+        return this;
+    }
+
+    /**
+     * Position of the last result, for the next page link when the search was made with a cursor. Leave unset when
+     * there are no more results.
+     */
+    public PaginationResponseBuilder withNextCursor(SearchCursor nextCursor) {
+        this.nextCursor = nextCursor;
+        return this;
+    }
+
     public Response buildResponse() {
+        if (searchParams.isCursorPaging()) {
+            return buildCursorResponse();
+        }
+
         Long size = searchParams.getDisplaySize();
         long lastPage = totalCount > 0 ? (totalCount + size - 1) / size : 1;
         buildLinks(lastPage);
@@ -61,12 +82,49 @@ public class PaginationResponseBuilder<T> {
                 .addLink("first_page", new Link(firstLink))
                 .addLink("last_page", new Link(lastLink));
 
+        addTotalEstimated(halRepresentationBuilder);
         addLinkNotNull(halRepresentationBuilder, "prev_page", prevLink);
         addLinkNotNull(halRepresentationBuilder, "next_page", nextLink);
 
         return ok(halRepresentationBuilder.build().toString()).build();
     }
 
+    /**
+     * A client paging with a cursor only ever moves forward, so there are no previous or last page links, and no page
+     * number.
+     */
+    private Response buildCursorResponse() {
+        searchParams.withAfter(SearchCursor.START);
+        firstLink = uriWithParams(searchParams.buildQueryParams());
+
+        if (nextCursor != null) {
+            searchParams.withAfter(nextCursor);
+            nextLink = uriWithParams(searchParams.buildQueryParams());
+        }
+
+        HalRepresentation.HalRepresentationBuilder halRepresentationBuilder = HalRepresentation.builder()
+                .addProperty("results", responses)
+                .addProperty("count", responses.size())
+                .addProperty("total", totalCount)
+                .addLink("self", new Link(selfLink))
+                .addLink("first_page", new Link(firstLink));
+
+        addTotalEstimated(halRepresentationBuilder);
+        addLinkNotNull(halRepresentationBuilder, "next_page", nextLink);
+
+        return ok(halRepresentationBuilder.build().toString()).build();
+    }
+
+    /**
+     * Only present when the total is the query planner's estimate rather than a count, which leaves existing
+     * responses unchanged.
+     */
+    private void addTotalEstimated(HalRepresentation.HalRepresentationBuilder halRepresentationBuilder) {
+        if (totalEstimated) {
+            halRepresentationBuilder.addProperty("total_estimated", true);
+        }
+    }
+
     private void addLinkNotNull(HalRepresentation.HalRepresentationBuilder halRepresentationBuilder, String name, String uri) {
         if (uri != null) {
             halRepresentationBuilder.addLink(name, new Link(uri));
@@ -1,24 +1,32 @@
 package uk.gov.pay.connector.common.service.search;
 
+import uk.gov.pay.connector.charge.dao.SearchCursor;
 import uk.gov.pay.connector.charge.dao.SearchParams;
 import uk.gov.pay.connector.common.service.PaginationResponseBuilder;
 
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import static uk.gov.pay.connector.util.ResponseUtil.notFoundResponse;
 
 public abstract class AbstractSearchStrategy<T, R> implements SearchStrategy, BuildResponseStrategy<T, R> {
     
-    protected AbstractSearchStrategy() { }
+    private final SearchTotals searchTotals;
+
+    protected AbstractSearchStrategy(SearchTotals searchTotals) {
+        this.searchTotals = searchTotals;
+    }
 
     @Override
     public Response search(SearchParams searchParams, UriInfo uriInfo) {
-        long totalCount = getTotalFor(searchParams);
+        SearchTotal total = searchTotals.totalFor(getClass().getSimpleName(), searchParams,
+                () -> getTotalFor(searchParams), () -> estimateTotalFor(searchParams));
+        long totalCount = total.getCount();
         Long size = searchParams.getDisplaySize();
-        if (totalCount > 0 && size > 0) {
+        if (!searchParams.isCursorPaging() && !total.isEstimated() && totalCount > 0 && size > 0) {
             long lastPage = (totalCount + size - 1) / size;
             if (searchParams.getPage() > lastPage || searchParams.getPage() < 1) {
                 return notFoundResponse("the requested page not found");
@@ -30,9 +38,29 @@ public abstract class AbstractSearchStrategy<T, R> implements SearchStrategy, Bu
                         .map(c -> buildResponse(uriInfo, c))
                         .collect(Collectors.toList());
 
-        return new PaginationResponseBuilder<R>(searchParams, uriInfo)
+        PaginationResponseBuilder<R> paginationResponseBuilder = new PaginationResponseBuilder<R>(searchParams, uriInfo)
                 .withResponses(chargesResponses)
                 .withTotalCount(totalCount)
-                .buildResponse();
+                .withTotalEstimated(total.isEstimated());
+
+        if (searchParams.isCursorPaging() && !list.isEmpty() && list.size() == size) {
+            cursorOf(list.get(list.size() - 1)).ifPresent(paginationResponseBuilder::withNextCursor);
+        }
+
+        return paginationResponseBuilder.buildResponse();
+    }
+
+    /**
+     * The query planner's estimate of how many results a search has, for strategies that can get one cheaply.
+     */
+    protected Optional<Long> estimateTotalFor(SearchParams params) {
+        return Optional.empty();
+    }
+
+    /**
+     * Position of a result for the next page link of a search made with a cursor, for strategies that support one.
+     */
+    protected Optional<SearchCursor> cursorOf(T result) {
+        return Optional.empty();
     }
 }
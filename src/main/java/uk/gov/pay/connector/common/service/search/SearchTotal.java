@@ -0,0 +1,28 @@
+package uk.gov.pay.connector.common.service.search;
+
+public class SearchTotal {
+
+    private final long count;
+    private final boolean estimated;
+
+    private SearchTotal(long count, boolean estimated) {
+        this.count = count;
+        this.estimated = estimated;
+    }
+
+    public static SearchTotal exactly(long count) {
+        return new SearchTotal(count, false);
+    }
+
+    public static SearchTotal estimated(long count) {
+        return new SearchTotal(count, true);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public boolean isEstimated() {
+        return estimated;
+    }
+}
@@ -0,0 +1,81 @@
+package uk.gov.pay.connector.common.service.search;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.dropwizard.setup.Environment;
+import uk.gov.pay.connector.app.ConnectorConfiguration;
+import uk.gov.pay.connector.app.SearchTotalsConfig;
+import uk.gov.pay.connector.charge.dao.SearchParams;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the totals of recent searches for a short time, so a client paging through a search does not count every
+ * matching row again for each page. Searches are identified by their type and {@link SearchParams#buildFilterKey()}.
+ * <p>
+ * When estimates are enabled, a search whose planner estimate is above the threshold reports the estimate instead of
+ * counting. Searches that cannot be estimated are always counted.
+ */
+@Singleton
+public class SearchTotals {
+
+    private final SearchTotalsConfig config;
+    private final Cache<String, SearchTotal> totals;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter estimates;
+
+    @Inject
+    public SearchTotals(ConnectorConfiguration configuration, Environment environment) {
+        this(configuration.getSearchTotalsConfig(), environment.metrics());
+    }
+
+    public SearchTotals(SearchTotalsConfig config, MetricRegistry metricRegistry) {
+        this.config = config;
+        this.totals = CacheBuilder.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getExpireAfterWrite().toMilliseconds(), TimeUnit.MILLISECONDS)
+                .build();
+        this.hits = metricRegistry.counter("search-totals.hits");
+        this.misses = metricRegistry.counter("search-totals.misses");
+        this.estimates = metricRegistry.counter("search-totals.estimates");
+        metricRegistry.gauge("search-totals.size", () -> (Gauge<Long>) totals::size);
+    }
+
+    public SearchTotal totalFor(String searchType, SearchParams params,
+                                Supplier<Long> count, Supplier<Optional<Long>> estimate) {
+        if (!config.isEnabled()) {
+            return calculate(count, estimate);
+        }
+
+        String key = searchType + "?" + params.buildFilterKey();
+        SearchTotal total = totals.getIfPresent(key);
+        if (total != null) {
+            hits.inc();
+            return total;
+        }
+
+        misses.inc();
+        total = calculate(count, estimate);
+        totals.put(key, total);
+        return total;
+    }
+
+    private SearchTotal calculate(Supplier<Long> count, Supplier<Optional<Long>> estimate) {
+        if (config.isEstimatesEnabled()) {
+            Optional<Long> estimated = estimate.get().filter(rows -> rows > config.getEstimateThreshold());
+            if (estimated.isPresent()) {
+                estimates.inc();
+                return SearchTotal.estimated(estimated.get());
+            }
+        }
+        return SearchTotal.exactly(count.get());
+    }
+}
@@ -3,12 +3,14 @@ package uk.gov.pay.connector.common.validator;
 import fj.data.Either;
 import org.apache.commons.lang3.tuple.Pair;
 import uk.gov.pay.commons.model.SupportedLanguage;
+import uk.gov.pay.connector.charge.dao.SearchCursor;
 import uk.gov.pay.connector.common.service.PatchRequestBuilder;
 import uk.gov.pay.connector.gatewayaccount.dao.GatewayAccountDao;
 
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeParseException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -93,8 +95,20 @@ public class ApiValidators {
     }
 
     public static Optional<List<String>> validateQueryParams(List<Pair<String, String>> dateParams, List<Pair<String, Long>> nonNegativePairMap) {
+        return validateQueryParams(dateParams, nonNegativePairMap, Collections.emptyList());
+    }
+
+    public static Optional<List<String>> validateQueryParams(List<Pair<String, String>> dateParams,
+                                                             List<Pair<String, Long>> nonNegativePairMap,
+                                                             List<Pair<String, String>> cursorParams) {
         Map<String, String> invalidQueryParams = new HashMap<>();
 
+        cursorParams.forEach(param -> {
+            if (param.getRight() != null && !SearchCursor.decode(param.getRight()).isPresent()) {
+                invalidQueryParams.put(param.getLeft(), "query param '%s' not in correct format");
+            }
+        });
+
         dateParams.forEach(param -> {
             String dateString = param.getRight();
             if (isNotBlank(dateString) && !parseZonedDateTime(dateString).isPresent()) {
@@ -9,6 +9,7 @@ import javax.ws.rs.client.ClientRequestContext;
 import javax.ws.rs.client.ClientRequestFilter;
 import javax.ws.rs.client.ClientResponseContext;
 import javax.ws.rs.client.ClientResponseFilter;
+import java.net.URI;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
@@ -31,10 +32,7 @@ public class RestClientLoggingFilter implements ClientRequestFilter, ClientRespo
 
         requestContext.getHeaders().add(HEADER_REQUEST_ID, requestId.get());
 
-        logger.info(format("%s to %s began",
-                requestContext.getMethod(),
-                requestContext.getUri()));
-
+        logRequestBegan(requestContext.getMethod(), requestContext.getUri());
     }
 
     @Override
@@ -43,13 +41,21 @@ public class RestClientLoggingFilter implements ClientRequestFilter, ClientRespo
 
         responseContext.getHeaders().add(HEADER_REQUEST_ID, requestId.get());
 
-        logger.info(format("%s to %s ended - total time %dms",
-                requestContext.getMethod(),
-                requestContext.getUri(),
-                elapsed));
+        logRequestEnded(requestContext.getMethod(), requestContext.getUri(), elapsed);
 
         requestId.remove();
         timer.get().stop();
         timer.remove();
     }
+
+    /**
+     * Also used for requests that do not go through a Jersey client, so that every outgoing request is logged alike.
+     */
+    public static void logRequestBegan(String method, URI uri) {
+        logger.info(format("%s to %s began", method, uri));
+    }
+
+    public static void logRequestEnded(String method, URI uri, long elapsedMillis) {
+        logger.info(format("%s to %s ended - total time %dms", method, uri, elapsedMillis));
+    }
 }
@@ -0,0 +1,122 @@
+package uk.gov.pay.connector.gateway;
+
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.setup.Environment;
+import io.dropwizard.util.Duration;
+import uk.gov.pay.connector.app.ConnectorConfiguration;
+import uk.gov.pay.connector.app.GatewayAdaptiveTimeoutConfig;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Derives the read timeout for each gateway operation from its recent response times, so a handful of slow
+ * requests no longer hold a connection (and a card executor thread) for the whole hand-tuned static timeout.
+ * <p>
+ * The timeout is a high percentile of the operation's recent response times multiplied by a safety margin, bounded
+ * by the configured floor and by the lower of the ceiling and the static timeout. Requests that timed out are not
+ * recorded: their response time is the timeout itself, so they would only push the timeout up towards the ceiling.
+ * Until enough responses have been recorded the static timeout applies.
+ */
+@Singleton
+public class AdaptiveGatewayTimeouts {
+
+    private final GatewayAdaptiveTimeoutConfig config;
+    private final MetricRegistry metricRegistry;
+    private final Clock clock;
+    private final Map<String, OperationTimeout> operationTimeouts = new ConcurrentHashMap<>();
+
+    @Inject
+    public AdaptiveGatewayTimeouts(ConnectorConfiguration configuration, Environment environment) {
+        this(configuration.getGatewayAdaptiveTimeoutConfig(), environment.metrics(), Clock.systemUTC());
+    }
+
+    public AdaptiveGatewayTimeouts(GatewayAdaptiveTimeoutConfig config, MetricRegistry metricRegistry, Clock clock) {
+        this.config = config;
+        this.metricRegistry = metricRegistry;
+        this.clock = clock;
+    }
+
+    /**
+     * @param metricsPrefix     the {@code gateway-operations.<gateway>.<account type>.<order request type>} prefix
+     *                          of the operation
+     * @param staticReadTimeout the configured read timeout for the operation, which the adaptive timeout never exceeds
+     * @return the adaptive read timeout, or empty if adaptive timeouts are disabled or there is not yet enough data,
+     * in which case the static read timeout should be used
+     */
+    public Optional<Duration> getReadTimeout(String metricsPrefix, Duration staticReadTimeout) {
+        if (!config.isEnabled()) {
+            return Optional.empty();
+        }
+        return forOperation(metricsPrefix).get(staticReadTimeout);
+    }
+
+    /**
+     * Records the response time of a request that did not time out.
+     */
+    public void recordResponseTime(String metricsPrefix, long responseTimeMillis) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        forOperation(metricsPrefix).responseTimes.update(responseTimeMillis);
+    }
+
+    private OperationTimeout forOperation(String metricsPrefix) {
+        return operationTimeouts.computeIfAbsent(metricsPrefix, this::createOperationTimeout);
+    }
+
+    private OperationTimeout createOperationTimeout(String metricsPrefix) {
+        OperationTimeout operationTimeout = new OperationTimeout();
+        metricRegistry.gauge(metricsPrefix + ".read_timeout", () -> (Gauge<Long>) operationTimeout::getEffectiveReadTimeoutMillis);
+        return operationTimeout;
+    }
+
+    private class OperationTimeout {
+        private final Histogram responseTimes = new Histogram(new ExponentiallyDecayingReservoir());
+        private volatile Duration staticReadTimeout;
+        private volatile Optional<Duration> readTimeout = Optional.empty();
+        private volatile Instant nextRecalculation = Instant.MIN;
+
+        Optional<Duration> get(Duration staticReadTimeout) {
+            this.staticReadTimeout = staticReadTimeout;
+            Instant now = clock.instant();
+            if (!now.isBefore(nextRecalculation)) {
+                nextRecalculation = now.plusMillis(config.getRecalculationInterval().toMilliseconds());
+                readTimeout = calculate();
+            }
+            return readTimeout;
+        }
+
+        private Optional<Duration> calculate() {
+            if (responseTimes.getCount() < config.getMinimumNumberOfCalls()) {
+                return Optional.empty();
+            }
+            double percentileMillis = responseTimes.getSnapshot().getValue(config.getPercentile());
+            long timeoutMillis = (long) Math.ceil(percentileMillis * config.getMultiplier());
+            timeoutMillis = Math.max(timeoutMillis, config.getFloor().toMilliseconds());
+            timeoutMillis = Math.min(timeoutMillis, getMaximumMillis());
+            return Optional.of(Duration.milliseconds(timeoutMillis));
+        }
+
+        private long getMaximumMillis() {
+            Duration staticReadTimeout = this.staticReadTimeout;
+            long ceilingMillis = config.getCeiling().toMilliseconds();
+            return staticReadTimeout == null ? ceilingMillis : Math.min(ceilingMillis, staticReadTimeout.toMilliseconds());
+        }
+
+        long getEffectiveReadTimeoutMillis() {
+            Duration staticReadTimeout = this.staticReadTimeout;
+            return readTimeout
+                    .map(Duration::toMilliseconds)
+                    .orElse(staticReadTimeout == null ? 0L : staticReadTimeout.toMilliseconds());
+        }
+    }
+}
@@ -2,7 +2,10 @@ package uk.gov.pay.connector.gateway;
 
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.httpclient.InstrumentedHttpClientConnectionManager;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import io.dropwizard.client.JerseyClientBuilder;
+import io.dropwizard.client.JerseyClientConfiguration;
 import io.dropwizard.setup.Environment;
 import io.dropwizard.util.Duration;
 import org.apache.http.config.RegistryBuilder;
@@ -11,6 +14,7 @@ import org.apache.http.conn.socket.ConnectionSocketFactory;
 import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.impl.conn.ManagedHttpClientConnectionFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.impl.conn.SystemDefaultDnsResolver;
 import org.glassfish.jersey.apache.connector.ApacheConnectorProvider;
 import org.glassfish.jersey.client.ClientProperties;
@@ -20,23 +24,35 @@ import uk.gov.pay.connector.app.OperationOverrides;
 import uk.gov.pay.connector.filters.RestClientLoggingFilter;
 
 import javax.inject.Inject;
-import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
 import javax.ws.rs.client.Client;
+import java.net.InetSocketAddress;
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
 import java.security.NoSuchAlgorithmException;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import static java.lang.String.format;
 import static org.glassfish.jersey.apache.connector.ApacheClientProperties.CONNECTION_MANAGER;
+import static org.glassfish.jersey.apache.connector.ApacheClientProperties.CONNECTION_MANAGER_SHARED;
 import static org.glassfish.jersey.client.ClientProperties.READ_TIMEOUT;
 
 public class ClientFactory {
     private final Environment environment;
     private final ConnectorConfiguration conf;
+    private final Supplier<HttpClient> asyncHttpClient = Suppliers.memoize(this::createAsyncHttpClient);
 
     private final static String PROXY_HOST_PROPERTY = "https.proxyHost";
     private final static String PROXY_PORT_PROPERTY = "https.proxyPort";
+    private final static long IDLE_CONNECTION_EVICTION_INTERVAL_SECONDS = 5;
+
+    private final Map<PaymentGatewayName, PoolingHttpClientConnectionManager> connectionManagers = new ConcurrentHashMap<>();
+    private final Supplier<ScheduledExecutorService> idleConnectionEvictor = Suppliers.memoize(this::createIdleConnectionEvictor);
 
     @Inject
     public ClientFactory(Environment environment, ConnectorConfiguration conf) {
@@ -45,19 +61,20 @@ public class ClientFactory {
     }
 
     public Client createWithDropwizardClient(PaymentGatewayName gateway, GatewayOperation operation, MetricRegistry metricRegistry) {
-        return createWithDropwizardClient(gateway, getReadTimeout(operation, gateway), operation.getConfigKey(), metricRegistry);
+        return createWithDropwizardClient(gateway, getReadTimeout(operation, gateway), metricRegistry);
     }
 
     public Client createWithDropwizardClient(PaymentGatewayName gateway, MetricRegistry metricRegistry) {
-        return createWithDropwizardClient(gateway, conf.getCustomJerseyClient().getReadTimeout(), "all", metricRegistry);
+        return createWithDropwizardClient(gateway, getDefaultReadTimeout(), metricRegistry);
     }
 
-    private Client createWithDropwizardClient(PaymentGatewayName gateway, Duration readTimeout, String metricName, MetricRegistry metricRegistry) {
+    private Client createWithDropwizardClient(PaymentGatewayName gateway, Duration readTimeout, MetricRegistry metricRegistry) {
         JerseyClientBuilder defaultClientBuilder = new JerseyClientBuilder(environment)
                 .using(new ApacheConnectorProvider())
                 .using(conf.getClientConfiguration())
                 .withProperty(READ_TIMEOUT, (int) readTimeout.toMilliseconds())
-                .withProperty(CONNECTION_MANAGER, createConnectionManager(gateway.getName(), metricName, metricRegistry));
+                .withProperty(CONNECTION_MANAGER, getConnectionManagerFor(gateway, metricRegistry))
+                .withProperty(CONNECTION_MANAGER_SHARED, true);
 
         if (System.getProperty(PROXY_HOST_PROPERTY) != null && System.getProperty(PROXY_PORT_PROPERTY) != null) {
             defaultClientBuilder.withProperty(ClientProperties.PROXY_URI, format("http://%s:%s",
@@ -73,10 +90,49 @@ public class ClientFactory {
         return client;
     }
 
-    private Duration getReadTimeout(GatewayOperation operation, PaymentGatewayName gateway) {
+    /**
+     * A single non-blocking client is shared by every gateway: it multiplexes all in-flight requests over one
+     * selector thread, so the number of threads no longer grows with the number of outstanding gateway calls.
+     */
+    public HttpClient getAsyncHttpClient() {
+        return asyncHttpClient.get();
+    }
+
+    private HttpClient createAsyncHttpClient() {
+        HttpClient.Builder httpClientBuilder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(java.time.Duration.ofMillis(conf.getClientConfiguration().getConnectionTimeout().toMilliseconds()))
+                .sslParameters(new SSLParameters(null, new String[]{"TLSv1.2"}));
+
+        try {
+            httpClientBuilder.sslContext(SSLContext.getDefault());
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Unable to create SSL context for async client", e);
+        }
+
+        if (System.getProperty(PROXY_HOST_PROPERTY) != null && System.getProperty(PROXY_PORT_PROPERTY) != null) {
+            httpClientBuilder.proxy(ProxySelector.of(new InetSocketAddress(
+                    System.getProperty(PROXY_HOST_PROPERTY), Integer.parseInt(System.getProperty(PROXY_PORT_PROPERTY)))));
+        }
+
+        return httpClientBuilder.build();
+    }
+
+    private ScheduledExecutorService createIdleConnectionEvictor() {
+        return environment.lifecycle()
+                .scheduledExecutorService("gateway-idle-connection-evictor")
+                .threads(1)
+                .build();
+    }
+
+    public Duration getReadTimeout(GatewayOperation operation, PaymentGatewayName gateway) {
         return getOverridesFor(operation, gateway)
                 .map(OperationOverrides::getReadTimeout)
-                .orElse(conf.getCustomJerseyClient().getReadTimeout());
+                .orElse(getDefaultReadTimeout());
+    }
+
+    public Duration getDefaultReadTimeout() {
+        return conf.getCustomJerseyClient().getReadTimeout();
     }
 
     private Optional<OperationOverrides> getOverridesFor(GatewayOperation operation, PaymentGatewayName gateway) {
@@ -86,21 +142,34 @@ public class ClientFactory {
                 .map(jerseyClientOverrides -> jerseyClientOverrides.getOverridesFor(operation));
     }
 
-    private HttpClientConnectionManager createConnectionManager(String gatewayName, String operation, MetricRegistry metricRegistry) {
+    /**
+     * Every operation for a gateway shares one connection pool, so a capture or refund can reuse a connection (and
+     * the TLS session cached in the default SSLContext) opened by an earlier auth. Read timeouts stay per operation
+     * because they are applied by each Jersey client, not by the pool.
+     */
+    private HttpClientConnectionManager getConnectionManagerFor(PaymentGatewayName gateway, MetricRegistry metricRegistry) {
+        return connectionManagers.computeIfAbsent(gateway, gatewayName -> {
+            PoolingHttpClientConnectionManager connectionManager = createConnectionManager(gatewayName.getName(), metricRegistry);
+            scheduleIdleConnectionEviction(connectionManager);
+            return connectionManager;
+        });
+    }
+
+    private PoolingHttpClientConnectionManager createConnectionManager(String gatewayName, MetricRegistry metricRegistry) {
 
         SSLConnectionSocketFactory sslConnectionSocketFactory;
         try {
-            sslConnectionSocketFactory = new SSLConnectionSocketFactory(
+            sslConnectionSocketFactory = new InstrumentedSSLConnectionSocketFactory(
                     SSLContext.getDefault(),
                     new String[]{"TLSv1.2"},
-                    null,
-                    (HostnameVerifier) null
+                    metricRegistry.timer(format("gateway-connections.%s.tls-handshake", gatewayName))
             );
         } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException("Unable to create SSL connection socket factory", e);
         }
 
-        return new InstrumentedHttpClientConnectionManager(
+        JerseyClientConfiguration clientConfiguration = conf.getClientConfiguration();
+        PoolingHttpClientConnectionManager connectionManager = new InstrumentedHttpClientConnectionManager(
                 metricRegistry,
                 RegistryBuilder.<ConnectionSocketFactory>create()
                         .register("http", PlainConnectionSocketFactory.getSocketFactory())
@@ -109,10 +178,24 @@ public class ClientFactory {
                 new ManagedHttpClientConnectionFactory(),
                 null,
                 SystemDefaultDnsResolver.INSTANCE,
-                -1,
+                clientConfiguration.getTimeToLive().toMilliseconds(),
                 TimeUnit.MILLISECONDS,
-                format("%s.%s", gatewayName, operation)
+                gatewayName
         );
+        connectionManager.setMaxTotal(clientConfiguration.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(clientConfiguration.getMaxConnectionsPerRoute());
+        connectionManager.setValidateAfterInactivity((int) clientConfiguration.getValidateAfterInactivityPeriod().toMilliseconds());
+        return connectionManager;
+    }
+
+    private void scheduleIdleConnectionEviction(PoolingHttpClientConnectionManager connectionManager) {
+        long keepAliveMillis = conf.getClientConfiguration().getKeepAlive().toMilliseconds();
+        idleConnectionEvictor.get().scheduleWithFixedDelay(() -> {
+            connectionManager.closeExpiredConnections();
+            if (keepAliveMillis > 0) {
+                connectionManager.closeIdleConnections(keepAliveMillis, TimeUnit.MILLISECONDS);
+            }
+        }, IDLE_CONNECTION_EVICTION_INTERVAL_SECONDS, IDLE_CONNECTION_EVICTION_INTERVAL_SECONDS, TimeUnit.SECONDS);
     }
 }
 
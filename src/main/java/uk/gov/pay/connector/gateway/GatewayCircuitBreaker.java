@@ -0,0 +1,159 @@
+package uk.gov.pay.connector.gateway;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.pay.connector.app.GatewayCircuitBreakerConfig;
+import uk.gov.pay.connector.gateway.GatewayException.GatewayUnavailableException;
+
+import java.time.Clock;
+import java.util.concurrent.Semaphore;
+
+import static java.lang.String.format;
+
+/**
+ * Count-based circuit breaker and concurrency bulkhead for one gateway operation (e.g. worldpay auth).
+ *
+ * The breaker opens when, over the last slidingWindowSize calls, the failure rate or the rate of calls slower than
+ * slowCallDurationThreshold reaches its threshold. While open, calls are rejected until waitDurationInOpenState has
+ * passed; then permittedCallsInHalfOpenState trial calls decide whether it closes again or reopens.
+ */
+public class GatewayCircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(GatewayCircuitBreaker.class);
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final GatewayCircuitBreakerConfig config;
+    private final Clock clock;
+    private final Semaphore bulkhead;
+
+    private final boolean[] failedCalls;
+    private final boolean[] slowCalls;
+    private int nextIndex;
+    private int numberOfCalls;
+    private int numberOfFailedCalls;
+    private int numberOfSlowCalls;
+
+    private State state = State.CLOSED;
+    private long openedAtMillis;
+    private int remainingHalfOpenCalls;
+
+    public GatewayCircuitBreaker(String name, GatewayCircuitBreakerConfig config, Clock clock) {
+        this.name = name;
+        this.config = config;
+        this.clock = clock;
+        this.bulkhead = new Semaphore(config.getMaxConcurrentCalls());
+        this.failedCalls = new boolean[config.getSlidingWindowSize()];
+        this.slowCalls = new boolean[config.getSlidingWindowSize()];
+    }
+
+    /**
+     * When the breaker is disabled calls are never rejected, but the breaker still moves between states as it would
+     * if it were enabled, so its gauges show what enabling it would do.
+     */
+    public void acquirePermission() throws GatewayUnavailableException {
+        if (!config.isEnabled()) {
+            tryAcquireCircuitPermission();
+            return;
+        }
+        if (!bulkhead.tryAcquire()) {
+            throw new GatewayUnavailableException(format("Bulkhead full for %s", name));
+        }
+        if (!tryAcquireCircuitPermission()) {
+            bulkhead.release();
+            throw new GatewayUnavailableException(format("Circuit breaker open for %s", name));
+        }
+    }
+
+    public void onCallFinished(long durationMillis, boolean failed) {
+        if (config.isEnabled()) {
+            bulkhead.release();
+        }
+        recordCall(failed, durationMillis >= config.getSlowCallDurationThreshold().toMilliseconds());
+    }
+
+    private synchronized boolean tryAcquireCircuitPermission() {
+        if (state == State.OPEN) {
+            if (clock.millis() - openedAtMillis < config.getWaitDurationInOpenState().toMilliseconds()) {
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (remainingHalfOpenCalls == 0) {
+                return false;
+            }
+            remainingHalfOpenCalls--;
+        }
+        return true;
+    }
+
+    private synchronized void recordCall(boolean failed, boolean slow) {
+        if (state == State.OPEN) {
+            return;
+        }
+
+        if (numberOfCalls == failedCalls.length) {
+            numberOfFailedCalls -= failedCalls[nextIndex] ? 1 : 0;
+            numberOfSlowCalls -= slowCalls[nextIndex] ? 1 : 0;
+        } else {
+            numberOfCalls++;
+        }
+        failedCalls[nextIndex] = failed;
+        slowCalls[nextIndex] = slow;
+        numberOfFailedCalls += failed ? 1 : 0;
+        numberOfSlowCalls += slow ? 1 : 0;
+        nextIndex = (nextIndex + 1) % failedCalls.length;
+
+        if (state == State.HALF_OPEN) {
+            if (numberOfCalls >= config.getPermittedCallsInHalfOpenState()) {
+                transitionTo(thresholdsExceeded() ? State.OPEN : State.CLOSED);
+            }
+        } else if (numberOfCalls >= config.getMinimumNumberOfCalls() && thresholdsExceeded()) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private boolean thresholdsExceeded() {
+        return getFailureRate() >= config.getFailureRateThreshold() || getSlowCallRate() >= config.getSlowCallRateThreshold();
+    }
+
+    private void transitionTo(State newState) {
+        logger.warn("Gateway circuit breaker {} changed state from {} to {} - failure rate {}%, slow call rate {}%",
+                name, state, newState, getFailureRate(), getSlowCallRate());
+        state = newState;
+        if (newState == State.OPEN) {
+            openedAtMillis = clock.millis();
+        }
+        remainingHalfOpenCalls = newState == State.HALF_OPEN ? config.getPermittedCallsInHalfOpenState() : 0;
+        numberOfCalls = 0;
+        numberOfFailedCalls = 0;
+        numberOfSlowCalls = 0;
+        nextIndex = 0;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized float getFailureRate() {
+        return numberOfCalls == 0 ? 0 : numberOfFailedCalls * 100f / numberOfCalls;
+    }
+
+    public synchronized float getSlowCallRate() {
+        return numberOfCalls == 0 ? 0 : numberOfSlowCalls * 100f / numberOfCalls;
+    }
+
+    public int getAvailableConcurrentCalls() {
+        return bulkhead.availablePermits();
+    }
+}
@@ -0,0 +1,56 @@
+package uk.gov.pay.connector.gateway;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.setup.Environment;
+import uk.gov.pay.connector.app.ConnectorConfiguration;
+import uk.gov.pay.connector.app.GatewayCircuitBreakerConfig;
+import uk.gov.pay.connector.gateway.model.OrderRequestType;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.time.Clock;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.String.format;
+
+@Singleton
+public class GatewayCircuitBreakerRegistry {
+
+    private final GatewayCircuitBreakerConfig config;
+    private final MetricRegistry metricRegistry;
+    private final Clock clock;
+    private final Map<String, GatewayCircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    @Inject
+    public GatewayCircuitBreakerRegistry(ConnectorConfiguration configuration, Environment environment) {
+        this(configuration.getGatewayCircuitBreakerConfig(), environment.metrics(), Clock.systemUTC());
+    }
+
+    public GatewayCircuitBreakerRegistry(GatewayCircuitBreakerConfig config, MetricRegistry metricRegistry, Clock clock) {
+        this.config = config;
+        this.metricRegistry = metricRegistry;
+        this.clock = clock;
+    }
+
+    public GatewayCircuitBreaker forOrder(String gatewayName, OrderRequestType orderRequestType) {
+        String name = format("%s.%s", gatewayName, GatewayOperation.fromOrderRequestType(orderRequestType).getConfigKey());
+        return circuitBreakers.computeIfAbsent(name, this::createCircuitBreaker);
+    }
+
+    public Collection<GatewayCircuitBreaker> getCircuitBreakers() {
+        return circuitBreakers.values();
+    }
+
+    private GatewayCircuitBreaker createCircuitBreaker(String name) {
+        GatewayCircuitBreaker circuitBreaker = new GatewayCircuitBreaker(name, config, clock);
+        String metricsPrefix = "gateway-circuit-breaker." + name;
+        metricRegistry.gauge(metricsPrefix + ".state", () -> (Gauge<Integer>) () -> circuitBreaker.getState().ordinal());
+        metricRegistry.gauge(metricsPrefix + ".failure-rate", () -> (Gauge<Float>) circuitBreaker::getFailureRate);
+        metricRegistry.gauge(metricsPrefix + ".slow-call-rate", () -> (Gauge<Float>) circuitBreaker::getSlowCallRate);
+        metricRegistry.gauge(metricsPrefix + ".available-concurrent-calls", () -> (Gauge<Integer>) circuitBreaker::getAvailableConcurrentCalls);
+        return circuitBreaker;
+    }
+}
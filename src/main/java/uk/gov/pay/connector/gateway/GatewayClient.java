@@ -1,40 +1,105 @@
 package uk.gov.pay.connector.gateway;
 
+import com.codahale.metrics.Histogram;
 import com.codahale.metrics.MetricRegistry;
 import com.google.common.base.Stopwatch;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.gov.pay.connector.gateway.GatewayException.GatewayConnectionTimeoutException;
 import uk.gov.pay.connector.gateway.GatewayException.GatewayErrorException;
+import uk.gov.pay.connector.gateway.GatewayException.GatewayUnavailableException;
 import uk.gov.pay.connector.gateway.GatewayException.GenericGatewayException;
+import uk.gov.pay.connector.app.GatewayAdaptiveTimeoutConfig;
+import uk.gov.pay.connector.app.GatewayCircuitBreakerConfig;
+import uk.gov.pay.connector.filters.RestClientLoggingFilter;
 import uk.gov.pay.connector.gateway.model.request.GatewayClientRequest;
 import uk.gov.pay.connector.gatewayaccount.model.GatewayAccountEntity;
+import uk.gov.pay.connector.util.XrayUtils;
 
+import io.dropwizard.util.Duration;
+import org.slf4j.MDC;
+
+import javax.ws.rs.HttpMethod;
 import javax.ws.rs.ProcessingException;
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.Invocation.Builder;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.net.HttpCookie;
 import java.net.SocketTimeoutException;
 import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.Charset;
+import java.time.Clock;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
 
 import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.joining;
+import static uk.gov.pay.connector.filters.RestClientLoggingFilter.HEADER_REQUEST_ID;
+import static javax.ws.rs.core.Response.Status.Family.SERVER_ERROR;
+import static javax.ws.rs.core.Response.Status.Family.familyOf;
 import static javax.ws.rs.core.Response.Status.OK;
+import static org.glassfish.jersey.client.ClientProperties.READ_TIMEOUT;
 
 public class GatewayClient {
     private static final Logger logger = LoggerFactory.getLogger(GatewayClient.class);
 
     private final Client client;
+    private final HttpClient asyncClient;
+    private final Duration readTimeout;
+    private final GatewayCircuitBreakerRegistry circuitBreakers;
+    private final AdaptiveGatewayTimeouts adaptiveTimeouts;
     private final MetricRegistry metricRegistry;
+    private final XrayUtils xrayUtils;
+
+    private static final Supplier<HttpClient> DEFAULT_ASYNC_CLIENT = Suppliers.memoize(HttpClient::newHttpClient);
 
     public GatewayClient(Client client, MetricRegistry metricRegistry) {
+        this(client, DEFAULT_ASYNC_CLIENT.get(), null,
+                new GatewayCircuitBreakerRegistry(new GatewayCircuitBreakerConfig(), metricRegistry, Clock.systemUTC()),
+                new AdaptiveGatewayTimeouts(new GatewayAdaptiveTimeoutConfig(), metricRegistry, Clock.systemUTC()),
+                metricRegistry);
+    }
+
+    public GatewayClient(Client client,
+                         HttpClient asyncClient,
+                         Duration readTimeout,
+                         GatewayCircuitBreakerRegistry circuitBreakers,
+                         AdaptiveGatewayTimeouts adaptiveTimeouts,
+                         MetricRegistry metricRegistry) {
+        this(client, asyncClient, readTimeout, circuitBreakers, adaptiveTimeouts, metricRegistry, new XrayUtils(false));
+    }
+
+    public GatewayClient(Client client,
+                         HttpClient asyncClient,
+                         Duration readTimeout,
+                         GatewayCircuitBreakerRegistry circuitBreakers,
+                         AdaptiveGatewayTimeouts adaptiveTimeouts,
+                         MetricRegistry metricRegistry,
+                         XrayUtils xrayUtils) {
         this.client = client;
+        this.asyncClient = asyncClient;
+        this.readTimeout = readTimeout;
+        this.circuitBreakers = circuitBreakers;
+        this.adaptiveTimeouts = adaptiveTimeouts;
         this.metricRegistry = metricRegistry;
+        this.xrayUtils = xrayUtils;
     }
 
     public GatewayClient.Response postRequestFor(URI url, GatewayAccountEntity account, GatewayOrder request, Map<String, String> headers)
@@ -55,21 +120,31 @@ public class GatewayClient {
             throws GatewayException.GenericGatewayException, GatewayConnectionTimeoutException, GatewayErrorException {
 
         String metricsPrefix = format("gateway-operations.%s.%s.%s", account.getGatewayName(), account.getType(), request.getOrderRequestType());
+        Histogram responseTimes = metricRegistry.histogram(metricsPrefix + ".response_time");
         javax.ws.rs.core.Response response = null;
 
+        GatewayCircuitBreaker circuitBreaker = circuitBreakers.forOrder(account.getGatewayName(), request.getOrderRequestType());
+        acquirePermission(circuitBreaker, metricsPrefix);
+        boolean callFailed = true;
+        boolean timedOut = false;
+
         Stopwatch responseTimeStopwatch = Stopwatch.createStarted();
         try {
             logger.info("POSTing request for account '{}' with type '{}'", account.getGatewayName(), account.getType());
 
             Builder requestBuilder = client.target(url).request();
+            adaptiveTimeouts.getReadTimeout(metricsPrefix, readTimeout)
+                    .ifPresent(timeout -> requestBuilder.property(READ_TIMEOUT, (int) timeout.toMilliseconds()));
             headers.keySet().forEach(headerKey -> requestBuilder.header(headerKey, headers.get(headerKey)));
             cookies.forEach(cookie -> requestBuilder.cookie(cookie.getName(), cookie.getValue()));
             response = requestBuilder.post(Entity.entity(request.getPayload(), request.getMediaType()));
             int statusCode = response.getStatus();
             Response gatewayResponse = new Response(response);
             if (statusCode == OK.getStatusCode()) {
+                callFailed = false;
                 return gatewayResponse;
             } else {
+                callFailed = isServerError(statusCode);
                 logger.error("Gateway returned unexpected status code: {}, for gateway url={} with type {} with order request type {}",
                         statusCode, url, account.getType(), request.getOrderRequestType().toString());
                 incrementFailureCounter(metricRegistry, metricsPrefix);
@@ -79,6 +154,7 @@ public class GatewayClient {
             incrementFailureCounter(metricRegistry, metricsPrefix);
             if (pe.getCause() != null) {
                 if (pe.getCause() instanceof SocketTimeoutException) {
+                    timedOut = true;
                     logger.error(format("Connection timed out error for gateway url=%s", url), pe);
                     throw new GatewayConnectionTimeoutException("Gateway connection timeout error");
                 }
@@ -93,38 +169,195 @@ public class GatewayClient {
             throw new GatewayException.GenericGatewayException(e.getMessage());
         } finally {
             responseTimeStopwatch.stop();
-            metricRegistry.histogram(metricsPrefix + ".response_time").update(responseTimeStopwatch.elapsed(TimeUnit.MILLISECONDS));
+            long elapsedMillis = responseTimeStopwatch.elapsed(TimeUnit.MILLISECONDS);
+            responseTimes.update(elapsedMillis);
+            if (!timedOut) {
+                adaptiveTimeouts.recordResponseTime(metricsPrefix, elapsedMillis);
+            }
+            circuitBreaker.onCallFinished(elapsedMillis, callFailed);
             if (response != null) {
                 response.close();
             }
         }
     }
 
+    public CompletableFuture<GatewayClient.Response> postRequestForAsync(URI url, GatewayAccountEntity account, GatewayOrder request, Map<String, String> headers) {
+        return postRequestForAsync(url, account, request, emptyList(), headers);
+    }
+
+    /**
+     * Non-blocking counterpart of {@link #postRequestFor(URI, GatewayAccountEntity, GatewayOrder, List, Map)}. No thread
+     * is held while waiting for the gateway; the returned future completes exceptionally with the same
+     * {@link GatewayException} types the blocking variant throws. The request is logged and traced as the Jersey
+     * client filters would, since it does not go through them.
+     */
+    public CompletableFuture<GatewayClient.Response> postRequestForAsync(URI url,
+                                                                        GatewayAccountEntity account,
+                                                                        GatewayOrder request,
+                                                                        List<HttpCookie> cookies,
+                                                                        Map<String, String> headers) {
+
+        String metricsPrefix = format("gateway-operations.%s.%s.%s", account.getGatewayName(), account.getType(), request.getOrderRequestType());
+        Histogram responseTimes = metricRegistry.histogram(metricsPrefix + ".response_time");
+
+        logger.info("POSTing async request for account '{}' with type '{}'", account.getGatewayName(), account.getType());
+
+        HttpRequest.Builder requestBuilder = HttpRequest.newBuilder(url)
+                .header(HttpHeaders.CONTENT_TYPE, request.getMediaType().toString())
+                .POST(HttpRequest.BodyPublishers.ofString(request.getPayload()));
+        Optional.ofNullable(MDC.get(HEADER_REQUEST_ID)).ifPresent(requestId -> requestBuilder.header(HEADER_REQUEST_ID, requestId));
+        adaptiveTimeouts.getReadTimeout(metricsPrefix, readTimeout)
+                .or(() -> Optional.ofNullable(readTimeout))
+                .ifPresent(timeout -> requestBuilder.timeout(java.time.Duration.ofMillis(timeout.toMilliseconds())));
+        headers.keySet().forEach(headerKey -> requestBuilder.header(headerKey, headers.get(headerKey)));
+        if (!cookies.isEmpty()) {
+            requestBuilder.header(HttpHeaders.COOKIE, cookies.stream()
+                    .map(cookie -> cookie.getName() + "=" + cookie.getValue())
+                    .collect(joining("; ")));
+        }
+
+        HttpRequest httpRequest = requestBuilder.build();
+
+        GatewayCircuitBreaker circuitBreaker = circuitBreakers.forOrder(account.getGatewayName(), request.getOrderRequestType());
+        try {
+            acquirePermission(circuitBreaker, metricsPrefix);
+        } catch (GatewayUnavailableException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        RestClientLoggingFilter.logRequestBegan(HttpMethod.POST, url);
+        XrayUtils.RemoteCallTrace trace = xrayUtils.beginRemoteCall(HttpMethod.POST, url);
+        Stopwatch responseTimeStopwatch = Stopwatch.createStarted();
+        CompletableFuture<HttpResponse<byte[]>> sentRequest;
+        try {
+            sentRequest = asyncClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (RuntimeException e) {
+            sentRequest = CompletableFuture.failedFuture(e);
+        }
+        return sentRequest
+                .handle((httpResponse, throwable) -> {
+                    responseTimeStopwatch.stop();
+                    long elapsedMillis = responseTimeStopwatch.elapsed(TimeUnit.MILLISECONDS);
+                    responseTimes.update(elapsedMillis);
+                    RestClientLoggingFilter.logRequestEnded(HttpMethod.POST, url, elapsedMillis);
+                    trace.end(httpResponse == null ? null : httpResponse.statusCode(), throwable);
+
+                    if (throwable != null) {
+                        GatewayException gatewayException = toGatewayException(url, throwable);
+                        if (!(gatewayException instanceof GatewayConnectionTimeoutException)) {
+                            adaptiveTimeouts.recordResponseTime(metricsPrefix, elapsedMillis);
+                        }
+                        circuitBreaker.onCallFinished(elapsedMillis, true);
+                        incrementFailureCounter(metricRegistry, metricsPrefix);
+                        throw new CompletionException(gatewayException);
+                    }
+
+                    adaptiveTimeouts.recordResponseTime(metricsPrefix, elapsedMillis);
+
+                    int statusCode = httpResponse.statusCode();
+                    circuitBreaker.onCallFinished(elapsedMillis, isServerError(statusCode));
+                    Response gatewayResponse = new Response(httpResponse);
+                    if (statusCode != OK.getStatusCode()) {
+                        logger.error("Gateway returned unexpected status code: {}, for gateway url={} with type {} with order request type {}",
+                                statusCode, url, account.getType(), request.getOrderRequestType().toString());
+                        incrementFailureCounter(metricRegistry, metricsPrefix);
+                        throw new CompletionException(new GatewayErrorException("Unexpected HTTP status code " + statusCode + " from gateway", gatewayResponse.getEntity(), statusCode));
+                    }
+                    return gatewayResponse;
+                });
+    }
+
+    private void acquirePermission(GatewayCircuitBreaker circuitBreaker, String metricsPrefix) throws GatewayUnavailableException {
+        try {
+            circuitBreaker.acquirePermission();
+        } catch (GatewayUnavailableException e) {
+            logger.warn("Not sending request to gateway: {}", e.getMessage());
+            metricRegistry.counter(metricsPrefix + ".rejected").inc();
+            throw e;
+        }
+    }
+
+    private static boolean isServerError(int statusCode) {
+        return familyOf(statusCode) == SERVER_ERROR;
+    }
+
+    private GatewayException toGatewayException(URI url, Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        if (cause instanceof HttpTimeoutException) {
+            logger.error(format("Connection timed out error for gateway url=%s", url), cause);
+            return new GatewayConnectionTimeoutException("Gateway connection timeout error");
+        }
+        logger.error(format("Exception for gateway url=%s, error message: %s", url, cause.getMessage()), cause);
+        return new GenericGatewayException(cause.getMessage());
+    }
+
     private void incrementFailureCounter(MetricRegistry metricRegistry, String metricsPrefix) {
         metricRegistry.counter(metricsPrefix + ".failures").inc();
     }
 
+    /**
+     * The body is read from the connection once, as bytes, and handed to the JAXB or Jackson decoder from there.
+     * It is only decoded to a String when something asks for it, typically to log an error response.
+     */
     public static class Response {
+        private static final byte[] EMPTY_ENTITY = new byte[0];
+
         private final int status;
-        private final String entity;
+        private final byte[] entity;
+        private final Charset charset;
+        private String decodedEntity;
         private final Map<String, String> responseCookies = new HashMap<>();
 
         protected Response(final javax.ws.rs.core.Response delegate) {
             this.status = delegate.getStatus();
-            this.entity = delegate.readEntity(String.class);
+            this.entity = Optional.ofNullable(delegate.readEntity(byte[].class)).orElse(EMPTY_ENTITY);
+            this.charset = charsetOf(Optional.ofNullable(delegate.getMediaType())
+                    .map(mediaType -> mediaType.getParameters().get(MediaType.CHARSET_PARAMETER)));
             delegate.getCookies().forEach((name, cookie) -> {
                 responseCookies.put(name, cookie.getValue());
             });
         }
 
+        protected Response(final HttpResponse<byte[]> delegate) {
+            this.status = delegate.statusCode();
+            this.entity = Optional.ofNullable(delegate.body()).orElse(EMPTY_ENTITY);
+            this.charset = charsetOf(delegate.headers().firstValue(HttpHeaders.CONTENT_TYPE)
+                    .map(contentType -> MediaType.valueOf(contentType).getParameters().get(MediaType.CHARSET_PARAMETER)));
+            delegate.headers().allValues(HttpHeaders.SET_COOKIE).stream()
+                    .flatMap(header -> HttpCookie.parse(header).stream())
+                    .forEach(cookie -> responseCookies.put(cookie.getName(), cookie.getValue()));
+        }
+
+        private static Charset charsetOf(Optional<String> charsetName) {
+            try {
+                return charsetName.map(Charset::forName).orElse(UTF_8);
+            } catch (IllegalArgumentException e) {
+                return UTF_8;
+            }
+        }
+
         public int getStatus() {
             return status;
         }
 
         public String getEntity() {
+            if (decodedEntity == null) {
+                decodedEntity = new String(entity, charset);
+            }
+            return decodedEntity;
+        }
+
+        /**
+         * @return the undecoded body. The array is not copied and must not be modified.
+         */
+        public byte[] getEntityBytes() {
             return entity;
         }
 
+        public InputStream getEntityStream() {
+            return new ByteArrayInputStream(entity);
+        }
+
         public Map<String, String> getResponseCookies() {
             return responseCookies;
         }
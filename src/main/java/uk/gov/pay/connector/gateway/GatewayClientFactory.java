@@ -1,6 +1,7 @@
 package uk.gov.pay.connector.gateway;
 
 import com.codahale.metrics.MetricRegistry;
+import uk.gov.pay.connector.util.XrayUtils;
 
 import javax.inject.Inject;
 import javax.ws.rs.client.Client;
@@ -8,22 +9,33 @@ import javax.ws.rs.client.Client;
 public class GatewayClientFactory {
 
     private final ClientFactory clientFactory;
+    private final GatewayCircuitBreakerRegistry circuitBreakerRegistry;
+    private final AdaptiveGatewayTimeouts adaptiveTimeouts;
+    private final XrayUtils xrayUtils;
 
     @Inject
-    public GatewayClientFactory(ClientFactory clientFactory) {
+    public GatewayClientFactory(ClientFactory clientFactory,
+                                GatewayCircuitBreakerRegistry circuitBreakerRegistry,
+                                AdaptiveGatewayTimeouts adaptiveTimeouts,
+                                XrayUtils xrayUtils) {
         this.clientFactory = clientFactory;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.adaptiveTimeouts = adaptiveTimeouts;
+        this.xrayUtils = xrayUtils;
     }
 
     public GatewayClient createGatewayClient(PaymentGatewayName gateway,
                                              GatewayOperation operation,
                                              MetricRegistry metricRegistry) {
         Client client = clientFactory.createWithDropwizardClient(gateway, operation, metricRegistry);
-        return new GatewayClient(client, metricRegistry);
+        return new GatewayClient(client, clientFactory.getAsyncHttpClient(),
+                clientFactory.getReadTimeout(operation, gateway), circuitBreakerRegistry, adaptiveTimeouts, metricRegistry, xrayUtils);
     }
 
     public GatewayClient createGatewayClient(PaymentGatewayName gateway,
                                              MetricRegistry metricRegistry) {
         Client client = clientFactory.createWithDropwizardClient(gateway, metricRegistry);
-        return new GatewayClient(client, metricRegistry);
+        return new GatewayClient(client, clientFactory.getAsyncHttpClient(),
+                clientFactory.getDefaultReadTimeout(), circuitBreakerRegistry, adaptiveTimeouts, metricRegistry, xrayUtils);
     }
 }
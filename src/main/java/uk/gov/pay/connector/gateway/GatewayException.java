@@ -32,6 +32,16 @@ public abstract class GatewayException extends Exception {
         }
     }
 
+    /**
+     * Thrown without contacting the gateway when its circuit breaker is open or its bulkhead is full.
+     */
+    public static class GatewayUnavailableException extends GenericGatewayException {
+
+        public GatewayUnavailableException(String message) {
+            super(message);
+        }
+    }
+
     public static class GatewayConnectionTimeoutException extends GatewayException {
 
         public GatewayConnectionTimeoutException(String message) {
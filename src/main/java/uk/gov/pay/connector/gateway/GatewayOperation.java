@@ -1,5 +1,7 @@
 package uk.gov.pay.connector.gateway;
 
+import uk.gov.pay.connector.gateway.model.OrderRequestType;
+
 public enum GatewayOperation {
     AUTHORISE("auth"),
     CAPTURE("capture"),
@@ -16,4 +18,28 @@ public enum GatewayOperation {
     public String getConfigKey() {
         return description;
     }
+
+    public static GatewayOperation fromOrderRequestType(OrderRequestType orderRequestType) {
+        switch (orderRequestType) {
+            case AUTHORISE:
+            case AUTHORISE_3DS:
+            case AUTHORISE_APPLE_PAY:
+            case AUTHORISE_GOOGLE_PAY:
+            case STRIPE_TOKEN:
+            case STRIPE_CREATE_SOURCE:
+            case STRIPE_CREATE_3DS_SOURCE:
+            case STRIPE_CREATE_CHARGE:
+                return AUTHORISE;
+            case CAPTURE:
+                return CAPTURE;
+            case CANCEL:
+                return CANCEL;
+            case REFUND:
+                return REFUND;
+            case QUERY:
+                return QUERY;
+            default:
+                throw new IllegalArgumentException("No gateway operation for order request type " + orderRequestType);
+        }
+    }
 }
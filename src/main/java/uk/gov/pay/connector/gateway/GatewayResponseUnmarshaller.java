@@ -12,12 +12,13 @@ public class GatewayResponseUnmarshaller {
     private static final Logger logger = LoggerFactory.getLogger(GatewayResponseUnmarshaller.class);
     
     public static <T> T unmarshallResponse(GatewayClient.Response response, Class<T> unmarshallingTarget) throws GatewayException.GatewayErrorException {
-        String payload = response.getEntity();
-        logger.debug("response payload={}", payload);
+        if (logger.isDebugEnabled()) {
+            logger.debug("response payload={}", response.getEntity());
+        }
         try {
-            return XMLUnmarshaller.unmarshall(payload, unmarshallingTarget);
+            return XMLUnmarshaller.unmarshall(response.getEntityStream(), unmarshallingTarget);
         } catch (XMLUnmarshallerException e) {
-            String error = format("Could not unmarshall response %s.", payload);
+            String error = format("Could not unmarshall response %s.", response.getEntity());
             logger.error(error, e);
             throw new GatewayException.GatewayErrorException("Invalid Response Received From Gateway");
         }
@@ -0,0 +1,31 @@
+package uk.gov.pay.connector.gateway;
+
+import com.codahale.metrics.Timer;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.protocol.HttpContext;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.net.Socket;
+
+/**
+ * Times the TLS handshake performed for every new gateway connection. The timer count is the number of connections
+ * that could not be served from the pool.
+ */
+class InstrumentedSSLConnectionSocketFactory extends SSLConnectionSocketFactory {
+
+    private final Timer handshakeTimer;
+
+    InstrumentedSSLConnectionSocketFactory(SSLContext sslContext, String[] supportedProtocols, Timer handshakeTimer) {
+        super(sslContext, supportedProtocols, null, (HostnameVerifier) null);
+        this.handshakeTimer = handshakeTimer;
+    }
+
+    @Override
+    public Socket createLayeredSocket(Socket socket, String target, int port, HttpContext context) throws IOException {
+        try (Timer.Context ignored = handshakeTimer.time()) {
+            return super.createLayeredSocket(socket, target, port, context);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package uk.gov.pay.connector.gateway;
 
 import uk.gov.pay.connector.charge.model.domain.ChargeEntity;
+import uk.gov.pay.connector.charge.model.domain.ChargeStatus;
 import uk.gov.pay.connector.common.model.api.ExternalChargeRefundAvailability;
 import uk.gov.pay.connector.gateway.model.request.Auth3dsResponseGatewayRequest;
 import uk.gov.pay.connector.gateway.model.request.CancelGatewayRequest;
@@ -15,6 +16,7 @@ import uk.gov.pay.connector.gateway.model.response.GatewayResponse;
 import uk.gov.pay.connector.wallets.WalletAuthorisationGatewayRequest;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public interface PaymentProvider {
 
@@ -24,6 +26,19 @@ public interface PaymentProvider {
 
     GatewayResponse authorise(CardAuthorisationGatewayRequest request) throws GatewayException;
 
+    /**
+     * Providers that talk to their gateway through {@link GatewayClient#postRequestForAsync} override this so that an
+     * in-flight authorisation does not occupy a thread. The default simply wraps the blocking {@link #authorise}.
+     */
+    default CompletableFuture<GatewayResponse<BaseAuthoriseResponse>> authoriseAsync(CardAuthorisationGatewayRequest request) {
+        try {
+            GatewayResponse<BaseAuthoriseResponse> response = authorise(request);
+            return CompletableFuture.completedFuture(response);
+        } catch (GatewayException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
     ChargeQueryResponse queryPaymentStatus(ChargeEntity charge) throws GatewayException;
 
     Gateway3DSAuthorisationResponse authorise3dsResponse(Auth3dsResponseGatewayRequest request);
@@ -37,4 +52,6 @@ public interface PaymentProvider {
     GatewayResponse<BaseCancelResponse> cancel(CancelGatewayRequest request) throws GatewayException;
 
     ExternalChargeRefundAvailability getExternalChargeRefundAvailability(ChargeEntity chargeEntity);
+
+    ExternalChargeRefundAvailability getExternalChargeRefundAvailability(ChargeStatus chargeStatus, long amountAvailableToBeRefunded);
 }
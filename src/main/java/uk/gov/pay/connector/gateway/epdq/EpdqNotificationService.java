@@ -12,6 +12,7 @@ import uk.gov.pay.connector.gateway.PaymentGatewayName;
 import uk.gov.pay.connector.gateway.processor.ChargeNotificationProcessor;
 import uk.gov.pay.connector.gateway.processor.RefundNotificationProcessor;
 import uk.gov.pay.connector.refund.model.domain.RefundStatus;
+import uk.gov.pay.connector.webhook.service.NotificationDeduplicationService;
 
 import java.util.List;
 import java.util.Optional;
@@ -37,6 +38,7 @@ public class EpdqNotificationService {
     private final SignatureGenerator signatureGenerator;
     private final ChargeNotificationProcessor chargeNotificationProcessor;
     private final RefundNotificationProcessor refundNotificationProcessor;
+    private final NotificationDeduplicationService notificationDeduplicationService;
 
     private static final String PAYMENT_GATEWAY_NAME = PaymentGatewayName.EPDQ.getName();
 
@@ -44,11 +46,21 @@ public class EpdqNotificationService {
     public EpdqNotificationService(ChargeDao chargeDao,
                                    SignatureGenerator signatureGenerator,
                                    ChargeNotificationProcessor chargeNotificationProcessor,
-                                   RefundNotificationProcessor refundNotificationProcessor) {
+                                   RefundNotificationProcessor refundNotificationProcessor,
+                                   NotificationDeduplicationService notificationDeduplicationService) {
         this.chargeDao = chargeDao;
         this.signatureGenerator = signatureGenerator;
         this.chargeNotificationProcessor = chargeNotificationProcessor;
         this.refundNotificationProcessor = refundNotificationProcessor;
+        this.notificationDeduplicationService = notificationDeduplicationService;
+    }
+
+    public Optional<String> transactionIdFor(String payload) {
+        try {
+            return Optional.ofNullable(new EpdqNotification(payload).getTransactionId());
+        } catch (EpdqParseException e) {
+            return Optional.empty();
+        }
     }
 
     @Transactional
@@ -71,6 +83,10 @@ public class EpdqNotificationService {
             return;
         }
 
+        if (notificationDeduplicationService.isDuplicate(PaymentGatewayName.EPDQ, deduplicationId(notification), notification.getStatus(), null)) {
+            return;
+        }
+
         Optional<ChargeEntity> maybeCharge = chargeDao.findByProviderAndTransactionId(PAYMENT_GATEWAY_NAME, notification.getTransactionId());
 
         if (!maybeCharge.isPresent()) {
@@ -88,16 +104,25 @@ public class EpdqNotificationService {
 
         final Optional<ChargeStatus> newChargeStatus = newChargeStateForChargeNotification(notification.getStatus(), ChargeStatus.fromString(charge.getStatus()));
 
+        boolean applied;
         if (newChargeStatus.isPresent()) {
-            chargeNotificationProcessor.invoke(notification.getTransactionId(), charge, newChargeStatus.get(), null);
+            applied = chargeNotificationProcessor.invoke(notification.getTransactionId(), charge, newChargeStatus.get(), null);
         } else {
             final Optional<RefundStatus> newRefundStatus = newRefundStateForRefundNotification(notification.getStatus());
-            newRefundStatus.ifPresent(refundStatus -> refundNotificationProcessor.invoke(
+            applied = newRefundStatus.map(refundStatus -> refundNotificationProcessor.invoke(
                     PaymentGatewayName.EPDQ, refundStatus, notification.getReference(), notification.getTransactionId()
-            ));
+            )).orElse(false);
+        }
+
+        if (applied) {
+            notificationDeduplicationService.recordApplied(PaymentGatewayName.EPDQ, deduplicationId(notification), notification.getStatus(), null);
         }
     }
 
+    private String deduplicationId(EpdqNotification notification) {
+        return notification.getTransactionId() + "/" + notification.getReference();
+    }
+
     private boolean isValidNotificationSignature(EpdqNotification notification, ChargeEntity charge) {
         String actualSignature = signatureGenerator.sign(
                 getParams(notification, false),
@@ -6,6 +6,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.gov.pay.connector.app.ConnectorConfiguration;
 import uk.gov.pay.connector.charge.model.domain.ChargeEntity;
+import uk.gov.pay.connector.charge.model.domain.ChargeStatus;
 import uk.gov.pay.connector.common.model.api.ExternalChargeRefundAvailability;
 import uk.gov.pay.connector.gateway.*;
 import uk.gov.pay.connector.gateway.GatewayException;
@@ -222,6 +223,11 @@ public class EpdqPaymentProvider implements PaymentProvider {
         return externalRefundAvailabilityCalculator.calculate(chargeEntity);
     }
 
+    @Override
+    public ExternalChargeRefundAvailability getExternalChargeRefundAvailability(ChargeStatus chargeStatus, long amountAvailableToBeRefunded) {
+        return externalRefundAvailabilityCalculator.calculate(chargeStatus, amountAvailableToBeRefunded);
+    }
+
     /**
      * The outgoing response is error biased. Meaning, we have to make sure that the authorisation success can only happen if both frontend as well as epdq confirms its a success.
      * In all other combinations it is not authorised and the frontend error state take precedence followed by gateway error state for the resulting status.
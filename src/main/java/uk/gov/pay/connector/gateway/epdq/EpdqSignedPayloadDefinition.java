@@ -5,6 +5,7 @@ import org.apache.http.NameValuePair;
 import org.apache.http.message.BasicNameValuePair;
 import uk.gov.pay.connector.gateway.epdq.payload.EpdqPayloadDefinition;
 
+import java.nio.charset.Charset;
 import java.util.List;
 
 public class EpdqSignedPayloadDefinition extends EpdqPayloadDefinition {
@@ -41,4 +42,9 @@ public class EpdqSignedPayloadDefinition extends EpdqPayloadDefinition {
                 .add(new BasicNameValuePair("SHASIGN", signatureGenerator.sign(parameters, templateData.getShaInPassphrase())))
                 .build();
     }
+
+    @Override
+    public String formEncode(EpdqOrderRequestBuilder.EpdqTemplateData templateData, Charset charset) {
+        return signatureGenerator.signAndFormEncode(payloadDefinition.extract(templateData), templateData.getShaInPassphrase(), charset);
+    }
 }
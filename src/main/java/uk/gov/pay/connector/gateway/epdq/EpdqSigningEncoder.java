@@ -0,0 +1,200 @@
+package uk.gov.pay.connector.gateway.epdq;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.http.NameValuePair;
+import org.apache.http.message.BasicNameValuePair;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Locale;
+
+import static java.util.Comparator.comparing;
+import static java.util.stream.Collectors.toList;
+import static org.apache.commons.lang3.StringUtils.isNotEmpty;
+
+/**
+ * Per-thread state behind {@link EpdqSha512SignatureGenerator}. The SHA-512 digest is fed the UTF-8 bytes of the
+ * signing string as it is produced rather than from one concatenated String, and when a request body is wanted it is
+ * form-urlencoded in the same pass over the parameters, exactly as {@code URLEncodedUtils.format} would.
+ * <p>
+ * Payload definitions already hand over their parameters sorted by (upper-case) name, so the signing order is only
+ * re-derived when a caller passes parameters in some other order.
+ */
+final class EpdqSigningEncoder {
+
+    private static final ThreadLocal<EpdqSigningEncoder> ENCODERS = ThreadLocal.withInitial(EpdqSigningEncoder::new);
+    private static final int INITIAL_BODY_CAPACITY = 1024;
+    private static final int MAX_RETAINED_BODY_CAPACITY = 16 * 1024;
+    private static final char[] LOWER_HEX = "0123456789abcdef".toCharArray();
+    private static final char[] UPPER_HEX = "0123456789ABCDEF".toCharArray();
+
+    private final MessageDigest digest = DigestUtils.getSha512Digest();
+    private final byte[] digestBuffer = new byte[512];
+    private final char[] signature = new char[128];
+    private int digestBufferPosition;
+    private StringBuilder body = new StringBuilder(INITIAL_BODY_CAPACITY);
+
+    private EpdqSigningEncoder() {
+    }
+
+    static EpdqSigningEncoder forCurrentThread() {
+        EpdqSigningEncoder encoder = ENCODERS.get();
+        encoder.digest.reset();
+        encoder.digestBufferPosition = 0;
+        if (encoder.body.capacity() > MAX_RETAINED_BODY_CAPACITY) {
+            encoder.body = new StringBuilder(INITIAL_BODY_CAPACITY);
+        } else {
+            encoder.body.setLength(0);
+        }
+        return encoder;
+    }
+
+    String sign(List<NameValuePair> params, String passphrase) {
+        if (isInSigningOrder(params)) {
+            for (NameValuePair param : params) {
+                digestParameter(param, passphrase);
+            }
+        } else {
+            digestInSigningOrder(params, passphrase);
+        }
+        return hexDigest();
+    }
+
+    String signAndFormEncode(List<NameValuePair> params, String passphrase, Charset charset) {
+        boolean singlePass = isInSigningOrder(params);
+        for (NameValuePair param : params) {
+            if (body.length() > 0) {
+                body.append('&');
+            }
+            formEncode(param.getName(), charset);
+            if (param.getValue() != null) {
+                body.append('=');
+                formEncode(param.getValue(), charset);
+            }
+            if (singlePass) {
+                digestParameter(param, passphrase);
+            }
+        }
+        if (!singlePass) {
+            digestInSigningOrder(params, passphrase);
+        }
+        String signature = hexDigest();
+        if (body.length() > 0) {
+            body.append('&');
+        }
+        return body.append("SHASIGN=").append(signature).toString();
+    }
+
+    private static boolean isInSigningOrder(List<NameValuePair> params) {
+        String previousName = null;
+        for (NameValuePair param : params) {
+            String name = param.getName();
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                if (c >= 0x80 || (c >= 'a' && c <= 'z')) {
+                    return false;
+                }
+            }
+            if (previousName != null && previousName.compareTo(name) > 0) {
+                return false;
+            }
+            previousName = name;
+        }
+        return true;
+    }
+
+    private void digestInSigningOrder(List<NameValuePair> params, String passphrase) {
+        List<NameValuePair> normalisedParams = params.stream()
+                .map(param -> new BasicNameValuePair(param.getName().toUpperCase(Locale.ENGLISH), param.getValue()))
+                .sorted(comparing(BasicNameValuePair::getName))
+                .collect(toList());
+        for (NameValuePair param : normalisedParams) {
+            digestParameter(param, passphrase);
+        }
+    }
+
+    private void digestParameter(NameValuePair param, String passphrase) {
+        if (isNotEmpty(param.getValue())) {
+            digestUtf8(param.getName());
+            digestUtf8("=");
+            digestUtf8(param.getValue());
+            digestUtf8(passphrase);
+        }
+    }
+
+    private void digestUtf8(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (digestBufferPosition > digestBuffer.length - 4) {
+                flushDigestBuffer();
+            }
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                digestBuffer[digestBufferPosition++] = (byte) c;
+            } else if (c < 0x800) {
+                digestBuffer[digestBufferPosition++] = (byte) (0xC0 | (c >> 6));
+                digestBuffer[digestBufferPosition++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                digestBuffer[digestBufferPosition++] = (byte) (0xF0 | (codePoint >> 18));
+                digestBuffer[digestBufferPosition++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                digestBuffer[digestBufferPosition++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                digestBuffer[digestBufferPosition++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogates are replaced, as String.getBytes(UTF_8) does
+                digestBuffer[digestBufferPosition++] = (byte) '?';
+            } else {
+                digestBuffer[digestBufferPosition++] = (byte) (0xE0 | (c >> 12));
+                digestBuffer[digestBufferPosition++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                digestBuffer[digestBufferPosition++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private void flushDigestBuffer() {
+        digest.update(digestBuffer, 0, digestBufferPosition);
+        digestBufferPosition = 0;
+    }
+
+    private String hexDigest() {
+        flushDigestBuffer();
+        byte[] hash = digest.digest();
+        for (int i = 0; i < hash.length; i++) {
+            signature[2 * i] = LOWER_HEX[(hash[i] >> 4) & 0xF];
+            signature[2 * i + 1] = LOWER_HEX[hash[i] & 0xF];
+        }
+        return new String(signature, 0, 2 * hash.length);
+    }
+
+    private void formEncode(String value, Charset charset) {
+        int i = 0;
+        while (i < value.length()) {
+            char c = value.charAt(i);
+            if (isSafe(c)) {
+                body.append(c);
+                i++;
+            } else if (c == ' ') {
+                body.append('+');
+                i++;
+            } else {
+                int end = i + 1;
+                while (end < value.length() && !isSafe(value.charAt(end)) && value.charAt(end) != ' ') {
+                    end++;
+                }
+                ByteBuffer bytes = charset.encode(CharBuffer.wrap(value, i, end));
+                while (bytes.hasRemaining()) {
+                    int b = bytes.get() & 0xFF;
+                    body.append('%').append(UPPER_HEX[b >> 4]).append(UPPER_HEX[b & 0xF]);
+                }
+                i = end;
+            }
+        }
+    }
+
+    private static boolean isSafe(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '_' || c == '-' || c == '.' || c == '*';
+    }
+}
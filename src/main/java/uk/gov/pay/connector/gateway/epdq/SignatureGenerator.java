@@ -1,11 +1,25 @@
 package uk.gov.pay.connector.gateway.epdq;
 
+import com.google.common.collect.ImmutableList;
 import org.apache.http.NameValuePair;
+import org.apache.http.client.utils.URLEncodedUtils;
+import org.apache.http.message.BasicNameValuePair;
 
+import java.nio.charset.Charset;
 import java.util.List;
 
 public interface SignatureGenerator {
 
     String sign(List<NameValuePair> params, String passphrase);
 
+    /**
+     * Form-urlencodes {@code params} followed by a {@code SHASIGN} parameter holding their signature.
+     */
+    default String signAndFormEncode(List<NameValuePair> params, String passphrase, Charset charset) {
+        return URLEncodedUtils.format(ImmutableList.<NameValuePair>builder()
+                .addAll(params)
+                .add(new BasicNameValuePair("SHASIGN", sign(params, passphrase)))
+                .build(), charset);
+    }
+
 }
@@ -1,9 +1,11 @@
 package uk.gov.pay.connector.gateway.epdq.payload;
 
 import org.apache.http.NameValuePair;
+import org.apache.http.client.utils.URLEncodedUtils;
 import org.apache.http.message.BasicNameValuePair;
 import uk.gov.pay.connector.gateway.epdq.EpdqOrderRequestBuilder;
 
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
@@ -35,4 +37,8 @@ public abstract class EpdqPayloadDefinition {
     }
     
     public abstract List<NameValuePair> extract(EpdqOrderRequestBuilder.EpdqTemplateData templateData);
+
+    public String formEncode(EpdqOrderRequestBuilder.EpdqTemplateData templateData, Charset charset) {
+        return URLEncodedUtils.format(extract(templateData), charset);
+    }
 }
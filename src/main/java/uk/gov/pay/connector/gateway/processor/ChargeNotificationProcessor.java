@@ -21,7 +21,10 @@ public class ChargeNotificationProcessor {
         this.chargeService = chargeService;
     }
 
-    public void invoke(String transactionId, ChargeEntity chargeEntity, ChargeStatus newStatus, ZonedDateTime gatewayEventDate) {
+    /**
+     * @return whether the notification was applied to the charge
+     */
+    public boolean invoke(String transactionId, ChargeEntity chargeEntity, ChargeStatus newStatus, ZonedDateTime gatewayEventDate) {
         GatewayAccountEntity gatewayAccount = chargeEntity.getGatewayAccount();
         String oldStatus = chargeEntity.getStatus();
 
@@ -30,7 +33,7 @@ public class ChargeNotificationProcessor {
         } catch (InvalidStateTransitionException e) {
             logger.error("{} ({}) notification '{}' could not be used to update charge: {}",
                     gatewayAccount.getGatewayName(), gatewayAccount.getId(), transactionId, e.getMessage());
-            return;
+            return false;
         }
 
         logger.info("Notification received. Updating charge - " +
@@ -48,5 +51,6 @@ public class ChargeNotificationProcessor {
                 gatewayAccount.getId(),
                 gatewayAccount.getGatewayName(),
                 gatewayAccount.getType());
+        return true;
     }
 }
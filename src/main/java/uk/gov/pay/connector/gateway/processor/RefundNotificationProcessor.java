@@ -27,18 +27,32 @@ public class RefundNotificationProcessor {
         this.userNotificationService = userNotificationService;
     }
 
-    public void invoke(PaymentGatewayName gatewayName, RefundStatus newStatus, String reference, String transactionId) {
+    /**
+     * @return whether the notification was applied to a refund
+     */
+    public boolean invoke(PaymentGatewayName gatewayName, RefundStatus newStatus, String reference, String transactionId) {
+        Optional<RefundEntity> optionalRefundEntity = isBlank(reference)
+                ? Optional.empty()
+                : refundService.findByProviderAndReference(gatewayName.getName(), reference);
+        return invoke(gatewayName, newStatus, reference, transactionId, optionalRefundEntity);
+    }
+
+    /**
+     * For callers that have already looked up the refund for {@code reference}, such as when a batch of
+     * notifications is loaded in one query.
+     */
+    public boolean invoke(PaymentGatewayName gatewayName, RefundStatus newStatus, String reference, String transactionId,
+                          Optional<RefundEntity> optionalRefundEntity) {
         if (isBlank(reference)) {
             logger.error("{} refund notification could not be used to update charge (missing reference)",
                     gatewayName);
-            return;
+            return false;
         }
 
-        Optional<RefundEntity> optionalRefundEntity = refundService.findByProviderAndReference(gatewayName.getName(), reference);
         if (!optionalRefundEntity.isPresent()) {
             logger.error("{} notification '{}' could not be used to update refund (associated refund entity not found)",
                     gatewayName, reference);
-            return;
+            return false;
         }
 
         RefundEntity refundEntity = optionalRefundEntity.get();
@@ -61,5 +75,6 @@ public class RefundNotificationProcessor {
                 gatewayAccount.getId(),
                 gatewayAccount.getGatewayName(),
                 gatewayAccount.getType());
+        return true;
     }
 }
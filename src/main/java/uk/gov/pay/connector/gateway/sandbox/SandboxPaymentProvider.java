@@ -1,6 +1,7 @@
 package uk.gov.pay.connector.gateway.sandbox;
 
 import uk.gov.pay.connector.charge.model.domain.ChargeEntity;
+import uk.gov.pay.connector.charge.model.domain.ChargeStatus;
 import uk.gov.pay.connector.common.model.api.ExternalChargeRefundAvailability;
 import uk.gov.pay.connector.gateway.CaptureResponse;
 import uk.gov.pay.connector.gateway.PaymentGatewayName;
@@ -95,6 +96,11 @@ public class SandboxPaymentProvider implements PaymentProvider, SandboxGatewayRe
         return externalRefundAvailabilityCalculator.calculate(chargeEntity);
     }
 
+    @Override
+    public ExternalChargeRefundAvailability getExternalChargeRefundAvailability(ChargeStatus chargeStatus, long amountAvailableToBeRefunded) {
+        return externalRefundAvailabilityCalculator.calculate(chargeStatus, amountAvailableToBeRefunded);
+    }
+
     private GatewayResponse<BaseCancelResponse> createGatewayBaseCancelResponse() {
         GatewayResponseBuilder<BaseCancelResponse> gatewayResponseBuilder = responseBuilder();
         return gatewayResponseBuilder.withResponse(new BaseCancelResponse() {
@@ -1,7 +1,10 @@
 package uk.gov.pay.connector.gateway.smartpay;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.inject.persist.Transactional;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,12 +16,22 @@ import uk.gov.pay.connector.gateway.model.status.MappedChargeStatus;
 import uk.gov.pay.connector.gateway.model.status.MappedRefundStatus;
 import uk.gov.pay.connector.gateway.processor.ChargeNotificationProcessor;
 import uk.gov.pay.connector.gateway.processor.RefundNotificationProcessor;
+import uk.gov.pay.connector.refund.dao.RefundDao;
+import uk.gov.pay.connector.refund.model.domain.RefundEntity;
+import uk.gov.pay.connector.webhook.service.NotificationDeduplicationService;
 
 import javax.inject.Inject;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
 import static org.apache.commons.lang3.StringUtils.isBlank;
 import static uk.gov.pay.connector.gateway.PaymentGatewayName.SMARTPAY;
 
@@ -27,73 +40,190 @@ public class SmartpayNotificationService {
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
     private final ChargeDao chargeDao;
+    private final RefundDao refundDao;
     private final ChargeNotificationProcessor chargeNotificationProcessor;
     private final RefundNotificationProcessor refundNotificationProcessor;
+    private final NotificationDeduplicationService notificationDeduplicationService;
 
     private static final String PAYMENT_GATEWAY_NAME = SMARTPAY.getName();
 
     @Inject
     public SmartpayNotificationService(ChargeDao chargeDao,
+                                       RefundDao refundDao,
                                        ChargeNotificationProcessor chargeNotificationProcessor,
-                                       RefundNotificationProcessor refundNotificationProcessor) {
+                                       RefundNotificationProcessor refundNotificationProcessor,
+                                       NotificationDeduplicationService notificationDeduplicationService) {
         this.chargeDao = chargeDao;
+        this.refundDao = refundDao;
         this.chargeNotificationProcessor = chargeNotificationProcessor;
         this.refundNotificationProcessor = refundNotificationProcessor;
+        this.notificationDeduplicationService = notificationDeduplicationService;
     }
 
+    /**
+     * Smartpay can send a whole settlement batch in one request, so the charges and refunds referenced by all of its
+     * items are loaded with one query each rather than one per item. Items are still verified, evaluated and logged
+     * individually, and one that cannot be applied does not stop the others.
+     */
     @Transactional
     public boolean handleNotificationFor(String payload) {
-        List<SmartpayNotification> notifications = parse(payload);
+        List<SmartpayNotification> notifications = parse(payload).stream()
+                .filter(this::isVerified)
+                .filter(notification -> !isDuplicate(notification))
+                .collect(toList());
+
+        if (notifications.isEmpty()) {
+            return true;
+        }
+
+        Map<String, ChargeEntity> chargesByTransactionId = findCharges(notifications);
+        Map<String, RefundEntity> refundsByReference = findRefunds(notifications);
+
         for (SmartpayNotification notification : notifications) {
-            handle(notification);
+            handle(notification, chargesByTransactionId, refundsByReference);
         }
         return true;
     }
 
-    private void handle(SmartpayNotification notification) {
+    /**
+     * The transaction a notification refers to, if all of its items refer to the same one.
+     */
+    public Optional<String> transactionIdFor(String payload) {
+        try {
+            Set<String> transactionIds = parseNotification(payload).stream()
+                    .map(SmartpayNotification::getOriginalReference)
+                    .collect(toSet());
+            return transactionIds.size() == 1 ? transactionIds.stream().filter(StringUtils::isNotBlank).findFirst() : Optional.empty();
+        } catch (SmartpayParseException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Splits a notification whose items refer to more than one transaction into one notification per transaction, so
+     * that each can be ordered with the other notifications for its own transaction. Items without an original
+     * reference are kept together. A notification that refers to a single transaction, or that cannot be parsed, is
+     * returned unchanged.
+     */
+    public List<String> splitByTransaction(String payload) {
+        ObjectNode notification;
+        try {
+            JsonNode tree = new ObjectMapper().readTree(payload);
+            if (!(tree instanceof ObjectNode)) {
+                return List.of(payload);
+            }
+            notification = (ObjectNode) tree;
+        } catch (Exception e) {
+            return List.of(payload);
+        }
+
+        Map<String, List<JsonNode>> itemsByTransactionId = new LinkedHashMap<>();
+        for (JsonNode item : notification.path("notificationItems")) {
+            String transactionId = item.path("NotificationRequestItem").path("originalReference").textValue();
+            itemsByTransactionId.computeIfAbsent(transactionId, key -> new ArrayList<>()).add(item);
+        }
+
+        if (itemsByTransactionId.size() <= 1) {
+            return List.of(payload);
+        }
+
+        return itemsByTransactionId.values().stream()
+                .map(items -> {
+                    ObjectNode part = notification.deepCopy();
+                    part.putArray("notificationItems").addAll(items);
+                    return part.toString();
+                })
+                .collect(toList());
+    }
+
+    private boolean isVerified(SmartpayNotification notification) {
         if (shouldIgnore(notification)) {
             logger.info("{} notification {} ignored", PAYMENT_GATEWAY_NAME, notification);
-            return;
+            return false;
         }
 
         logger.info("Verifying {} notification {}", PAYMENT_GATEWAY_NAME, notification);
 
         if (isBlank(notification.getTransactionId())) {
             logger.error("{} notification {} failed verification because it has no transaction ID", PAYMENT_GATEWAY_NAME, notification);
-            return;
+            return false;
         }
+        return true;
+    }
+
+    private Map<String, ChargeEntity> findCharges(List<SmartpayNotification> notifications) {
+        Set<String> transactionIds = notifications.stream()
+                .map(SmartpayNotification::getOriginalReference)
+                .filter(StringUtils::isNotBlank)
+                .collect(toSet());
+
+        return chargeDao.findByProviderAndTransactionIds(PAYMENT_GATEWAY_NAME, transactionIds).stream()
+                .collect(toMap(ChargeEntity::getGatewayTransactionId, charge -> charge, (first, second) -> first));
+    }
+
+    private Map<String, RefundEntity> findRefunds(List<SmartpayNotification> notifications) {
+        Set<String> references = notifications.stream()
+                .filter(notification -> interpretedStatusFrom(notification.getStatus()) instanceof MappedRefundStatus)
+                .map(SmartpayNotification::getPspReference)
+                .filter(StringUtils::isNotBlank)
+                .collect(toSet());
+
+        return refundDao.findByProviderAndReferences(PAYMENT_GATEWAY_NAME, references).stream()
+                .collect(toMap(RefundEntity::getReference, refund -> refund, (first, second) -> first));
+    }
 
+    private void handle(SmartpayNotification notification,
+                        Map<String, ChargeEntity> chargesByTransactionId,
+                        Map<String, RefundEntity> refundsByReference) {
         logger.info("Evaluating {} notification {}", PAYMENT_GATEWAY_NAME, notification);
 
-        Optional<ChargeEntity> maybeCharge = chargeDao.findByProviderAndTransactionId(PAYMENT_GATEWAY_NAME,
-                notification.getOriginalReference());
+        ChargeEntity charge = chargesByTransactionId.get(notification.getOriginalReference());
 
-        if (!maybeCharge.isPresent()) {
+        if (charge == null) {
             logger.error("{} notification {} could not be evaluated (associated charge entity not found)",
                     PAYMENT_GATEWAY_NAME, notification);
             return;
         }
 
-        ChargeEntity charge = maybeCharge.get();
         InterpretedStatus interpretedStatus = interpretStatus(notification, charge);
 
+        boolean applied = false;
         if (interpretedStatus instanceof MappedChargeStatus) {
-            chargeNotificationProcessor.invoke(
+            applied = chargeNotificationProcessor.invoke(
                     notification.getPspReference(),
                     charge,
                     interpretedStatus.getChargeStatus(),
                     notification.getEventDate()
             );
         } else if (interpretedStatus instanceof MappedRefundStatus) {
-            refundNotificationProcessor.invoke(
+            applied = refundNotificationProcessor.invoke(
                     SMARTPAY,
                     interpretedStatus.getRefundStatus(),
                     notification.getPspReference(),
-                    notification.getOriginalReference()
+                    notification.getOriginalReference(),
+                    Optional.ofNullable(refundsByReference.get(notification.getPspReference()))
             );
         } else {
             logger.error("{} notification {} unknown", PAYMENT_GATEWAY_NAME, notification);
         }
+
+        if (applied) {
+            notificationDeduplicationService.recordApplied(SMARTPAY, deduplicationId(notification),
+                    deduplicationStatus(notification), notification.getEventDate());
+        }
+    }
+
+    private boolean isDuplicate(SmartpayNotification notification) {
+        return notificationDeduplicationService.isDuplicate(SMARTPAY, deduplicationId(notification),
+                deduplicationStatus(notification), notification.getEventDate());
+    }
+
+    private String deduplicationId(SmartpayNotification notification) {
+        return notification.getOriginalReference() + "/" + notification.getPspReference();
+    }
+
+    private String deduplicationStatus(SmartpayNotification notification) {
+        return notification.getStatus().getLeft() + ":" + notification.getStatus().getRight();
     }
 
     private InterpretedStatus interpretStatus(SmartpayNotification notification, ChargeEntity charge) {
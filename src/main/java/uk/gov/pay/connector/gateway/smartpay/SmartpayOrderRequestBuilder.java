@@ -2,7 +2,6 @@ package uk.gov.pay.connector.gateway.smartpay;
 
 import uk.gov.pay.connector.gateway.model.OrderRequestType;
 import uk.gov.pay.connector.gateway.templates.PayloadBuilder;
-import uk.gov.pay.connector.gateway.templates.TemplateBuilder;
 import uk.gov.pay.connector.gateway.OrderRequestBuilder;
 
 import javax.ws.rs.core.MediaType;
@@ -38,12 +37,12 @@ public class SmartpayOrderRequestBuilder extends OrderRequestBuilder {
         }
     }
 
-    public static final TemplateBuilder AUTHORISE_ORDER_TEMPLATE_BUILDER = new TemplateBuilder("/smartpay/SmartpayAuthoriseOrderTemplate.xml");
-    public static final TemplateBuilder REQUIRED_3DS_ORDER_TEMPLATE_BUILDER = new TemplateBuilder("/smartpay/Smartpay3dsRequiredOrderTemplate.xml");
-    public static final TemplateBuilder AUTHORISE_3DS_ORDER_TEMPLATE_BUILDER = new TemplateBuilder("/smartpay/SmartpayAuthorise3dsOrderTemplate.xml");
-    public static final TemplateBuilder CAPTURE_ORDER_TEMPLATE_BUILDER = new TemplateBuilder("/smartpay/SmartpayCaptureOrderTemplate.xml");
-    public static final TemplateBuilder CANCEL_ORDER_TEMPLATE_BUILDER = new TemplateBuilder("/smartpay/SmartpayCancelOrderTemplate.xml");
-    public static final TemplateBuilder REFUND_ORDER_TEMPLATE_BUILDER = new TemplateBuilder("/smartpay/SmartpayRefundOrderTemplate.xml");
+    public static final PayloadBuilder AUTHORISE_ORDER_TEMPLATE_BUILDER = SmartpayPayloadSerializers.AUTHORISE_ORDER;
+    public static final PayloadBuilder REQUIRED_3DS_ORDER_TEMPLATE_BUILDER = SmartpayPayloadSerializers.REQUIRED_3DS_ORDER;
+    public static final PayloadBuilder AUTHORISE_3DS_ORDER_TEMPLATE_BUILDER = SmartpayPayloadSerializers.AUTHORISE_3DS_ORDER;
+    public static final PayloadBuilder CAPTURE_ORDER_TEMPLATE_BUILDER = SmartpayPayloadSerializers.CAPTURE_ORDER;
+    public static final PayloadBuilder CANCEL_ORDER_TEMPLATE_BUILDER = SmartpayPayloadSerializers.CANCEL_ORDER;
+    public static final PayloadBuilder REFUND_ORDER_TEMPLATE_BUILDER = SmartpayPayloadSerializers.REFUND_ORDER;
 
     private SmartpayTemplateData smartpayTemplateData;
 
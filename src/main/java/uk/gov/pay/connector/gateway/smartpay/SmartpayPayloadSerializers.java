@@ -0,0 +1,187 @@
+package uk.gov.pay.connector.gateway.smartpay;
+
+import uk.gov.pay.connector.common.model.domain.Address;
+import uk.gov.pay.connector.gateway.model.AuthCardDetails;
+import uk.gov.pay.connector.gateway.smartpay.SmartpayOrderRequestBuilder.SmartpayTemplateData;
+import uk.gov.pay.connector.gateway.templates.PayloadBuilder;
+import uk.gov.pay.connector.gateway.templates.PrecompiledPayloadBuilder;
+import uk.gov.pay.connector.gateway.templates.XmlPayloadWriter;
+
+import static org.apache.commons.lang3.StringUtils.isNotEmpty;
+import static uk.gov.pay.connector.gateway.templates.CardExpiryDates.expiryMonth;
+import static uk.gov.pay.connector.gateway.templates.CardExpiryDates.expiryYearSuffix;
+
+/**
+ * Direct serializers for the Smartpay order templates in {@code src/main/resources/templates/smartpay}. Each method
+ * mirrors its template line by line; change both together.
+ */
+final class SmartpayPayloadSerializers {
+
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\"?>\n";
+
+    static final PayloadBuilder AUTHORISE_ORDER = new PrecompiledPayloadBuilder<>(SmartpayTemplateData.class, SmartpayPayloadSerializers::writeAuthoriseOrder);
+    static final PayloadBuilder REQUIRED_3DS_ORDER = new PrecompiledPayloadBuilder<>(SmartpayTemplateData.class, SmartpayPayloadSerializers::write3dsRequiredOrder);
+    static final PayloadBuilder AUTHORISE_3DS_ORDER = new PrecompiledPayloadBuilder<>(SmartpayTemplateData.class, SmartpayPayloadSerializers::writeAuthorise3dsOrder);
+    static final PayloadBuilder CAPTURE_ORDER = new PrecompiledPayloadBuilder<>(SmartpayTemplateData.class, SmartpayPayloadSerializers::writeCaptureOrder);
+    static final PayloadBuilder CANCEL_ORDER = new PrecompiledPayloadBuilder<>(SmartpayTemplateData.class, SmartpayPayloadSerializers::writeCancelOrder);
+    static final PayloadBuilder REFUND_ORDER = new PrecompiledPayloadBuilder<>(SmartpayTemplateData.class, SmartpayPayloadSerializers::writeRefundOrder);
+
+    private SmartpayPayloadSerializers() {
+    }
+
+    private static void writeAuthoriseOrder(SmartpayTemplateData data, XmlPayloadWriter w) {
+        w.append(XML_DECLARATION +
+                "<soap:Envelope\n" +
+                "        xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\"\n" +
+                "        xmlns:ns1=\"http://payment.services.adyen.com\"\n" +
+                "        xmlns:ns2=\"http://common.services.adyen.com\">\n" +
+                "    <soap:Body>\n" +
+                "        <ns1:authorise>\n" +
+                "            <ns1:paymentRequest>\n");
+        writeAmountAndCard(data, w);
+        w.append("                  </ns1:card>\n");
+        writePaymentRequestFooter(data, w);
+    }
+
+    private static void write3dsRequiredOrder(SmartpayTemplateData data, XmlPayloadWriter w) {
+        AuthCardDetails card = data.getAuthCardDetails();
+        w.append(XML_DECLARATION +
+                "<soap:Envelope\n" +
+                "        xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\"\n" +
+                "        xmlns:ns1=\"http://payment.services.adyen.com\"\n" +
+                "        xmlns:ns2=\"http://common.services.adyen.com\"\n" +
+                "        xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\">\n" +
+                "    <soap:Body>\n" +
+                "        <ns1:authorise>\n" +
+                "            <ns1:paymentRequest>\n" +
+                "                <ns1:additionalData>\n" +
+                "                    <ns2:entry>\n" +
+                "                        <ns2:key xsi:type=\"xsd:string\">executeThreeD</ns2:key>\n" +
+                "                        <ns2:value xsi:type=\"xsd:string\">true</ns2:value>\n" +
+                "                    </ns2:entry>\n" +
+                "                </ns1:additionalData>\n" +
+                "                <ns1:browserInfo>\n" +
+                "                    <ns2:acceptHeader>").appendEscaped("acceptHeader", card.getAcceptHeader()).append("</ns2:acceptHeader>\n" +
+                "                    <ns2:userAgent>").appendEscaped("userAgentHeader", card.getUserAgentHeader()).append("</ns2:userAgent>\n" +
+                "                </ns1:browserInfo>\n");
+        writeAmountAndCard(data, w);
+        w.append("                </ns1:card>\n");
+        writePaymentRequestFooter(data, w);
+    }
+
+    private static void writeAuthorise3dsOrder(SmartpayTemplateData data, XmlPayloadWriter w) {
+        w.append(XML_DECLARATION +
+                "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\">\n" +
+                "<soap:Body>\n" +
+                "    <ns1:authorise3d xmlns:ns1=\"http://payment.services.adyen.com\">\n" +
+                "        <ns1:paymentRequest3d>\n" +
+                "            <ns1:merchantAccount>").appendValue("merchantCode", data.getMerchantCode()).append("</ns1:merchantAccount>\n" +
+                "            <ns1:md>").appendValue("md", data.getMd()).append("</ns1:md>\n" +
+                "            <ns1:paResponse>").appendValue("paResponse", data.getPaResponse()).append("</ns1:paResponse>\n" +
+                "        </ns1:paymentRequest3d>\n" +
+                "    </ns1:authorise3d>\n" +
+                "</soap:Body>\n" +
+                "</soap:Envelope>");
+    }
+
+    private static void writeCaptureOrder(SmartpayTemplateData data, XmlPayloadWriter w) {
+        w.append(XML_DECLARATION +
+                "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\"\n" +
+                ">\n" +
+                "    <soap:Body>\n" +
+                "        <ns1:capture xmlns:ns1=\"http://payment.services.adyen.com\">\n" +
+                "            <ns1:modificationRequest>\n");
+        writeModificationAmountAndReference(data, w);
+        w.append("            </ns1:modificationRequest>\n" +
+                "        </ns1:capture>\n" +
+                "    </soap:Body>\n" +
+                "</soap:Envelope>\n" +
+                "\n");
+    }
+
+    private static void writeCancelOrder(SmartpayTemplateData data, XmlPayloadWriter w) {
+        w.append(XML_DECLARATION +
+                "<soap:Envelope\n" +
+                "        xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\"\n" +
+                "        xmlns:ns1=\"http://payment.services.adyen.com\"\n" +
+                ">\n" +
+                "    <soap:Body>\n" +
+                "        <ns1:cancel>\n" +
+                "            <ns1:modificationRequest>\n" +
+                "                <ns1:merchantAccount>").appendValue("merchantCode", data.getMerchantCode()).append("</ns1:merchantAccount>\n" +
+                "                <ns1:originalReference>").appendEscaped("transactionId", data.getTransactionId()).append("</ns1:originalReference>\n" +
+                "            </ns1:modificationRequest>\n" +
+                "        </ns1:cancel>\n" +
+                "    </soap:Body>\n" +
+                "</soap:Envelope>\n");
+    }
+
+    private static void writeRefundOrder(SmartpayTemplateData data, XmlPayloadWriter w) {
+        w.append(XML_DECLARATION +
+                "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\"\n" +
+                "        >\n" +
+                "    <soap:Body>\n" +
+                "        <ns1:refund xmlns:ns1=\"http://payment.services.adyen.com\">\n" +
+                "            <ns1:modificationRequest>\n");
+        writeModificationAmountAndReference(data, w);
+        w.append("                <reference xmlns=\"http://payment.services.adyen.com\">").appendEscaped("reference", data.getReference()).append("</reference>\n" +
+                "            </ns1:modificationRequest>\n" +
+                "        </ns1:refund>\n" +
+                "    </soap:Body>\n" +
+                "</soap:Envelope>\n");
+    }
+
+    private static void writeAmountAndCard(SmartpayTemplateData data, XmlPayloadWriter w) {
+        AuthCardDetails card = data.getAuthCardDetails();
+        w.append("                <ns1:amount>\n" +
+                "                    <ns2:currency>GBP</ns2:currency>\n" +
+                "                    <ns2:value>").appendValue("amount", data.getAmount()).append("</ns2:value>\n" +
+                "                </ns1:amount>\n" +
+                "                <ns1:card>\n" +
+                "                    <ns1:cvc>").appendValue("cvc", card.getCvc()).append("</ns1:cvc>\n" +
+                "                    <ns1:expiryMonth>").appendValue("endDate", expiryMonth(card.getEndDate())).append("</ns1:expiryMonth>\n" +
+                "                    <ns1:expiryYear>20").appendValue("endDate", expiryYearSuffix(card.getEndDate())).append("</ns1:expiryYear>\n" +
+                "                    <ns1:holderName>").appendEscaped("cardHolder", card.getCardHolder()).append("</ns1:holderName>\n" +
+                "                    <ns1:number>").appendValue("cardNo", card.getCardNo()).append("</ns1:number>\n");
+        if (card.getAddress().isPresent()) {
+            Address address = card.getAddress().get();
+            w.append("                    <ns1:billingAddress>\n" +
+                    "                        <ns2:houseNumberOrName>").appendEscaped("line1", address.getLine1()).append("</ns2:houseNumberOrName>\n" +
+                    "                        <ns2:street>");
+            if (isNotEmpty(address.getLine2())) {
+                w.appendEscaped("line2", address.getLine2());
+            } else {
+                w.append("N/A");
+            }
+            w.append("</ns2:street>\n" +
+                    "                        <ns2:postalCode>").appendEscaped("postcode", address.getPostcode()).append("</ns2:postalCode>\n" +
+                    "                        <ns2:stateOrProvince>");
+            if (address.getCounty() != null) {
+                w.appendEscaped("county", address.getCounty());
+            }
+            w.append("</ns2:stateOrProvince>\n" +
+                    "                        <ns2:city>").appendEscaped("city", address.getCity()).append("</ns2:city>\n" +
+                    "                        <ns2:country>").appendEscaped("country", address.getCountry()).append("</ns2:country>\n" +
+                    "                    </ns1:billingAddress>\n");
+        }
+    }
+
+    private static void writePaymentRequestFooter(SmartpayTemplateData data, XmlPayloadWriter w) {
+        w.append("                <ns1:merchantAccount>").appendValue("merchantCode", data.getMerchantCode()).append("</ns1:merchantAccount>\n" +
+                "                <ns1:reference>").appendEscaped("paymentPlatformReference", data.getPaymentPlatformReference()).append("</ns1:reference>\n" +
+                "                <ns1:shopperReference>").appendEscaped("description", data.getDescription()).append("</ns1:shopperReference>\n" +
+                "            </ns1:paymentRequest>\n" +
+                "        </ns1:authorise>\n" +
+                "    </soap:Body>\n" +
+                "</soap:Envelope>\n");
+    }
+
+    private static void writeModificationAmountAndReference(SmartpayTemplateData data, XmlPayloadWriter w) {
+        w.append("                <merchantAccount xmlns=\"http://payment.services.adyen.com\">").appendValue("merchantCode", data.getMerchantCode()).append("</merchantAccount>\n" +
+                "                <modificationAmount xmlns=\"http://payment.services.adyen.com\">\n" +
+                "                    <currency xmlns=\"http://common.services.adyen.com\">GBP</currency>\n" +
+                "                    <value xmlns=\"http://common.services.adyen.com\">").appendValue("amount", data.getAmount()).append("</value>\n" +
+                "                </modificationAmount>\n" +
+                "                <originalReference xmlns=\"http://payment.services.adyen.com\">").appendEscaped("transactionId", data.getTransactionId()).append("</originalReference>\n");
+    }
+}
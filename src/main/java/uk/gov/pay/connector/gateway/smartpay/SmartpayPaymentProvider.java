@@ -3,6 +3,7 @@ package uk.gov.pay.connector.gateway.smartpay;
 import io.dropwizard.setup.Environment;
 import uk.gov.pay.connector.app.ConnectorConfiguration;
 import uk.gov.pay.connector.charge.model.domain.ChargeEntity;
+import uk.gov.pay.connector.charge.model.domain.ChargeStatus;
 import uk.gov.pay.connector.common.model.api.ExternalChargeRefundAvailability;
 import uk.gov.pay.connector.gateway.CaptureResponse;
 import uk.gov.pay.connector.gateway.ChargeQueryResponse;
@@ -150,6 +151,11 @@ public class SmartpayPaymentProvider implements PaymentProvider {
         return externalRefundAvailabilityCalculator.calculate(chargeEntity);
     }
 
+    @Override
+    public ExternalChargeRefundAvailability getExternalChargeRefundAvailability(ChargeStatus chargeStatus, long amountAvailableToBeRefunded) {
+        return externalRefundAvailabilityCalculator.calculate(chargeStatus, amountAvailableToBeRefunded);
+    }
+
     private GatewayOrder buildAuthoriseOrderFor(CardAuthorisationGatewayRequest request) {
         SmartpayOrderRequestBuilder smartpayOrderRequestBuilder = request.getGatewayAccount().isRequires3ds() ?
                 SmartpayOrderRequestBuilder.aSmartpay3dsRequiredOrderRequestBuilder() : SmartpayOrderRequestBuilder.aSmartpayAuthoriseOrderRequestBuilder();
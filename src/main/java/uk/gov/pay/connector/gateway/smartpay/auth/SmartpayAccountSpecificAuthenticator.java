@@ -7,7 +7,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.gov.pay.connector.gatewayaccount.dao.GatewayAccountDao;
 import uk.gov.pay.connector.gatewayaccount.model.GatewayAccountEntity;
-import uk.gov.pay.connector.util.HashUtil;
 
 import java.util.Optional;
 
@@ -15,13 +14,13 @@ import static java.lang.String.format;
 
 public class SmartpayAccountSpecificAuthenticator implements Authenticator<BasicCredentials, BasicAuthUser> {
     private GatewayAccountDao gatewayAccountDao;
-    private HashUtil hashUtil;
+    private VerifiedCredentialsCache verifiedCredentialsCache;
     private static final Logger logger = LoggerFactory.getLogger(SmartpayAccountSpecificAuthenticator.class);
 
     @Inject
-    public SmartpayAccountSpecificAuthenticator(GatewayAccountDao gatewayAccountDao, HashUtil hashUtil) {
+    public SmartpayAccountSpecificAuthenticator(GatewayAccountDao gatewayAccountDao, VerifiedCredentialsCache verifiedCredentialsCache) {
         this.gatewayAccountDao = gatewayAccountDao;
-        this.hashUtil = hashUtil;
+        this.verifiedCredentialsCache = verifiedCredentialsCache;
 
     }
 
@@ -38,6 +37,7 @@ public class SmartpayAccountSpecificAuthenticator implements Authenticator<Basic
     }
 
     private boolean matchCredentials(BasicCredentials basicCredentials, GatewayAccountEntity gatewayAccountEntity) {
-        return hashUtil.check(basicCredentials.getPassword(), gatewayAccountEntity.getNotificationCredentials().getPassword());
+        return verifiedCredentialsCache.check(gatewayAccountEntity.getId(), basicCredentials.getUsername(),
+                basicCredentials.getPassword(), gatewayAccountEntity.getNotificationCredentials().getPassword());
     }
 }
@@ -0,0 +1,97 @@
+package uk.gov.pay.connector.gateway.smartpay.auth;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import io.dropwizard.setup.Environment;
+import uk.gov.pay.connector.app.ConnectorConfiguration;
+import uk.gov.pay.connector.app.NotificationCredentialsCacheConfig;
+import uk.gov.pay.connector.util.HashUtil;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Remembers notification credentials that have already passed the bcrypt check, so a batch of Smartpay notifications
+ * costs one {@link HashUtil#check} rather than one per request.
+ * <p>
+ * Entries are keyed on an HMAC of the username, the presented password and the stored bcrypt hash, using a key
+ * generated at startup, so neither the password nor anything that could be brute-forced offline is held in memory,
+ * and a change of password can never be satisfied by an earlier entry even before {@link #invalidate} runs. Only
+ * successful checks are cached.
+ */
+@Singleton
+public class VerifiedCredentialsCache {
+
+    private final NotificationCredentialsCacheConfig config;
+    private final HashUtil hashUtil;
+    private final HashFunction keyFunction;
+    private final Cache<HashCode, Long> verifiedCredentials;
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer checkTime;
+
+    @Inject
+    public VerifiedCredentialsCache(ConnectorConfiguration configuration, HashUtil hashUtil, Environment environment) {
+        this(configuration.getNotificationCredentialsCacheConfig(), hashUtil, environment.metrics());
+    }
+
+    public VerifiedCredentialsCache(NotificationCredentialsCacheConfig config, HashUtil hashUtil, MetricRegistry metricRegistry) {
+        this.config = config;
+        this.hashUtil = hashUtil;
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.keyFunction = Hashing.hmacSha256(key);
+        this.verifiedCredentials = CacheBuilder.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getExpireAfterWrite().toMilliseconds(), TimeUnit.MILLISECONDS)
+                .build();
+        this.hits = metricRegistry.counter("smartpay-notification-credentials.cache.hits");
+        this.misses = metricRegistry.counter("smartpay-notification-credentials.cache.misses");
+        this.checkTime = metricRegistry.timer("smartpay-notification-credentials.check");
+        metricRegistry.gauge("smartpay-notification-credentials.cache.size", () -> (Gauge<Long>) verifiedCredentials::size);
+    }
+
+    public boolean check(Long gatewayAccountId, String username, String password, String hashedPassword) {
+        if (!config.isEnabled()) {
+            return timedCheck(password, hashedPassword);
+        }
+
+        HashCode key = keyFunction.newHasher()
+                .putString(username, UTF_8).putByte((byte) 0)
+                .putString(password, UTF_8).putByte((byte) 0)
+                .putString(hashedPassword, UTF_8)
+                .hash();
+        if (verifiedCredentials.getIfPresent(key) != null) {
+            hits.inc();
+            return true;
+        }
+
+        misses.inc();
+        boolean matches = timedCheck(password, hashedPassword);
+        if (matches) {
+            verifiedCredentials.put(key, gatewayAccountId);
+        }
+        return matches;
+    }
+
+    public void invalidate(Long gatewayAccountId) {
+        verifiedCredentials.asMap().values().removeIf(gatewayAccountId::equals);
+    }
+
+    private boolean timedCheck(String password, String hashedPassword) {
+        try (Timer.Context ignored = checkTime.time()) {
+            return hashUtil.check(password, hashedPassword);
+        }
+    }
+}
@@ -17,6 +17,7 @@ import uk.gov.pay.connector.gateway.model.Auth3dsDetails;
 import uk.gov.pay.connector.gateway.stripe.json.StripeSourcesResponse;
 import uk.gov.pay.connector.gateway.stripe.response.StripeNotification;
 import uk.gov.pay.connector.paymentprocessor.service.Card3dsResponseAuthService;
+import uk.gov.pay.connector.webhook.service.NotificationDeduplicationService;
 
 import javax.ws.rs.WebApplicationException;
 import java.util.List;
@@ -40,6 +41,7 @@ public class StripeNotificationService {
     private final Card3dsResponseAuthService card3dsResponseAuthService;
     private final ObjectMapper objectMapper;
     private final StripeGatewayConfig stripeGatewayConfig;
+    private final NotificationDeduplicationService notificationDeduplicationService;
 
     private static final String PAYMENT_GATEWAY_NAME = PaymentGatewayName.STRIPE.getName();
     private static final long DEFAULT_TOLERANCE = 300L;
@@ -47,11 +49,13 @@ public class StripeNotificationService {
     @Inject
     public StripeNotificationService(Card3dsResponseAuthService card3dsResponseAuthService,
                                      ChargeService chargeService,
-                                     StripeGatewayConfig stripeGatewayConfig) {
+                                     StripeGatewayConfig stripeGatewayConfig,
+                                     NotificationDeduplicationService notificationDeduplicationService) {
         this.card3dsResponseAuthService = card3dsResponseAuthService;
         this.chargeService = chargeService;
         objectMapper = new ObjectMapper();
         this.stripeGatewayConfig = stripeGatewayConfig;
+        this.notificationDeduplicationService = notificationDeduplicationService;
     }
 
     public void handleNotificationFor(String payload, String signatureHeader) {
@@ -90,6 +94,10 @@ public class StripeNotificationService {
                     stripeSourcesResponse.getTransactionId()
             );
 
+            if (notificationDeduplicationService.isDuplicate(PaymentGatewayName.STRIPE, stripeSourcesResponse.getTransactionId(), notification.getType(), null)) {
+                return;
+            }
+
             Optional<ChargeEntity> maybeCharge = chargeService.findByProviderAndTransactionId(PAYMENT_GATEWAY_NAME, stripeSourcesResponse.getTransactionId());
 
             if (!maybeCharge.isPresent()) {
@@ -100,8 +108,9 @@ public class StripeNotificationService {
 
             ChargeEntity charge = maybeCharge.get();
 
-            if (isChargeIn3DSRequiredOrReadyState(ChargeStatus.fromString(charge.getStatus()))) {
-                authorise3DSSource(charge, notification.getType());
+            if (isChargeIn3DSRequiredOrReadyState(ChargeStatus.fromString(charge.getStatus()))
+                    && authorise3DSSource(charge, notification.getType())) {
+                notificationDeduplicationService.recordApplied(PaymentGatewayName.STRIPE, stripeSourcesResponse.getTransactionId(), notification.getType(), null);
             }
 
         } catch (StripeParseException e) {
@@ -109,17 +118,19 @@ public class StripeNotificationService {
         }
     }
 
-    private void authorise3DSSource(ChargeEntity charge, String notificationEventType) {
+    private boolean authorise3DSSource(ChargeEntity charge, String notificationEventType) {
         try {
             final StripeNotificationType type = StripeNotificationType.byType(notificationEventType);
 
             Auth3dsDetails auth3dsDetails = new Auth3dsDetails();
             auth3dsDetails.setAuth3dsResult(getMappedAuth3dsResult(type));
             card3dsResponseAuthService.process3DSecureAuthorisationWithoutLocking(charge.getExternalId(), auth3dsDetails);
+            return true;
         } catch (OperationAlreadyInProgressRuntimeException e) {
             // CardExecutorService is asynchronous and sends back 'OperationAlreadyInProgressRuntimeException' 
             // exception while the charge is being authorised. Catch this exception to send a response with 
             // http status 200 instead of depending on the status returned by Exception 
+            return false;
         }
     }
 
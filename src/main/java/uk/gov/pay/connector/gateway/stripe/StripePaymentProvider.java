@@ -9,6 +9,7 @@ import org.slf4j.LoggerFactory;
 import uk.gov.pay.connector.app.ConnectorConfiguration;
 import uk.gov.pay.connector.app.StripeGatewayConfig;
 import uk.gov.pay.connector.charge.model.domain.ChargeEntity;
+import uk.gov.pay.connector.charge.model.domain.ChargeStatus;
 import uk.gov.pay.connector.common.model.api.ExternalChargeRefundAvailability;
 import uk.gov.pay.connector.gateway.CaptureResponse;
 import uk.gov.pay.connector.gateway.ChargeQueryResponse;
@@ -123,7 +124,7 @@ public class StripePaymentProvider implements PaymentProvider {
             StripeTokenResponse tokenResponse = createToken(request);
             StripeSourcesResponse stripeSourcesResponse = createSource(request, tokenResponse.getId());
             if (stripeSourcesResponse.require3ds()) {
-                String source3dsResponse = create3dsSource(request, stripeSourcesResponse.getId());
+                byte[] source3dsResponse = create3dsSource(request, stripeSourcesResponse.getId());
                 Stripe3dsSourceResponse sourceResponse = jsonObjectMapper.getObject(source3dsResponse, Stripe3dsSourceResponse.class);
 
                 Stripe3dsSourceAuthorisationResponse response = new Stripe3dsSourceAuthorisationResponse(sourceResponse);
@@ -225,7 +226,7 @@ public class StripePaymentProvider implements PaymentProvider {
         return responseBuilder.withGatewayError(gatewayError).build();
     }
 
-    private String create3dsSource(CardAuthorisationGatewayRequest request, String sourceId)
+    private byte[] create3dsSource(CardAuthorisationGatewayRequest request, String sourceId)
             throws GenericGatewayException, GatewayConnectionTimeoutException, GatewayErrorException {
         GatewayAccountEntity gatewayAccount = request.getGatewayAccount();
         return postToStripe(
@@ -233,19 +234,19 @@ public class StripePaymentProvider implements PaymentProvider {
                 threeDSecurePayload(request, sourceId),
                 gatewayAccount.isLive(),
                 gatewayAccount,
-                OrderRequestType.STRIPE_CREATE_3DS_SOURCE).getEntity();
+                OrderRequestType.STRIPE_CREATE_3DS_SOURCE).getEntityBytes();
     }
 
     private StripeAuthorisationResponse createChargeFor3DSSource(Auth3dsResponseGatewayRequest request, String sourceId)
             throws GenericGatewayException, GatewayConnectionTimeoutException, GatewayErrorException {
-        String jsonResponse = client.postRequestFor(StripeAuthoriseRequest.of(sourceId, request, stripeGatewayConfig)).getEntity();
+        byte[] jsonResponse = client.postRequestFor(StripeAuthoriseRequest.of(sourceId, request, stripeGatewayConfig)).getEntityBytes();
         final StripeCharge createChargeResponse = jsonObjectMapper.getObject(jsonResponse, StripeCharge.class);
         return new StripeAuthorisationResponse(createChargeResponse);
     }
 
     private StripeAuthorisationResponse createCharge(CardAuthorisationGatewayRequest request, String sourceId)
             throws GenericGatewayException, GatewayConnectionTimeoutException, GatewayErrorException {
-        String jsonResponse = client.postRequestFor(StripeAuthoriseRequest.of(sourceId, request, stripeGatewayConfig)).getEntity();
+        byte[] jsonResponse = client.postRequestFor(StripeAuthoriseRequest.of(sourceId, request, stripeGatewayConfig)).getEntityBytes();
         final StripeCharge createChargeResponse = jsonObjectMapper.getObject(jsonResponse, StripeCharge.class);
         return new StripeAuthorisationResponse(createChargeResponse);
     }
@@ -253,24 +254,24 @@ public class StripePaymentProvider implements PaymentProvider {
     private StripeSourcesResponse createSource(CardAuthorisationGatewayRequest request, String tokenId)
             throws GenericGatewayException, GatewayConnectionTimeoutException, GatewayErrorException {
         GatewayAccountEntity gatewayAccount = request.getGatewayAccount();
-        String jsonResponse = postToStripe(
+        byte[] jsonResponse = postToStripe(
                 "/v1/sources",
                 sourcesPayload(tokenId),
                 gatewayAccount.isLive(),
                 gatewayAccount,
-                OrderRequestType.STRIPE_CREATE_SOURCE).getEntity();
+                OrderRequestType.STRIPE_CREATE_SOURCE).getEntityBytes();
         return jsonObjectMapper.getObject(jsonResponse, StripeSourcesResponse.class);
     }
 
     private StripeTokenResponse createToken(CardAuthorisationGatewayRequest request)
             throws GenericGatewayException, GatewayConnectionTimeoutException, GatewayErrorException {
         GatewayAccountEntity gatewayAccount = request.getGatewayAccount();
-        String jsonResponse = postToStripe(
+        byte[] jsonResponse = postToStripe(
                 "/v1/tokens",
                 tokenPayload(request),
                 gatewayAccount.isLive(),
                 gatewayAccount,
-                OrderRequestType.STRIPE_TOKEN).getEntity();
+                OrderRequestType.STRIPE_TOKEN).getEntityBytes();
         return jsonObjectMapper.getObject(jsonResponse, StripeTokenResponse.class);
     }
 
@@ -313,6 +314,11 @@ public class StripePaymentProvider implements PaymentProvider {
         return externalRefundAvailabilityCalculator.calculate(chargeEntity);
     }
 
+    @Override
+    public ExternalChargeRefundAvailability getExternalChargeRefundAvailability(ChargeStatus chargeStatus, long amountAvailableToBeRefunded) {
+        return externalRefundAvailabilityCalculator.calculate(chargeStatus, amountAvailableToBeRefunded);
+    }
+
     private String sourcesPayload(String token) {
         List<BasicNameValuePair> params = new ArrayList<>();
         params.add(new BasicNameValuePair("type", "card"));
@@ -92,7 +92,7 @@ public class StripeCaptureHandler implements CaptureHandler {
     }
 
     private StripeCharge captureWithPlatform(CaptureGatewayRequest request) throws GatewayException.GenericGatewayException, GatewayErrorException, GatewayException.GatewayConnectionTimeoutException {
-        String captureResponse = client.postRequestFor(StripeCaptureRequest.of(request, stripeGatewayConfig)).getEntity();
+        byte[] captureResponse = client.postRequestFor(StripeCaptureRequest.of(request, stripeGatewayConfig)).getEntityBytes();
         StripeCharge stripeCaptureResponse = jsonObjectMapper.getObject(captureResponse, StripeCharge.class);
         logger.info("Captured charge id {} with platform account - stripe capture id {}",
                 request.getExternalId(),
@@ -103,7 +103,7 @@ public class StripeCaptureHandler implements CaptureHandler {
     }
 
     private void transferToConnectAccount(CaptureGatewayRequest request, Long netTransferAmount) throws GatewayException.GenericGatewayException, GatewayErrorException, GatewayException.GatewayConnectionTimeoutException {
-        String transferResponse = client.postRequestFor(StripeTransferOutRequest.of(netTransferAmount.toString(), request, stripeGatewayConfig)).getEntity();
+        byte[] transferResponse = client.postRequestFor(StripeTransferOutRequest.of(netTransferAmount.toString(), request, stripeGatewayConfig)).getEntityBytes();
         StripeTransferResponse stripeTransferResponse = jsonObjectMapper.getObject(transferResponse, StripeTransferResponse.class);
         logger.info("In capturing charge id {}, transferred net amount {} - transfer id {} -  to Stripe Connect account id {} in transfer group {}",
                 request.getExternalId(),
@@ -74,7 +74,7 @@ public class StripeRefundHandler {
 
     private StripeRefund refundCharge(RefundGatewayRequest request) throws GatewayException.GenericGatewayException, GatewayErrorException, GatewayException.GatewayConnectionTimeoutException {
         StripeRefundRequest stripeRefundRequest = StripeRefundRequest.of(request, stripeGatewayConfig);
-        final String refundResponse = client.postRequestFor(stripeRefundRequest).getEntity();
+        final byte[] refundResponse = client.postRequestFor(stripeRefundRequest).getEntityBytes();
         StripeRefund refund = jsonObjectMapper.getObject(refundResponse, StripeRefund.class);
         logger.info("As part of refund {} to refund charge id {} refunded stripe charge id {}",
                 request.getTransactionId(),
@@ -86,7 +86,7 @@ public class StripeRefundHandler {
     }
     
     private void transferFromConnectAccount(RefundGatewayRequest request) throws GatewayException.GenericGatewayException, GatewayErrorException, GatewayException.GatewayConnectionTimeoutException {
-        String transferResponse = client.postRequestFor(StripeTransferInRequest.of(request, stripeGatewayConfig)).getEntity();
+        byte[] transferResponse = client.postRequestFor(StripeTransferInRequest.of(request, stripeGatewayConfig)).getEntityBytes();
         StripeTransferResponse stripeTransferResponse = jsonObjectMapper.getObject(transferResponse, StripeTransferResponse.class);
         logger.info("As part of refund {} refunding charge id {}, transferred net amount {} - transfer id {} -  from Stripe Connect account id {} in transfer group {}",
                 request.getRefundExternalId(),
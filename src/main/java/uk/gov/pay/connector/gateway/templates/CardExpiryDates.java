@@ -0,0 +1,26 @@
+package uk.gov.pay.connector.gateway.templates;
+
+/**
+ * Equivalents of the {@code endDate?split('/')?first} and {@code endDate?split('/')?last} expressions used by the
+ * order templates, for card end dates in {@code MM/yy} form.
+ */
+public final class CardExpiryDates {
+
+    private CardExpiryDates() {
+    }
+
+    public static String expiryMonth(String endDate) {
+        if (endDate == null) {
+            return null;
+        }
+        int separator = endDate.indexOf('/');
+        return separator < 0 ? endDate : endDate.substring(0, separator);
+    }
+
+    public static String expiryYearSuffix(String endDate) {
+        if (endDate == null) {
+            return null;
+        }
+        return endDate.substring(endDate.lastIndexOf('/') + 1);
+    }
+}
@@ -1,6 +1,5 @@
 package uk.gov.pay.connector.gateway.templates;
 
-import org.apache.http.client.utils.URLEncodedUtils;
 import uk.gov.pay.connector.gateway.epdq.EpdqOrderRequestBuilder;
 import uk.gov.pay.connector.gateway.epdq.payload.EpdqPayloadDefinition;
 
@@ -17,7 +16,7 @@ public class FormUrlEncodedStringBuilder {
     }
 
     public String buildWith(EpdqOrderRequestBuilder.EpdqTemplateData templateData) {
-        return URLEncodedUtils.format(payloadDefinition.extract(templateData), charset);
+        return payloadDefinition.formEncode(templateData, charset);
     }
 
 }
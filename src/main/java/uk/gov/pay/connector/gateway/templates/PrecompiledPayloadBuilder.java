@@ -0,0 +1,31 @@
+package uk.gov.pay.connector.gateway.templates;
+
+import uk.gov.pay.connector.gateway.OrderRequestBuilder.TemplateData;
+
+/**
+ * Builds a payload by writing it directly from the template data, rather than rendering a FreeMarker template
+ * through reflective model access. Output must stay byte-identical to the equivalent template in
+ * {@code src/main/resources/templates}, which {@code PrecompiledPayloadBuilderTest} checks.
+ */
+public class PrecompiledPayloadBuilder<T extends TemplateData> implements PayloadBuilder {
+
+    @FunctionalInterface
+    public interface Serializer<T> {
+        void write(T templateData, XmlPayloadWriter writer);
+    }
+
+    private final Class<T> templateDataType;
+    private final Serializer<T> serializer;
+
+    public PrecompiledPayloadBuilder(Class<T> templateDataType, Serializer<T> serializer) {
+        this.templateDataType = templateDataType;
+        this.serializer = serializer;
+    }
+
+    @Override
+    public String buildWith(TemplateData templateData) {
+        XmlPayloadWriter writer = XmlPayloadWriter.forCurrentThread();
+        serializer.write(templateDataType.cast(templateData), writer);
+        return writer.toString();
+    }
+}
@@ -46,15 +46,21 @@ public class DefaultExternalRefundAvailabilityCalculator implements ExternalRefu
 
     @Override
     public ExternalChargeRefundAvailability calculate(ChargeEntity chargeEntity) {
-        return calculate(chargeEntity, STATUSES_THAT_MAP_TO_EXTERNAL_PENDING, STATUSES_THAT_MAP_TO_EXTERNAL_AVAILABLE_OR_EXTERNAL_FULL);
+        return calculate(ChargeStatus.fromString(chargeEntity.getStatus()), RefundCalculator.getTotalAmountAvailableToBeRefunded(chargeEntity));
     }
 
-    protected ExternalChargeRefundAvailability calculate(ChargeEntity chargeEntity, List<ChargeStatus> statusesThatMapToExternalPending,
+    @Override
+    public ExternalChargeRefundAvailability calculate(ChargeStatus chargeStatus, long amountAvailableToBeRefunded) {
+        return calculate(chargeStatus, amountAvailableToBeRefunded, STATUSES_THAT_MAP_TO_EXTERNAL_PENDING, STATUSES_THAT_MAP_TO_EXTERNAL_AVAILABLE_OR_EXTERNAL_FULL);
+    }
+
+    protected ExternalChargeRefundAvailability calculate(ChargeStatus chargeStatus, long amountAvailableToBeRefunded,
+                                                         List<ChargeStatus> statusesThatMapToExternalPending,
                                                          List<ChargeStatus> statusesThatMapToExternalAvailableOrExternalFull) {
-        if (chargeIsPending(chargeEntity, statusesThatMapToExternalPending)) {
+        if (statusesThatMapToExternalPending.contains(chargeStatus)) {
             return EXTERNAL_PENDING;
-        } else if (chargeIsAvailableOrFull(chargeEntity, statusesThatMapToExternalAvailableOrExternalFull)) {
-            if (RefundCalculator.getTotalAmountAvailableToBeRefunded(chargeEntity) > 0) {
+        } else if (statusesThatMapToExternalAvailableOrExternalFull.contains(chargeStatus)) {
+            if (amountAvailableToBeRefunded > 0) {
                 return EXTERNAL_AVAILABLE;
             } else {
                 return EXTERNAL_FULL;
@@ -62,12 +68,4 @@ public class DefaultExternalRefundAvailabilityCalculator implements ExternalRefu
         }
         return EXTERNAL_UNAVAILABLE;
     }
-
-    private boolean chargeIsAvailableOrFull(ChargeEntity chargeEntity, List<ChargeStatus> statusesThatMapToExternalAvailableOrExternalFull) {
-        return statusesThatMapToExternalAvailableOrExternalFull.contains(ChargeStatus.fromString(chargeEntity.getStatus()));
-    }
-
-    private boolean chargeIsPending(ChargeEntity chargeEntity, List<ChargeStatus> statusesThatMapToExternalPending) {
-        return statusesThatMapToExternalPending.contains(ChargeStatus.fromString(chargeEntity.getStatus()));
-    }
 }
@@ -1,10 +1,13 @@
 package uk.gov.pay.connector.gateway.util;
 
 import uk.gov.pay.connector.charge.model.domain.ChargeEntity;
+import uk.gov.pay.connector.charge.model.domain.ChargeStatus;
 import uk.gov.pay.connector.common.model.api.ExternalChargeRefundAvailability;
 
 public interface ExternalRefundAvailabilityCalculator {
 
     ExternalChargeRefundAvailability calculate(ChargeEntity chargeEntity);
 
+    ExternalChargeRefundAvailability calculate(ChargeStatus chargeStatus, long amountAvailableToBeRefunded);
+
 }
@@ -5,6 +5,7 @@ import org.xml.sax.SAXException;
 import org.xml.sax.SAXNotRecognizedException;
 import org.xml.sax.SAXNotSupportedException;
 import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
@@ -14,6 +15,11 @@ import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
 import javax.xml.transform.sax.SAXSource;
 import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static javax.xml.XMLConstants.FEATURE_SECURE_PROCESSING;
@@ -22,6 +28,17 @@ public class XMLUnmarshaller {
 
     private static final String JDK_ENTITY_EXPANSION_LIMIT = "http://www.oracle.com/xml/jaxp/properties/entityExpansionLimit";
     private static final String JDK_ENTITY_EXPANSION_LIMIT_VALUE = "1";
+    private static final int MAX_POOLED_XML_READERS = 64;
+
+    /**
+     * JAXBContexts are thread-safe and expensive to build (they introspect every mapped class), so one is kept per
+     * target class. Unmarshallers and XMLReaders are not thread-safe: unmarshallers are cheap to create from a cached
+     * context, and hardened XMLReaders are pooled so the secure parser configuration is only built when the pool is
+     * empty.
+     */
+    private static final Map<Class<?>, JAXBContext> JAXB_CONTEXTS = new ConcurrentHashMap<>();
+    private static final BlockingQueue<XMLReader> XML_READERS = new ArrayBlockingQueue<>(MAX_POOLED_XML_READERS);
+    private static final DefaultHandler NO_OP_HANDLER = new DefaultHandler();
 
     /**
      * Unmarshall XML payloads to Java instance
@@ -35,21 +52,62 @@ public class XMLUnmarshaller {
      * NamespaceAware must be set to true (soap envelopes are being unmarshalled using same method)
      */
     public static <T> T unmarshall(String payload, Class<T> clazz) throws XMLUnmarshallerException {
+        return unmarshall(new ByteArrayInputStream(payload.getBytes(UTF_8)), clazz);
+    }
+
+    /**
+     * Unmarshall an XML stream to Java instance without first decoding it to a String. The character encoding is
+     * taken from the XML declaration, defaulting to UTF-8.
+     *
+     * @see #unmarshall(String, Class)
+     */
+    public static <T> T unmarshall(InputStream payload, Class<T> clazz) throws XMLUnmarshallerException {
         try {
-            XMLReader xmlReader = buildXmlReader();
-            return unmarshall(payload, clazz, xmlReader);
+            XMLReader xmlReader = borrowXmlReader();
+            T result = unmarshall(payload, clazz, xmlReader);
+            returnXmlReader(xmlReader);
+            return result;
         } catch (ParserConfigurationException | SAXException | JAXBException e) {
             throw new XMLUnmarshallerException(e);
         }
     }
 
-    private static <T> T unmarshall(String payload, Class<T> clazz, XMLReader xmlReader) throws JAXBException {
-        InputSource inputSource = new InputSource(new ByteArrayInputStream(payload.getBytes(UTF_8)));
-        JAXBContext jaxbContext = JAXBContext.newInstance(clazz);
-        Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
+    private static <T> T unmarshall(InputStream payload, Class<T> clazz, XMLReader xmlReader) throws JAXBException {
+        InputSource inputSource = new InputSource(payload);
+        Unmarshaller unmarshaller = getJaxbContext(clazz).createUnmarshaller();
         return unmarshaller.unmarshal(new SAXSource(xmlReader, inputSource), clazz).getValue();
     }
 
+    private static JAXBContext getJaxbContext(Class<?> clazz) throws JAXBException {
+        JAXBContext jaxbContext = JAXB_CONTEXTS.get(clazz);
+        if (jaxbContext == null) {
+            jaxbContext = JAXBContext.newInstance(clazz);
+            JAXBContext existing = JAXB_CONTEXTS.putIfAbsent(clazz, jaxbContext);
+            return existing != null ? existing : jaxbContext;
+        }
+        return jaxbContext;
+    }
+
+    /**
+     * Readers are only returned to the pool after a successful parse, so one left in an unknown state by a malformed
+     * or malicious payload is discarded rather than reused.
+     */
+    private static XMLReader borrowXmlReader() throws ParserConfigurationException, SAXException {
+        XMLReader xmlReader = XML_READERS.poll();
+        return xmlReader != null ? xmlReader : buildXmlReader();
+    }
+
+    /**
+     * The unmarshaller leaves itself registered as the reader's handlers, and through them the object it built. They
+     * are replaced before the reader goes back to the pool so that a pooled reader does not keep the last parsed
+     * payload reachable.
+     */
+    private static void returnXmlReader(XMLReader xmlReader) {
+        xmlReader.setContentHandler(NO_OP_HANDLER);
+        xmlReader.setErrorHandler(NO_OP_HANDLER);
+        XML_READERS.offer(xmlReader);
+    }
+
     private static XMLReader buildXmlReader() throws ParserConfigurationException, SAXException {
         SAXParserFactory spf = SAXParserFactory.newInstance();
         spf.setFeature(FEATURE_SECURE_PROCESSING, true); // Explicitly set. Do not remove
@@ -13,6 +13,7 @@ import uk.gov.pay.connector.gateway.util.XMLUnmarshaller;
 import uk.gov.pay.connector.gateway.util.XMLUnmarshallerException;
 import uk.gov.pay.connector.refund.model.domain.RefundStatus;
 import uk.gov.pay.connector.util.DnsUtils;
+import uk.gov.pay.connector.webhook.service.NotificationDeduplicationService;
 
 import javax.inject.Inject;
 import java.util.List;
@@ -41,6 +42,7 @@ public class WorldpayNotificationService {
     private final DnsUtils dnsUtils;
     private final ChargeNotificationProcessor chargeNotificationProcessor;
     private final RefundNotificationProcessor refundNotificationProcessor;
+    private final NotificationDeduplicationService notificationDeduplicationService;
 
     @Inject
     public WorldpayNotificationService(
@@ -48,7 +50,8 @@ public class WorldpayNotificationService {
             WorldpayNotificationConfiguration config,
             DnsUtils dnsUtils,
             ChargeNotificationProcessor chargeNotificationProcessor,
-            RefundNotificationProcessor refundNotificationProcessor
+            RefundNotificationProcessor refundNotificationProcessor,
+            NotificationDeduplicationService notificationDeduplicationService
     ) {
         this.chargeDao = chargeDao;
         this.config = config;
@@ -56,15 +59,40 @@ public class WorldpayNotificationService {
 
         this.chargeNotificationProcessor = chargeNotificationProcessor;
         this.refundNotificationProcessor = refundNotificationProcessor;
+        this.notificationDeduplicationService = notificationDeduplicationService;
     }
 
     @Transactional
     public boolean handleNotificationFor(String ipAddress, String payload) {
+        if (!isNotificationFromTrustedSource(ipAddress)) {
+            return false;
+        }
+
+        handleVerifiedNotificationFor(payload);
+        return true;
+    }
+
+    public boolean isNotificationFromTrustedSource(String ipAddress) {
         if (isNotificationRejectedFromIpAddress(ipAddress)) {
             logger.error("{} notification received from ip '{}' which is not in domain '{}'", gatewayName(), ipAddress, notificationDomain());
             return false;
         }
+        return true;
+    }
 
+    public Optional<String> transactionIdFor(String payload) {
+        try {
+            return Optional.ofNullable(XMLUnmarshaller.unmarshall(payload, WorldpayNotification.class).getTransactionId());
+        } catch (XMLUnmarshallerException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Applies a notification whose source has already been checked with {@link #isNotificationFromTrustedSource}.
+     */
+    @Transactional
+    public void handleVerifiedNotificationFor(String payload) {
         WorldpayNotification notification;
         try {
             logger.info("Parsing {} notification", gatewayName());
@@ -73,17 +101,21 @@ public class WorldpayNotificationService {
             logger.info("Parsed {} notification: {}", gatewayName(), notification);
         } catch (XMLUnmarshallerException e) {
             logger.error("{} notification parsing failed: {}", gatewayName(), e.toString());
-            return true;
+            return;
         }
 
         if (isIgnored(notification)) {
             logger.info("{} notification {} ignored", gatewayName(), notification);
-            return true;
+            return;
         }
 
         if (isTransactionIdBlank(notification)) {
             logger.error("{} notification {} failed verification because it has no transaction ID", gatewayName(), notification);
-            return true;
+            return;
+        }
+
+        if (isDuplicate(notification)) {
+            return;
         }
 
         Optional<ChargeEntity> optionalChargeEntity = chargeDao.findByProviderAndTransactionId(gatewayName(),
@@ -92,17 +124,31 @@ public class WorldpayNotificationService {
         if (!optionalChargeEntity.isPresent()) {
             logger.error("{} notification {} could not be evaluated (associated charge entity not found)",
                     gatewayName(), notification);
-            return true;
+            return;
         }
 
+        boolean applied = false;
         if (isCaptureNotification(notification)) {
-            chargeNotificationProcessor.invoke(notification.getTransactionId(), optionalChargeEntity.get(), CAPTURED, notification.getGatewayEventDate());
+            applied = chargeNotificationProcessor.invoke(notification.getTransactionId(), optionalChargeEntity.get(), CAPTURED, notification.getGatewayEventDate());
         } else if (isRefundNotification(notification)) {
-            refundNotificationProcessor.invoke(getPaymentGatewayName(), newRefundStatus(notification), notification.getReference(), notification.getTransactionId());
+            applied = refundNotificationProcessor.invoke(getPaymentGatewayName(), newRefundStatus(notification), notification.getReference(), notification.getTransactionId());
         } else {
             logger.error("{} notification {} unknown", gatewayName(), notification);
         }
-        return true;
+
+        if (applied) {
+            notificationDeduplicationService.recordApplied(getPaymentGatewayName(), deduplicationId(notification),
+                    notification.getStatus(), notification.getGatewayEventDate());
+        }
+    }
+
+    private boolean isDuplicate(WorldpayNotification notification) {
+        return notificationDeduplicationService.isDuplicate(getPaymentGatewayName(), deduplicationId(notification),
+                notification.getStatus(), notification.getGatewayEventDate());
+    }
+
+    private String deduplicationId(WorldpayNotification notification) {
+        return notification.getTransactionId() + "/" + notification.getReference();
     }
 
     private RefundStatus newRefundStatus(WorldpayNotification notification) {
@@ -5,7 +5,6 @@ import org.joda.time.DateTime;
 import uk.gov.pay.connector.gateway.OrderRequestBuilder;
 import uk.gov.pay.connector.gateway.model.OrderRequestType;
 import uk.gov.pay.connector.gateway.templates.PayloadBuilder;
-import uk.gov.pay.connector.gateway.templates.TemplateBuilder;
 import uk.gov.pay.connector.wallets.WalletType;
 import uk.gov.pay.connector.wallets.model.WalletAuthorisationData;
 
@@ -91,14 +90,14 @@ public class WorldpayOrderRequestBuilder extends OrderRequestBuilder {
         }
     }
 
-    public static final TemplateBuilder AUTHORISE_ORDER_TEMPLATE_BUILDER = new TemplateBuilder("/worldpay/WorldpayAuthoriseOrderTemplate.xml");
-    public static final TemplateBuilder AUTHORISE_APPLE_PAY_ORDER_TEMPLATE_BUILDER = new TemplateBuilder("/worldpay/WorldpayAuthoriseApplePayOrderTemplate.xml");
-    public static final TemplateBuilder AUTHORISE_GOOGLE_PAY_ORDER_TEMPLATE_BUILDER = new TemplateBuilder("/worldpay/WorldpayAuthoriseGooglePayOrderTemplate.xml");
-    public static final TemplateBuilder AUTH_3DS_RESPONSE_ORDER_TEMPLATE_BUILDER = new TemplateBuilder("/worldpay/Worldpay3dsResponseAuthOrderTemplate.xml");
-    public static final TemplateBuilder CAPTURE_ORDER_TEMPLATE_BUILDER = new TemplateBuilder("/worldpay/WorldpayCaptureOrderTemplate.xml");
-    public static final TemplateBuilder CANCEL_ORDER_TEMPLATE_BUILDER = new TemplateBuilder("/worldpay/WorldpayCancelOrderTemplate.xml");
-    public static final TemplateBuilder REFUND_ORDER_TEMPLATE_BUILDER = new TemplateBuilder("/worldpay/WorldpayRefundOrderTemplate.xml");
-    public static final TemplateBuilder INQUIRY_TEMPLATE_BUILDER = new TemplateBuilder("/worldpay/WorldpayInquiryOrderTemplate.xml");
+    public static final PayloadBuilder AUTHORISE_ORDER_TEMPLATE_BUILDER = WorldpayPayloadSerializers.AUTHORISE_ORDER;
+    public static final PayloadBuilder AUTHORISE_APPLE_PAY_ORDER_TEMPLATE_BUILDER = WorldpayPayloadSerializers.AUTHORISE_APPLE_PAY_ORDER;
+    public static final PayloadBuilder AUTHORISE_GOOGLE_PAY_ORDER_TEMPLATE_BUILDER = WorldpayPayloadSerializers.AUTHORISE_GOOGLE_PAY_ORDER;
+    public static final PayloadBuilder AUTH_3DS_RESPONSE_ORDER_TEMPLATE_BUILDER = WorldpayPayloadSerializers.AUTH_3DS_RESPONSE_ORDER;
+    public static final PayloadBuilder CAPTURE_ORDER_TEMPLATE_BUILDER = WorldpayPayloadSerializers.CAPTURE_ORDER;
+    public static final PayloadBuilder CANCEL_ORDER_TEMPLATE_BUILDER = WorldpayPayloadSerializers.CANCEL_ORDER;
+    public static final PayloadBuilder REFUND_ORDER_TEMPLATE_BUILDER = WorldpayPayloadSerializers.REFUND_ORDER;
+    public static final PayloadBuilder INQUIRY_TEMPLATE_BUILDER = WorldpayPayloadSerializers.INQUIRY_ORDER;
 
     private final WorldpayTemplateData worldpayTemplateData;
 
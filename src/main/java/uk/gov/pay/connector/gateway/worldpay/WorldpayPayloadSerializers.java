@@ -0,0 +1,210 @@
+package uk.gov.pay.connector.gateway.worldpay;
+
+import org.joda.time.DateTime;
+import uk.gov.pay.connector.common.model.domain.Address;
+import uk.gov.pay.connector.gateway.model.AuthCardDetails;
+import uk.gov.pay.connector.gateway.templates.PayloadBuilder;
+import uk.gov.pay.connector.gateway.templates.PrecompiledPayloadBuilder;
+import uk.gov.pay.connector.gateway.templates.XmlPayloadWriter;
+import uk.gov.pay.connector.gateway.worldpay.WorldpayOrderRequestBuilder.WorldpayTemplateData;
+import uk.gov.pay.connector.wallets.applepay.AppleDecryptedPaymentData;
+import uk.gov.pay.connector.wallets.googlepay.api.EncryptedPaymentData;
+import uk.gov.pay.connector.wallets.googlepay.api.GooglePayAuthRequest;
+
+import static uk.gov.pay.connector.gateway.templates.CardExpiryDates.expiryMonth;
+import static uk.gov.pay.connector.gateway.templates.CardExpiryDates.expiryYearSuffix;
+
+/**
+ * Direct serializers for the Worldpay order templates in {@code src/main/resources/templates/worldpay}. Each method
+ * mirrors its template line by line; change both together.
+ */
+final class WorldpayPayloadSerializers {
+
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n";
+    private static final String DOCTYPE = "<!DOCTYPE paymentService PUBLIC \"-//WorldPay//DTD WorldPay PaymentService v1//EN\"\n" +
+            "        \"http://dtd.worldpay.com/paymentService_v1.dtd\">\n";
+
+    static final PayloadBuilder AUTHORISE_ORDER = new PrecompiledPayloadBuilder<>(WorldpayTemplateData.class, WorldpayPayloadSerializers::writeAuthoriseOrder);
+    static final PayloadBuilder AUTHORISE_APPLE_PAY_ORDER = new PrecompiledPayloadBuilder<>(WorldpayTemplateData.class, WorldpayPayloadSerializers::writeAuthoriseApplePayOrder);
+    static final PayloadBuilder AUTHORISE_GOOGLE_PAY_ORDER = new PrecompiledPayloadBuilder<>(WorldpayTemplateData.class, WorldpayPayloadSerializers::writeAuthoriseGooglePayOrder);
+    static final PayloadBuilder AUTH_3DS_RESPONSE_ORDER = new PrecompiledPayloadBuilder<>(WorldpayTemplateData.class, WorldpayPayloadSerializers::write3dsResponseAuthOrder);
+    static final PayloadBuilder CAPTURE_ORDER = new PrecompiledPayloadBuilder<>(WorldpayTemplateData.class, WorldpayPayloadSerializers::writeCaptureOrder);
+    static final PayloadBuilder CANCEL_ORDER = new PrecompiledPayloadBuilder<>(WorldpayTemplateData.class, WorldpayPayloadSerializers::writeCancelOrder);
+    static final PayloadBuilder REFUND_ORDER = new PrecompiledPayloadBuilder<>(WorldpayTemplateData.class, WorldpayPayloadSerializers::writeRefundOrder);
+    static final PayloadBuilder INQUIRY_ORDER = new PrecompiledPayloadBuilder<>(WorldpayTemplateData.class, WorldpayPayloadSerializers::writeInquiryOrder);
+
+    private WorldpayPayloadSerializers() {
+    }
+
+    private static void writeAuthoriseOrder(WorldpayTemplateData data, XmlPayloadWriter w) {
+        AuthCardDetails card = data.getAuthCardDetails();
+        writeSubmitOrderHeader(data, w);
+        w.append("\">\n" +
+                "            <description>").appendEscaped("description", data.getDescription()).append("</description>\n" +
+                "            <amount currencyCode=\"GBP\" exponent=\"2\" value=\"").appendValue("amount", data.getAmount()).append("\"/>\n" +
+                "            <paymentDetails>\n" +
+                "                <VISA-SSL>\n" +
+                "                    <cardNumber>").appendValue("cardNo", card.getCardNo()).append("</cardNumber>\n" +
+                "                    <expiryDate>\n" +
+                "                        <date month=\"").appendValue("endDate", expiryMonth(card.getEndDate()))
+                .append("\" year=\"20").appendValue("endDate", expiryYearSuffix(card.getEndDate())).append("\"/>\n" +
+                "                    </expiryDate>\n" +
+                "                    <cardHolderName>").appendEscaped("cardHolder", card.getCardHolder()).append("</cardHolderName>\n" +
+                "                    <cvc>").appendValue("cvc", card.getCvc()).append("</cvc>\n");
+        if (card.getAddress().isPresent()) {
+            Address address = card.getAddress().get();
+            w.append("                    <cardAddress>\n" +
+                    "                        <address>\n" +
+                    "                            <address1>").appendEscaped("line1", address.getLine1()).append("</address1>\n");
+            if (address.getLine2() != null) {
+                w.append("                            <address2>").appendEscaped("line2", address.getLine2()).append("</address2>\n");
+            }
+            w.append("                            <postalCode>").appendEscaped("postcode", address.getPostcode()).append("</postalCode>\n" +
+                    "                            <city>").appendEscaped("city", address.getCity()).append("</city>\n");
+            if (address.getCounty() != null) {
+                w.append("                            <state>").appendEscaped("county", address.getCounty()).append("</state>\n");
+            }
+            w.append("                            <countryCode>").appendEscaped("country", address.getCountry()).append("</countryCode>\n" +
+                    "                        </address>\n" +
+                    "                    </cardAddress>\n");
+        }
+        w.append("                </VISA-SSL>\n");
+        if (data.isRequires3ds()) {
+            w.append("                <session id=\"").appendEscaped("sessionId", data.getSessionId()).append("\"/>\n");
+        }
+        w.append("            </paymentDetails>\n");
+        if (data.isRequires3ds()) {
+            w.append("            <shopper>\n" +
+                    "                <browser>\n" +
+                    "                    <acceptHeader>").appendEscaped("acceptHeader", card.getAcceptHeader()).append("</acceptHeader>\n" +
+                    "                    <userAgentHeader>").appendEscaped("userAgentHeader", card.getUserAgentHeader()).append("</userAgentHeader>\n" +
+                    "                </browser>\n" +
+                    "            </shopper>\n");
+        }
+        writeSubmitOrderFooter(w);
+    }
+
+    private static void writeAuthoriseApplePayOrder(WorldpayTemplateData data, XmlPayloadWriter w) {
+        AppleDecryptedPaymentData applePay = (AppleDecryptedPaymentData) data.getWalletAuthorisationData();
+        writeSubmitOrderHeader(data, w);
+        w.append("\" shopperLanguageCode=\"en\">\n");
+        writeDescriptionAndAmount(data, w);
+        w.append("            <paymentDetails>\n" +
+                "                <EMVCO_TOKEN-SSL type=\"APPLEPAY\">\n" +
+                "                    <tokenNumber>").appendEscaped("applicationPrimaryAccountNumber", applePay.getApplicationPrimaryAccountNumber()).append("</tokenNumber>\n" +
+                "                    <expiryDate><date month=\"").appendValue("expiryDateMonth", applePay.getExpiryDateMonth())
+                .append("\" year=\"").appendValue("expiryDateYear", applePay.getExpiryDateYear()).append("\"/></expiryDate>\n");
+        if (applePay.getPaymentInfo().getCardholderName() != null) {
+            w.append("                    <cardHolderName>").appendEscaped("cardholderName", applePay.getPaymentInfo().getCardholderName()).append("</cardHolderName>\n");
+        }
+        w.append("                    <cryptogram>").appendEscaped("onlinePaymentCryptogram", applePay.getPaymentData().getOnlinePaymentCryptogram()).append("</cryptogram>\n");
+        if (applePay.getPaymentData().getEciIndicator() != null) {
+            w.append("                    <eciIndicator>0").appendEscaped("eciIndicator", applePay.getPaymentData().getEciIndicator()).append("</eciIndicator>\n");
+        }
+        w.append("                </EMVCO_TOKEN-SSL>\n" +
+                "            </paymentDetails>\n");
+        writeSubmitOrderFooter(w);
+    }
+
+    private static void writeAuthoriseGooglePayOrder(WorldpayTemplateData data, XmlPayloadWriter w) {
+        EncryptedPaymentData googlePay = ((GooglePayAuthRequest) data.getWalletAuthorisationData()).getEncryptedPaymentData();
+        writeSubmitOrderHeader(data, w);
+        w.append("\" shopperLanguageCode=\"en\">\n");
+        writeDescriptionAndAmount(data, w);
+        w.append("            <paymentDetails>\n" +
+                "                <PAYWITHGOOGLE-SSL>\n" +
+                "                    <protocolVersion>").appendEscaped("protocolVersion", googlePay.getProtocolVersion()).append("</protocolVersion>\n" +
+                "                    <signature>").appendEscaped("signature", googlePay.getSignature()).append("</signature>\n" +
+                "                    <signedMessage>").appendEscaped("signedMessage", googlePay.getSignedMessage()).append("</signedMessage>\n" +
+                "                </PAYWITHGOOGLE-SSL>\n" +
+                "            </paymentDetails>\n");
+        writeSubmitOrderFooter(w);
+    }
+
+    private static void write3dsResponseAuthOrder(WorldpayTemplateData data, XmlPayloadWriter w) {
+        w.append(XML_DECLARATION +
+                "<!DOCTYPE paymentService PUBLIC \"-//Worldpay//DTD Worldpay PaymentService v1//EN\"\n" +
+                "        \"http://dtd.worldpay.com/paymentService_v1.dtd\">\n" +
+                "<paymentService version=\"1.4\" merchantCode=\"").appendValue("merchantCode", data.getMerchantCode()).append("\">\n" +
+                "    <submit>\n" +
+                "        <order orderCode=\"").appendEscaped("transactionId", data.getTransactionId()).append("\">\n" +
+                "            <info3DSecure>\n" +
+                "                <paResponse>").appendEscaped("paResponse3ds", data.getPaResponse3ds()).append("</paResponse>\n" +
+                "            </info3DSecure>\n" +
+                "            <session id=\"").appendEscaped("sessionId", data.getSessionId()).append("\"/>\n" +
+                "        </order>\n" +
+                "    </submit>\n" +
+                "</paymentService>");
+    }
+
+    private static void writeCaptureOrder(WorldpayTemplateData data, XmlPayloadWriter w) {
+        DateTime captureDate = data.getCaptureDate();
+        if (captureDate == null) {
+            throw new IllegalArgumentException("Could not build payload: captureDate is missing");
+        }
+        writeModifyOrderHeader(data, w);
+        w.append("            <capture>\n" +
+                "                <date dayOfMonth=\"").appendZeroPadded(captureDate.dayOfMonth().get(), 2)
+                .append("\" month=\"").appendZeroPadded(captureDate.monthOfYear().get(), 2)
+                .append("\" year=\"").appendZeroPadded(captureDate.year().get(), 4).append("\"/>\n" +
+                "                <amount currencyCode=\"GBP\" exponent=\"2\" value=\"").appendValue("amount", data.getAmount()).append("\"/>\n" +
+                "            </capture>\n");
+        writeModifyOrderFooter(w);
+    }
+
+    private static void writeCancelOrder(WorldpayTemplateData data, XmlPayloadWriter w) {
+        writeModifyOrderHeader(data, w);
+        w.append("            <cancel immediate=\"yes\"/>\n");
+        writeModifyOrderFooter(w);
+    }
+
+    private static void writeRefundOrder(WorldpayTemplateData data, XmlPayloadWriter w) {
+        writeModifyOrderHeader(data, w);
+        w.append("            <refund reference=\"").appendEscaped("reference", data.getReference()).append("\">\n" +
+                "                <amount currencyCode=\"GBP\" exponent=\"2\" value=\"").appendValue("amount", data.getAmount()).append("\"/>\n" +
+                "            </refund>\n");
+        writeModifyOrderFooter(w);
+    }
+
+    private static void writeInquiryOrder(WorldpayTemplateData data, XmlPayloadWriter w) {
+        w.append(XML_DECLARATION +
+                "<!DOCTYPE paymentService PUBLIC \"-//WorldPay//DTD WorldPayPaymentService v1//EN\"\n" +
+                "        \"http://dtd.worldpay.com/paymentService_v1.dtd\">\n" +
+                "<paymentService merchantCode=\"").appendValue("merchantCode", data.getMerchantCode()).append("\" version=\"1.4\">\n" +
+                "    <inquiry>\n" +
+                "        <orderInquiry orderCode=\"").appendEscaped("transactionId", data.getTransactionId()).append("\"/>\n" +
+                "    </inquiry>\n" +
+                "</paymentService>\n");
+    }
+
+    private static void writeSubmitOrderHeader(WorldpayTemplateData data, XmlPayloadWriter w) {
+        w.append(XML_DECLARATION + DOCTYPE +
+                "<paymentService version=\"1.4\" merchantCode=\"").appendValue("merchantCode", data.getMerchantCode()).append("\">\n" +
+                "    <submit>\n" +
+                "        <order orderCode=\"").appendEscaped("transactionId", data.getTransactionId());
+    }
+
+    private static void writeDescriptionAndAmount(WorldpayTemplateData data, XmlPayloadWriter w) {
+        w.append("            <description>").appendEscaped("description", data.getDescription()).append("</description>\n" +
+                "            <amount currencyCode=\"GBP\" exponent=\"2\" value=\"").appendValue("amount", data.getAmount()).append("\"/>\n");
+    }
+
+    private static void writeSubmitOrderFooter(XmlPayloadWriter w) {
+        w.append("        </order>\n" +
+                "    </submit>\n" +
+                "</paymentService>\n");
+    }
+
+    private static void writeModifyOrderHeader(WorldpayTemplateData data, XmlPayloadWriter w) {
+        w.append(XML_DECLARATION + DOCTYPE +
+                "<paymentService version=\"1.4\" merchantCode=\"").appendValue("merchantCode", data.getMerchantCode()).append("\">\n" +
+                "    <modify>\n" +
+                "        <orderModification orderCode=\"").appendEscaped("transactionId", data.getTransactionId()).append("\">\n");
+    }
+
+    private static void writeModifyOrderFooter(XmlPayloadWriter w) {
+        w.append("        </orderModification>\n" +
+                "    </modify>\n" +
+                "</paymentService>\n");
+    }
+}
@@ -3,6 +3,7 @@ package uk.gov.pay.connector.gateway.worldpay;
 import io.dropwizard.setup.Environment;
 import uk.gov.pay.connector.app.ConnectorConfiguration;
 import uk.gov.pay.connector.charge.model.domain.ChargeEntity;
+import uk.gov.pay.connector.charge.model.domain.ChargeStatus;
 import uk.gov.pay.connector.common.model.api.ExternalChargeRefundAvailability;
 import uk.gov.pay.connector.gateway.*;
 import uk.gov.pay.connector.gateway.GatewayException;
@@ -28,6 +29,8 @@ import java.net.URI;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 import static java.util.Collections.emptyList;
@@ -121,6 +124,20 @@ public class WorldpayPaymentProvider implements PaymentProvider, WorldpayGateway
         return getWorldpayGatewayResponse(response);
     }
 
+    @Override
+    public CompletableFuture<GatewayResponse<BaseAuthoriseResponse>> authoriseAsync(CardAuthorisationGatewayRequest request) {
+        GatewayOrder gatewayOrder = buildAuthoriseOrder(request);
+        return authoriseClient.postRequestForAsync(gatewayUrlMap.get(request.getGatewayAccount().getType()),
+                request.getGatewayAccount(), gatewayOrder, getGatewayAccountCredentialsAsAuthHeader(request.getGatewayAccount()))
+                .<GatewayResponse<BaseAuthoriseResponse>>thenApply(response -> {
+                    try {
+                        return getWorldpayGatewayResponse(response);
+                    } catch (GatewayException e) {
+                        throw new CompletionException(e);
+                    }
+                });
+    }
+
     @Override
     public Gateway3DSAuthorisationResponse authorise3dsResponse(Auth3dsResponseGatewayRequest request) {
         try {
@@ -172,6 +189,11 @@ public class WorldpayPaymentProvider implements PaymentProvider, WorldpayGateway
         return externalRefundAvailabilityCalculator.calculate(chargeEntity);
     }
 
+    @Override
+    public ExternalChargeRefundAvailability getExternalChargeRefundAvailability(ChargeStatus chargeStatus, long amountAvailableToBeRefunded) {
+        return externalRefundAvailabilityCalculator.calculate(chargeStatus, amountAvailableToBeRefunded);
+    }
+
     private GatewayOrder buildAuthoriseOrder(CardAuthorisationGatewayRequest request) {
         return aWorldpayAuthoriseOrderRequestBuilder()
                 .withSessionId(request.getChargeExternalId())
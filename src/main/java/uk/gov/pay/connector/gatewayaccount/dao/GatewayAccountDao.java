@@ -14,6 +14,8 @@ import java.util.Optional;
 @Transactional
 public class GatewayAccountDao extends JpaDao<GatewayAccountEntity> {
 
+    public static final String CHANGE_CHANNEL = "gateway_account_changes";
+
     @Inject
     public GatewayAccountDao(final Provider<EntityManager> entityManager) {
         super(entityManager);
@@ -23,6 +25,18 @@ public class GatewayAccountDao extends JpaDao<GatewayAccountEntity> {
         return super.findById(GatewayAccountEntity.class, gatewayAccountId);
     }
     
+    /**
+     * Tells every node listening on {@link #CHANGE_CHANNEL} that the account has changed. Postgres only delivers the
+     * notification once the current transaction commits.
+     */
+    public void publishChange(Long gatewayAccountId) {
+        entityManager.get()
+                .createNativeQuery("SELECT pg_notify(?1, ?2)")
+                .setParameter(1, CHANGE_CHANNEL)
+                .setParameter(2, String.valueOf(gatewayAccountId))
+                .getResultList();
+    }
+
     public Optional<GatewayAccountEntity> findByNotificationCredentialsUsername(String username) {
         String query = "SELECT gae FROM GatewayAccountEntity gae " +
                 "WHERE gae.notificationCredentials.userName = :username";
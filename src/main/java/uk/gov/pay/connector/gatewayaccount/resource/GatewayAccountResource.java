@@ -12,9 +12,9 @@ import org.slf4j.LoggerFactory;
 import uk.gov.pay.connector.app.ConnectorConfiguration;
 import uk.gov.pay.connector.cardtype.dao.CardTypeDao;
 import uk.gov.pay.connector.cardtype.model.domain.CardTypeEntity;
+import uk.gov.pay.connector.cardtype.service.CardTypeIndex;
 import uk.gov.pay.connector.common.exception.CredentialsException;
 import uk.gov.pay.connector.common.model.api.jsonpatch.JsonPatchRequest;
-import uk.gov.pay.connector.common.model.domain.UuidAbstractEntity;
 import uk.gov.pay.connector.gatewayaccount.dao.GatewayAccountDao;
 import uk.gov.pay.connector.gatewayaccount.model.GatewayAccountEntity;
 import uk.gov.pay.connector.gatewayaccount.model.GatewayAccountRequest;
@@ -56,7 +56,6 @@ import static uk.gov.pay.connector.util.ResponseUtil.badRequestResponse;
 import static uk.gov.pay.connector.util.ResponseUtil.fieldsInvalidSizeResponse;
 import static uk.gov.pay.connector.util.ResponseUtil.fieldsMissingResponse;
 import static uk.gov.pay.connector.util.ResponseUtil.notFoundResponse;
-import static uk.gov.pay.connector.util.ResponseUtil.successResponseWithEntity;
 
 @Path("/")
 public class GatewayAccountResource {
@@ -75,17 +74,20 @@ public class GatewayAccountResource {
     private static final String PASSWORD_KEY = "password";
     private final GatewayAccountService gatewayAccountService;
     private final CardTypeDao cardTypeDao;
+    private final CardTypeIndex cardTypeIndex;
     private final Map<String, List<String>> providerCredentialFields;
     private final GatewayAccountNotificationCredentialsService gatewayAccountNotificationCredentialsService;
     private final GatewayAccountRequestValidator validator;
     private final GatewayAccountServicesFactory gatewayAccountServicesFactory;
 
     @Inject
-    public GatewayAccountResource(GatewayAccountService gatewayAccountService, GatewayAccountDao gatewayDao, CardTypeDao cardTypeDao, ConnectorConfiguration conf,
+    public GatewayAccountResource(GatewayAccountService gatewayAccountService, GatewayAccountDao gatewayDao, CardTypeDao cardTypeDao,
+                                  CardTypeIndex cardTypeIndex, ConnectorConfiguration conf,
                                   GatewayAccountNotificationCredentialsService gatewayAccountNotificationCredentialsService,
                                   GatewayAccountRequestValidator validator, GatewayAccountServicesFactory gatewayAccountServicesFactory) {
         this.gatewayAccountService = gatewayAccountService;
         this.cardTypeDao = cardTypeDao;
+        this.cardTypeIndex = cardTypeIndex;
         this.gatewayAccountNotificationCredentialsService = gatewayAccountNotificationCredentialsService;
         this.validator = validator;
         this.gatewayAccountServicesFactory = gatewayAccountServicesFactory;
@@ -98,13 +100,11 @@ public class GatewayAccountResource {
     @GET
     @Path("/v1/api/accounts/{accountId}")
     @Produces(APPLICATION_JSON)
-    @JsonView(GatewayAccountEntity.Views.ApiView.class)
     public Response getGatewayAccount(@PathParam("accountId") Long accountId) {
         logger.debug("Getting gateway account for account id {}", accountId);
         return gatewayAccountService
-                .getGatewayAccount(accountId)
-                .map(GatewayAccountResourceDTO::fromEntity)
-                .map(gatewayAccountDTO -> Response.ok().entity(gatewayAccountDTO).build())
+                .getGatewayAccountSnapshot(accountId)
+                .map(snapshot -> Response.ok(snapshot.getApiJson(), APPLICATION_JSON).build())
                 .orElseGet(() -> notFoundResponse(format("Account with id %s not found.", accountId)));
     }
 
@@ -178,15 +178,10 @@ public class GatewayAccountResource {
     @GET
     @Path("/v1/frontend/accounts/{accountId}")
     @Produces(APPLICATION_JSON)
-    @JsonView(GatewayAccountEntity.Views.ApiView.class)
     public Response getGatewayAccountWithCredentials(@PathParam("accountId") Long gatewayAccountId) {
 
-        return gatewayAccountService.getGatewayAccount(gatewayAccountId)
-                .map(gatewayAccount ->
-                {
-                    gatewayAccount.getCredentials().remove("password");
-                    return Response.ok(gatewayAccount).build();
-                })
+        return gatewayAccountService.getGatewayAccountSnapshot(gatewayAccountId)
+                .map(snapshot -> Response.ok(snapshot.getFrontendJson(), APPLICATION_JSON).build())
                 .orElseGet(() -> notFoundResponse(format("Account with id '%s' not found", gatewayAccountId)));
     }
 
@@ -194,11 +189,10 @@ public class GatewayAccountResource {
     @Path("/v1/frontend/accounts/{accountId}/card-types")
     @Consumes(APPLICATION_JSON)
     @Produces(APPLICATION_JSON)
-    @JsonView(GatewayAccountEntity.Views.ApiView.class)
     public Response getGatewayAccountAcceptedCardTypes(@PathParam("accountId") Long accountId) {
         logger.info("Getting accepted card types for gateway account with account id {}", accountId);
-        return gatewayAccountService.getGatewayAccount(accountId)
-                .map(gatewayAccount -> successResponseWithEntity(ImmutableMap.of(CARD_TYPES_FIELD_NAME, gatewayAccount.getCardTypes())))
+        return gatewayAccountService.getGatewayAccountSnapshot(accountId)
+                .map(snapshot -> Response.ok(snapshot.getCardTypesJson(), APPLICATION_JSON).build())
                 .orElseGet(() -> notFoundResponse(format("Account with id %s not found.", accountId)));
 
     }
@@ -255,6 +249,7 @@ public class GatewayAccountResource {
                             }
 
                             gatewayAccount.setCredentials(credentialsPayload);
+                            gatewayAccountService.accountChanged(gatewayAccountId);
                             return Response.ok().build();
                         }
                 )
@@ -281,6 +276,7 @@ public class GatewayAccountResource {
                 .map(gatewayAccount ->
                         {
                             gatewayAccount.setServiceName(serviceName);
+                            gatewayAccountService.accountChanged(gatewayAccountId);
                             return Response.ok().build();
                         }
                 )
@@ -306,6 +302,7 @@ public class GatewayAccountResource {
                                 return Response.status(Status.CONFLICT).build();
                             }
                             gatewayAccount.setRequires3ds(requires3ds);
+                            gatewayAccountService.accountChanged(gatewayAccountId);
                             return Response.ok().build();
                         }
                 )
@@ -326,24 +323,21 @@ public class GatewayAccountResource {
 
         List<UUID> cardTypeIds = cardTypes.get(CARD_TYPES_FIELD_NAME);
 
-        List<CardTypeEntity> cardTypeEntities = cardTypeIds.stream()
-                .map(cardTypeDao::findById)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .collect(Collectors.toList());
-
-        if (cardTypeIds.size() != cardTypeEntities.size()) {
-            String errorMessage = format("Accepted Card Type(s) referenced by id(s) '%s' not found", String.join(",", extractNotFoundCardTypeIds(cardTypeIds, cardTypeEntities)));
+        List<String> notFoundCardTypeIds = extractNotFoundCardTypeIds(cardTypeIds);
+        if (!notFoundCardTypeIds.isEmpty()) {
+            String errorMessage = format("Accepted Card Type(s) referenced by id(s) '%s' not found", String.join(",", notFoundCardTypeIds));
             logger.error(errorMessage);
             return badRequestResponse(errorMessage);
         }
 
         return gatewayAccountService.getGatewayAccount(gatewayAccountId)
                 .map(gatewayAccount -> {
+                    List<CardTypeEntity> cardTypeEntities = cardTypeIds.isEmpty() ? List.of() : cardTypeDao.findByIds(cardTypeIds);
                     if (!gatewayAccount.isRequires3ds() && hasAnyRequired3ds(cardTypeEntities)) {
                         return Response.status(Status.CONFLICT).build();
                     }
                     gatewayAccount.setCardTypes(cardTypeEntities);
+                    gatewayAccountService.accountChanged(gatewayAccountId);
                     return Response.ok().build();
                 })
                 .orElseGet(() ->
@@ -354,13 +348,9 @@ public class GatewayAccountResource {
         return cardTypeEntities.stream().anyMatch(CardTypeEntity::isRequires3ds);
     }
 
-    private List<String> extractNotFoundCardTypeIds(List<UUID> cardTypeIds, List<CardTypeEntity> cardTypeEntities) {
-        List<UUID> foundIds = cardTypeEntities.stream()
-                .map(UuidAbstractEntity::getId)
-                .collect(Collectors.toList());
-
+    private List<String> extractNotFoundCardTypeIds(List<UUID> cardTypeIds) {
         return cardTypeIds.stream()
-                .filter(cardTypeId -> !foundIds.contains(cardTypeId))
+                .filter(cardTypeId -> !cardTypeIndex.contains(cardTypeId))
                 .map(UUID::toString)
                 .collect(Collectors.toList());
     }
@@ -384,6 +374,7 @@ public class GatewayAccountResource {
                     try {
                         gatewayAccountNotificationCredentialsService.setCredentialsForAccount(notificationCredentials,
                                 gatewayAccountEntity);
+                        gatewayAccountService.accountChanged(gatewayAccountId);
                     } catch (CredentialsException e) {
                         logger.error("Credentials update failure: {}", e.getMessage());
                         return badRequestResponse("Credentials update failure: " + e.getMessage());
@@ -410,6 +401,7 @@ public class GatewayAccountResource {
                 .map((gatewayAccountEntity) -> {
                     descriptionMaybe.ifPresent(gatewayAccountEntity::setDescription);
                     analyticsIdMaybe.ifPresent(gatewayAccountEntity::setAnalyticsId);
+                    gatewayAccountService.accountChanged(gatewayAccountId);
                     return Response.ok().build();
                 })
                 .orElseGet(() -> notFoundResponse(format("The gateway account id '%s' does not exist", gatewayAccountId)));
@@ -0,0 +1,226 @@
+package uk.gov.pay.connector.gatewayaccount.service;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.RatioGauge;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import io.dropwizard.setup.Environment;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import uk.gov.pay.connector.app.ConnectorConfiguration;
+import uk.gov.pay.connector.app.GatewayAccountCacheConfig;
+import uk.gov.pay.connector.gatewayaccount.model.GatewayAccountEntity;
+import uk.gov.pay.connector.gatewayaccount.model.GatewayAccountResourceDTO;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Holds an immutable snapshot of each recently requested gateway account: the JSON served by the gateway account GET
+ * endpoints, built from a single load of the entity.
+ * <p>
+ * {@link GatewayAccountService#accountChanged} drops the snapshot on this node as soon as a change is made, and again
+ * when the outermost {@code @Transactional} call on the thread returns (see {@link AfterTransaction}), so a snapshot
+ * read by another request before the change was committed does not outlive the commit. Other nodes drop theirs when
+ * the change is committed (see {@link uk.gov.pay.connector.common.managed.DatabaseNotificationListener}). A load that
+ * overlaps either invalidation of its account is returned but not cached.
+ */
+@Singleton
+public class GatewayAccountCache {
+
+    private static final int GENERATION_STRIPES = 256;
+    private static final String CARD_TYPES_FIELD_NAME = "card_types";
+    private static final ThreadLocal<TransactionScope> TRANSACTION_SCOPE = new ThreadLocal<>();
+
+    private final GatewayAccountCacheConfig config;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter writer;
+    private final Cache<Long, Snapshot> accounts;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final Counter hits;
+    private final Counter misses;
+
+    @Inject
+    public GatewayAccountCache(ConnectorConfiguration configuration, Environment environment) {
+        this(configuration.getGatewayAccountCacheConfig(), environment.getObjectMapper(), environment.metrics());
+    }
+
+    public GatewayAccountCache(GatewayAccountCacheConfig config, ObjectMapper objectMapper, MetricRegistry metricRegistry) {
+        this.config = config;
+        this.objectMapper = objectMapper;
+        this.writer = objectMapper.writerWithView(GatewayAccountEntity.Views.ApiView.class);
+        this.accounts = CacheBuilder.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getExpireAfterWrite().toMilliseconds(), TimeUnit.MILLISECONDS)
+                .build();
+        this.hits = metricRegistry.counter("gateway-account-cache.hits");
+        this.misses = metricRegistry.counter("gateway-account-cache.misses");
+        metricRegistry.gauge("gateway-account-cache.size", () -> (Gauge<Long>) accounts::size);
+        metricRegistry.register("gateway-account-cache.hit-rate", new RatioGauge() {
+            @Override
+            protected Ratio getRatio() {
+                return Ratio.of(hits.getCount(), hits.getCount() + misses.getCount());
+            }
+        });
+    }
+
+    public Optional<Snapshot> get(long gatewayAccountId, Supplier<Optional<GatewayAccountEntity>> loader) {
+        if (config.isEnabled()) {
+            Snapshot cached = accounts.getIfPresent(gatewayAccountId);
+            if (cached != null) {
+                hits.inc();
+                return Optional.of(cached);
+            }
+            misses.inc();
+        }
+
+        long generation = generationOf(gatewayAccountId);
+        Optional<Snapshot> snapshot = loader.get().map(this::snapshotOf);
+
+        if (config.isEnabled() && snapshot.isPresent() && generation == generationOf(gatewayAccountId)
+                && !isPendingOnThisThread(gatewayAccountId)) {
+            accounts.put(gatewayAccountId, snapshot.get());
+        }
+        return snapshot;
+    }
+
+    public void invalidate(long gatewayAccountId) {
+        invalidateNow(gatewayAccountId);
+        TransactionScope scope = TRANSACTION_SCOPE.get();
+        if (scope != null) {
+            scope.pending.add(gatewayAccountId);
+        }
+    }
+
+    /**
+     * Drops every snapshot, for when changes may have been missed.
+     */
+    public void invalidateAll() {
+        for (int stripe = 0; stripe < GENERATION_STRIPES; stripe++) {
+            generations.incrementAndGet(stripe);
+        }
+        accounts.invalidateAll();
+    }
+
+    private void invalidateNow(long gatewayAccountId) {
+        generations.incrementAndGet(stripeOf(gatewayAccountId));
+        accounts.invalidate(gatewayAccountId);
+    }
+
+    private boolean isPendingOnThisThread(long gatewayAccountId) {
+        TransactionScope scope = TRANSACTION_SCOPE.get();
+        return scope != null && scope.pending.contains(gatewayAccountId);
+    }
+
+    private long generationOf(long gatewayAccountId) {
+        return generations.get(stripeOf(gatewayAccountId));
+    }
+
+    private static int stripeOf(long gatewayAccountId) {
+        return (int) Math.floorMod(gatewayAccountId, (long) GENERATION_STRIPES);
+    }
+
+    private Snapshot snapshotOf(GatewayAccountEntity gatewayAccount) {
+        try {
+            ObjectNode frontendJson = objectMapper.readValue(writer.writeValueAsBytes(gatewayAccount), ObjectNode.class);
+            if (frontendJson.get("credentials") instanceof ObjectNode) {
+                ((ObjectNode) frontendJson.get("credentials")).remove("password");
+            }
+            return new Snapshot(
+                    writer.writeValueAsBytes(GatewayAccountResourceDTO.fromEntity(gatewayAccount)),
+                    writer.writeValueAsBytes(frontendJson),
+                    writer.writeValueAsBytes(ImmutableMap.of(CARD_TYPES_FIELD_NAME, gatewayAccount.getCardTypes())));
+        } catch (IOException e) {
+            throw new RuntimeException("Could not serialise gateway account " + gatewayAccount.getId(), e);
+        }
+    }
+
+    public static class Snapshot {
+        private final byte[] apiJson;
+        private final byte[] frontendJson;
+        private final byte[] cardTypesJson;
+
+        private Snapshot(byte[] apiJson, byte[] frontendJson, byte[] cardTypesJson) {
+            this.apiJson = apiJson;
+            this.frontendJson = frontendJson;
+            this.cardTypesJson = cardTypesJson;
+        }
+
+        /**
+         * The account as returned by {@code GET /v1/api/accounts/{accountId}}.
+         */
+        public byte[] getApiJson() {
+            return apiJson;
+        }
+
+        /**
+         * The account with its credentials, less the password, as returned by
+         * {@code GET /v1/frontend/accounts/{accountId}}.
+         */
+        public byte[] getFrontendJson() {
+            return frontendJson;
+        }
+
+        /**
+         * The accepted card types, as returned by {@code GET /v1/frontend/accounts/{accountId}/card-types}.
+         */
+        public byte[] getCardTypesJson() {
+            return cardTypesJson;
+        }
+    }
+
+    private static class TransactionScope {
+        private int depth;
+        private final Set<Long> pending = new HashSet<>();
+    }
+
+    /**
+     * Bound around every {@code @Transactional} method ahead of the JPA transaction interceptor, so it sees the
+     * outermost call on a thread return after the transaction has been committed or rolled back, and repeats the
+     * invalidations made during it.
+     */
+    public static class AfterTransaction implements MethodInterceptor {
+
+        private final Provider<GatewayAccountCache> gatewayAccountCache;
+
+        public AfterTransaction(Provider<GatewayAccountCache> gatewayAccountCache) {
+            this.gatewayAccountCache = gatewayAccountCache;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            TransactionScope scope = TRANSACTION_SCOPE.get();
+            if (scope == null) {
+                scope = new TransactionScope();
+                TRANSACTION_SCOPE.set(scope);
+            }
+            scope.depth++;
+            try {
+                return invocation.proceed();
+            } finally {
+                if (--scope.depth == 0) {
+                    TRANSACTION_SCOPE.remove();
+                    if (!scope.pending.isEmpty()) {
+                        GatewayAccountCache cache = gatewayAccountCache.get();
+                        scope.pending.forEach(cache::invalidateNow);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.google.inject.persist.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.gov.pay.connector.cardtype.dao.CardTypeDao;
+import uk.gov.pay.connector.charge.service.FrontendChargeCache;
 import uk.gov.pay.connector.common.model.api.jsonpatch.JsonPatchRequest;
 import uk.gov.pay.connector.gateway.PaymentGatewayName;
 import uk.gov.pay.connector.gatewayaccount.dao.GatewayAccountDao;
@@ -42,17 +43,37 @@ public class GatewayAccountService {
 
     private final GatewayAccountDao gatewayAccountDao;
     private final CardTypeDao cardTypeDao;
+    private final GatewayAccountCache gatewayAccountCache;
+    private final FrontendChargeCache frontendChargeCache;
 
     @Inject
-    public GatewayAccountService(GatewayAccountDao gatewayAccountDao, CardTypeDao cardTypeDao) {
+    public GatewayAccountService(GatewayAccountDao gatewayAccountDao, CardTypeDao cardTypeDao,
+                                 GatewayAccountCache gatewayAccountCache, FrontendChargeCache frontendChargeCache) {
         this.gatewayAccountDao = gatewayAccountDao;
         this.cardTypeDao = cardTypeDao;
+        this.gatewayAccountCache = gatewayAccountCache;
+        this.frontendChargeCache = frontendChargeCache;
     }
 
     public Optional<GatewayAccountEntity> getGatewayAccount(long gatewayAccountId) {
         return gatewayAccountDao.findById(gatewayAccountId);
     }
 
+    public Optional<GatewayAccountCache.Snapshot> getGatewayAccountSnapshot(long gatewayAccountId) {
+        return gatewayAccountCache.get(gatewayAccountId, () -> gatewayAccountDao.findById(gatewayAccountId));
+    }
+
+    /**
+     * Must be called whenever a gateway account, or anything shown with it, is changed, so that no node keeps serving
+     * a snapshot of it, or a frontend view of one of its charges, from before the change.
+     */
+    @Transactional
+    public void accountChanged(long gatewayAccountId) {
+        gatewayAccountCache.invalidate(gatewayAccountId);
+        frontendChargeCache.invalidateAccount(gatewayAccountId);
+        gatewayAccountDao.publishChange(gatewayAccountId);
+    }
+
     public List<GatewayAccountResourceDTO> getAllGatewayAccounts() {
         return gatewayAccountDao.listAll().stream()
                 .map(GatewayAccountResourceDTO::fromEntity)
@@ -72,6 +93,7 @@ public class GatewayAccountService {
                     attributeUpdater.get(gatewayAccountRequest.getPath())
                             .accept(gatewayAccountRequest, gatewayAccountEntity);
                     gatewayAccountDao.merge(gatewayAccountEntity);
+                    accountChanged(gatewayAccountId);
                     return Optional.of(GatewayAccount.valueOf(gatewayAccountEntity));
                 });
     }
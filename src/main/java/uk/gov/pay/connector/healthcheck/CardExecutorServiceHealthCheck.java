@@ -14,8 +14,18 @@ public class CardExecutorServiceHealthCheck extends HealthCheck {
 
     @Inject
     public CardExecutorServiceHealthCheck(CardExecutorService cardExecutorService) {
-        this.threadPoolExecutor = (ThreadPoolExecutor)cardExecutorService.getExecutor();
-        initialiseMetrics(cardExecutorService.getMetricRegistry());
+        if (cardExecutorService.getExecutor() instanceof ThreadPoolExecutor) {
+            this.threadPoolExecutor = (ThreadPoolExecutor) cardExecutorService.getExecutor();
+            initialiseMetrics(cardExecutorService.getMetricRegistry());
+        } else {
+            initialiseVirtualThreadMetrics(cardExecutorService);
+        }
+    }
+
+    // Tasks never queue on virtual threads, so there is no queue-size gauge in that mode
+    private void initialiseVirtualThreadMetrics(CardExecutorService cardExecutorService) {
+        MetricRegistry metricRegistry = cardExecutorService.getMetricRegistry();
+        metricRegistry.<Gauge<Integer>>register("card-executor.active-threads", cardExecutorService::getActiveTaskCount);
     }
 
     private void initialiseMetrics(MetricRegistry metricRegistry) {
@@ -28,7 +38,8 @@ public class CardExecutorServiceHealthCheck extends HealthCheck {
 
     @Override
     protected Result check() {
-        if (threadPoolExecutor.getQueue().size() <= 10) {
+        // Virtual threads are started per task, so there is no queue to back up
+        if (threadPoolExecutor == null || threadPoolExecutor.getQueue().size() <= 10) {
             return Result.healthy();
         }
 
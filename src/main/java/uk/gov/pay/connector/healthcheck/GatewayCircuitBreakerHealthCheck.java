@@ -0,0 +1,39 @@
+package uk.gov.pay.connector.healthcheck;
+
+import com.codahale.metrics.health.HealthCheck;
+import uk.gov.pay.connector.gateway.GatewayCircuitBreaker;
+import uk.gov.pay.connector.gateway.GatewayCircuitBreakerRegistry;
+
+import javax.inject.Inject;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Reports which gateway circuit breakers are open. An open breaker means a gateway is degraded, not this node, so it
+ * is reported as healthy to avoid every node being taken out of service during a gateway outage.
+ */
+public class GatewayCircuitBreakerHealthCheck extends HealthCheck {
+
+    private final GatewayCircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Inject
+    public GatewayCircuitBreakerHealthCheck(GatewayCircuitBreakerRegistry circuitBreakerRegistry) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+    }
+
+    @Override
+    protected Result check() {
+        List<String> openCircuitBreakers = circuitBreakerRegistry.getCircuitBreakers().stream()
+                .filter(circuitBreaker -> circuitBreaker.getState() == GatewayCircuitBreaker.State.OPEN)
+                .map(GatewayCircuitBreaker::getName)
+                .sorted()
+                .collect(toList());
+
+        if (openCircuitBreakers.isEmpty()) {
+            return Result.healthy();
+        }
+
+        return Result.healthy("Gateway circuit breakers open: " + String.join(", ", openCircuitBreakers));
+    }
+}
@@ -18,6 +18,7 @@ import uk.gov.pay.connector.paymentprocessor.model.OperationType;
 
 import javax.inject.Inject;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 
 import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.AUTHORISATION_ERROR;
@@ -38,8 +39,17 @@ public class CardAuthoriseBaseService {
     }
  
     public <T> T executeAuthorise(String chargeId, Supplier<T> authorisationSupplier) {
-        Pair<ExecutionStatus, T> executeResult = cardExecutorService.execute(authorisationSupplier);
+        return resultOf(chargeId, cardExecutorService.execute(authorisationSupplier));
+    }
+
+    /**
+     * For authorisations that call the gateway without blocking. See {@link CardExecutorService#executeAsync}.
+     */
+    public <T> T executeAsyncAuthorise(String chargeId, Supplier<CompletableFuture<Supplier<T>>> authorisationSupplier) {
+        return resultOf(chargeId, cardExecutorService.executeAsync(authorisationSupplier));
+    }
 
+    private <T> T resultOf(String chargeId, Pair<ExecutionStatus, T> executeResult) {
         switch (executeResult.getLeft()) {
             case COMPLETED:
                 return executeResult.getRight();
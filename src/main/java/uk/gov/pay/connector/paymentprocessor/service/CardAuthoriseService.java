@@ -1,12 +1,12 @@
 package uk.gov.pay.connector.paymentprocessor.service;
 
 import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Throwables;
 import com.google.inject.persist.Transactional;
 import io.dropwizard.setup.Environment;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import uk.gov.pay.connector.cardtype.dao.CardTypeDao;
-import uk.gov.pay.connector.cardtype.model.domain.CardTypeEntity;
+import uk.gov.pay.connector.cardtype.service.CardTypeIndex;
 import uk.gov.pay.connector.charge.model.domain.Auth3dsDetailsEntity;
 import uk.gov.pay.connector.charge.model.domain.ChargeEntity;
 import uk.gov.pay.connector.charge.model.domain.ChargeStatus;
@@ -24,15 +24,16 @@ import uk.gov.pay.connector.paymentprocessor.api.AuthorisationResponse;
 import uk.gov.pay.connector.paymentprocessor.model.OperationType;
 
 import javax.inject.Inject;
-import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 
 import static uk.gov.pay.connector.charge.util.CorporateCardSurchargeCalculator.getCorporateCardSurchargeFor;
 
 public class CardAuthoriseService {
 
-    private final CardTypeDao cardTypeDao;
+    private final CardTypeIndex cardTypeIndex;
     private final CardAuthoriseBaseService cardAuthoriseBaseService;
     private final ChargeService chargeService;
     private final PaymentProviders providers;
@@ -40,7 +41,7 @@ public class CardAuthoriseService {
     private MetricRegistry metricRegistry;
 
     @Inject
-    public CardAuthoriseService(CardTypeDao cardTypeDao,
+    public CardAuthoriseService(CardTypeIndex cardTypeIndex,
                                 PaymentProviders providers,
                                 CardAuthoriseBaseService cardAuthoriseBaseService,
                                 ChargeService chargeService,
@@ -49,64 +50,84 @@ public class CardAuthoriseService {
         this.cardAuthoriseBaseService = cardAuthoriseBaseService;
         this.chargeService = chargeService;
         this.metricRegistry = environment.metrics();
-        this.cardTypeDao = cardTypeDao;
+        this.cardTypeIndex = cardTypeIndex;
     }
 
     public AuthorisationResponse doAuthorise(String chargeId, AuthCardDetails authCardDetails) {
-        return cardAuthoriseBaseService.executeAuthorise(chargeId, () -> {
-
+        return cardAuthoriseBaseService.executeAsyncAuthorise(chargeId, () -> {
             final ChargeEntity charge = prepareChargeForAuthorisation(chargeId, authCardDetails);
-            GatewayResponse<BaseAuthoriseResponse> operationResponse = null;
-            ChargeStatus newStatus = null;
-            Optional<String> transactionId = Optional.empty();
-            Optional<String> sessionIdentifier = Optional.empty();
-            Optional<Auth3dsDetailsEntity> auth3dsDetailsEntity = Optional.empty();
-
-            try {
-                operationResponse = authorise(charge, authCardDetails);
-
-                if (!operationResponse.getBaseResponse().isPresent()) operationResponse.throwGatewayError();
-
-                newStatus = operationResponse.getBaseResponse().get().authoriseStatus().getMappedChargeStatus();
-                transactionId = cardAuthoriseBaseService.extractTransactionId(charge.getExternalId(), operationResponse);
-                auth3dsDetailsEntity = extractAuth3dsDetails(operationResponse);
-                sessionIdentifier = operationResponse.getSessionIdentifier();
-
-            } catch (GatewayException e) {
-                newStatus = CardAuthoriseBaseService.mapFromGatewayErrorException(e);
-                operationResponse = GatewayResponse.GatewayResponseBuilder.responseBuilder().withGatewayError(e.toGatewayError()).build();
-            }
-
-            ChargeEntity updatedCharge = chargeService.updateChargePostCardAuthorisation(
-                    charge.getExternalId(),
-                    newStatus,
-                    transactionId,
-                    auth3dsDetailsEntity,
-                    sessionIdentifier,
-                    authCardDetails);
-
-            boolean billingAddressSubmitted = updatedCharge.getCardDetails().getBillingAddress().isPresent();
-
-            // Used by Sumo Logic saved search
-            logger.info("Authorisation {} for {} ({} {}) for {} ({}) - {} .'. {} -> {}",
-                    billingAddressSubmitted ? "with billing address" : "without billing address",
-                    updatedCharge.getExternalId(), updatedCharge.getPaymentGatewayName().getName(),
-                    transactionId.orElse("missing transaction ID"),
-                    updatedCharge.getGatewayAccount().getAnalyticsId(), updatedCharge.getGatewayAccount().getId(),
-                    operationResponse, ChargeStatus.fromString(charge.getStatus()), newStatus);
-
-            metricRegistry.counter(String.format(
-                    "gateway-operations.%s.%s.%s.authorise.%s.result.%s",
-                    updatedCharge.getGatewayAccount().getGatewayName(),
-                    updatedCharge.getGatewayAccount().getType(),
-                    updatedCharge.getGatewayAccount().getId(),
-                    billingAddressSubmitted ? "with-billing-address" : "without-billing-address",
-                    newStatus.toString())).inc();
-
-            return new AuthorisationResponse(operationResponse);
+            return authorise(charge, authCardDetails)
+                    .<Supplier<AuthorisationResponse>>handle((gatewayResponse, failure) -> () -> completeAuthorisation(charge, authCardDetails, gatewayResponse, failure));
         });
     }
 
+    private AuthorisationResponse completeAuthorisation(ChargeEntity charge,
+                                                        AuthCardDetails authCardDetails,
+                                                        GatewayResponse<BaseAuthoriseResponse> gatewayResponse,
+                                                        Throwable failure) {
+        GatewayResponse<BaseAuthoriseResponse> operationResponse = null;
+        ChargeStatus newStatus = null;
+        Optional<String> transactionId = Optional.empty();
+        Optional<String> sessionIdentifier = Optional.empty();
+        Optional<Auth3dsDetailsEntity> auth3dsDetailsEntity = Optional.empty();
+
+        try {
+            operationResponse = resultOf(gatewayResponse, failure);
+
+            if (!operationResponse.getBaseResponse().isPresent()) operationResponse.throwGatewayError();
+
+            newStatus = operationResponse.getBaseResponse().get().authoriseStatus().getMappedChargeStatus();
+            transactionId = cardAuthoriseBaseService.extractTransactionId(charge.getExternalId(), operationResponse);
+            auth3dsDetailsEntity = extractAuth3dsDetails(operationResponse);
+            sessionIdentifier = operationResponse.getSessionIdentifier();
+
+        } catch (GatewayException e) {
+            newStatus = CardAuthoriseBaseService.mapFromGatewayErrorException(e);
+            operationResponse = GatewayResponse.GatewayResponseBuilder.responseBuilder().withGatewayError(e.toGatewayError()).build();
+        }
+
+        ChargeEntity updatedCharge = chargeService.updateChargePostCardAuthorisation(
+                charge.getExternalId(),
+                newStatus,
+                transactionId,
+                auth3dsDetailsEntity,
+                sessionIdentifier,
+                authCardDetails);
+
+        boolean billingAddressSubmitted = updatedCharge.getCardDetails().getBillingAddress().isPresent();
+
+        // Used by Sumo Logic saved search
+        logger.info("Authorisation {} for {} ({} {}) for {} ({}) - {} .'. {} -> {}",
+                billingAddressSubmitted ? "with billing address" : "without billing address",
+                updatedCharge.getExternalId(), updatedCharge.getPaymentGatewayName().getName(),
+                transactionId.orElse("missing transaction ID"),
+                updatedCharge.getGatewayAccount().getAnalyticsId(), updatedCharge.getGatewayAccount().getId(),
+                operationResponse, ChargeStatus.fromString(charge.getStatus()), newStatus);
+
+        metricRegistry.counter(String.format(
+                "gateway-operations.%s.%s.%s.authorise.%s.result.%s",
+                updatedCharge.getGatewayAccount().getGatewayName(),
+                updatedCharge.getGatewayAccount().getType(),
+                updatedCharge.getGatewayAccount().getId(),
+                billingAddressSubmitted ? "with-billing-address" : "without-billing-address",
+                newStatus.toString())).inc();
+
+        return new AuthorisationResponse(operationResponse);
+    }
+
+    private static GatewayResponse<BaseAuthoriseResponse> resultOf(GatewayResponse<BaseAuthoriseResponse> gatewayResponse,
+                                                                   Throwable failure) throws GatewayException {
+        if (failure == null) {
+            return gatewayResponse;
+        }
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        if (cause instanceof GatewayException) {
+            throw (GatewayException) cause;
+        }
+        Throwables.throwIfUnchecked(cause);
+        throw new RuntimeException(cause);
+    }
+
     @Transactional
     public ChargeEntity prepareChargeForAuthorisation(String chargeId, AuthCardDetails authCardDetails) {
         ChargeEntity charge = chargeService.lockChargeForProcessing(chargeId, OperationType.AUTHORISATION);
@@ -128,19 +149,11 @@ public class CardAuthoriseService {
     }
 
     private boolean gatewayCardBrand3DSMismatch(ChargeEntity chargeEntity, String cardBrand) {
-        return !chargeEntity.getGatewayAccount().isRequires3ds() && cardBrandRequires3ds(cardBrand);
-    }
-
-    private boolean cardBrandRequires3ds(String cardBrand) {
-        List<CardTypeEntity> cardTypes = cardTypeDao.findByBrand(cardBrand).stream()
-                .filter(cardTypeEntity -> cardTypeEntity.getBrand().equals(cardBrand))
-                .collect(Collectors.toList());
-
-        return cardTypes.stream().anyMatch(CardTypeEntity::isRequires3ds);
+        return !chargeEntity.getGatewayAccount().isRequires3ds() && cardTypeIndex.brandRequires3ds(cardBrand);
     }
 
-    private GatewayResponse<BaseAuthoriseResponse> authorise(ChargeEntity charge, AuthCardDetails authCardDetails) throws GatewayException {
-        return getPaymentProviderFor(charge).authorise(CardAuthorisationGatewayRequest.valueOf(charge, authCardDetails));
+    private CompletableFuture<GatewayResponse<BaseAuthoriseResponse>> authorise(ChargeEntity charge, AuthCardDetails authCardDetails) {
+        return getPaymentProviderFor(charge).authoriseAsync(CardAuthorisationGatewayRequest.valueOf(charge, authCardDetails));
     }
 
     private Optional<Auth3dsDetailsEntity> extractAuth3dsDetails(GatewayResponse<BaseAuthoriseResponse> operationResponse) {
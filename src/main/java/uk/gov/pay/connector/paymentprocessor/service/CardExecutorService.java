@@ -13,9 +13,10 @@ import uk.gov.pay.connector.app.ExecutorServiceConfig;
 import uk.gov.pay.connector.util.XrayUtils;
 
 import javax.ws.rs.WebApplicationException;
+import java.lang.reflect.Method;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -23,9 +24,12 @@ import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import static java.lang.Runtime.getRuntime;
+import static uk.gov.pay.connector.app.ExecutorServiceConfig.ExecutionMode.VIRTUAL_THREADS;
 import static uk.gov.pay.connector.paymentprocessor.service.CardExecutorService.ExecutionStatus.COMPLETED;
 import static uk.gov.pay.connector.paymentprocessor.service.CardExecutorService.ExecutionStatus.FAILED;
 import static uk.gov.pay.connector.paymentprocessor.service.CardExecutorService.ExecutionStatus.IN_PROGRESS;
@@ -36,6 +40,10 @@ import static uk.gov.pay.connector.paymentprocessor.service.CardExecutorService.
  * .get(config.getTimeoutInSeconds(), TimeUnit.SECONDS). If you look how that is used in the authorise service, it 
  * catches the timeout exception and returns to frontend as 'in progress'. Frontend then polls connector until the 
  * charge is authorised (by the CES thread), and continues on its merry way.
+ *
+ * By default tasks run on a fixed pool of threadsPerCpu * availableProcessors platform threads. With executionMode
+ * VIRTUAL_THREADS each task gets its own virtual thread instead, so a slow gateway no longer exhausts the pool. That
+ * mode needs a JVM with virtual thread support; on older runtimes it falls back to the fixed pool.
  */
 public class CardExecutorService {
 
@@ -46,6 +54,7 @@ public class CardExecutorService {
     private ExecutorServiceConfig config;
     private ExecutorService executor;
     private XrayUtils xrayUtils;
+    private final AtomicInteger activeTasks = new AtomicInteger();
 
     public enum ExecutionStatus {
         COMPLETED,
@@ -55,17 +64,44 @@ public class CardExecutorService {
 
     @Inject
     public CardExecutorService(ConnectorConfiguration configuration, Environment environment, XrayUtils xrayUtils) {
-        final ThreadFactory threadFactory = new ThreadFactoryBuilder()
-                .setNameFormat("CardExecutorService-%d")
-                .build();
         this.metricRegistry = environment.metrics();
         this.config = configuration.getExecutorServiceConfig();
-        int numberOfThreads = config.getThreadsPerCpu() * getRuntime().availableProcessors();
-        this.executor = Executors.newFixedThreadPool(numberOfThreads, threadFactory);
+        this.executor = createExecutor();
         this.xrayUtils = xrayUtils;
         addShutdownHook();
     }
 
+    private ExecutorService createExecutor() {
+        if (config.getExecutionMode() == VIRTUAL_THREADS) {
+            Optional<ExecutorService> virtualThreadExecutor = createVirtualThreadPerTaskExecutor();
+            if (virtualThreadExecutor.isPresent()) {
+                logger.info("CardExecutorService running card operations on virtual threads");
+                return virtualThreadExecutor.get();
+            }
+            logger.warn("Virtual threads are not supported by Java {}, falling back to a fixed thread pool", Runtime.version());
+        }
+
+        final ThreadFactory threadFactory = new ThreadFactoryBuilder()
+                .setNameFormat("CardExecutorService-%d")
+                .build();
+        int numberOfThreads = config.getThreadsPerCpu() * getRuntime().availableProcessors();
+        return Executors.newFixedThreadPool(numberOfThreads, threadFactory);
+    }
+
+    // Virtual threads are only available from Java 21, so they are looked up reflectively to keep building for Java 11
+    private static Optional<ExecutorService> createVirtualThreadPerTaskExecutor() {
+        try {
+            Class<?> threadBuilderClass = Class.forName("java.lang.Thread$Builder");
+            Object virtualThreadBuilder = Thread.class.getMethod("ofVirtual").invoke(null);
+            threadBuilderClass.getMethod("name", String.class, long.class).invoke(virtualThreadBuilder, "CardExecutorService-virtual-", 0L);
+            ThreadFactory threadFactory = (ThreadFactory) threadBuilderClass.getMethod("factory").invoke(virtualThreadBuilder);
+            Method newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return Optional.of((ExecutorService) newThreadPerTaskExecutor.invoke(null, threadFactory));
+        } catch (ReflectiveOperationException e) {
+            return Optional.empty();
+        }
+    }
+
     public MetricRegistry getMetricRegistry() {
         return metricRegistry;
     }
@@ -89,30 +125,71 @@ public class CardExecutorService {
         return executor;
     }
 
+    public int getActiveTaskCount() {
+        return activeTasks.get();
+    }
+
     // accepts a supplier function and executed that in a separate Thread of its own.
     // returns a Pair of the execution status and the return type
     public <T> Pair<ExecutionStatus, T> execute(Supplier<T> callable) {
-        Callable<T> task = callable::get;
         Map<String, String> mdcContextMap = Optional.ofNullable(MDC.getCopyOfContextMap()).orElse(Map.of());
         final long startTime = System.currentTimeMillis();
 
-        Future<T> futureObject = executor.submit(() -> {
-            MDC.setContextMap(mdcContextMap);
-            xrayUtils.beginSegment();
-            long totalWaitTime = System.currentTimeMillis() - startTime;
+        Future<T> futureObject = executor.submit(() -> runTask(callable, mdcContextMap, startTime));
+
+        return awaitResult(futureObject);
+    }
+
+    /**
+     * Like {@link #execute(Supplier)}, for a task that starts a non-blocking gateway call. The task returns as soon as
+     * the call is in flight, so no thread is held while waiting for the gateway. The work the task's future completes
+     * with runs on the executor again once the gateway has responded.
+     */
+    public <T> Pair<ExecutionStatus, T> executeAsync(Supplier<CompletableFuture<Supplier<T>>> task) {
+        Map<String, String> mdcContextMap = Optional.ofNullable(MDC.getCopyOfContextMap()).orElse(Map.of());
+        final long startTime = System.currentTimeMillis();
+
+        CompletableFuture<T> futureObject = CompletableFuture
+                .supplyAsync(() -> runTask(task, mdcContextMap, startTime), executor)
+                .thenCompose(Function.identity())
+                .thenApplyAsync(onCompletion -> runWithContext(() -> runInSegment(onCompletion), mdcContextMap), executor);
+
+        return awaitResult(futureObject);
+    }
+
+    private <T> T runTask(Supplier<T> task, Map<String, String> mdcContextMap, long startTime) {
+        long totalWaitTime = System.currentTimeMillis() - startTime;
+        return runWithContext(() -> {
             logger.debug("Card operation task spent {} ms in queue", totalWaitTime);
             if (totalWaitTime > QUEUE_WAIT_WARN_THRESHOLD_MILLIS) {
                 logger.warn("CardExecutor Service delay - queue_wait_time={}", totalWaitTime);
             }
             metricRegistry.histogram("card-executor.delay").update(totalWaitTime);
-            try {
-                return task.call();
-            } finally {
-                xrayUtils.endSegment();
-                MDC.clear();
-            }
-        });
+            return runInSegment(task);
+        }, mdcContextMap);
+    }
+
+    private <T> T runInSegment(Supplier<T> task) {
+        xrayUtils.beginSegment();
+        try {
+            return task.get();
+        } finally {
+            xrayUtils.endSegment();
+        }
+    }
+
+    private <T> T runWithContext(Supplier<T> task, Map<String, String> mdcContextMap) {
+        activeTasks.incrementAndGet();
+        MDC.setContextMap(mdcContextMap);
+        try {
+            return task.get();
+        } finally {
+            MDC.clear();
+            activeTasks.decrementAndGet();
+        }
+    }
 
+    private <T> Pair<ExecutionStatus, T> awaitResult(Future<T> futureObject) {
         try {
             return Pair.of(COMPLETED, futureObject.get(config.getTimeoutInSeconds(), TimeUnit.SECONDS));
         } catch (ExecutionException | InterruptedException exception) {
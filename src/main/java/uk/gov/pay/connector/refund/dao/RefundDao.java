@@ -15,8 +15,9 @@ import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
-import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,7 +29,6 @@ import static uk.gov.pay.connector.refund.model.domain.RefundStatus.REFUND_SUBMI
 @Transactional
 public class RefundDao extends JpaDao<RefundEntity> {
 
-    private static final String ID = "id";
     private static final String STATUS = "status";
     private static final String CREATED_DATE = "createdDate";
     private static final String CHARGE_ENTITY = "chargeEntity";
@@ -57,22 +57,23 @@ public class RefundDao extends JpaDao<RefundEntity> {
                 .getResultList().stream().findFirst();
     }
 
-    public List<RefundEntity> findByAccountBetweenDatesWithStatusIn(Long gatewayAccountId,
-                                                                    ZonedDateTime from, ZonedDateTime to,
-                                                                    List<RefundStatus> statuses) {
-        CriteriaBuilder criteriaBuilder = entityManager.get().getCriteriaBuilder();
-        CriteriaQuery<RefundEntity> criteriaQuery = criteriaBuilder.createQuery(RefundEntity.class);
-        Root<RefundEntity> refund = criteriaQuery.from(RefundEntity.class);
-        criteriaQuery
-                .select(refund)
-                .where(
-                        criteriaBuilder.equal(refund.get(CHARGE_ENTITY).get(GATEWAY_ACCOUNT).get(ID), gatewayAccountId),
-                        criteriaBuilder.greaterThanOrEqualTo(refund.get(CREATED_DATE), from),
-                        criteriaBuilder.lessThan(refund.get(CREATED_DATE), to),
-                        refund.get(STATUS).in(statuses));
-        return entityManager.get().createQuery(criteriaQuery).getResultList();
+    public List<RefundEntity> findByProviderAndReferences(String provider, Collection<String> references) {
+        if (references.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        String query = "SELECT refund FROM RefundEntity refund " +
+                "JOIN ChargeEntity charge ON refund.chargeEntity.id = charge.id " +
+                "JOIN GatewayAccountEntity gatewayAccount ON charge.gatewayAccount.id = gatewayAccount.id " +
+                "WHERE refund.reference IN :references AND gatewayAccount.gatewayName = :provider";
+
+        return entityManager.get()
+                .createQuery(query, RefundEntity.class)
+                .setParameter("references", references)
+                .setParameter("provider", provider)
+                .getResultList();
     }
-    
+
     public Optional<RefundHistory> getRefundHistoryByRefundExternalIdAndRefundStatus(String refundExternalId, RefundStatus refundStatus) {
         String query = "SELECT rh.id, rh.external_id, rh.amount, rh.status, rh.charge_id, rh.created_date, " +
                 "rh.version, rh.reference, rh.history_start_date, rh.history_end_date, rh.user_external_id, " +
@@ -4,6 +4,7 @@ import uk.gov.pay.connector.charge.dao.SearchParams;
 import uk.gov.pay.connector.common.service.search.AbstractSearchStrategy;
 import uk.gov.pay.connector.common.service.search.BuildResponseStrategy;
 import uk.gov.pay.connector.common.service.search.SearchStrategy;
+import uk.gov.pay.connector.common.service.search.SearchTotals;
 import uk.gov.pay.connector.refund.dao.RefundDao;
 import uk.gov.pay.connector.refund.model.SearchRefundsResponse;
 import uk.gov.pay.connector.refund.model.domain.RefundEntity;
@@ -21,7 +22,8 @@ public class RefundSearchStrategy extends AbstractSearchStrategy<RefundEntity, S
 
     private RefundDao refundDao;
 
-    public RefundSearchStrategy(RefundDao refundDao) {
+    public RefundSearchStrategy(RefundDao refundDao, SearchTotals searchTotals) {
+        super(searchTotals);
         this.refundDao = refundDao;
     }
 
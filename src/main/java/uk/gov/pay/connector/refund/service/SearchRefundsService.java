@@ -1,6 +1,7 @@
 package uk.gov.pay.connector.refund.service;
 
 import uk.gov.pay.connector.charge.dao.SearchParams;
+import uk.gov.pay.connector.common.service.search.SearchTotals;
 import uk.gov.pay.connector.refund.dao.RefundDao;
 
 import javax.inject.Inject;
@@ -10,15 +11,17 @@ import javax.ws.rs.core.UriInfo;
 public class SearchRefundsService {
 
     private RefundDao refundDao;
+    private SearchTotals searchTotals;
     private RefundSearchStrategy refundSearchStrategy;
 
     @Inject
-    public SearchRefundsService(RefundDao refundDao) {
+    public SearchRefundsService(RefundDao refundDao, SearchTotals searchTotals) {
         this.refundDao = refundDao;
+        this.searchTotals = searchTotals;
     }
 
     public Response getAllRefunds(UriInfo uriInfo, SearchParams searchParams) {
-        refundSearchStrategy = new RefundSearchStrategy(refundDao);
+        refundSearchStrategy = new RefundSearchStrategy(refundDao, searchTotals);
         return refundSearchStrategy.search(searchParams, uriInfo);
     }
 }
@@ -8,22 +8,156 @@ import uk.gov.pay.connector.report.model.domain.PerformanceReportEntity;
 
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
-import java.time.temporal.ChronoUnit;
-import java.util.List;
 import java.util.stream.Stream;
 
 import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.CAPTURED;
 import static uk.gov.pay.connector.gatewayaccount.model.GatewayAccountEntity.Type.LIVE;
 
+/**
+ * Reports on captured payments for live gateway accounts.
+ * <p>
+ * Reports are read from {@code daily_captured_payments}, which holds the volume, total, minimum and maximum amount of
+ * captured payments per gateway account and day (by created date, UTC). A trigger on {@code charges} keeps it up to
+ * date as charges are captured. Until {@link uk.gov.pay.connector.report.managed.RollupBackfillWorker} has filled in
+ * the days from before the trigger was added, with {@link #rebuildDailyCapturedPayments}, reports are aggregated from
+ * the charges themselves.
+ */
 @Transactional
 public class PerformanceReportDao extends JpaDao<PerformanceReportEntity> {
+
+  public static final String ROLLUP = "daily_captured_payments";
+
+  private final RollupBackfillDao rollupBackfillDao;
+
   @Inject
-    public PerformanceReportDao(final Provider<EntityManager> entityManager) {
+    public PerformanceReportDao(final Provider<EntityManager> entityManager, RollupBackfillDao rollupBackfillDao) {
       super(entityManager);
+      this.rollupBackfillDao = rollupBackfillDao;
     }
 
   public PerformanceReportEntity aggregateNumberAndValueOfPayments() {
+    if (!rollupBackfillDao.isBackfilled(ROLLUP)) {
+      return aggregateNumberAndValueOfCapturedCharges();
+    }
+
+    Object[] totals = (Object[]) entityManager
+      .get()
+      .createNativeQuery(
+        "SELECT"
+        + "   COALESCE(SUM(p.volume),       0),"
+        + "   COALESCE(SUM(p.total_amount), 0),"
+        + "   COALESCE(SUM(p.total_amount) / NULLIF(SUM(p.volume), 0), 0)"
+        + " FROM daily_captured_payments p"
+        + " JOIN gateway_accounts g"
+        + " ON p.gateway_account_id = g.id"
+        + " WHERE g.type = ?1"
+      )
+      .setParameter(1, LIVE.name())
+      .getSingleResult();
+
+    return toPerformanceReportEntity(totals);
+  }
+
+  public Stream<GatewayAccountPerformanceReportEntity> aggregateNumberAndValueOfPaymentsByGatewayAccount() {
+    if (!rollupBackfillDao.isBackfilled(ROLLUP)) {
+      return aggregateNumberAndValueOfCapturedChargesByGatewayAccount();
+    }
+
+    Stream<?> rows = entityManager
+      .get()
+      .createNativeQuery(
+        "SELECT"
+        + "   COALESCE(SUM(p.volume),       0),"
+        + "   COALESCE(SUM(p.total_amount), 0),"
+        + "   COALESCE(SUM(p.total_amount) / NULLIF(SUM(p.volume), 0), 0),"
+        + "   COALESCE(MIN(p.min_amount),   0),"
+        + "   COALESCE(MAX(p.max_amount),   0),"
+        + "   g.id"
+        + " FROM daily_captured_payments p"
+        + " JOIN gateway_accounts g"
+        + " ON p.gateway_account_id = g.id"
+        + " WHERE g.type = ?1"
+        + " GROUP BY g.id"
+        + " HAVING SUM(p.volume) > 0"
+        + " ORDER BY g.id ASC"
+      )
+      .setParameter(1, LIVE.name())
+      .getResultStream();
+
+    return rows
+      .map(Object[].class::cast)
+      .map(row -> new GatewayAccountPerformanceReportEntity(
+        longValueOf(row[0]),
+        bigDecimalValueOf(row[1]),
+        bigDecimalValueOf(row[2]),
+        longValueOf(row[3]),
+        longValueOf(row[4]),
+        longValueOf(row[5])));
+  }
+
+  public PerformanceReportEntity aggregateNumberAndValueOfPaymentsForAGivenDay(ZonedDateTime date) {
+    if (!rollupBackfillDao.isBackfilled(ROLLUP)) {
+      return aggregateNumberAndValueOfCapturedChargesForADay(date.toLocalDate());
+    }
+
+    Object[] totals = (Object[]) entityManager
+      .get()
+      .createNativeQuery(
+        "SELECT"
+        + "   COALESCE(SUM(p.volume),       0),"
+        + "   COALESCE(SUM(p.total_amount), 0),"
+        + "   COALESCE(SUM(p.total_amount) / NULLIF(SUM(p.volume), 0), 0)"
+        + " FROM daily_captured_payments p"
+        + " JOIN gateway_accounts g"
+        + " ON p.gateway_account_id = g.id"
+        + " WHERE g.type = ?1"
+        + " AND   p.summary_date = ?2"
+      )
+      .setParameter(1, LIVE.name())
+      .setParameter(2, Date.valueOf(date.toLocalDate()))
+      .getSingleResult();
+
+    return toPerformanceReportEntity(totals);
+  }
+
+  /**
+   * Replaces every gateway account's rollup for {@code day} with one counted from the charges created that day.
+   * Captures for the day wait until this has committed, so none is missed or counted twice.
+   */
+  public void rebuildDailyCapturedPayments(LocalDate day) {
+    EntityManager em = entityManager.get();
+
+    // The trigger takes the same lock shared; see the "lock daily_captured_payments by day" migration
+    em.createNativeQuery("SELECT pg_advisory_xact_lock(hashtext('daily_captured_payments'), CAST(?1 AS date) - DATE '1970-01-01')")
+      .setParameter(1, Date.valueOf(day))
+      .getResultList();
+
+    em.createNativeQuery("DELETE FROM daily_captured_payments WHERE summary_date = ?1")
+      .setParameter(1, Date.valueOf(day))
+      .executeUpdate();
+
+    em.createNativeQuery(
+        "INSERT INTO daily_captured_payments (gateway_account_id, summary_date, volume, total_amount, min_amount, max_amount)"
+        + " SELECT c.gateway_account_id, CAST(?1 AS date), COUNT(*), SUM(c.amount), MIN(c.amount), MAX(c.amount)"
+        + " FROM charges c"
+        + " WHERE c.created_date >= ?2"
+        + " AND   c.created_date < ?3"
+        + " AND   c.status = 'CAPTURED'"
+        + " GROUP BY c.gateway_account_id"
+      )
+      .setParameter(1, Date.valueOf(day))
+      .setParameter(2, Timestamp.valueOf(day.atStartOfDay()))
+      .setParameter(3, Timestamp.valueOf(day.plusDays(1).atStartOfDay()))
+      .executeUpdate();
+  }
+
+  private PerformanceReportEntity aggregateNumberAndValueOfCapturedCharges() {
     return (PerformanceReportEntity) entityManager
       .get()
       .createQuery(
@@ -43,7 +177,7 @@ public class PerformanceReportDao extends JpaDao<PerformanceReportEntity> {
       .getSingleResult();
   }
 
-  public Stream<GatewayAccountPerformanceReportEntity> aggregateNumberAndValueOfPaymentsByGatewayAccount() {
+  private Stream<GatewayAccountPerformanceReportEntity> aggregateNumberAndValueOfCapturedChargesByGatewayAccount() {
     return entityManager
       .get()
       .createQuery(
@@ -69,10 +203,7 @@ public class PerformanceReportDao extends JpaDao<PerformanceReportEntity> {
       .getResultStream();
   }
 
-  public PerformanceReportEntity aggregateNumberAndValueOfPaymentsForAGivenDay(ZonedDateTime date) {
-    ZonedDateTime startDate = date.truncatedTo(ChronoUnit.DAYS);
-    ZonedDateTime endDate = startDate.plus(24, ChronoUnit.HOURS);
-
+  private PerformanceReportEntity aggregateNumberAndValueOfCapturedChargesForADay(LocalDate day) {
     return (PerformanceReportEntity) entityManager
       .get()
       .createQuery(
@@ -86,12 +217,28 @@ public class PerformanceReportDao extends JpaDao<PerformanceReportEntity> {
         + " ON c.gatewayAccount.id = g.id"
         + " WHERE c.status = :status"
         + " AND   g.type = :type"
-        + " AND   c.createdDate BETWEEN :startDate AND :endDate"
+        + " AND   c.createdDate >= :startDate"
+        + " AND   c.createdDate < :endDate"
       )
       .setParameter("status", CAPTURED.toString())
       .setParameter("type", LIVE)
-      .setParameter("startDate", startDate)
-      .setParameter("endDate", endDate)
+      .setParameter("startDate", day.atStartOfDay(ZoneOffset.UTC))
+      .setParameter("endDate", day.plusDays(1).atStartOfDay(ZoneOffset.UTC))
       .getSingleResult();
   }
+
+  private static PerformanceReportEntity toPerformanceReportEntity(Object[] totals) {
+    return new PerformanceReportEntity(
+      longValueOf(totals[0]),
+      bigDecimalValueOf(totals[1]),
+      bigDecimalValueOf(totals[2]));
+  }
+
+  private static long longValueOf(Object value) {
+    return ((Number) value).longValue();
+  }
+
+  private static BigDecimal bigDecimalValueOf(Object value) {
+    return value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
+  }
 }
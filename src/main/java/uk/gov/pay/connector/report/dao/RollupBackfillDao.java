@@ -0,0 +1,67 @@
+package uk.gov.pay.connector.report.dao;
+
+import com.google.inject.Provider;
+import com.google.inject.persist.Transactional;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Progress of filling in a daily rollup for the days before the triggers that keep it up to date were added. The
+ * migration that adds a rollup records the first and last day to fill in; a rollup with no day left is complete.
+ */
+@Transactional
+public class RollupBackfillDao {
+
+    private final Provider<EntityManager> entityManager;
+
+    @Inject
+    public RollupBackfillDao(Provider<EntityManager> entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public boolean isBackfilled(String rollup) {
+        List<?> nextDays = entityManager.get()
+                .createNativeQuery("SELECT next_day FROM rollup_backfills WHERE rollup = ?1")
+                .setParameter(1, rollup)
+                .getResultList();
+
+        return nextDays.isEmpty() || nextDays.get(0) == null;
+    }
+
+    /**
+     * Rebuilds the next day of {@code rollup} still to be filled in and records that it has been, in one transaction.
+     * The rollup's row stays locked until then, so other nodes backfilling the same rollup wait and move on to the day
+     * after.
+     *
+     * @return the day that was rebuilt, or empty if the rollup is complete
+     */
+    public Optional<LocalDate> backfillNextDay(String rollup, Consumer<LocalDate> rebuildDay) {
+        EntityManager em = entityManager.get();
+
+        List<?> nextDays = em
+                .createNativeQuery("SELECT next_day FROM rollup_backfills WHERE rollup = ?1 FOR UPDATE")
+                .setParameter(1, rollup)
+                .getResultList();
+
+        if (nextDays.isEmpty() || nextDays.get(0) == null) {
+            return Optional.empty();
+        }
+
+        LocalDate day = ((Date) nextDays.get(0)).toLocalDate();
+        rebuildDay.accept(day);
+
+        em.createNativeQuery("UPDATE rollup_backfills"
+                        + " SET next_day = CASE WHEN next_day < last_day THEN next_day + 1 END"
+                        + " WHERE rollup = ?1")
+                .setParameter(1, rollup)
+                .executeUpdate();
+
+        return Optional.of(day);
+    }
+}
@@ -0,0 +1,174 @@
+package uk.gov.pay.connector.report.dao;
+
+import com.google.inject.Provider;
+import com.google.inject.persist.Transactional;
+import uk.gov.pay.connector.charge.model.domain.ChargeStatus;
+import uk.gov.pay.connector.common.model.api.ExternalChargeState;
+import uk.gov.pay.connector.common.model.api.ExternalRefundStatus;
+import uk.gov.pay.connector.refund.model.domain.RefundStatus;
+import uk.gov.pay.connector.report.model.domain.TransactionsSummary;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Counts and totals of successful payments and refunds for a gateway account, by created date.
+ * <p>
+ * Whole days (UTC) are read from {@code daily_transaction_summaries}, which triggers on the {@code charges} and
+ * {@code refunds} tables keep up to date as charges and refunds enter and leave their success states. Only the parts
+ * of a range that begin or end part way through a day are aggregated from the charges and refunds themselves, as is
+ * the whole range until {@link uk.gov.pay.connector.report.managed.RollupBackfillWorker} has filled in the days from
+ * before the triggers were added.
+ */
+@Transactional
+public class TransactionsSummaryDao {
+
+    public static final String ROLLUP = "daily_transaction_summaries";
+
+    // The triggers count the same statuses; see the "add daily_transaction_summaries" migration
+    static final List<String> CHARGE_SUCCESS_STATUSES = Arrays.stream(ChargeStatus.values())
+            .filter(status -> status.toExternal() == ExternalChargeState.EXTERNAL_SUCCESS)
+            .map(ChargeStatus::getValue)
+            .collect(toList());
+
+    static final List<String> REFUND_SUCCESS_STATUSES = Arrays.stream(RefundStatus.values())
+            .filter(status -> status.toExternal() == ExternalRefundStatus.EXTERNAL_SUCCESS)
+            .map(RefundStatus::getValue)
+            .collect(toList());
+
+    private final Provider<EntityManager> entityManager;
+    private final RollupBackfillDao rollupBackfillDao;
+
+    @Inject
+    public TransactionsSummaryDao(Provider<EntityManager> entityManager, RollupBackfillDao rollupBackfillDao) {
+        this.entityManager = entityManager;
+        this.rollupBackfillDao = rollupBackfillDao;
+    }
+
+    /**
+     * Summarises payments and refunds created from {@code from} (inclusive) to {@code to} (exclusive).
+     */
+    public TransactionsSummary summarise(Long gatewayAccountId, ZonedDateTime from, ZonedDateTime to) {
+        ZonedDateTime utcFrom = from.withZoneSameInstant(ZoneOffset.UTC);
+        ZonedDateTime utcTo = to.withZoneSameInstant(ZoneOffset.UTC);
+
+        LocalDate firstWholeDay = isStartOfDay(utcFrom) ? utcFrom.toLocalDate() : utcFrom.toLocalDate().plusDays(1);
+        LocalDate endOfWholeDays = utcTo.toLocalDate();
+
+        if (!firstWholeDay.isBefore(endOfWholeDays) || !rollupBackfillDao.isBackfilled(ROLLUP)) {
+            return summariseBetween(gatewayAccountId, utcFrom, utcTo);
+        }
+
+        TransactionsSummary summary = summariseDays(gatewayAccountId, firstWholeDay, endOfWholeDays);
+        ZonedDateTime startOfWholeDays = firstWholeDay.atStartOfDay(ZoneOffset.UTC);
+        if (utcFrom.isBefore(startOfWholeDays)) {
+            summary = summary.plus(summariseBetween(gatewayAccountId, utcFrom, startOfWholeDays));
+        }
+        ZonedDateTime endOfWholeDaysTime = endOfWholeDays.atStartOfDay(ZoneOffset.UTC);
+        if (endOfWholeDaysTime.isBefore(utcTo)) {
+            summary = summary.plus(summariseBetween(gatewayAccountId, endOfWholeDaysTime, utcTo));
+        }
+        return summary;
+    }
+
+    /**
+     * Replaces every gateway account's rollup for {@code day} with one counted from the charges and refunds created
+     * that day. Writers for the day wait until this has committed, so nothing is missed or counted twice.
+     */
+    public void rebuildDay(LocalDate day) {
+        EntityManager em = entityManager.get();
+
+        em.createNativeQuery("SELECT pg_advisory_xact_lock(hashtext('daily_transaction_summaries'), CAST(?1 AS date) - DATE '1970-01-01')")
+                .setParameter(1, Date.valueOf(day))
+                .getResultList();
+
+        em.createNativeQuery("DELETE FROM daily_transaction_summaries WHERE summary_date = ?1")
+                .setParameter(1, Date.valueOf(day))
+                .executeUpdate();
+
+        em.createNativeQuery("INSERT INTO daily_transaction_summaries"
+                        + " (gateway_account_id, summary_date, shard, payments_count, payments_amount, refunds_count, refunds_amount)"
+                        + " SELECT gateway_account_id, CAST(?1 AS date), 0, SUM(payments_count), SUM(payments_amount), SUM(refunds_count), SUM(refunds_amount)"
+                        + " FROM ("
+                        + "   SELECT c.gateway_account_id, COUNT(*) AS payments_count, SUM(c.amount) AS payments_amount, 0 AS refunds_count, 0 AS refunds_amount"
+                        + "   FROM charges c"
+                        + "   WHERE c.created_date >= ?2 AND c.created_date < ?3"
+                        + "   AND charge_counts_in_daily_transaction_summary(c.status)"
+                        + "   GROUP BY c.gateway_account_id"
+                        + "   UNION ALL"
+                        + "   SELECT c.gateway_account_id, 0, 0, COUNT(*), SUM(r.amount)"
+                        + "   FROM refunds r JOIN charges c ON r.charge_id = c.id"
+                        + "   WHERE r.created_date >= ?2 AND r.created_date < ?3"
+                        + "   AND r.status = 'REFUNDED'"
+                        + "   GROUP BY c.gateway_account_id"
+                        + " ) totals"
+                        + " GROUP BY gateway_account_id")
+                .setParameter(1, Date.valueOf(day))
+                .setParameter(2, Timestamp.valueOf(day.atStartOfDay()))
+                .setParameter(3, Timestamp.valueOf(day.plusDays(1).atStartOfDay()))
+                .executeUpdate();
+    }
+
+    private TransactionsSummary summariseDays(Long gatewayAccountId, LocalDate fromDay, LocalDate toDay) {
+        Object[] totals = (Object[]) entityManager.get()
+                .createNativeQuery("SELECT COALESCE(SUM(payments_count), 0), COALESCE(SUM(payments_amount), 0),"
+                        + " COALESCE(SUM(refunds_count), 0), COALESCE(SUM(refunds_amount), 0)"
+                        + " FROM daily_transaction_summaries"
+                        + " WHERE gateway_account_id = ?1 AND summary_date >= ?2 AND summary_date < ?3")
+                .setParameter(1, gatewayAccountId)
+                .setParameter(2, Date.valueOf(fromDay))
+                .setParameter(3, Date.valueOf(toDay))
+                .getSingleResult();
+
+        return new TransactionsSummary(longValueOf(totals[0]), longValueOf(totals[1]),
+                longValueOf(totals[2]), longValueOf(totals[3]));
+    }
+
+    private TransactionsSummary summariseBetween(Long gatewayAccountId, ZonedDateTime from, ZonedDateTime to) {
+        Object[] payments = (Object[]) entityManager.get()
+                .createQuery("SELECT COUNT(c), COALESCE(SUM(c.amount), 0)"
+                        + " FROM ChargeEntity c"
+                        + " WHERE c.gatewayAccount.id = :gatewayAccountId"
+                        + " AND c.createdDate >= :from"
+                        + " AND c.createdDate < :to"
+                        + " AND c.status IN :statuses")
+                .setParameter("gatewayAccountId", gatewayAccountId)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setParameter("statuses", CHARGE_SUCCESS_STATUSES)
+                .getSingleResult();
+
+        Object[] refunds = (Object[]) entityManager.get()
+                .createQuery("SELECT COUNT(r), COALESCE(SUM(r.amount), 0)"
+                        + " FROM RefundEntity r"
+                        + " WHERE r.chargeEntity.gatewayAccount.id = :gatewayAccountId"
+                        + " AND r.createdDate >= :from"
+                        + " AND r.createdDate < :to"
+                        + " AND r.status IN :statuses")
+                .setParameter("gatewayAccountId", gatewayAccountId)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setParameter("statuses", REFUND_SUCCESS_STATUSES)
+                .getSingleResult();
+
+        return new TransactionsSummary(longValueOf(payments[0]), longValueOf(payments[1]),
+                longValueOf(refunds[0]), longValueOf(refunds[1]));
+    }
+
+    private static boolean isStartOfDay(ZonedDateTime dateTime) {
+        return dateTime.toLocalTime().toNanoOfDay() == 0;
+    }
+
+    private static long longValueOf(Object value) {
+        return ((Number) value).longValue();
+    }
+}
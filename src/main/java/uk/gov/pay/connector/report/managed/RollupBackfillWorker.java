@@ -0,0 +1,78 @@
+package uk.gov.pay.connector.report.managed;
+
+import com.google.common.collect.ImmutableMap;
+import io.dropwizard.lifecycle.Managed;
+import io.dropwizard.setup.Environment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.pay.connector.report.dao.PerformanceReportDao;
+import uk.gov.pay.connector.report.dao.RollupBackfillDao;
+import uk.gov.pay.connector.report.dao.TransactionsSummaryDao;
+
+import javax.inject.Inject;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Fills in the daily rollups behind the reports for the days before their triggers were added, in the background and
+ * one day per transaction, so that writers are only ever held up while a single day is counted. Every node takes
+ * part; see {@link RollupBackfillDao#backfillNextDay}. Reports aggregate the charges themselves until their rollup is
+ * complete.
+ */
+public class RollupBackfillWorker implements Managed {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RollupBackfillWorker.class);
+    private static final long RETRY_INTERVAL_MINUTES = 10;
+
+    private final RollupBackfillDao rollupBackfillDao;
+    private final Map<String, Consumer<LocalDate>> rollups;
+    private final ScheduledExecutorService executorService;
+
+    @Inject
+    public RollupBackfillWorker(RollupBackfillDao rollupBackfillDao, TransactionsSummaryDao transactionsSummaryDao,
+                                PerformanceReportDao performanceReportDao, Environment environment) {
+        this(rollupBackfillDao,
+                ImmutableMap.of(
+                        TransactionsSummaryDao.ROLLUP, transactionsSummaryDao::rebuildDay,
+                        PerformanceReportDao.ROLLUP, performanceReportDao::rebuildDailyCapturedPayments),
+                environment
+                        .lifecycle()
+                        .scheduledExecutorService("rollup-backfill-worker")
+                        .threads(1)
+                        .build());
+    }
+
+    RollupBackfillWorker(RollupBackfillDao rollupBackfillDao, Map<String, Consumer<LocalDate>> rollups,
+                         ScheduledExecutorService executorService) {
+        this.rollupBackfillDao = rollupBackfillDao;
+        this.rollups = rollups;
+        this.executorService = executorService;
+    }
+
+    @Override
+    public void start() {
+        executorService.scheduleWithFixedDelay(this::backfill, 0, RETRY_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public void stop() {
+        executorService.shutdown();
+    }
+
+    void backfill() {
+        rollups.forEach((rollup, rebuildDay) -> {
+            try {
+                Optional<LocalDate> day;
+                while (!executorService.isShutdown() && (day = rollupBackfillDao.backfillNextDay(rollup, rebuildDay)).isPresent()) {
+                    LOGGER.info("Backfilled {} for {}", rollup, day.get());
+                }
+            } catch (Exception e) {
+                LOGGER.error("Failed to backfill {} [message={}]", rollup, e.getMessage());
+            }
+        });
+    }
+}
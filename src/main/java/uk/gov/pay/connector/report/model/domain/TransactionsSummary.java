@@ -0,0 +1,71 @@
+package uk.gov.pay.connector.report.model.domain;
+
+import java.util.Objects;
+
+public class TransactionsSummary {
+
+    public static final TransactionsSummary EMPTY = new TransactionsSummary(0, 0, 0, 0);
+
+    private final long successfulPaymentsCount;
+    private final long successfulPaymentsAmount;
+    private final long successfulRefundsCount;
+    private final long successfulRefundsAmount;
+
+    public TransactionsSummary(long successfulPaymentsCount, long successfulPaymentsAmount,
+                               long successfulRefundsCount, long successfulRefundsAmount) {
+        this.successfulPaymentsCount = successfulPaymentsCount;
+        this.successfulPaymentsAmount = successfulPaymentsAmount;
+        this.successfulRefundsCount = successfulRefundsCount;
+        this.successfulRefundsAmount = successfulRefundsAmount;
+    }
+
+    public TransactionsSummary plus(TransactionsSummary other) {
+        return new TransactionsSummary(
+                successfulPaymentsCount + other.successfulPaymentsCount,
+                successfulPaymentsAmount + other.successfulPaymentsAmount,
+                successfulRefundsCount + other.successfulRefundsCount,
+                successfulRefundsAmount + other.successfulRefundsAmount);
+    }
+
+    public long getSuccessfulPaymentsCount() {
+        return successfulPaymentsCount;
+    }
+
+    public long getSuccessfulPaymentsAmount() {
+        return successfulPaymentsAmount;
+    }
+
+    public long getSuccessfulRefundsCount() {
+        return successfulRefundsCount;
+    }
+
+    public long getSuccessfulRefundsAmount() {
+        return successfulRefundsAmount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TransactionsSummary that = (TransactionsSummary) o;
+        return successfulPaymentsCount == that.successfulPaymentsCount &&
+                successfulPaymentsAmount == that.successfulPaymentsAmount &&
+                successfulRefundsCount == that.successfulRefundsCount &&
+                successfulRefundsAmount == that.successfulRefundsAmount;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(successfulPaymentsCount, successfulPaymentsAmount, successfulRefundsCount, successfulRefundsAmount);
+    }
+
+    @Override
+    public String toString() {
+        return "TransactionsSummary{" +
+                "successfulPaymentsCount=" + successfulPaymentsCount +
+                ", successfulPaymentsAmount=" + successfulPaymentsAmount +
+                ", successfulRefundsCount=" + successfulRefundsCount +
+                ", successfulRefundsAmount=" + successfulRefundsAmount +
+                '}';
+    }
+}
@@ -1,16 +1,10 @@
 package uk.gov.pay.connector.report.resource;
 
 import org.apache.commons.lang3.tuple.Pair;
-import uk.gov.pay.connector.charge.dao.ChargeDao;
-import uk.gov.pay.connector.charge.model.domain.ChargeEntity;
-import uk.gov.pay.connector.charge.model.domain.ChargeStatus;
-import uk.gov.pay.connector.common.model.api.ExternalChargeState;
-import uk.gov.pay.connector.common.model.api.ExternalRefundStatus;
 import uk.gov.pay.connector.gatewayaccount.dao.GatewayAccountDao;
-import uk.gov.pay.connector.refund.dao.RefundDao;
-import uk.gov.pay.connector.refund.model.domain.RefundEntity;
-import uk.gov.pay.connector.refund.model.domain.RefundStatus;
+import uk.gov.pay.connector.report.dao.TransactionsSummaryDao;
 import uk.gov.pay.connector.report.model.TransactionsSummaryResponse;
+import uk.gov.pay.connector.report.model.domain.TransactionsSummary;
 import uk.gov.pay.connector.util.ResponseUtil;
 
 import javax.inject.Inject;
@@ -21,12 +15,8 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Response;
 import java.time.ZonedDateTime;
-import java.util.Arrays;
-import java.util.List;
-import java.util.LongSummaryStatistics;
 
 import static fj.data.Either.reduce;
-import static java.util.stream.Collectors.toList;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static uk.gov.pay.connector.common.validator.ApiValidators.validateFromDateIsBeforeToDate;
 import static uk.gov.pay.connector.common.validator.ApiValidators.validateGatewayAccountReference;
@@ -38,23 +28,13 @@ public class TransactionsSummaryResource {
     private static final String FROM_DATE = "from_date";
     private static final String TO_DATE = "to_date";
 
-    private static final List<ChargeStatus> CHARGE_SUCCESS_STATUSES = Arrays.stream(ChargeStatus.values())
-            .filter(status -> status.toExternal() == ExternalChargeState.EXTERNAL_SUCCESS)
-            .collect(toList());
-
-    private static final List<RefundStatus> REFUND_SUCCESS_STATUSES = Arrays.stream(RefundStatus.values())
-            .filter(status -> status.toExternal() == ExternalRefundStatus.EXTERNAL_SUCCESS)
-            .collect(toList());
-
     private final GatewayAccountDao gatewayAccountDao;
-    private final ChargeDao chargeDao;
-    private final RefundDao refundDao;
+    private final TransactionsSummaryDao transactionsSummaryDao;
 
     @Inject
-    public TransactionsSummaryResource(GatewayAccountDao gatewayAccountDao, ChargeDao chargeDao, RefundDao refundDao) {
+    public TransactionsSummaryResource(GatewayAccountDao gatewayAccountDao, TransactionsSummaryDao transactionsSummaryDao) {
         this.gatewayAccountDao = gatewayAccountDao;
-        this.chargeDao = chargeDao;
-        this.refundDao = refundDao;
+        this.transactionsSummaryDao = transactionsSummaryDao;
     }
 
     @GET
@@ -71,28 +51,15 @@ public class TransactionsSummaryResource {
     }
 
     private Response summarisePaymentsAndRefunds(Long gatewayAccountId, Pair<ZonedDateTime, ZonedDateTime> fromDateAndToDate) {
-        LongSummaryStatistics successfulPaymentStats = chargeDao.findByAccountBetweenDatesWithStatusIn(
-                    gatewayAccountId,
-                    fromDateAndToDate.getLeft(),
-                    fromDateAndToDate.getRight(),
-                    CHARGE_SUCCESS_STATUSES)
-                .stream()
-                .mapToLong(ChargeEntity::getAmount)
-                .summaryStatistics();
-
-        LongSummaryStatistics successfulRefundStats = refundDao.findByAccountBetweenDatesWithStatusIn(
-                    gatewayAccountId,
-                    fromDateAndToDate.getLeft(),
-                    fromDateAndToDate.getRight(),
-                    REFUND_SUCCESS_STATUSES)
-                .stream()
-                .mapToLong(RefundEntity::getAmount)
-                .summaryStatistics();
+        TransactionsSummary summary = transactionsSummaryDao.summarise(
+                gatewayAccountId,
+                fromDateAndToDate.getLeft(),
+                fromDateAndToDate.getRight());
 
         TransactionsSummaryResponse response = new TransactionsSummaryResponse(
-                (int) successfulPaymentStats.getCount(), successfulPaymentStats.getSum(),
-                (int) successfulRefundStats.getCount(), successfulRefundStats.getSum(),
-                successfulPaymentStats.getSum() - successfulRefundStats.getSum());
+                (int) summary.getSuccessfulPaymentsCount(), summary.getSuccessfulPaymentsAmount(),
+                (int) summary.getSuccessfulRefundsCount(), summary.getSuccessfulRefundsAmount(),
+                summary.getSuccessfulPaymentsAmount() - summary.getSuccessfulRefundsAmount());
 
         return Response.ok(response).build();
     }
@@ -8,6 +8,7 @@ import org.slf4j.LoggerFactory;
 import uk.gov.pay.connector.common.service.PatchRequestBuilder;
 import uk.gov.pay.connector.gatewayaccount.dao.GatewayAccountDao;
 import uk.gov.pay.connector.gatewayaccount.model.GatewayAccountEntity;
+import uk.gov.pay.connector.gatewayaccount.service.GatewayAccountService;
 import uk.gov.pay.connector.usernotification.model.domain.EmailNotificationEntity;
 import uk.gov.pay.connector.usernotification.model.domain.EmailNotificationType;
 
@@ -45,10 +46,12 @@ public class EmailNotificationResource {
             format(FORMATTER, EmailNotificationType.REFUND_ISSUED.toString().toLowerCase(), EMAIL_NOTIFICATION_ENABLED)
     );
     private final GatewayAccountDao gatewayDao;
+    private final GatewayAccountService gatewayAccountService;
 
     @Inject
-    public EmailNotificationResource(GatewayAccountDao gatewayDao) {
+    public EmailNotificationResource(GatewayAccountDao gatewayDao, GatewayAccountService gatewayAccountService) {
         this.gatewayDao = gatewayDao;
+        this.gatewayAccountService = gatewayAccountService;
     }
 
     @PATCH
@@ -78,6 +81,7 @@ public class EmailNotificationResource {
                                 return newDisabledEmailNotificationEntityWithNoTemplate(gatewayAccount, type);
                             });
                     patch(notificationEntity, patchInfo);
+                    gatewayAccountService.accountChanged(gatewayAccountId);
                     return Response.ok().build();
                 })
                 .orElseGet(() -> notFoundResponse(format("The gateway account id '%s' does not exist", gatewayAccountId)));
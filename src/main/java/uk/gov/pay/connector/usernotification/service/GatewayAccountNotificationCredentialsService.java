@@ -1,6 +1,7 @@
 package uk.gov.pay.connector.usernotification.service;
 
 import uk.gov.pay.connector.common.exception.CredentialsException;
+import uk.gov.pay.connector.gateway.smartpay.auth.VerifiedCredentialsCache;
 import uk.gov.pay.connector.gatewayaccount.dao.GatewayAccountDao;
 import uk.gov.pay.connector.gatewayaccount.model.GatewayAccountEntity;
 import uk.gov.pay.connector.usernotification.model.domain.NotificationCredentials;
@@ -15,12 +16,15 @@ public class GatewayAccountNotificationCredentialsService {
     private static final int MINIMUM_PASSWORD_LENGTH = 10;
     private final GatewayAccountDao gatewayDao;
     private final HashUtil hashUtil;
+    private final VerifiedCredentialsCache verifiedCredentialsCache;
 
     @Inject
     public GatewayAccountNotificationCredentialsService(GatewayAccountDao gatewayDao,
-                                                        HashUtil hashUtil) {
+                                                        HashUtil hashUtil,
+                                                        VerifiedCredentialsCache verifiedCredentialsCache) {
         this.gatewayDao = gatewayDao;
         this.hashUtil = hashUtil;
+        this.verifiedCredentialsCache = verifiedCredentialsCache;
     }
 
     public void setCredentialsForAccount(Map<String, String> notificationCredentials, GatewayAccountEntity gatewayAccountEntity) throws CredentialsException {
@@ -36,5 +40,6 @@ public class GatewayAccountNotificationCredentialsService {
         gatewayAccountEntity.setNotificationCredentials(existingCredentials);
 
         gatewayDao.merge(gatewayAccountEntity);
+        verifiedCredentialsCache.invalidate(gatewayAccountEntity.getId());
     }
 }
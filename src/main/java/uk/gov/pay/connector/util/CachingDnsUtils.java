@@ -0,0 +1,136 @@
+package uk.gov.pay.connector.util;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.dropwizard.setup.Environment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.pay.connector.app.ConnectorConfiguration;
+import uk.gov.pay.connector.app.ReverseDnsCacheConfig;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Remembers whether a notification source ip resolves to the expected domain, so a burst of notifications from the
+ * same gateway host (for example after a Worldpay settlement run) costs one PTR query rather than one per message,
+ * each made while the notification's database transaction is open.
+ * <p>
+ * Matches are kept for {@code positiveTtl} and refreshed in the background once they are within {@code refreshAhead}
+ * of expiring, so a busy ip never waits on DNS again. Mismatches and failed lookups are kept for the shorter
+ * {@code negativeTtl}, so a transient DNS failure only rejects notifications (which the gateway retries) briefly.
+ */
+@Singleton
+public class CachingDnsUtils extends DnsUtils {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingDnsUtils.class);
+
+    private final ReverseDnsCacheConfig config;
+    private final Clock clock;
+    private final Executor refreshExecutor;
+    private final Cache<String, Verdict> verdicts;
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer lookupTime;
+
+    @Inject
+    public CachingDnsUtils(ConnectorConfiguration configuration, Environment environment) {
+        this(configuration.getReverseDnsCacheConfig(), environment.metrics(), Clock.systemUTC(),
+                environment.lifecycle().executorService("reverse-dns-refresh").minThreads(1).maxThreads(1).build());
+    }
+
+    public CachingDnsUtils(ReverseDnsCacheConfig config, MetricRegistry metricRegistry, Clock clock, Executor refreshExecutor) {
+        this.config = config;
+        this.clock = clock;
+        this.refreshExecutor = refreshExecutor;
+        this.verdicts = CacheBuilder.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(Math.max(config.getPositiveTtl().toMilliseconds(), config.getNegativeTtl().toMilliseconds()), TimeUnit.MILLISECONDS)
+                .build();
+        this.hits = metricRegistry.counter("reverse-dns.cache.hits");
+        this.misses = metricRegistry.counter("reverse-dns.cache.misses");
+        this.lookupTime = metricRegistry.timer("reverse-dns.lookup");
+        metricRegistry.gauge("reverse-dns.cache.size", () -> (Gauge<Long>) verdicts::size);
+    }
+
+    @Override
+    public boolean ipMatchesDomain(String forwardedAddress, String domain) {
+        if (!config.isEnabled() || forwardedAddress == null) {
+            return super.ipMatchesDomain(forwardedAddress, domain);
+        }
+
+        String ipAddress = extractForwardedIp(forwardedAddress);
+        String key = ipAddress + " " + domain;
+
+        Verdict cached = verdicts.getIfPresent(key);
+        Instant now = clock.instant();
+        if (cached != null && now.isBefore(cached.expiresAt)) {
+            hits.inc();
+            if (!now.isBefore(cached.refreshAt) && cached.refreshing.compareAndSet(false, true)) {
+                refreshInBackground(key, ipAddress, domain, cached);
+            }
+            return cached.matches;
+        }
+        if (cached != null) {
+            verdicts.asMap().remove(key, cached);
+        }
+
+        try {
+            // Concurrent misses for the same ip wait for a single lookup
+            return verdicts.get(key, () -> {
+                misses.inc();
+                return lookUp(ipAddress, domain);
+            }).matches;
+        } catch (ExecutionException e) {
+            logger.error("Reverse DNS lookup failed for ip '{}': {}", ipAddress, e.getCause().getMessage());
+            return false;
+        }
+    }
+
+    private void refreshInBackground(String key, String ipAddress, String domain, Verdict stale) {
+        try {
+            refreshExecutor.execute(() -> verdicts.asMap().replace(key, stale, lookUp(ipAddress, domain)));
+        } catch (RejectedExecutionException e) {
+            // Try again on a later hit; the entry is still served until it expires
+            stale.refreshing.set(false);
+        }
+    }
+
+    private Verdict lookUp(String ipAddress, String domain) {
+        boolean matches;
+        try (Timer.Context ignored = lookupTime.time()) {
+            matches = ipAddressMatchesDomain(ipAddress, domain);
+        }
+        Instant now = clock.instant();
+        if (matches) {
+            Instant expiresAt = now.plusMillis(config.getPositiveTtl().toMilliseconds());
+            return new Verdict(true, expiresAt, expiresAt.minusMillis(config.getRefreshAhead().toMilliseconds()));
+        }
+        Instant expiresAt = now.plusMillis(config.getNegativeTtl().toMilliseconds());
+        return new Verdict(false, expiresAt, expiresAt);
+    }
+
+    private static class Verdict {
+        private final boolean matches;
+        private final Instant expiresAt;
+        private final Instant refreshAt;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private Verdict(boolean matches, Instant expiresAt, Instant refreshAt) {
+            this.matches = matches;
+            this.expiresAt = expiresAt;
+            this.refreshAt = refreshAt;
+        }
+    }
+}
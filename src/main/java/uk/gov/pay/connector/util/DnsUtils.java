@@ -15,14 +15,22 @@ import static java.lang.String.*;
 public class DnsUtils {
     private static final Logger logger = LoggerFactory.getLogger(DnsUtils.class);
 
-    private String extractForwardedIp(String forwardedAddress) {
+    protected String extractForwardedIp(String forwardedAddress) {
         String extractedIp = forwardedAddress.split(",")[0];
         logger.debug("Extracted ip {} from X-Forwarded-For '{}'", extractedIp, forwardedAddress);
         return extractedIp;
     }
     public boolean ipMatchesDomain(String forwardedAddress, String domain) {
         try {
-            String ipAddress = extractForwardedIp(forwardedAddress);
+            return ipAddressMatchesDomain(extractForwardedIp(forwardedAddress), domain);
+        } catch (Exception e) {
+            logger.error("Reverse DNS Lookup failed: {}", e.getLocalizedMessage());
+            return false;
+        }
+    }
+
+    protected boolean ipAddressMatchesDomain(String ipAddress, String domain) {
+        try {
             Optional<String> host = reverseDnsLookup(ipAddress);
             if (!host.isPresent()) {
                 throw new Exception(format("Host not found for ip address '%s'", ipAddress));
@@ -9,6 +9,7 @@ import javax.ws.rs.WebApplicationException;
 import java.io.IOException;
 
 import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static uk.gov.pay.connector.util.ResponseUtil.serviceErrorResponse;
 
 public class JsonObjectMapper {
@@ -30,4 +31,16 @@ public class JsonObjectMapper {
                     jsonResponse, targetType, e.getMessage())));
         }
     }
+
+    public <T> T getObject(byte[] jsonResponse, Class<T> targetType) {
+        try {
+            return objectMapper.readValue(jsonResponse, targetType);
+        } catch (IOException e) {
+            String payload = new String(jsonResponse, UTF_8);
+            logger.info("There was an exception parsing the payload [{}] into an [{}]", payload, targetType);
+            throw new WebApplicationException(serviceErrorResponse(
+                    format("There was an exception parsing the payload [%s] into an [%s], e=[%s]",
+                    payload, targetType, e.getMessage())));
+        }
+    }
 }
@@ -77,6 +77,15 @@ public class ResponseUtil {
         return buildErrorResponse(CONFLICT, message);
     }
 
+    /**
+     * 429 Too Many Requests, which has no {@link Status} constant in this version of JAX-RS.
+     */
+    public static Response tooManyRequestsResponse(String message) {
+        logger.warn(message);
+        ErrorResponse errorResponse = new ErrorResponse(ErrorIdentifier.GENERIC, List.of(message));
+        return status(429).entity(errorResponse).build();
+    }
+
     public static Response forbiddenErrorResponse() {
         return status(Status.FORBIDDEN).build();
     }
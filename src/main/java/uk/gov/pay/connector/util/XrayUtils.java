@@ -1,9 +1,15 @@
 package uk.gov.pay.connector.util;
 
 import com.amazonaws.xray.AWSXRay;
+import com.amazonaws.xray.AWSXRayRecorder;
+import com.amazonaws.xray.entities.Entity;
+import com.amazonaws.xray.entities.Subsegment;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.net.URI;
+import java.util.Map;
+
 public class XrayUtils {
 
     private final Logger LOGGER = LoggerFactory.getLogger(XrayUtils.class);
@@ -35,4 +41,53 @@ public class XrayUtils {
             }
         }
     }
+
+    /**
+     * Traces an outgoing request whose response arrives on another thread, where the current segment is not the one
+     * the request was sent from. The calling thread carries on in its own segment.
+     */
+    public RemoteCallTrace beginRemoteCall(String method, URI uri) {
+        if (!xrayEnabled) {
+            return (statusCode, failure) -> {};
+        }
+        try {
+            AWSXRayRecorder recorder = AWSXRay.getGlobalRecorder();
+            Entity callerEntity = recorder.getTraceEntity();
+            if (callerEntity == null) {
+                return (statusCode, failure) -> {};
+            }
+            Subsegment subsegment = recorder.beginSubsegment(uri.getHost());
+            subsegment.setNamespace("remote");
+            subsegment.putHttp("request", Map.of("method", method, "url", uri.toString()));
+            recorder.setTraceEntity(callerEntity);
+            return (statusCode, failure) -> endRemoteCall(recorder, subsegment, statusCode, failure);
+        } catch (Exception e) {
+            LOGGER.error("An error occurred beginning an x-ray subsegment.", e);
+            return (statusCode, failure) -> {};
+        }
+    }
+
+    private void endRemoteCall(AWSXRayRecorder recorder, Subsegment subsegment, Integer statusCode, Throwable failure) {
+        Entity currentEntity = recorder.getTraceEntity();
+        try {
+            recorder.setTraceEntity(subsegment);
+            if (statusCode != null) {
+                subsegment.putHttp("response", Map.of("status", statusCode));
+                subsegment.setError(statusCode >= 400 && statusCode < 500);
+                subsegment.setFault(statusCode >= 500);
+            }
+            if (failure != null) {
+                subsegment.addException(failure);
+            }
+            recorder.endSubsegment();
+        } catch (Exception e) {
+            LOGGER.error("An error occurred ending an x-ray subsegment.", e);
+        } finally {
+            recorder.setTraceEntity(currentEntity);
+        }
+    }
+
+    public interface RemoteCallTrace {
+        void end(Integer statusCode, Throwable failure);
+    }
 }
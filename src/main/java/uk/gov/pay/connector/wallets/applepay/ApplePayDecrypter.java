@@ -17,11 +17,11 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.GeneralSecurityException;
 import java.security.KeyFactory;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
-import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
@@ -30,7 +30,6 @@ import java.security.spec.InvalidKeySpecException;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.security.spec.X509EncodedKeySpec;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.Base64;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -44,9 +43,15 @@ public class ApplePayDecrypter {
     private static final byte[] APPLE_OEM = "Apple".getBytes(UTF_8);
     private static final byte[] ALG_IDENTIFIER_BYTES = "id-aes256-GCM".getBytes(UTF_8);
     private static final String MERCHANT_ID_CERTIFICATE_OID = "1.2.840.113635.100.6.32";
+    private static final GCMParameterSpec GCM_PARAMETER_SPEC = new GCMParameterSpec(128, new byte[16]);
 
     private PrivateKey privateKey;
     private X509Certificate certificate;
+    // Everything hashed by the KDF after the shared secret; fixed for a given merchant certificate
+    private byte[] keyDerivationPartyInfo;
+
+    // JCA objects are not thread-safe, so each thread keeps its own, with the key agreement already holding our key
+    private final ThreadLocal<DecryptionContext> decryptionContexts = new ThreadLocal<>();
 
     private final ObjectMapper objectMapper;
     private final static Base64.Decoder BASE64_DECODER = Base64.getDecoder();
@@ -61,6 +66,7 @@ public class ApplePayDecrypter {
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
+        keyDerivationPartyInfo = buildKeyDerivationPartyInfo(certificate);
         long daysToExpiry = DAYS.between(Instant.now(), certificate.getNotAfter().toInstant());
         LOGGER.info("The Apple Pay payment processing cert will expire in {} days", daysToExpiry);
     }
@@ -69,45 +75,69 @@ public class ApplePayDecrypter {
         try {
             byte[] data = BASE64_DECODER.decode(applePayAuthRequest.getEncryptedPaymentData().getData().getBytes(UTF_8));
             byte[] ephemeralPublicKey = BASE64_DECODER.decode(applePayAuthRequest.getEncryptedPaymentData().getHeader().getEphemeralPublicKey().getBytes(UTF_8));
-            byte[] rawData = decrypt(certificate, privateKey, ephemeralPublicKey, data);
-            return objectMapper.readValue(new String(rawData, UTF_8), AppleDecryptedPaymentData.class);
+            byte[] rawData = decrypt(ephemeralPublicKey, data);
+            return objectMapper.readValue(rawData, AppleDecryptedPaymentData.class);
         } catch (Exception e) {
             LOGGER.error("Error while trying to decrypt apple pay payload: " + e.getMessage());
             throw new InvalidKeyException("Error while trying to decrypt apple pay payload: " + e.getMessage());
         }
     }
 
-    private byte[] decrypt(Certificate certificate, PrivateKey merchantPrivateKey, byte[] ephemeralPublicKeyBytes, byte[] data) throws Exception {
-        // Reconstitute Ephemeral Public Key
-        KeyFactory keyFactory = KeyFactory.getInstance("EC");
-        X509EncodedKeySpec encodedKeySpec = new X509EncodedKeySpec(ephemeralPublicKeyBytes);
-        ECPublicKey ephemeralPublicKey = (ECPublicKey) keyFactory.generatePublic(encodedKeySpec);
-        // Perform KeyAgreement
-        KeyAgreement agreement = KeyAgreement.getInstance("ECDH");
-        agreement.init(merchantPrivateKey);
-        agreement.doPhase(ephemeralPublicKey, true);
-        byte[] sharedSecret = agreement.generateSecret();
-
-        // Perform KDF
-        byte[] derivedSecret = performKeyDerivationFunction(((X509Certificate) certificate), sharedSecret);
-
-        // Use the derived secret to decrypt the data
-        Cipher aesCipher = Cipher.getInstance("AES/GCM/NoPadding");
-        SecretKeySpec key = new SecretKeySpec(derivedSecret, "AES");
-        aesCipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(128, new byte[16]));
-        return aesCipher.doFinal(data);
+    private byte[] decrypt(byte[] ephemeralPublicKeyBytes, byte[] data) throws Exception {
+        if (keyDerivationPartyInfo == null) {
+            throw new IllegalStateException("Apple Pay payment processing cert has no merchant identifier extension");
+        }
+        DecryptionContext context = getDecryptionContext();
+        try {
+            // Reconstitute Ephemeral Public Key
+            X509EncodedKeySpec encodedKeySpec = new X509EncodedKeySpec(ephemeralPublicKeyBytes);
+            ECPublicKey ephemeralPublicKey = (ECPublicKey) context.keyFactory.generatePublic(encodedKeySpec);
+            // Perform KeyAgreement
+            context.keyAgreement.doPhase(ephemeralPublicKey, true);
+            byte[] sharedSecret = context.keyAgreement.generateSecret();
+
+            // Perform KDF
+            context.sha256.update(COUNTER);
+            context.sha256.update(sharedSecret);
+            context.sha256.update(keyDerivationPartyInfo);
+            byte[] derivedSecret = context.sha256.digest();
+
+            // Use the derived secret to decrypt the data
+            context.aesCipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(derivedSecret, "AES"), GCM_PARAMETER_SPEC);
+            return context.aesCipher.doFinal(data);
+        } catch (Exception e) {
+            // Don't reuse objects that failed part way through an operation
+            decryptionContexts.remove();
+            throw e;
+        }
     }
 
-    private byte[] performKeyDerivationFunction(X509Certificate certificate, byte[] sharedSecret) throws Exception {
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-        byteArrayOutputStream.write(COUNTER);
-        byteArrayOutputStream.write(sharedSecret);
-        byteArrayOutputStream.write(ALG_IDENTIFIER_BYTES.length);
-        byteArrayOutputStream.write(ALG_IDENTIFIER_BYTES);
-        byteArrayOutputStream.write(APPLE_OEM);
-        // Add Merchant Id
-        byteArrayOutputStream.write(Hex.decodeHex(new String((certificate.getExtensionValue(MERCHANT_ID_CERTIFICATE_OID)), UTF_8).substring(4).toCharArray()));
-        return MessageDigest.getInstance("SHA-256").digest(byteArrayOutputStream.toByteArray());
+    private DecryptionContext getDecryptionContext() throws GeneralSecurityException {
+        DecryptionContext context = decryptionContexts.get();
+        if (context == null) {
+            context = new DecryptionContext(privateKey);
+            decryptionContexts.set(context);
+        }
+        return context;
+    }
+
+    private static byte[] buildKeyDerivationPartyInfo(X509Certificate certificate) {
+        byte[] merchantIdExtension = certificate.getExtensionValue(MERCHANT_ID_CERTIFICATE_OID);
+        if (merchantIdExtension == null) {
+            LOGGER.error("The Apple Pay payment processing cert has no merchant identifier extension");
+            return null;
+        }
+        try {
+            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+            byteArrayOutputStream.write(ALG_IDENTIFIER_BYTES.length);
+            byteArrayOutputStream.write(ALG_IDENTIFIER_BYTES);
+            byteArrayOutputStream.write(APPLE_OEM);
+            // Add Merchant Id
+            byteArrayOutputStream.write(Hex.decodeHex(new String(merchantIdExtension, UTF_8).substring(4).toCharArray()));
+            return byteArrayOutputStream.toByteArray();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
     }
 
     private X509Certificate generateCertificate(byte[] publicCertificateBytes) throws IOException, CertificateException {
@@ -121,4 +151,18 @@ public class ApplePayDecrypter {
         return KeyFactory.getInstance("EC").generatePrivate(new PKCS8EncodedKeySpec(privateKeyBytes));
     }
 
+    private static class DecryptionContext {
+        private final KeyFactory keyFactory;
+        private final KeyAgreement keyAgreement;
+        private final MessageDigest sha256;
+        private final Cipher aesCipher;
+
+        private DecryptionContext(PrivateKey merchantPrivateKey) throws GeneralSecurityException {
+            keyFactory = KeyFactory.getInstance("EC");
+            keyAgreement = KeyAgreement.getInstance("ECDH");
+            keyAgreement.init(merchantPrivateKey);
+            sha256 = MessageDigest.getInstance("SHA-256");
+            aesCipher = Cipher.getInstance("AES/GCM/NoPadding");
+        }
+    }
 }
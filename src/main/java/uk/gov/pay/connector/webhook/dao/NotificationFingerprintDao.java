@@ -0,0 +1,68 @@
+package uk.gov.pay.connector.webhook.dao;
+
+import com.google.inject.Provider;
+import com.google.inject.persist.Transactional;
+import uk.gov.pay.connector.gateway.PaymentGatewayName;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import java.sql.Timestamp;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Fingerprints of gateway notifications that have already been applied. Rows carry nothing but the fingerprint, the
+ * gateway and when it was recorded, so there is no entity for them.
+ */
+@Transactional
+public class NotificationFingerprintDao {
+
+    private final Provider<EntityManager> entityManager;
+
+    @Inject
+    public NotificationFingerprintDao(final Provider<EntityManager> entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public boolean exists(String fingerprint) {
+        return !entityManager.get()
+                .createNativeQuery("SELECT 1 FROM notification_fingerprints WHERE fingerprint = ?1")
+                .setParameter(1, fingerprint)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+    }
+
+    /**
+     * Records a fingerprint unless it is already there, so two deliveries of the same notification racing each other
+     * do not fail the transaction of the second.
+     */
+    public void record(String fingerprint, PaymentGatewayName gateway, ZonedDateTime recordedDate) {
+        entityManager.get()
+                .createNativeQuery("INSERT INTO notification_fingerprints(fingerprint, gateway, recorded_date) " +
+                        "VALUES (?1, ?2, ?3) ON CONFLICT (fingerprint) DO NOTHING")
+                .setParameter(1, fingerprint)
+                .setParameter(2, gateway.name())
+                .setParameter(3, Timestamp.from(recordedDate.toInstant()))
+                .executeUpdate();
+    }
+
+    public List<String> findFingerprintsRecordedSince(ZonedDateTime since) {
+        List<?> rows = entityManager.get()
+                .createNativeQuery("SELECT fingerprint FROM notification_fingerprints WHERE recorded_date >= ?1")
+                .setParameter(1, Timestamp.from(since.toInstant()))
+                .getResultList();
+        return rows.stream()
+                .map(String::valueOf)
+                .collect(toList());
+    }
+
+    public int deleteRecordedBefore(ZonedDateTime before) {
+        return entityManager.get()
+                .createNativeQuery("DELETE FROM notification_fingerprints WHERE recorded_date < ?1")
+                .setParameter(1, Timestamp.from(before.toInstant()))
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,94 @@
+package uk.gov.pay.connector.webhook.dao;
+
+import com.google.inject.Provider;
+import com.google.inject.persist.Transactional;
+import uk.gov.pay.connector.common.dao.JpaDao;
+import uk.gov.pay.connector.webhook.model.NotificationInboxEntity;
+import uk.gov.pay.connector.webhook.model.NotificationInboxStatus;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import java.sql.Timestamp;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.stream.Collectors.toList;
+
+@Transactional
+public class NotificationInboxDao extends JpaDao<NotificationInboxEntity> {
+
+    @Inject
+    public NotificationInboxDao(final Provider<EntityManager> entityManager) {
+        super(entityManager);
+    }
+
+    public Optional<NotificationInboxEntity> findById(Long id) {
+        return super.findById(NotificationInboxEntity.class, id);
+    }
+
+    /**
+     * Reads the notification with {@code SELECT ... FOR UPDATE}, so a worker whose lease has expired waits for the
+     * worker that took the notification over to commit, and then sees it is no longer pending.
+     */
+    public Optional<NotificationInboxEntity> findByIdForUpdate(Long id) {
+        return Optional.ofNullable(entityManager.get().find(NotificationInboxEntity.class, id, LockModeType.PESSIMISTIC_WRITE));
+    }
+
+    /**
+     * Leases up to {@code batchSize} pending notifications that are due, oldest first, until {@code leaseExpiry}.
+     * A notification is not handed out while an earlier one with the same ordering key is still pending, so
+     * notifications for a transaction are applied in the order they were received however many workers are polling.
+     * Rows already being claimed by another worker are skipped rather than waited for.
+     */
+    public List<Long> claimNextBatch(int batchSize, ZonedDateTime now, ZonedDateTime leaseExpiry) {
+        String query = "SELECT n.id FROM notification_inbox n " +
+                "WHERE n.status = 'PENDING' AND n.available_date <= ?1 " +
+                "AND NOT EXISTS (SELECT 1 FROM notification_inbox earlier " +
+                "WHERE earlier.status = 'PENDING' AND earlier.ordering_key = n.ordering_key AND earlier.id < n.id) " +
+                "ORDER BY n.id LIMIT ?2 FOR UPDATE SKIP LOCKED";
+
+        List<?> rows = entityManager.get()
+                .createNativeQuery(query)
+                .setParameter(1, Timestamp.from(now.toInstant()))
+                .setParameter(2, batchSize)
+                .getResultList();
+
+        if (rows.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Long> ids = rows.stream()
+                .map(id -> ((Number) id).longValue())
+                .collect(toList());
+
+        entityManager.get()
+                .createQuery("UPDATE NotificationInboxEntity n " +
+                        "SET n.availableDate = :leaseExpiry, n.attempts = n.attempts + 1 " +
+                        "WHERE n.id IN :ids")
+                .setParameter("leaseExpiry", leaseExpiry)
+                .setParameter("ids", ids)
+                .executeUpdate();
+
+        return ids;
+    }
+
+    public long countPending() {
+        return entityManager.get()
+                .createQuery("SELECT COUNT(n) FROM NotificationInboxEntity n WHERE n.status = :status", Long.class)
+                .setParameter("status", NotificationInboxStatus.PENDING)
+                .getSingleResult();
+    }
+
+    public Optional<ZonedDateTime> findOldestPendingReceivedDate() {
+        return entityManager.get()
+                .createQuery("SELECT n.receivedDate FROM NotificationInboxEntity n WHERE n.status = :status ORDER BY n.id", ZonedDateTime.class)
+                .setParameter("status", NotificationInboxStatus.PENDING)
+                .setMaxResults(1)
+                .getResultList()
+                .stream()
+                .findFirst();
+    }
+}
@@ -0,0 +1,59 @@
+package uk.gov.pay.connector.webhook.managed;
+
+import io.dropwizard.lifecycle.Managed;
+import io.dropwizard.setup.Environment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.pay.connector.app.ConnectorConfiguration;
+import uk.gov.pay.connector.app.NotificationDeduplicationConfig;
+import uk.gov.pay.connector.webhook.service.NotificationDeduplicationService;
+
+import javax.inject.Inject;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the notification deduplication filter in the background so that startup does not wait for it, then deletes
+ * expired records and rebuilds it every {@link NotificationDeduplicationConfig#getFilterRebuildInterval()}. Lookups go
+ * to the database until it has first been loaded.
+ */
+public class NotificationDeduplicationFilterLoader implements Managed {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NotificationDeduplicationFilterLoader.class);
+
+    private final NotificationDeduplicationService notificationDeduplicationService;
+    private final NotificationDeduplicationConfig config;
+    private final ScheduledExecutorService executorService;
+
+    @Inject
+    public NotificationDeduplicationFilterLoader(NotificationDeduplicationService notificationDeduplicationService,
+                                                 ConnectorConfiguration connectorConfiguration,
+                                                 Environment environment) {
+        this.notificationDeduplicationService = notificationDeduplicationService;
+        this.config = connectorConfiguration.getNotificationDeduplicationConfig();
+        this.executorService = environment
+                .lifecycle()
+                .scheduledExecutorService("notification-deduplication-filter-loader")
+                .threads(1)
+                .build();
+    }
+
+    @Override
+    public void start() {
+        long intervalMillis = config.getFilterRebuildInterval().toMilliseconds();
+        executorService.scheduleWithFixedDelay(this::loadFilter, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        executorService.shutdown();
+    }
+
+    private void loadFilter() {
+        try {
+            notificationDeduplicationService.loadFilter();
+        } catch (Exception e) {
+            LOGGER.error("Failed to load notification deduplication filter [message={}]", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package uk.gov.pay.connector.webhook.managed;
+
+import com.codahale.metrics.CachedGauge;
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.lifecycle.Managed;
+import io.dropwizard.setup.Environment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.pay.connector.app.ConnectorConfiguration;
+import uk.gov.pay.connector.app.NotificationInboxConfig;
+import uk.gov.pay.connector.webhook.dao.NotificationInboxDao;
+import uk.gov.pay.connector.webhook.service.NotificationInboxService;
+
+import javax.inject.Inject;
+import java.time.Clock;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static java.time.temporal.ChronoUnit.SECONDS;
+
+public class NotificationInboxWorker implements Managed {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NotificationInboxWorker.class);
+    private static final long GAUGE_REFRESH_SECONDS = 10;
+
+    private final NotificationInboxService notificationInboxService;
+    private final NotificationInboxConfig config;
+    private final ScheduledExecutorService executorService;
+
+    @Inject
+    public NotificationInboxWorker(NotificationInboxService notificationInboxService, NotificationInboxDao notificationInboxDao,
+                                   ConnectorConfiguration connectorConfiguration, Environment environment) {
+        this(notificationInboxService,
+                connectorConfiguration.getNotificationInboxConfig(),
+                environment
+                        .lifecycle()
+                        .scheduledExecutorService("notification-inbox-worker")
+                        .threads(connectorConfiguration.getNotificationInboxConfig().getWorkerThreads())
+                        .build());
+        registerGauges(environment.metrics(), notificationInboxDao, Clock.systemUTC());
+    }
+
+    NotificationInboxWorker(NotificationInboxService notificationInboxService, NotificationInboxConfig config,
+                            ScheduledExecutorService executorService) {
+        this.notificationInboxService = notificationInboxService;
+        this.config = config;
+        this.executorService = executorService;
+    }
+
+    @Override
+    public void start() {
+        for (int i = 0; i < config.getWorkerThreads(); i++) {
+            executorService.scheduleWithFixedDelay(
+                    this::drainInbox,
+                    config.getPollInterval().toMilliseconds(),
+                    config.getPollInterval().toMilliseconds(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void stop() {
+        executorService.shutdown();
+    }
+
+    void drainInbox() {
+        try {
+            while (processNextBatch() == config.getBatchSize()) {
+                // keep going while the inbox is backed up
+            }
+        } catch (Exception e) {
+            LOGGER.error("Notification inbox worker failed to claim notifications [message={}]", e.getMessage());
+        }
+    }
+
+    private int processNextBatch() {
+        List<Long> notificationIds = notificationInboxService.claimNextBatch();
+        for (Long notificationId : notificationIds) {
+            try {
+                notificationInboxService.process(notificationId);
+            } catch (Exception e) {
+                LOGGER.error("Failed to process notification {} from inbox [message={}]", notificationId, e.getMessage());
+                notificationInboxService.recordFailure(notificationId);
+            }
+        }
+        return notificationIds.size();
+    }
+
+    private static void registerGauges(MetricRegistry metricRegistry, NotificationInboxDao notificationInboxDao, Clock clock) {
+        metricRegistry.gauge("notification-inbox.depth", () -> new CachedGauge<Long>(GAUGE_REFRESH_SECONDS, TimeUnit.SECONDS) {
+            @Override
+            protected Long loadValue() {
+                return notificationInboxDao.countPending();
+            }
+        });
+        metricRegistry.gauge("notification-inbox.lag-seconds", () -> new CachedGauge<Long>(GAUGE_REFRESH_SECONDS, TimeUnit.SECONDS) {
+            @Override
+            protected Long loadValue() {
+                return notificationInboxDao.findOldestPendingReceivedDate()
+                        .map(receivedDate -> receivedDate.until(ZonedDateTime.now(clock), SECONDS))
+                        .orElse(0L);
+            }
+        });
+    }
+}
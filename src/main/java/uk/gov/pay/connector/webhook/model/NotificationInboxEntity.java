@@ -0,0 +1,118 @@
+package uk.gov.pay.connector.webhook.model;
+
+import uk.gov.pay.connector.common.model.domain.UTCDateTimeConverter;
+import uk.gov.pay.connector.gateway.PaymentGatewayName;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import java.time.ZonedDateTime;
+
+@Entity
+@Table(name = "notification_inbox")
+@SequenceGenerator(name = "notification_inbox_id_seq",
+        sequenceName = "notification_inbox_id_seq", allocationSize = 1)
+public class NotificationInboxEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_inbox_id_seq")
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "gateway")
+    private PaymentGatewayName gateway;
+
+    @Column(name = "payload")
+    private String payload;
+
+    @Column(name = "ordering_key")
+    private String orderingKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private NotificationInboxStatus status;
+
+    @Column(name = "attempts")
+    private int attempts;
+
+    @Convert(converter = UTCDateTimeConverter.class)
+    @Column(name = "received_date")
+    private ZonedDateTime receivedDate;
+
+    @Convert(converter = UTCDateTimeConverter.class)
+    @Column(name = "available_date")
+    private ZonedDateTime availableDate;
+
+    @Convert(converter = UTCDateTimeConverter.class)
+    @Column(name = "processed_date")
+    private ZonedDateTime processedDate;
+
+    protected NotificationInboxEntity() {
+    }
+
+    public NotificationInboxEntity(PaymentGatewayName gateway, String payload, String orderingKey, ZonedDateTime receivedDate) {
+        this.gateway = gateway;
+        this.payload = payload;
+        this.orderingKey = orderingKey;
+        this.status = NotificationInboxStatus.PENDING;
+        this.receivedDate = receivedDate;
+        this.availableDate = receivedDate;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public PaymentGatewayName getGateway() {
+        return gateway;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public String getOrderingKey() {
+        return orderingKey;
+    }
+
+    public NotificationInboxStatus getStatus() {
+        return status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public ZonedDateTime getReceivedDate() {
+        return receivedDate;
+    }
+
+    public ZonedDateTime getAvailableDate() {
+        return availableDate;
+    }
+
+    public ZonedDateTime getProcessedDate() {
+        return processedDate;
+    }
+
+    public void markProcessed(ZonedDateTime processedDate) {
+        this.status = NotificationInboxStatus.PROCESSED;
+        this.processedDate = processedDate;
+    }
+
+    public void markFailed(ZonedDateTime failedDate) {
+        this.status = NotificationInboxStatus.FAILED;
+        this.processedDate = failedDate;
+    }
+
+    public void retryAfter(ZonedDateTime availableDate) {
+        this.availableDate = availableDate;
+    }
+}
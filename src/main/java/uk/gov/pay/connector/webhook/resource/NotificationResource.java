@@ -6,6 +6,7 @@ import uk.gov.pay.connector.gateway.epdq.EpdqNotificationService;
 import uk.gov.pay.connector.gateway.smartpay.SmartpayNotificationService;
 import uk.gov.pay.connector.gateway.stripe.StripeNotificationService;
 import uk.gov.pay.connector.gateway.worldpay.WorldpayNotificationService;
+import uk.gov.pay.connector.webhook.service.NotificationInboxService;
 
 import javax.annotation.security.PermitAll;
 import javax.inject.Inject;
@@ -19,6 +20,9 @@ import javax.ws.rs.core.Response;
 import static javax.ws.rs.core.MediaType.APPLICATION_FORM_URLENCODED;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static javax.ws.rs.core.MediaType.TEXT_XML;
+import static uk.gov.pay.connector.gateway.PaymentGatewayName.EPDQ;
+import static uk.gov.pay.connector.gateway.PaymentGatewayName.SMARTPAY;
+import static uk.gov.pay.connector.gateway.PaymentGatewayName.WORLDPAY;
 import static uk.gov.pay.connector.util.ResponseUtil.forbiddenErrorResponse;
 
 @Path("/")
@@ -30,16 +34,19 @@ public class NotificationResource {
     private final EpdqNotificationService epdqNotificationService;
     private final SmartpayNotificationService smartpayNotificationService;
     private final StripeNotificationService stripeNotificationService;
+    private final NotificationInboxService notificationInboxService;
 
     @Inject
     public NotificationResource(WorldpayNotificationService worldpayNotificationService,
                                 EpdqNotificationService epdqNotificationService,
                                 SmartpayNotificationService smartpayNotificationService,
-                                StripeNotificationService stripeNotificationService) {
+                                StripeNotificationService stripeNotificationService,
+                                NotificationInboxService notificationInboxService) {
         this.worldpayNotificationService = worldpayNotificationService;
         this.smartpayNotificationService = smartpayNotificationService;
         this.epdqNotificationService = epdqNotificationService;
         this.stripeNotificationService = stripeNotificationService;
+        this.notificationInboxService = notificationInboxService;
     }
 
     @POST
@@ -47,7 +54,11 @@ public class NotificationResource {
     @PermitAll
     @Path("/v1/api/notifications/smartpay")
     public Response authoriseSmartpayNotifications(String notification) {
-        smartpayNotificationService.handleNotificationFor(notification);
+        if (notificationInboxService.isEnabled()) {
+            notificationInboxService.store(SMARTPAY, notification);
+        } else {
+            smartpayNotificationService.handleNotificationFor(notification);
+        }
         String response = "[accepted]";
         logger.info("Responding to notification from provider=smartpay with 200 {}", response);
         return Response.ok(response).build();
@@ -65,7 +76,17 @@ public class NotificationResource {
     @Path("/v1/api/notifications/worldpay")
     @Produces({TEXT_XML, APPLICATION_JSON})
     public Response authoriseWorldpayNotifications(String notification, @HeaderParam("X-Forwarded-For") String ipAddress) {
-        if (!worldpayNotificationService.handleNotificationFor(ipAddress, notification)) {
+        boolean accepted;
+        if (notificationInboxService.isEnabled()) {
+            accepted = worldpayNotificationService.isNotificationFromTrustedSource(ipAddress);
+            if (accepted) {
+                notificationInboxService.store(WORLDPAY, notification);
+            }
+        } else {
+            accepted = worldpayNotificationService.handleNotificationFor(ipAddress, notification);
+        }
+
+        if (!accepted) {
             logger.error("Rejected notification for ip '{}'", ipAddress);
             return forbiddenErrorResponse();
         }
@@ -79,7 +100,11 @@ public class NotificationResource {
     @Path("/v1/api/notifications/epdq")
     @Produces({TEXT_XML, APPLICATION_JSON})
     public Response authoriseEpdqNotifications(String notification) {
-        epdqNotificationService.handleNotificationFor(notification);
+        if (notificationInboxService.isEnabled()) {
+            notificationInboxService.store(EPDQ, notification);
+        } else {
+            epdqNotificationService.handleNotificationFor(notification);
+        }
         String response = "[OK]";
         logger.info("Responding to notification from provider={} with 200 {}", "epdq", response);
         return Response.ok(response).build();
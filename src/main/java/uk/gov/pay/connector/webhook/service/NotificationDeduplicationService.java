@@ -0,0 +1,161 @@
+package uk.gov.pay.connector.webhook.service;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.google.common.hash.Hashing;
+import com.google.inject.persist.Transactional;
+import io.dropwizard.setup.Environment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.pay.connector.app.ConnectorConfiguration;
+import uk.gov.pay.connector.app.NotificationDeduplicationConfig;
+import uk.gov.pay.connector.gateway.PaymentGatewayName;
+import uk.gov.pay.connector.webhook.dao.NotificationFingerprintDao;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.time.Clock;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.time.temporal.ChronoUnit.MILLIS;
+
+/**
+ * Recognises gateway notifications that have already been applied, so redeliveries can be acknowledged without
+ * looking up the charge or attempting a state transition that is bound to fail.
+ * <p>
+ * A notification is identified by its gateway, transaction ID, status and event date. Once applied, a fingerprint of
+ * those is recorded in the notification_fingerprints table in the same transaction, and added to an in-memory bloom
+ * filter. A notification the filter has never seen is new; one it might have seen is confirmed against the table, so
+ * a false positive, or a fingerprint whose transaction was rolled back, costs a query but never suppresses anything.
+ * Until the filter has been loaded every lookup goes to the table. Records older than the retention period are
+ * deleted, and the filter rebuilt from the rest, at startup and then periodically, so neither grows without bound.
+ * <p>
+ * Only notifications that changed something are recorded, so one that arrived too early to be applied is still
+ * processed when it is redelivered. The filter only knows about notifications applied by this instance since it was
+ * loaded, so a redelivery handled by another instance is processed as before and rejected by the charge state
+ * machine.
+ */
+@Singleton
+public class NotificationDeduplicationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDeduplicationService.class);
+
+    private final NotificationFingerprintDao notificationFingerprintDao;
+    private final NotificationDeduplicationConfig config;
+    private final MetricRegistry metricRegistry;
+    private final Clock clock;
+    private final Counter falsePositives;
+    private volatile BloomFilter<CharSequence> filter;
+    private volatile BloomFilter<CharSequence> nextFilter;
+    private volatile boolean filterLoaded = false;
+
+    @Inject
+    public NotificationDeduplicationService(NotificationFingerprintDao notificationFingerprintDao,
+                                            ConnectorConfiguration configuration,
+                                            Environment environment) {
+        this(notificationFingerprintDao, configuration.getNotificationDeduplicationConfig(), environment.metrics(), Clock.systemUTC());
+    }
+
+    public NotificationDeduplicationService(NotificationFingerprintDao notificationFingerprintDao,
+                                            NotificationDeduplicationConfig config,
+                                            MetricRegistry metricRegistry,
+                                            Clock clock) {
+        this.notificationFingerprintDao = notificationFingerprintDao;
+        this.config = config;
+        this.metricRegistry = metricRegistry;
+        this.clock = clock;
+        this.filter = newFilter();
+        this.falsePositives = metricRegistry.counter("notification-deduplication.filter.false-positives");
+        metricRegistry.gauge("notification-deduplication.filter.expected-fpp", () -> (Gauge<Double>) () -> filter.expectedFpp());
+    }
+
+    public boolean isDuplicate(PaymentGatewayName gateway, String transactionId, String status, ZonedDateTime eventDate) {
+        if (!config.isEnabled()) {
+            return false;
+        }
+
+        String fingerprint = fingerprint(gateway, transactionId, status, eventDate);
+        if (filterLoaded && !filter.mightContain(fingerprint)) {
+            return false;
+        }
+
+        if (!notificationFingerprintDao.exists(fingerprint)) {
+            if (filterLoaded) {
+                falsePositives.inc();
+            }
+            return false;
+        }
+
+        metricRegistry.counter("notification-deduplication." + gateway.getName() + ".suppressed").inc();
+        logger.info("{} notification for transaction '{}' with status '{}' has already been applied, ignoring it",
+                gateway.getName(), transactionId, status);
+        return true;
+    }
+
+    @Transactional
+    public void recordApplied(PaymentGatewayName gateway, String transactionId, String status, ZonedDateTime eventDate) {
+        if (!config.isEnabled()) {
+            return;
+        }
+
+        String fingerprint = fingerprint(gateway, transactionId, status, eventDate);
+        notificationFingerprintDao.record(fingerprint, gateway, ZonedDateTime.now(clock));
+        BloomFilter<CharSequence> next = nextFilter;
+        filter.put(fingerprint);
+        if (next != null) {
+            next.put(fingerprint);
+        }
+    }
+
+    /**
+     * Drops records older than the retention period and replaces the filter with a new one filled with the rest, so
+     * fingerprints that have expired stop taking up room in it. Fingerprints recorded while this runs go into both
+     * filters, so none are missed.
+     */
+    @Transactional
+    public void loadFilter() {
+        if (!config.isEnabled()) {
+            return;
+        }
+
+        BloomFilter<CharSequence> next = newFilter();
+        nextFilter = next;
+        try {
+            ZonedDateTime cutoff = ZonedDateTime.now(clock).minus(config.getRetention().toMilliseconds(), MILLIS);
+            int deleted = notificationFingerprintDao.deleteRecordedBefore(cutoff);
+            List<String> fingerprints = notificationFingerprintDao.findFingerprintsRecordedSince(cutoff);
+            fingerprints.forEach(next::put);
+            filter = next;
+            filterLoaded = true;
+            logger.info("Loaded {} notification fingerprints into the deduplication filter, deleted {} older ones",
+                    fingerprints.size(), deleted);
+        } finally {
+            nextFilter = null;
+        }
+    }
+
+    private BloomFilter<CharSequence> newFilter() {
+        return BloomFilter.create(Funnels.unencodedCharsFunnel(),
+                config.getExpectedInsertions(), config.getFalsePositiveProbability());
+    }
+
+    /**
+     * 128 bits of a SHA-256 over the notification's identifying fields, rendered as 32 hex characters. The event
+     * date is normalised to an instant so the same event reported with different offsets matches.
+     */
+    static String fingerprint(PaymentGatewayName gateway, String transactionId, String status, ZonedDateTime eventDate) {
+        String hash = Hashing.sha256().newHasher()
+                .putString(gateway.getName(), UTF_8).putByte((byte) 0)
+                .putString(String.valueOf(transactionId), UTF_8).putByte((byte) 0)
+                .putString(String.valueOf(status), UTF_8).putByte((byte) 0)
+                .putString(eventDate == null ? "" : eventDate.toInstant().toString(), UTF_8)
+                .hash()
+                .toString();
+        return hash.substring(0, 32);
+    }
+}
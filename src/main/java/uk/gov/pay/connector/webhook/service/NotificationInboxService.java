@@ -0,0 +1,166 @@
+package uk.gov.pay.connector.webhook.service;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.inject.persist.Transactional;
+import io.dropwizard.setup.Environment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.pay.connector.app.ConnectorConfiguration;
+import uk.gov.pay.connector.app.NotificationInboxConfig;
+import uk.gov.pay.connector.gateway.PaymentGatewayName;
+import uk.gov.pay.connector.gateway.epdq.EpdqNotificationService;
+import uk.gov.pay.connector.gateway.smartpay.SmartpayNotificationService;
+import uk.gov.pay.connector.gateway.worldpay.WorldpayNotificationService;
+import uk.gov.pay.connector.webhook.dao.NotificationInboxDao;
+import uk.gov.pay.connector.webhook.model.NotificationInboxEntity;
+import uk.gov.pay.connector.webhook.model.NotificationInboxStatus;
+
+import javax.inject.Inject;
+import java.time.Clock;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static java.time.temporal.ChronoUnit.MILLIS;
+
+/**
+ * Stores verified gateway notifications in the notification_inbox table so they can be acknowledged straight away,
+ * and applies them later from {@link uk.gov.pay.connector.webhook.managed.NotificationInboxWorker}.
+ * <p>
+ * Each notification is applied in one transaction together with marking it processed, so a worker that dies part way
+ * through leaves it pending and it is replayed from scratch once its lease expires. The row is locked while it is
+ * applied, so a worker still running past its lease cannot apply it a second time alongside the one that took over.
+ */
+public class NotificationInboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationInboxService.class);
+
+    private final NotificationInboxDao notificationInboxDao;
+    private final WorldpayNotificationService worldpayNotificationService;
+    private final EpdqNotificationService epdqNotificationService;
+    private final SmartpayNotificationService smartpayNotificationService;
+    private final NotificationInboxConfig config;
+    private final MetricRegistry metricRegistry;
+    private final Clock clock;
+
+    @Inject
+    public NotificationInboxService(NotificationInboxDao notificationInboxDao,
+                                    WorldpayNotificationService worldpayNotificationService,
+                                    EpdqNotificationService epdqNotificationService,
+                                    SmartpayNotificationService smartpayNotificationService,
+                                    ConnectorConfiguration configuration,
+                                    Environment environment) {
+        this(notificationInboxDao, worldpayNotificationService, epdqNotificationService, smartpayNotificationService,
+                configuration.getNotificationInboxConfig(), environment.metrics(), Clock.systemUTC());
+    }
+
+    public NotificationInboxService(NotificationInboxDao notificationInboxDao,
+                                    WorldpayNotificationService worldpayNotificationService,
+                                    EpdqNotificationService epdqNotificationService,
+                                    SmartpayNotificationService smartpayNotificationService,
+                                    NotificationInboxConfig config,
+                                    MetricRegistry metricRegistry,
+                                    Clock clock) {
+        this.notificationInboxDao = notificationInboxDao;
+        this.worldpayNotificationService = worldpayNotificationService;
+        this.epdqNotificationService = epdqNotificationService;
+        this.smartpayNotificationService = smartpayNotificationService;
+        this.config = config;
+        this.metricRegistry = metricRegistry;
+        this.clock = clock;
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * A Smartpay notification can carry items for several transactions, so it is stored as one notification per
+     * transaction and each is ordered with the other notifications for its own transaction.
+     */
+    @Transactional
+    public void store(PaymentGatewayName gateway, String payload) {
+        if (gateway == PaymentGatewayName.SMARTPAY) {
+            smartpayNotificationService.splitByTransaction(payload).forEach(part -> storeOne(gateway, part));
+        } else {
+            storeOne(gateway, payload);
+        }
+    }
+
+    private void storeOne(PaymentGatewayName gateway, String payload) {
+        String orderingKey = transactionIdFor(gateway, payload)
+                .map(transactionId -> gateway.getName() + ":" + transactionId)
+                .orElse(null);
+        NotificationInboxEntity notification = new NotificationInboxEntity(gateway, payload, orderingKey, now());
+        notificationInboxDao.persist(notification);
+        metricRegistry.counter("notification-inbox." + gateway.getName() + ".received").inc();
+        logger.info("Stored {} notification {} in inbox", gateway.getName(), notification.getId());
+    }
+
+    public List<Long> claimNextBatch() {
+        ZonedDateTime now = now();
+        return notificationInboxDao.claimNextBatch(config.getBatchSize(), now, now.plus(config.getLeaseDuration().toMilliseconds(), MILLIS));
+    }
+
+    @Transactional
+    public void process(Long notificationId) {
+        Optional<NotificationInboxEntity> maybeNotification = notificationInboxDao.findByIdForUpdate(notificationId);
+        if (!maybeNotification.isPresent() || maybeNotification.get().getStatus() != NotificationInboxStatus.PENDING) {
+            return;
+        }
+
+        NotificationInboxEntity notification = maybeNotification.get();
+        switch (notification.getGateway()) {
+            case WORLDPAY:
+                worldpayNotificationService.handleVerifiedNotificationFor(notification.getPayload());
+                break;
+            case EPDQ:
+                epdqNotificationService.handleNotificationFor(notification.getPayload());
+                break;
+            case SMARTPAY:
+                smartpayNotificationService.handleNotificationFor(notification.getPayload());
+                break;
+            default:
+                logger.error("Notification {} in inbox is for unsupported gateway {}", notificationId, notification.getGateway());
+        }
+
+        ZonedDateTime now = now();
+        notification.markProcessed(now);
+        metricRegistry.timer("notification-inbox." + notification.getGateway().getName() + ".processing-lag")
+                .update(notification.getReceivedDate().until(now, MILLIS), TimeUnit.MILLISECONDS);
+    }
+
+    @Transactional
+    public void recordFailure(Long notificationId) {
+        notificationInboxDao.findByIdForUpdate(notificationId).ifPresent(notification -> {
+            String gatewayName = notification.getGateway().getName();
+            if (notification.getAttempts() >= config.getMaximumAttempts()) {
+                logger.error("Giving up on {} notification {} after {} attempts", gatewayName, notificationId, notification.getAttempts());
+                notification.markFailed(now());
+                metricRegistry.counter("notification-inbox." + gatewayName + ".failed").inc();
+            } else {
+                long delayMillis = config.getRetryDelay().toMilliseconds() * notification.getAttempts();
+                notification.retryAfter(now().plus(delayMillis, MILLIS));
+                metricRegistry.counter("notification-inbox." + gatewayName + ".retried").inc();
+            }
+        });
+    }
+
+    private Optional<String> transactionIdFor(PaymentGatewayName gateway, String payload) {
+        switch (gateway) {
+            case WORLDPAY:
+                return worldpayNotificationService.transactionIdFor(payload);
+            case EPDQ:
+                return epdqNotificationService.transactionIdFor(payload);
+            case SMARTPAY:
+                return smartpayNotificationService.transactionIdFor(payload);
+            default:
+                return Optional.empty();
+        }
+    }
+
+    private ZonedDateTime now() {
+        return ZonedDateTime.now(clock);
+    }
+}
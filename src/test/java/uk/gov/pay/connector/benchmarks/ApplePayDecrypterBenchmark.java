@@ -0,0 +1,77 @@
+package uk.gov.pay.connector.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import uk.gov.pay.connector.app.ApplePayConfig;
+import uk.gov.pay.connector.app.ConnectorConfiguration;
+import uk.gov.pay.connector.app.WorldpayConfig;
+import uk.gov.pay.connector.wallets.applepay.AppleDecryptedPaymentData;
+import uk.gov.pay.connector.wallets.applepay.ApplePayDecrypter;
+import uk.gov.pay.connector.wallets.applepay.api.ApplePayAuthRequest;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static uk.gov.pay.connector.model.domain.applepay.ApplePayKeysFixture.ENCODED_PRIVATE_KEY;
+import static uk.gov.pay.connector.model.domain.applepay.ApplePayKeysFixture.ENCODED_PUBLIC_CERTIFICATE;
+import static uk.gov.pay.connector.wallets.applepay.ApplePayAuthRequestBuilder.anApplePayToken;
+
+/**
+ * Latency of decrypting an Apple Pay token on the wallet authorisation path.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=uk.gov.pay.connector.benchmarks.ApplePayDecrypterBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class ApplePayDecrypterBenchmark {
+
+    private ApplePayDecrypter applePayDecrypter;
+    private ApplePayAuthRequest applePayAuthRequest;
+
+    @Setup
+    public void setUp() throws IOException {
+        ConnectorConfiguration configuration = mock(ConnectorConfiguration.class);
+        WorldpayConfig worldpayConfig = mock(WorldpayConfig.class);
+        ApplePayConfig applePayConfig = mock(ApplePayConfig.class);
+        when(configuration.getWorldpayConfig()).thenReturn(worldpayConfig);
+        when(worldpayConfig.getApplePayConfig()).thenReturn(applePayConfig);
+        when(applePayConfig.getPrivateKey()).thenReturn(ENCODED_PRIVATE_KEY);
+        when(applePayConfig.getPublicCertificate()).thenReturn(ENCODED_PUBLIC_CERTIFICATE);
+
+        applePayDecrypter = new ApplePayDecrypter(configuration, new ObjectMapper());
+        applePayAuthRequest = anApplePayToken().build();
+    }
+
+    @Benchmark
+    public AppleDecryptedPaymentData decrypt() {
+        return applePayDecrypter.performDecryptOperation(applePayAuthRequest);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ApplePayDecrypterBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,126 @@
+package uk.gov.pay.connector.benchmarks;
+
+import org.apache.http.client.utils.URLEncodedUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import uk.gov.pay.connector.common.model.domain.Address;
+import uk.gov.pay.connector.gateway.epdq.EpdqOrderRequestBuilder.EpdqTemplateData;
+import uk.gov.pay.connector.gateway.epdq.EpdqSha512SignatureGenerator;
+import uk.gov.pay.connector.gateway.epdq.payload.EpdqPayloadDefinition;
+import uk.gov.pay.connector.gateway.epdq.payload.EpdqPayloadDefinitionForMaintenanceOrder;
+import uk.gov.pay.connector.gateway.epdq.payload.EpdqPayloadDefinitionForNewOrder;
+
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+import static uk.gov.pay.connector.gateway.epdq.EpdqSignedPayloadDefinition.EpdqSignedPayloadDefinitionFactory.anEpdqSignedPayloadDefinitionFactory;
+import static uk.gov.pay.connector.model.domain.AuthCardDetailsFixture.anAuthCardDetails;
+
+/**
+ * Throughput of signing and form-urlencoding the ePDQ authorise, capture, cancel and refund payloads, both in one
+ * pass and by formatting the signed parameter list.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=uk.gov.pay.connector.benchmarks.EpdqPayloadBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class EpdqPayloadBenchmark {
+
+    private static final Charset CHARSET = Charset.forName("windows-1252");
+
+    private final EpdqPayloadDefinition newOrder = anEpdqSignedPayloadDefinitionFactory(new EpdqSha512SignatureGenerator())
+            .create(new EpdqPayloadDefinitionForNewOrder());
+    private final EpdqPayloadDefinition maintenanceOrder = anEpdqSignedPayloadDefinitionFactory(new EpdqSha512SignatureGenerator())
+            .create(new EpdqPayloadDefinitionForMaintenanceOrder());
+
+    private EpdqTemplateData authoriseData;
+    private EpdqTemplateData captureData;
+    private EpdqTemplateData cancelData;
+    private EpdqTemplateData refundData;
+
+    @Setup
+    public void setUp() {
+        authoriseData = templateData("RES");
+        authoriseData.setOrderId("mq4ht90j2oir6am585afk58kml");
+        authoriseData.setAmount("500");
+        authoriseData.setAuthCardDetails(anAuthCardDetails()
+                .withCardHolder("Mr Payment Ünïcode")
+                .withAddress(new Address("41 Scala Street", "Flat 2", "DO11 4RS", "London", null, "GB"))
+                .build());
+
+        captureData = templateData("SAS");
+        captureData.setTransactionId("3014644340");
+
+        cancelData = templateData("DES");
+        cancelData.setTransactionId("3014644340");
+
+        refundData = templateData("RFD");
+        refundData.setTransactionId("3014644340");
+        refundData.setAmount("400");
+    }
+
+    @Benchmark
+    public String authoriseOnePass() {
+        return newOrder.formEncode(authoriseData, CHARSET);
+    }
+
+    @Benchmark
+    public String authoriseSignedParameterList() {
+        return URLEncodedUtils.format(newOrder.extract(authoriseData), CHARSET);
+    }
+
+    @Benchmark
+    public String captureOnePass() {
+        return maintenanceOrder.formEncode(captureData, CHARSET);
+    }
+
+    @Benchmark
+    public String cancelOnePass() {
+        return maintenanceOrder.formEncode(cancelData, CHARSET);
+    }
+
+    @Benchmark
+    public String refundOnePass() {
+        return maintenanceOrder.formEncode(refundData, CHARSET);
+    }
+
+    @Benchmark
+    public String refundSignedParameterList() {
+        return URLEncodedUtils.format(maintenanceOrder.extract(refundData), CHARSET);
+    }
+
+    private static EpdqTemplateData templateData(String operationType) {
+        EpdqTemplateData templateData = new EpdqTemplateData();
+        templateData.setOperationType(operationType);
+        templateData.setMerchantCode("merchant-id");
+        templateData.setUserId("username");
+        templateData.setPassword("password");
+        templateData.setShaInPassphrase("sha-passphrase");
+        return templateData;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EpdqPayloadBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,70 @@
+package uk.gov.pay.connector.benchmarks;
+
+import com.codahale.metrics.MetricRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import uk.gov.pay.connector.app.NotificationCredentialsCacheConfig;
+import uk.gov.pay.connector.gateway.smartpay.auth.VerifiedCredentialsCache;
+import uk.gov.pay.connector.util.HashUtil;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Smartpay notifications authenticated per second on a single core, with and without the verified credentials
+ * cache. The uncached figure is bounded by one bcrypt check per notification.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=uk.gov.pay.connector.benchmarks.NotificationCredentialsBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+public class NotificationCredentialsBenchmark {
+
+    private static final Long GATEWAY_ACCOUNT_ID = 1L;
+    private static final String USERNAME = "smartpay-notifications";
+    private static final String PASSWORD = "correct horse battery staple";
+
+    private final HashUtil hashUtil = new HashUtil();
+    private VerifiedCredentialsCache verifiedCredentialsCache;
+    private String hashedPassword;
+
+    @Setup
+    public void setUp() {
+        hashedPassword = hashUtil.hash(PASSWORD);
+        verifiedCredentialsCache = new VerifiedCredentialsCache(new NotificationCredentialsCacheConfig(), hashUtil, new MetricRegistry());
+    }
+
+    @Benchmark
+    public boolean cachedCheck() {
+        return verifiedCredentialsCache.check(GATEWAY_ACCOUNT_ID, USERNAME, PASSWORD, hashedPassword);
+    }
+
+    @Benchmark
+    public boolean bcryptCheck() {
+        return hashUtil.check(PASSWORD, hashedPassword);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(NotificationCredentialsBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,97 @@
+package uk.gov.pay.connector.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import uk.gov.pay.connector.common.model.domain.Address;
+import uk.gov.pay.connector.gateway.smartpay.SmartpayOrderRequestBuilder;
+import uk.gov.pay.connector.gateway.smartpay.SmartpayOrderRequestBuilder.SmartpayTemplateData;
+import uk.gov.pay.connector.gateway.templates.TemplateBuilder;
+import uk.gov.pay.connector.gateway.worldpay.WorldpayOrderRequestBuilder;
+import uk.gov.pay.connector.gateway.worldpay.WorldpayOrderRequestBuilder.WorldpayTemplateData;
+
+import java.util.concurrent.TimeUnit;
+
+import static uk.gov.pay.connector.model.domain.AuthCardDetailsFixture.anAuthCardDetails;
+
+/**
+ * Throughput of building authorisation request payloads with the FreeMarker templates and with the precompiled
+ * builders that replaced them.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=uk.gov.pay.connector.benchmarks.PayloadBuilderBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class PayloadBuilderBenchmark {
+
+    private final TemplateBuilder worldpayAuthoriseTemplate = new TemplateBuilder("/worldpay/WorldpayAuthoriseOrderTemplate.xml");
+    private final TemplateBuilder smartpayAuthoriseTemplate = new TemplateBuilder("/smartpay/SmartpayAuthoriseOrderTemplate.xml");
+
+    private WorldpayTemplateData worldpayData;
+    private SmartpayTemplateData smartpayData;
+
+    @Setup
+    public void setUp() {
+        Address address = new Address("123 My Street", "This road", "SW8URR", "London", "London county", "GB");
+
+        worldpayData = new WorldpayTemplateData();
+        worldpayData.setMerchantCode("MERCHANTCODE");
+        worldpayData.setTransactionId("MyUniqueTransactionId!");
+        worldpayData.setDescription("This is the description");
+        worldpayData.setAmount("500");
+        worldpayData.setSessionId("uniqueSessionId");
+        worldpayData.setRequires3ds(true);
+        worldpayData.setAuthCardDetails(anAuthCardDetails().withAddress(address).build());
+
+        smartpayData = new SmartpayTemplateData();
+        smartpayData.setMerchantCode("MERCHANTCODE");
+        smartpayData.setPaymentPlatformReference("MyPlatformReference");
+        smartpayData.setDescription("This is the description");
+        smartpayData.setAmount("500");
+        smartpayData.setAuthCardDetails(anAuthCardDetails().withAddress(address).build());
+    }
+
+    @Benchmark
+    public String worldpayAuthoriseTemplate() {
+        return worldpayAuthoriseTemplate.buildWith(worldpayData);
+    }
+
+    @Benchmark
+    public String worldpayAuthorisePrecompiled() {
+        return WorldpayOrderRequestBuilder.AUTHORISE_ORDER_TEMPLATE_BUILDER.buildWith(worldpayData);
+    }
+
+    @Benchmark
+    public String smartpayAuthoriseTemplate() {
+        return smartpayAuthoriseTemplate.buildWith(smartpayData);
+    }
+
+    @Benchmark
+    public String smartpayAuthorisePrecompiled() {
+        return SmartpayOrderRequestBuilder.AUTHORISE_ORDER_TEMPLATE_BUILDER.buildWith(smartpayData);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PayloadBuilderBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,76 @@
+package uk.gov.pay.connector.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import uk.gov.pay.connector.gateway.smartpay.SmartpayAuthorisationResponse;
+import uk.gov.pay.connector.gateway.smartpay.SmartpayCaptureResponse;
+import uk.gov.pay.connector.gateway.util.XMLUnmarshaller;
+import uk.gov.pay.connector.gateway.worldpay.WorldpayOrderStatusResponse;
+
+import java.util.concurrent.TimeUnit;
+
+import static uk.gov.pay.connector.util.TestTemplateResourceLoader.SMARTPAY_AUTHORISATION_SUCCESS_RESPONSE;
+import static uk.gov.pay.connector.util.TestTemplateResourceLoader.SMARTPAY_CAPTURE_SUCCESS_RESPONSE;
+import static uk.gov.pay.connector.util.TestTemplateResourceLoader.WORLDPAY_AUTHORISATION_SUCCESS_RESPONSE;
+import static uk.gov.pay.connector.util.TestTemplateResourceLoader.load;
+
+/**
+ * Throughput of unmarshalling the gateway responses on the authorisation and capture paths.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=uk.gov.pay.connector.benchmarks.XMLUnmarshallerBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class XMLUnmarshallerBenchmark {
+
+    private String worldpayAuthorisationResponse;
+    private String smartpayAuthorisationResponse;
+    private String smartpayCaptureResponse;
+
+    @Setup
+    public void setUp() {
+        worldpayAuthorisationResponse = load(WORLDPAY_AUTHORISATION_SUCCESS_RESPONSE);
+        smartpayAuthorisationResponse = load(SMARTPAY_AUTHORISATION_SUCCESS_RESPONSE).replace("{{pspReference}}", "7914435254138158");
+        smartpayCaptureResponse = load(SMARTPAY_CAPTURE_SUCCESS_RESPONSE);
+    }
+
+    @Benchmark
+    public WorldpayOrderStatusResponse worldpayOrderStatusResponse() throws Exception {
+        return XMLUnmarshaller.unmarshall(worldpayAuthorisationResponse, WorldpayOrderStatusResponse.class);
+    }
+
+    @Benchmark
+    public SmartpayAuthorisationResponse smartpayAuthorisationResponse() throws Exception {
+        return XMLUnmarshaller.unmarshall(smartpayAuthorisationResponse, SmartpayAuthorisationResponse.class);
+    }
+
+    @Benchmark
+    public SmartpayCaptureResponse smartpayCaptureResponse() throws Exception {
+        return XMLUnmarshaller.unmarshall(smartpayCaptureResponse, SmartpayCaptureResponse.class);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(XMLUnmarshallerBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,76 @@
+package uk.gov.pay.connector.cardtype.service;
+
+import com.google.inject.persist.UnitOfWork;
+import io.dropwizard.jackson.Jackson;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import uk.gov.pay.connector.cardtype.dao.CardTypeDao;
+import uk.gov.pay.connector.cardtype.model.domain.CardTypeEntity;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.pay.connector.cardtype.dao.CardTypeEntityBuilder.aCardTypeEntity;
+import static uk.gov.pay.connector.cardtype.model.domain.CardTypeEntity.SupportedType.CREDIT;
+import static uk.gov.pay.connector.cardtype.model.domain.CardTypeEntity.SupportedType.DEBIT;
+
+public class CardTypeIndexTest {
+
+    private final CardTypeDao cardTypeDao = mock(CardTypeDao.class);
+    private final UnitOfWork unitOfWork = mock(UnitOfWork.class);
+    private final CardTypeEntity maestro = aCardTypeEntity().withBrand("maestro").withType(DEBIT).withRequires3ds(true).build();
+    private final CardTypeEntity visaCredit = aCardTypeEntity().withBrand("visa").withType(CREDIT).build();
+    private final CardTypeEntity visaDebit = aCardTypeEntity().withBrand("visa").withType(DEBIT).build();
+    private CardTypeIndex cardTypeIndex;
+
+    @Before
+    public void setUp() {
+        when(cardTypeDao.findAll()).thenReturn(List.of(maestro, visaCredit, visaDebit));
+        cardTypeIndex = new CardTypeIndex(cardTypeDao, unitOfWork, Jackson.newObjectMapper());
+        cardTypeIndex.refresh();
+    }
+
+    @Test
+    public void shouldAnswerLookupsFromASingleLoad() {
+        assertThat(cardTypeIndex.brandRequires3ds("maestro"), is(true));
+        assertThat(cardTypeIndex.brandRequires3ds("visa"), is(false));
+        assertThat(cardTypeIndex.brandRequires3ds("unknown"), is(false));
+        assertThat(cardTypeIndex.contains(visaCredit.getId()), is(true));
+
+        verify(cardTypeDao, times(1)).findAll();
+    }
+
+    @Test
+    public void shouldLoadTheCardTypesInAUnitOfWorkOfItsOwn() {
+        InOrder inOrder = inOrder(unitOfWork, cardTypeDao);
+        inOrder.verify(unitOfWork).begin();
+        inOrder.verify(cardTypeDao).findAll();
+        inOrder.verify(unitOfWork).end();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRefuseLookupsBeforeItIsLoaded() {
+        new CardTypeIndex(cardTypeDao, unitOfWork, Jackson.newObjectMapper()).contains(visaCredit.getId());
+    }
+
+    @Test
+    public void shouldChangeTheETagOnlyWhenTheCardTypesChange() {
+        String eTag = cardTypeIndex.getETag();
+
+        cardTypeIndex.refresh();
+        assertThat(cardTypeIndex.getETag(), is(eTag));
+
+        when(cardTypeDao.findAll()).thenReturn(List.of(maestro, visaCredit));
+        cardTypeIndex.refresh();
+        assertThat(cardTypeIndex.getETag(), is(not(eTag)));
+        assertThat(cardTypeIndex.contains(visaDebit.getId()), is(false));
+    }
+}
@@ -4,23 +4,40 @@ import io.dropwizard.testing.junit.ResourceTestRule;
 import org.junit.ClassRule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import uk.gov.pay.connector.app.ConnectorConfiguration;
 import uk.gov.pay.connector.cardtype.dao.CardTypeDao;
 import uk.gov.pay.connector.charge.dao.ChargeDao;
 import uk.gov.pay.connector.charge.service.ChargeService;
+import uk.gov.pay.connector.charge.service.ChargeStatusWatcher;
+import uk.gov.pay.connector.charge.service.FrontendChargeCache;
 import uk.gov.pay.connector.rules.ResourceTestRuleWithCustomExceptionMappersBuilder;
 
 import javax.ws.rs.client.Entity;
+import javax.ws.rs.container.AsyncResponse;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+import java.net.URI;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
 public class ChargesFrontendResourceTest {
@@ -30,12 +47,27 @@ public class ChargesFrontendResourceTest {
     private static  ChargeDao chargeDao;
     @Mock
     private static CardTypeDao cardTypeDao;
+    @Mock
+    private static FrontendChargeCache frontendChargeCache;
+    @Mock
+    private static ChargeStatusWatcher chargeStatusWatcher;
     
     @ClassRule
     public static ResourceTestRule resources = ResourceTestRuleWithCustomExceptionMappersBuilder.getBuilder()
-            .addResource(new ChargesFrontendResource(chargeDao, chargeService, cardTypeDao))
+            .addResource(new ChargesFrontendResource(chargeDao, chargeService, cardTypeDao, frontendChargeCache,
+                    chargeStatusWatcher, new ConnectorConfiguration()))
             .build();
 
+    @Test
+    public void awaitAuthorisation_shouldRespondStraightAwayWhenTimeoutIsZero() {
+        assertRespondsStraightAwayForTimeout(0L);
+    }
+
+    @Test
+    public void awaitAuthorisation_shouldRespondStraightAwayWhenTimeoutIsNegative() {
+        assertRespondsStraightAwayForTimeout(-5L);
+    }
+
     @Test
     public void shouldReturn400_whenPutToChargeStatus_emptyPayload() {
         Response response = resources.client()
@@ -79,4 +111,22 @@ public class ChargesFrontendResourceTest {
         assertThat(listOfErrors.size(), is(1));
         assertThat(listOfErrors, hasItem("invalid new status"));
     }
+
+    private void assertRespondsStraightAwayForTimeout(Long timeoutInSeconds) {
+        ChargesFrontendResource resource = new ChargesFrontendResource(chargeDao, chargeService, cardTypeDao,
+                frontendChargeCache, chargeStatusWatcher, new ConnectorConfiguration());
+        URI baseUri = URI.create("http://connector.internal/");
+        UriInfo uriInfo = mock(UriInfo.class);
+        when(uriInfo.getBaseUri()).thenReturn(baseUri);
+        when(frontendChargeCache.get(eq("charge-id"), eq(baseUri), any(), any())).thenReturn(Optional.of("{}".getBytes(UTF_8)));
+        AsyncResponse asyncResponse = mock(AsyncResponse.class);
+
+        resource.awaitAuthorisation("charge-id", timeoutInSeconds, uriInfo, asyncResponse);
+
+        ArgumentCaptor<Object> response = ArgumentCaptor.forClass(Object.class);
+        verify(asyncResponse).resume(response.capture());
+        assertThat(((Response) response.getValue()).getStatus(), is(200));
+        verify(asyncResponse, never()).setTimeout(anyLong(), any());
+        verifyZeroInteractions(chargeStatusWatcher);
+    }
 }
@@ -82,6 +82,7 @@ import static org.mockito.Mockito.when;
 import static uk.gov.pay.connector.charge.model.ChargeResponse.ChargeResponseBuilder;
 import static uk.gov.pay.connector.charge.model.ChargeResponse.aChargeResponseBuilder;
 import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.AUTHORISATION_READY;
+import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.AUTHORISATION_SUCCESS;
 import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.AWAITING_CAPTURE_REQUEST;
 import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.CAPTURED;
 import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.CREATED;
@@ -131,6 +132,8 @@ public class ChargeServiceTest {
     private PaymentProvider mockedPaymentProvider;
     @Mock
     private EventQueue mockedEventQueue;
+    @Mock
+    private FrontendChargeCache mockedFrontendChargeCache;
 
     @Mock
     private StateTransitionQueue mockedStateTransitionQueue;
@@ -180,7 +183,7 @@ public class ChargeServiceTest {
         when(mockedConfig.getEmitPaymentStateTransitionEvents()).thenReturn(true);
 
         service = new ChargeService(mockedTokenDao, mockedChargeDao, mockedChargeEventDao,
-                mockedCardTypeDao, mockedGatewayAccountDao, mockedConfig, mockedProviders, mockedStateTransitionQueue, mockedEventQueue);
+                mockedCardTypeDao, mockedGatewayAccountDao, mockedConfig, mockedProviders, mockedStateTransitionQueue, mockedEventQueue, mockedFrontendChargeCache);
     }
 
     @Test
@@ -614,6 +617,18 @@ public class ChargeServiceTest {
 
     }
 
+    @Test
+    public void shouldInvalidateFrontendChargeCache_whenTransitioningChargeState() {
+        ChargeEntity charge = aValidChargeEntity()
+                .withGatewayAccountEntity(gatewayAccount)
+                .withStatus(CREATED)
+                .build();
+
+        service.transitionChargeState(charge, ENTERING_CARD_DETAILS);
+
+        verify(mockedFrontendChargeCache).invalidate(charge.getExternalId());
+    }
+
     @Test
     public void shouldFindChargeWithCaptureUrlAndNoNextUrl_whenChargeInAwaitingCaptureRequest() throws Exception {
         Long chargeId = 101L;
@@ -0,0 +1,93 @@
+package uk.gov.pay.connector.charge.service;
+
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+import uk.gov.pay.connector.app.FrontendChargeCacheConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.AUTHORISATION_READY;
+import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.AUTHORISATION_SUBMITTED;
+import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.AUTHORISATION_SUCCESS;
+import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.ENTERING_CARD_DETAILS;
+
+public class ChargeStatusWatcherTest {
+
+    private static final String CHARGE_ID = "charge-id";
+
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+    private FrontendChargeCache frontendChargeCache;
+    private ChargeStatusWatcher chargeStatusWatcher;
+
+    @Before
+    public void setUp() {
+        frontendChargeCache = new FrontendChargeCache(new FrontendChargeCacheConfig(), new ObjectMapper(), metricRegistry);
+        chargeStatusWatcher = new ChargeStatusWatcher(frontendChargeCache, Runnable::run, metricRegistry);
+    }
+
+    @Test
+    public void shouldCompleteWaitersWhenTheChargeChanges() {
+        CompletableFuture<Void> first = chargeStatusWatcher.nextChange(CHARGE_ID);
+        CompletableFuture<Void> second = chargeStatusWatcher.nextChange(CHARGE_ID);
+        CompletableFuture<Void> other = chargeStatusWatcher.nextChange("other-charge-id");
+
+        frontendChargeCache.invalidate(CHARGE_ID);
+
+        assertThat(first.isDone(), is(true));
+        assertThat(second.isDone(), is(true));
+        assertThat(other.isDone(), is(false));
+        assertThat(waiting(), is(1));
+    }
+
+    @Test
+    public void shouldCompleteEachWaiterAsASeparateTask() {
+        List<Runnable> tasks = new ArrayList<>();
+        chargeStatusWatcher = new ChargeStatusWatcher(frontendChargeCache, tasks::add, new MetricRegistry());
+        CompletableFuture<Void> first = chargeStatusWatcher.nextChange(CHARGE_ID);
+        CompletableFuture<Void> second = chargeStatusWatcher.nextChange(CHARGE_ID);
+
+        chargeStatusWatcher.changed(CHARGE_ID);
+
+        assertThat(tasks.size(), is(2));
+        assertThat(first.isDone(), is(false));
+        tasks.forEach(Runnable::run);
+        assertThat(first.isDone(), is(true));
+        assertThat(second.isDone(), is(true));
+    }
+
+    @Test
+    public void shouldStopTrackingACancelledWaiter() {
+        chargeStatusWatcher.nextChange(CHARGE_ID).cancel(false);
+
+        assertThat(waiting(), is(0));
+    }
+
+    @Test
+    public void shouldCompleteEveryWaiterWhenChangesMayHaveBeenMissed() {
+        CompletableFuture<Void> first = chargeStatusWatcher.nextChange(CHARGE_ID);
+        CompletableFuture<Void> other = chargeStatusWatcher.nextChange("other-charge-id");
+
+        chargeStatusWatcher.changedAll();
+
+        assertThat(first.isDone(), is(true));
+        assertThat(other.isDone(), is(true));
+    }
+
+    @Test
+    public void shouldOnlyTreatAuthorisationInProgressAsAwaited() {
+        assertThat(ChargeStatusWatcher.isAwaitingAuthorisation(AUTHORISATION_READY), is(true));
+        assertThat(ChargeStatusWatcher.isAwaitingAuthorisation(AUTHORISATION_SUBMITTED), is(true));
+        assertThat(ChargeStatusWatcher.isAwaitingAuthorisation(ENTERING_CARD_DETAILS), is(false));
+        assertThat(ChargeStatusWatcher.isAwaitingAuthorisation(AUTHORISATION_SUCCESS), is(false));
+    }
+
+    private int waiting() {
+        return (Integer) metricRegistry.getGauges().get("charge-status-watcher.waiting").getValue();
+    }
+}
@@ -0,0 +1,236 @@
+package uk.gov.pay.connector.charge.service;
+
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.Before;
+import org.junit.Test;
+import uk.gov.pay.connector.app.FrontendChargeCacheConfig;
+import uk.gov.pay.connector.charge.model.domain.ChargeEntity;
+import uk.gov.pay.connector.gatewayaccount.model.GatewayAccountEntity;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static uk.gov.pay.connector.model.domain.ChargeEntityFixture.aValidChargeEntity;
+
+public class FrontendChargeCacheTest {
+
+    private static final String CHARGE_ID = "charge-id";
+    private static final String OTHER_CHARGE_ID = "other-charge-id";
+    private static final long GATEWAY_ACCOUNT_ID = 1L;
+    private static final long OTHER_GATEWAY_ACCOUNT_ID = 2L;
+    private static final URI BASE_URI = URI.create("http://connector.internal/");
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private FrontendChargeCache frontendChargeCache;
+    private FrontendChargeCache.AfterTransaction afterTransaction;
+
+    @Before
+    public void setUp() {
+        frontendChargeCache = new FrontendChargeCache(new FrontendChargeCacheConfig(), new ObjectMapper(), new MetricRegistry());
+        afterTransaction = new FrontendChargeCache.AfterTransaction(() -> frontendChargeCache);
+    }
+
+    @Test
+    public void shouldServeRepeatedRequestsFromCache() {
+        assertThat(get("CREATED"), is("{\"status\":\"CREATED\"}"));
+        assertThat(get("CAPTURED"), is("{\"status\":\"CREATED\"}"));
+        assertThat(loads.get(), is(1));
+    }
+
+    @Test
+    public void shouldNotCacheAChargeThatWasNotFound() {
+        frontendChargeCache.get(CHARGE_ID, BASE_URI, Optional::empty, charge -> Map.of("status", "CREATED"));
+
+        assertThat(get("CREATED"), is("{\"status\":\"CREATED\"}"));
+    }
+
+    @Test
+    public void shouldNotServeAnEntryBuiltForAnotherBaseUri() {
+        get("CREATED");
+
+        String json = new String(frontendChargeCache.get(CHARGE_ID, URI.create("http://elsewhere/"), this::load, view("AUTHORISATION READY")).get(), UTF_8);
+
+        assertThat(json, is("{\"status\":\"AUTHORISATION READY\"}"));
+    }
+
+    @Test
+    public void shouldReloadAfterInvalidation() {
+        get("CREATED");
+
+        frontendChargeCache.invalidate(CHARGE_ID);
+
+        assertThat(get("ENTERING CARD DETAILS"), is("{\"status\":\"ENTERING CARD DETAILS\"}"));
+    }
+
+    @Test
+    public void shouldNotCacheALoadThatOverlapsAnInvalidation() {
+        frontendChargeCache.get(CHARGE_ID, BASE_URI, () -> {
+            frontendChargeCache.invalidate(CHARGE_ID);
+            return load();
+        }, view("CREATED"));
+
+        assertThat(get("AUTHORISATION SUCCESS"), is("{\"status\":\"AUTHORISATION SUCCESS\"}"));
+    }
+
+    @Test
+    public void shouldInvalidateAgainWhenTheOutermostTransactionEnds() throws Throwable {
+        MethodInvocation outer = mock(MethodInvocation.class);
+        MethodInvocation inner = mock(MethodInvocation.class);
+        when(inner.proceed()).then(invocation -> {
+            frontendChargeCache.invalidate(CHARGE_ID);
+            // another request reads the charge before the transaction commits
+            assertThat(get("CREATED"), is("{\"status\":\"CREATED\"}"));
+            return null;
+        });
+        when(outer.proceed()).then(invocation -> afterTransaction.invoke(inner));
+
+        afterTransaction.invoke(outer);
+
+        assertThat(get("AUTHORISATION SUCCESS"), is("{\"status\":\"AUTHORISATION SUCCESS\"}"));
+    }
+
+    @Test
+    public void shouldTellChangeListenersOnceTheOutermostTransactionEnds() throws Throwable {
+        List<String> changed = new ArrayList<>();
+        frontendChargeCache.addChangeListener(changed::add);
+        MethodInvocation transaction = mock(MethodInvocation.class);
+        when(transaction.proceed()).then(invocation -> {
+            frontendChargeCache.invalidate(CHARGE_ID);
+            assertThat(changed, is(empty()));
+            return null;
+        });
+
+        afterTransaction.invoke(transaction);
+
+        assertThat(changed, contains(CHARGE_ID));
+    }
+
+    @Test
+    public void shouldPublishEachChangedChargeOnceInTheTransactionThatChangesIt() throws Throwable {
+        List<String> published = new ArrayList<>();
+        frontendChargeCache = publishingCache(published);
+        MethodInvocation transaction = mock(MethodInvocation.class);
+        when(transaction.proceed()).then(invocation -> {
+            frontendChargeCache.invalidate(CHARGE_ID);
+            frontendChargeCache.invalidate(CHARGE_ID);
+            assertThat(published, contains(CHARGE_ID));
+            return null;
+        });
+
+        afterTransaction.invoke(transaction);
+
+        assertThat(published, contains(CHARGE_ID));
+    }
+
+    @Test
+    public void shouldPublishAChangeMadeOutsideATransaction() {
+        List<String> published = new ArrayList<>();
+        frontendChargeCache = publishingCache(published);
+
+        frontendChargeCache.invalidate(CHARGE_ID);
+
+        assertThat(published, contains(CHARGE_ID));
+    }
+
+    @Test
+    public void shouldNotPublishAChangeFromAnotherNodeAgain() {
+        List<String> published = new ArrayList<>();
+        List<String> changed = new ArrayList<>();
+        frontendChargeCache = publishingCache(published);
+        frontendChargeCache.addChangeListener(changed::add);
+        get("CREATED");
+
+        frontendChargeCache.invalidateFromAnotherNode(CHARGE_ID);
+
+        assertThat(published, is(empty()));
+        assertThat(changed, contains(CHARGE_ID));
+        assertThat(get("ENTERING CARD DETAILS"), is("{\"status\":\"ENTERING CARD DETAILS\"}"));
+    }
+
+    @Test
+    public void shouldReloadEveryChargeAfterInvalidatingAll() {
+        get("CREATED");
+
+        frontendChargeCache.invalidateAll();
+
+        assertThat(get("ENTERING CARD DETAILS"), is("{\"status\":\"ENTERING CARD DETAILS\"}"));
+    }
+
+    @Test
+    public void shouldReloadTheChargesOfAGatewayAccountOnceItHasChanged() {
+        get("CREATED");
+        get(OTHER_CHARGE_ID, OTHER_GATEWAY_ACCOUNT_ID, "CREATED");
+
+        frontendChargeCache.invalidateAccount(GATEWAY_ACCOUNT_ID);
+
+        assertThat(get("ENTERING CARD DETAILS"), is("{\"status\":\"ENTERING CARD DETAILS\"}"));
+        assertThat(get(OTHER_CHARGE_ID, OTHER_GATEWAY_ACCOUNT_ID, "ENTERING CARD DETAILS"), is("{\"status\":\"CREATED\"}"));
+    }
+
+    @Test
+    public void shouldNotCacheALoadThatOverlapsAGatewayAccountChange() {
+        frontendChargeCache.get(CHARGE_ID, BASE_URI, () -> {
+            frontendChargeCache.invalidateAccount(GATEWAY_ACCOUNT_ID);
+            return load();
+        }, view("CREATED"));
+
+        assertThat(get("AUTHORISATION SUCCESS"), is("{\"status\":\"AUTHORISATION SUCCESS\"}"));
+    }
+
+    @Test
+    public void shouldDropTheChargesOfAChangedGatewayAccountAgainWhenTheOutermostTransactionEnds() throws Throwable {
+        MethodInvocation transaction = mock(MethodInvocation.class);
+        when(transaction.proceed()).then(invocation -> {
+            frontendChargeCache.invalidateAccount(GATEWAY_ACCOUNT_ID);
+            // another request reads the charge before the account change commits
+            assertThat(get("CREATED"), is("{\"status\":\"CREATED\"}"));
+            return null;
+        });
+
+        afterTransaction.invoke(transaction);
+
+        assertThat(get("AUTHORISATION SUCCESS"), is("{\"status\":\"AUTHORISATION SUCCESS\"}"));
+    }
+
+    private FrontendChargeCache publishingCache(List<String> published) {
+        return new FrontendChargeCache(new FrontendChargeCacheConfig(), new ObjectMapper(), new MetricRegistry(),
+                true, published::add);
+    }
+
+    private String get(String status) {
+        return get(CHARGE_ID, GATEWAY_ACCOUNT_ID, status);
+    }
+
+    private String get(String chargeId, long gatewayAccountId, String status) {
+        return new String(frontendChargeCache.get(chargeId, BASE_URI, () -> load(gatewayAccountId), view(status)).get(), UTF_8);
+    }
+
+    private Optional<ChargeEntity> load() {
+        return load(GATEWAY_ACCOUNT_ID);
+    }
+
+    private Optional<ChargeEntity> load(long gatewayAccountId) {
+        loads.incrementAndGet();
+        GatewayAccountEntity gatewayAccount = new GatewayAccountEntity();
+        gatewayAccount.setId(gatewayAccountId);
+        return Optional.of(aValidChargeEntity().withGatewayAccountEntity(gatewayAccount).build());
+    }
+
+    private static Function<ChargeEntity, ?> view(String status) {
+        return charge -> Map.of("status", status);
+    }
+}
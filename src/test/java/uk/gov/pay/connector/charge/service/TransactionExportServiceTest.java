@@ -0,0 +1,152 @@
+package uk.gov.pay.connector.charge.service;
+
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+import uk.gov.pay.connector.app.TransactionExportConfig;
+import uk.gov.pay.connector.charge.dao.SearchParams;
+import uk.gov.pay.connector.charge.dao.TransactionDao;
+import uk.gov.pay.connector.charge.model.ServicePaymentReference;
+import uk.gov.pay.connector.charge.model.domain.Transaction;
+
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriInfo;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.pay.connector.charge.model.ChargeResponse.aChargeResponseBuilder;
+import static uk.gov.pay.connector.charge.service.TransactionExportService.Format.CSV;
+import static uk.gov.pay.connector.charge.service.TransactionExportService.Format.NDJSON;
+
+public class TransactionExportServiceTest {
+
+    private static final long GATEWAY_ACCOUNT_ID = 1L;
+
+    private final TransactionDao transactionDao = mock(TransactionDao.class);
+    private final TransactionSearchStrategy transactionSearchStrategy = mock(TransactionSearchStrategy.class);
+    private final TransactionExportConfig config = mock(TransactionExportConfig.class);
+    private final UriInfo uriInfo = mock(UriInfo.class);
+    private final SearchParams params = new SearchParams().withGatewayAccountId(GATEWAY_ACCOUNT_ID);
+
+    private TransactionExportService transactionExportService;
+
+    @Before
+    public void setUp() {
+        when(config.getFetchSize()).thenReturn(100);
+        when(config.getMaximumConcurrentExports()).thenReturn(1);
+        transactionExportService = new TransactionExportService(transactionDao, transactionSearchStrategy, config,
+                new ObjectMapper(), new MetricRegistry());
+
+        Transaction first = mock(Transaction.class);
+        Transaction second = mock(Transaction.class);
+        when(transactionSearchStrategy.buildResponse(uriInfo, first)).thenReturn(aChargeResponseBuilder()
+                .withChargeId("charge-1")
+                .withAmount(1000L)
+                .withReference(ServicePaymentReference.of("ref-1"))
+                .withDescription("A plain description")
+                .build());
+        when(transactionSearchStrategy.buildResponse(uriInfo, second)).thenReturn(aChargeResponseBuilder()
+                .withChargeId("charge-2")
+                .withAmount(2000L)
+                .withReference(ServicePaymentReference.of("ref-2"))
+                .withDescription("Tickets, \"front row\"")
+                .build());
+        doAnswer(invocation -> {
+            Consumer<Transaction> consumer = invocation.getArgument(3);
+            consumer.accept(first);
+            consumer.accept(second);
+            return null;
+        }).when(transactionDao).streamAllBy(eq(GATEWAY_ACCOUNT_ID), eq(params), anyInt(), any());
+    }
+
+    @Test
+    public void shouldWriteOneJsonObjectPerLineForNdjson() throws IOException {
+        String[] lines = write(transactionExportService.export(params, NDJSON, uriInfo).get()).split("\n");
+
+        assertThat(lines.length, is(2));
+        ObjectMapper objectMapper = new ObjectMapper();
+        assertThat(objectMapper.readTree(lines[0]).get("charge_id").asText(), is("charge-1"));
+        assertThat(objectMapper.readTree(lines[1]).get("charge_id").asText(), is("charge-2"));
+        assertThat(objectMapper.readTree(lines[1]).get("amount").asLong(), is(2000L));
+    }
+
+    @Test
+    public void shouldWriteAHeaderAndQuotedRowsForCsv() throws IOException {
+        String[] lines = write(transactionExportService.export(params, CSV, uriInfo).get()).split("\r\n");
+
+        assertThat(lines.length, is(3));
+        assertThat(lines[0], startsWith("transaction_type,charge_id,reference,description,email,amount,"));
+        assertThat(lines[1], startsWith(",charge-1,ref-1,A plain description,,1000,"));
+        assertThat(lines[2], startsWith(",charge-2,ref-2,\"Tickets, \"\"front row\"\"\",,2000,"));
+    }
+
+    @Test
+    public void shouldRejectAnExportWhileTheMaximumAreRunning() throws IOException {
+        Optional<TransactionExportService.Export> running = transactionExportService.export(params, NDJSON, uriInfo);
+
+        assertThat(transactionExportService.export(params, NDJSON, uriInfo).isPresent(), is(false));
+
+        write(running.get());
+        assertThat(transactionExportService.export(params, NDJSON, uriInfo).isPresent(), is(true));
+    }
+
+    @Test
+    public void shouldGiveBackTheSlotOfAnExportThatIsClosedWithoutBeingWritten() {
+        TransactionExportService.Export neverWritten = transactionExportService.export(params, NDJSON, uriInfo).get();
+
+        neverWritten.close();
+        neverWritten.close();
+
+        assertThat(transactionExportService.export(params, NDJSON, uriInfo).isPresent(), is(true));
+        assertThat(transactionExportService.export(params, NDJSON, uriInfo).isPresent(), is(false));
+        verifyZeroInteractions(transactionDao);
+    }
+
+    @Test
+    public void shouldNotGiveBackASlotTwiceWhenAWrittenExportIsClosed() throws IOException {
+        TransactionExportService.Export export = transactionExportService.export(params, NDJSON, uriInfo).get();
+
+        write(export);
+        export.close();
+
+        assertThat(transactionExportService.export(params, NDJSON, uriInfo).isPresent(), is(true));
+        assertThat(transactionExportService.export(params, NDJSON, uriInfo).isPresent(), is(false));
+    }
+
+    @Test
+    public void shouldQuoteCsvFieldsOnlyWhenNeeded() {
+        assertThat(TransactionExportService.csvField(null), is(""));
+        assertThat(TransactionExportService.csvField("plain"), is("plain"));
+        assertThat(TransactionExportService.csvField("a,b"), is("\"a,b\""));
+        assertThat(TransactionExportService.csvField("say \"hi\""), is("\"say \"\"hi\"\"\""));
+        assertThat(TransactionExportService.csvField("two\nlines"), is("\"two\nlines\""));
+        assertThat(TransactionExportService.csvField("=HYPERLINK(\"http://example.com\")"), is("\"'=HYPERLINK(\"\"http://example.com\"\")\""));
+        assertThat(TransactionExportService.csvField("+44 20 7946 0000"), is("'+44 20 7946 0000"));
+        assertThat(TransactionExportService.csvField("-2+3"), is("'-2+3"));
+        assertThat(TransactionExportService.csvField("@SUM(A1:A2)"), is("'@SUM(A1:A2)"));
+        assertThat(TransactionExportService.csvField("\tcmd"), is("'\tcmd"));
+        assertThat(TransactionExportService.csvField("\rcmd"), is("\"'\rcmd\""));
+        assertThat(TransactionExportService.csvField("-150"), is("-150"));
+        assertThat(TransactionExportService.csvField("a=b"), is("a=b"));
+    }
+
+    private static String write(StreamingOutput output) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        output.write(outputStream);
+        return outputStream.toString(UTF_8);
+    }
+}
@@ -6,12 +6,14 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import uk.gov.pay.connector.charge.dao.SearchCursor;
 import uk.gov.pay.connector.charge.dao.SearchParams;
 import uk.gov.pay.connector.common.model.api.ExternalChargeState;
 
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
+import java.time.ZonedDateTime;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
@@ -89,4 +91,87 @@ public class PaginationResponseBuilderTest {
                 .assertThat("$._links.self.href", is("/v2/api/accounts/1/charges?page=2&display_size=100&state=started"))
                 .assertThat("$.results.*", hasSize(0));
     }
+
+    @Test
+    public void shouldSayWhenTheTotalIsAnEstimate() {
+
+        // given
+        when(mockUriInfo.getPath()).thenReturn("/v1/api/accounts/1/charges");
+
+        // when
+        Response estimated = new PaginationResponseBuilder(searchParams, mockUriInfo)
+                .withResponses(newArrayList())
+                .withTotalCount(2_000_000L)
+                .withTotalEstimated(true)
+                .buildResponse();
+
+        // then
+        JsonAssert.with((String) estimated.getEntity())
+                .assertThat("$.total", is(2_000_000))
+                .assertThat("$.total_estimated", is(true));
+    }
+
+    @Test
+    public void shouldLeaveOutTotalEstimatedForACountedTotal() {
+
+        // given
+        when(mockUriInfo.getPath()).thenReturn("/v1/api/accounts/1/charges");
+
+        // when
+        Response counted = new PaginationResponseBuilder(searchParams, mockUriInfo)
+                .withResponses(newArrayList())
+                .withTotalCount(500L)
+                .buildResponse();
+
+        // then
+        JsonAssert.with((String) counted.getEntity())
+                .assertNotDefined("$.total_estimated");
+    }
+
+    @Test
+    public void shouldBuildCursorPaginationWithOnlyForwardLinks() {
+
+        // given
+        when(mockUriInfo.getPath()).thenReturn("/v1/api/accounts/1/charges");
+        SearchCursor after = SearchCursor.after(ZonedDateTime.parse("2019-08-01T10:00:00Z"), 42L);
+        SearchCursor next = SearchCursor.after(ZonedDateTime.parse("2019-07-01T10:00:00Z"), 7L);
+        searchParams.withAfter(after);
+
+        // when
+        Response response = new PaginationResponseBuilder(searchParams, mockUriInfo)
+                .withResponses(newArrayList())
+                .withTotalCount(500L)
+                .withNextCursor(next)
+                .buildResponse();
+
+        // then
+        JsonAssert.with((String) response.getEntity())
+                .assertThat("$.total", is(500))
+                .assertThat("$.count", is(0))
+                .assertNotDefined("$.page")
+                .assertThat("$._links.self.href", is("http://app.com/v1/api/accounts/1/charges?after=" + after.encode() + "&display_size=100&state=started"))
+                .assertThat("$._links.first_page.href", is("http://app.com/v1/api/accounts/1/charges?after=&display_size=100&state=started"))
+                .assertThat("$._links.next_page.href", is("http://app.com/v1/api/accounts/1/charges?after=" + next.encode() + "&display_size=100&state=started"))
+                .assertNotDefined("$._links.prev_page")
+                .assertNotDefined("$._links.last_page");
+    }
+
+    @Test
+    public void shouldLeaveOutTheNextLinkAtTheEndOfCursorPagination() {
+
+        // given
+        when(mockUriInfo.getPath()).thenReturn("/v1/api/accounts/1/charges");
+        searchParams.withAfter(SearchCursor.START);
+
+        // when
+        Response response = new PaginationResponseBuilder(searchParams, mockUriInfo)
+                .withResponses(newArrayList())
+                .withTotalCount(0L)
+                .buildResponse();
+
+        // then
+        JsonAssert.with((String) response.getEntity())
+                .assertThat("$._links.self.href", is("http://app.com/v1/api/accounts/1/charges?after=&display_size=100&state=started"))
+                .assertNotDefined("$._links.next_page");
+    }
 }
@@ -0,0 +1,128 @@
+package uk.gov.pay.connector.common.service.search;
+
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.util.Duration;
+import org.junit.Test;
+import uk.gov.pay.connector.app.SearchTotalsConfig;
+import uk.gov.pay.connector.charge.dao.SearchParams;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SearchTotalsTest {
+
+    private static final ZonedDateTime FROM_DATE = ZonedDateTime.parse("2019-08-01T10:00:00Z");
+
+    private final AtomicInteger counts = new AtomicInteger();
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+
+    @Test
+    public void shouldCountASearchOnceForAllOfItsPages() {
+        SearchTotals searchTotals = new SearchTotals(new SearchTotalsConfig(), metricRegistry);
+
+        SearchTotal firstPage = searchTotals.totalFor("charges", params().withPage(1L), this::count, Optional::empty);
+        SearchTotal secondPage = searchTotals.totalFor("charges", params().withPage(2L).withDisplaySize(10L), this::count, Optional::empty);
+
+        assertThat(firstPage.getCount(), is(500L));
+        assertThat(secondPage.getCount(), is(500L));
+        assertThat(counts.get(), is(1));
+        assertThat(metricRegistry.counter("search-totals.hits").getCount(), is(1L));
+    }
+
+    @Test
+    public void shouldTreatEquivalentFiltersAsTheSameSearch() {
+        SearchTotals searchTotals = new SearchTotals(new SearchTotalsConfig(), metricRegistry);
+
+        searchTotals.totalFor("charges", params().withEmailLike("Someone@Example.com")
+                .withCardBrands(List.of("visa", "master-card")), this::count, Optional::empty);
+        searchTotals.totalFor("charges", new SearchParams().withGatewayAccountId(1L)
+                .withFromDate(FROM_DATE.withZoneSameInstant(ZoneOffset.ofHours(1)))
+                .withEmailLike("someone@example.com")
+                .withCardBrands(List.of("master-card", "visa")), this::count, Optional::empty);
+
+        assertThat(counts.get(), is(1));
+    }
+
+    @Test
+    public void shouldCountSearchesWithDifferentFiltersOrTypesSeparately() {
+        SearchTotals searchTotals = new SearchTotals(new SearchTotalsConfig(), metricRegistry);
+
+        searchTotals.totalFor("charges", params(), this::count, Optional::empty);
+        searchTotals.totalFor("transactions", params(), this::count, Optional::empty);
+        searchTotals.totalFor("charges", params().withReferenceLike(null).withEmailLike("someone"), this::count, Optional::empty);
+
+        assertThat(counts.get(), is(3));
+    }
+
+    @Test
+    public void shouldCountEverySearchWhenDisabled() {
+        SearchTotals searchTotals = new SearchTotals(config(false, false), metricRegistry);
+
+        searchTotals.totalFor("charges", params(), this::count, Optional::empty);
+        searchTotals.totalFor("charges", params(), this::count, Optional::empty);
+
+        assertThat(counts.get(), is(2));
+    }
+
+    @Test
+    public void shouldNotUseEstimatesUnlessEnabled() {
+        SearchTotals searchTotals = new SearchTotals(new SearchTotalsConfig(), metricRegistry);
+
+        SearchTotal total = searchTotals.totalFor("transactions", params(), this::count, () -> Optional.of(2_000_000L));
+
+        assertThat(total.getCount(), is(500L));
+        assertThat(total.isEstimated(), is(false));
+    }
+
+    @Test
+    public void shouldUseTheEstimateAboveTheThreshold() {
+        SearchTotals searchTotals = new SearchTotals(config(true, true), metricRegistry);
+
+        SearchTotal total = searchTotals.totalFor("transactions", params(), this::count, () -> Optional.of(2_000_000L));
+
+        assertThat(total.getCount(), is(2_000_000L));
+        assertThat(total.isEstimated(), is(true));
+        assertThat(counts.get(), is(0));
+    }
+
+    @Test
+    public void shouldCountWhenTheEstimateIsBelowTheThresholdOrMissing() {
+        SearchTotals searchTotals = new SearchTotals(config(false, true), metricRegistry);
+
+        SearchTotal belowThreshold = searchTotals.totalFor("transactions", params(), this::count, () -> Optional.of(1_000L));
+        SearchTotal notEstimated = searchTotals.totalFor("charges", params(), this::count, Optional::empty);
+
+        assertThat(belowThreshold.isEstimated(), is(false));
+        assertThat(notEstimated.isEstimated(), is(false));
+        assertThat(counts.get(), is(2));
+    }
+
+    private SearchParams params() {
+        return new SearchParams()
+                .withGatewayAccountId(1L)
+                .withFromDate(FROM_DATE);
+    }
+
+    private long count() {
+        counts.incrementAndGet();
+        return 500L;
+    }
+
+    private static SearchTotalsConfig config(boolean enabled, boolean estimatesEnabled) {
+        SearchTotalsConfig config = mock(SearchTotalsConfig.class);
+        when(config.isEnabled()).thenReturn(enabled);
+        when(config.getMaximumSize()).thenReturn(100L);
+        when(config.getExpireAfterWrite()).thenReturn(Duration.seconds(30));
+        when(config.isEstimatesEnabled()).thenReturn(estimatesEnabled);
+        when(config.getEstimateThreshold()).thenReturn(100_000L);
+        return config;
+    }
+}
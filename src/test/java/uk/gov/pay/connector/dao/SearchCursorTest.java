@@ -0,0 +1,67 @@
+package uk.gov.pay.connector.dao;
+
+import org.junit.Test;
+import uk.gov.pay.connector.charge.dao.SearchCursor;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Base64;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static uk.gov.pay.connector.charge.model.domain.TransactionType.REFUND;
+
+public class SearchCursorTest {
+
+    private static final ZonedDateTime CREATED_DATE = ZonedDateTime.parse("2019-08-01T10:00:00.123456Z");
+
+    @Test
+    public void shouldRoundTripAChargeCursor() {
+        SearchCursor cursor = SearchCursor.after(CREATED_DATE, 42L);
+
+        SearchCursor decoded = SearchCursor.decode(cursor.encode()).get();
+
+        assertThat(decoded, is(cursor));
+        assertThat(decoded.getCreatedDate(), is(CREATED_DATE));
+        assertThat(decoded.getId(), is(42L));
+        assertThat(decoded.getTransactionType(), is(Optional.empty()));
+    }
+
+    @Test
+    public void shouldRoundTripATransactionCursor() {
+        SearchCursor cursor = SearchCursor.after(CREATED_DATE, REFUND, 42L);
+
+        SearchCursor decoded = SearchCursor.decode(cursor.encode()).get();
+
+        assertThat(decoded, is(cursor));
+        assertThat(decoded.getTransactionType(), is(Optional.of(REFUND)));
+    }
+
+    @Test
+    public void shouldEncodeTheSameInstantTheSameWhateverTheOffset() {
+        String utc = SearchCursor.after(CREATED_DATE, 42L).encode();
+        String bst = SearchCursor.after(CREATED_DATE.withZoneSameInstant(ZoneOffset.ofHours(1)), 42L).encode();
+
+        assertThat(utc, is(bst));
+    }
+
+    @Test
+    public void shouldDecodeAnEmptyCursorAsTheStart() {
+        assertThat(SearchCursor.decode("").get().isStart(), is(true));
+        assertThat(SearchCursor.START.encode(), is(""));
+    }
+
+    @Test
+    public void shouldNotDecodeAnInvalidCursor() {
+        assertThat(SearchCursor.decode("not a cursor!").isPresent(), is(false));
+        assertThat(SearchCursor.decode(encode("yesterday|42")).isPresent(), is(false));
+        assertThat(SearchCursor.decode(encode("2019-08-01T10:00:00Z|forty-two")).isPresent(), is(false));
+        assertThat(SearchCursor.decode(encode("2019-08-01T10:00:00Z|42|payment")).isPresent(), is(false));
+    }
+
+    private static String encode(String position) {
+        return Base64.getUrlEncoder().encodeToString(position.getBytes(UTF_8));
+    }
+}
@@ -1,6 +1,7 @@
 package uk.gov.pay.connector.dao;
 
 import org.junit.Test;
+import uk.gov.pay.connector.charge.dao.SearchCursor;
 import uk.gov.pay.connector.charge.dao.SearchParams;
 import uk.gov.pay.connector.charge.model.CardHolderName;
 import uk.gov.pay.connector.charge.model.FirstDigitsCardNumber;
@@ -15,6 +16,7 @@ import static java.util.Collections.singletonList;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.core.Is.is;
 import static uk.gov.pay.connector.charge.model.TransactionSearchStrategyTransactionType.PAYMENT;
 import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.AUTHORISATION_ABORTED;
@@ -239,4 +241,37 @@ public class SearchParamsTest {
                 USER_CANCEL_READY, USER_CANCEL_SUBMITTED, USER_CANCEL_ERROR, USER_CANCELLED, EXPIRE_CANCEL_READY, EXPIRE_CANCEL_SUBMITTED, EXPIRED, EXPIRE_CANCEL_FAILED,
                 AUTHORISATION_REJECTED, AUTHORISATION_CANCELLED, AUTHORISATION_ABORTED));
     }
+
+    @Test
+    public void buildQueryParams_shouldUseTheCursorInPlaceOfThePage() {
+        SearchCursor cursor = SearchCursor.after(ZonedDateTime.parse("2012-06-30T12:30:40Z"), 42L);
+
+        SearchParams params = new SearchParams()
+                .withPage(2L)
+                .withDisplaySize(5L)
+                .withAfter(cursor);
+
+        assertThat(params.buildQueryParams(), is("after=" + cursor.encode() + "&display_size=5"));
+    }
+
+    @Test
+    public void buildFilterKey_shouldIgnorePagingAndNormaliseFilters() {
+        SearchParams params = new SearchParams()
+                .withGatewayAccountId(111L)
+                .withEmailLike("User@Example.com")
+                .withFromDate(ZonedDateTime.parse("2012-06-30T13:30:40+01:00"))
+                .withCardBrands(asList("visa", "master-card"))
+                .withPage(2L)
+                .withDisplaySize(5L);
+        SearchParams equivalent = new SearchParams()
+                .withGatewayAccountId(111L)
+                .withEmailLike("user@example.com")
+                .withFromDate(ZonedDateTime.parse("2012-06-30T12:30:40Z"))
+                .withCardBrands(asList("master-card", "visa"))
+                .withAfter(SearchCursor.START)
+                .withDisplaySize(10L);
+
+        assertThat(params.buildFilterKey(), is(equivalent.buildFilterKey()));
+        assertThat(params.buildFilterKey(), is(not(equivalent.withGatewayAccountId(222L).buildFilterKey())));
+    }
 }
@@ -0,0 +1,115 @@
+package uk.gov.pay.connector.gateway;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.util.Duration;
+import org.junit.Before;
+import org.junit.Test;
+import uk.gov.pay.connector.app.GatewayAdaptiveTimeoutConfig;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AdaptiveGatewayTimeoutsTest {
+
+    private static final String METRICS_PREFIX = "gateway-operations.worldpay.test.authorise";
+    private static final Duration STATIC_READ_TIMEOUT = Duration.seconds(50);
+
+    private GatewayAdaptiveTimeoutConfig config;
+    private MetricRegistry metricRegistry = new MetricRegistry();
+    private AdaptiveGatewayTimeouts adaptiveTimeouts;
+
+    @Before
+    public void setUp() {
+        config = mock(GatewayAdaptiveTimeoutConfig.class);
+        when(config.isEnabled()).thenReturn(true);
+        when(config.getPercentile()).thenReturn(0.99);
+        when(config.getMultiplier()).thenReturn(2.0);
+        when(config.getMinimumNumberOfCalls()).thenReturn(100);
+        when(config.getFloor()).thenReturn(Duration.seconds(1));
+        when(config.getCeiling()).thenReturn(Duration.seconds(30));
+        when(config.getRecalculationInterval()).thenReturn(Duration.seconds(10));
+        adaptiveTimeouts = new AdaptiveGatewayTimeouts(config, metricRegistry,
+                Clock.fixed(Instant.parse("2019-08-01T10:00:00Z"), ZoneOffset.UTC));
+    }
+
+    @Test
+    public void shouldNotAdaptOrPublishGaugeWhenDisabled() {
+        when(config.isEnabled()).thenReturn(false);
+        recordResponseTimes(200, 2000);
+
+        assertThat(adaptiveTimeouts.getReadTimeout(METRICS_PREFIX, STATIC_READ_TIMEOUT), is(Optional.empty()));
+        assertThat(metricRegistry.getGauges().get(METRICS_PREFIX + ".read_timeout"), is(nullValue()));
+    }
+
+    @Test
+    public void shouldUseStaticTimeoutUntilMinimumNumberOfCallsIsRecorded() {
+        recordResponseTimes(99, 2000);
+
+        assertThat(adaptiveTimeouts.getReadTimeout(METRICS_PREFIX, STATIC_READ_TIMEOUT), is(Optional.empty()));
+        assertThat(readTimeoutGauge(), is(50000L));
+    }
+
+    @Test
+    public void shouldDeriveTimeoutFromResponseTimePercentile() {
+        recordResponseTimes(100, 2000);
+
+        assertThat(adaptiveTimeouts.getReadTimeout(METRICS_PREFIX, STATIC_READ_TIMEOUT),
+                is(Optional.of(Duration.milliseconds(4000))));
+        assertThat(readTimeoutGauge(), is(4000L));
+    }
+
+    @Test
+    public void shouldNotGoBelowFloor() {
+        recordResponseTimes(100, 100);
+
+        assertThat(adaptiveTimeouts.getReadTimeout(METRICS_PREFIX, STATIC_READ_TIMEOUT),
+                is(Optional.of(Duration.milliseconds(1000))));
+    }
+
+    @Test
+    public void shouldNotGoAboveCeiling() {
+        recordResponseTimes(100, 20000);
+
+        assertThat(adaptiveTimeouts.getReadTimeout(METRICS_PREFIX, STATIC_READ_TIMEOUT),
+                is(Optional.of(Duration.milliseconds(30000))));
+    }
+
+    @Test
+    public void shouldNotGoAboveStaticTimeoutWhenItIsBelowCeiling() {
+        recordResponseTimes(100, 20000);
+
+        assertThat(adaptiveTimeouts.getReadTimeout(METRICS_PREFIX, Duration.seconds(10)),
+                is(Optional.of(Duration.milliseconds(10000))));
+    }
+
+    @Test
+    public void shouldOnlyRecalculateOncePerInterval() {
+        recordResponseTimes(100, 2000);
+        adaptiveTimeouts.getReadTimeout(METRICS_PREFIX, STATIC_READ_TIMEOUT);
+
+        recordResponseTimes(1000, 8000);
+
+        assertThat(adaptiveTimeouts.getReadTimeout(METRICS_PREFIX, STATIC_READ_TIMEOUT),
+                is(Optional.of(Duration.milliseconds(4000))));
+    }
+
+    private void recordResponseTimes(int numberOfCalls, long responseTimeMillis) {
+        for (int i = 0; i < numberOfCalls; i++) {
+            adaptiveTimeouts.recordResponseTime(METRICS_PREFIX, responseTimeMillis);
+        }
+    }
+
+    private Object readTimeoutGauge() {
+        Gauge gauge = metricRegistry.getGauges().get(METRICS_PREFIX + ".read_timeout");
+        return gauge.getValue();
+    }
+}
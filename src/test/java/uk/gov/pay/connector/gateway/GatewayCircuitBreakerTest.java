@@ -0,0 +1,163 @@
+package uk.gov.pay.connector.gateway;
+
+import io.dropwizard.util.Duration;
+import org.junit.Before;
+import org.junit.Test;
+import uk.gov.pay.connector.app.GatewayCircuitBreakerConfig;
+import uk.gov.pay.connector.gateway.GatewayException.GatewayUnavailableException;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static uk.gov.pay.connector.gateway.GatewayCircuitBreaker.State.CLOSED;
+import static uk.gov.pay.connector.gateway.GatewayCircuitBreaker.State.HALF_OPEN;
+import static uk.gov.pay.connector.gateway.GatewayCircuitBreaker.State.OPEN;
+
+public class GatewayCircuitBreakerTest {
+
+    private static final long FAST_CALL_MILLIS = 100;
+    private static final long SLOW_CALL_MILLIS = 5000;
+
+    private GatewayCircuitBreakerConfig config;
+    private MutableClock clock = new MutableClock();
+    private GatewayCircuitBreaker circuitBreaker;
+
+    @Before
+    public void setUp() {
+        config = mock(GatewayCircuitBreakerConfig.class);
+        when(config.isEnabled()).thenReturn(true);
+        when(config.getSlidingWindowSize()).thenReturn(10);
+        when(config.getMinimumNumberOfCalls()).thenReturn(4);
+        when(config.getFailureRateThreshold()).thenReturn(50);
+        when(config.getSlowCallDurationThreshold()).thenReturn(Duration.seconds(2));
+        when(config.getSlowCallRateThreshold()).thenReturn(75);
+        when(config.getWaitDurationInOpenState()).thenReturn(Duration.seconds(30));
+        when(config.getPermittedCallsInHalfOpenState()).thenReturn(2);
+        when(config.getMaxConcurrentCalls()).thenReturn(3);
+        circuitBreaker = new GatewayCircuitBreaker("worldpay.auth", config, clock);
+    }
+
+    @Test
+    public void shouldStayClosedUntilMinimumNumberOfCallsIsRecorded() throws Exception {
+        recordCalls(3, FAST_CALL_MILLIS, true);
+
+        assertThat(circuitBreaker.getState(), is(CLOSED));
+    }
+
+    @Test
+    public void shouldOpenWhenFailureRateReachesThreshold() throws Exception {
+        recordCalls(2, FAST_CALL_MILLIS, false);
+        recordCalls(2, FAST_CALL_MILLIS, true);
+
+        assertThat(circuitBreaker.getState(), is(OPEN));
+        assertRejected();
+    }
+
+    @Test
+    public void shouldOpenWhenSlowCallRateReachesThreshold() throws Exception {
+        recordCalls(1, FAST_CALL_MILLIS, false);
+        recordCalls(3, SLOW_CALL_MILLIS, false);
+
+        assertThat(circuitBreaker.getState(), is(OPEN));
+    }
+
+    @Test
+    public void shouldCloseAfterSuccessfulCallsInHalfOpenState() throws Exception {
+        recordCalls(4, FAST_CALL_MILLIS, true);
+        clock.advanceSeconds(31);
+
+        circuitBreaker.acquirePermission();
+        assertThat(circuitBreaker.getState(), is(HALF_OPEN));
+        circuitBreaker.onCallFinished(FAST_CALL_MILLIS, false);
+        recordCalls(1, FAST_CALL_MILLIS, false);
+
+        assertThat(circuitBreaker.getState(), is(CLOSED));
+    }
+
+    @Test
+    public void shouldReopenWhenCallsInHalfOpenStateFail() throws Exception {
+        recordCalls(4, FAST_CALL_MILLIS, true);
+        clock.advanceSeconds(31);
+
+        recordCalls(2, FAST_CALL_MILLIS, true);
+
+        assertThat(circuitBreaker.getState(), is(OPEN));
+        assertRejected();
+    }
+
+    @Test
+    public void shouldRejectCallsWhenBulkheadIsFull() throws Exception {
+        circuitBreaker.acquirePermission();
+        circuitBreaker.acquirePermission();
+        circuitBreaker.acquirePermission();
+
+        assertRejected();
+        circuitBreaker.onCallFinished(FAST_CALL_MILLIS, false);
+        circuitBreaker.acquirePermission();
+    }
+
+    @Test
+    public void shouldRecordOutcomesButNeverRejectWhenDisabled() throws Exception {
+        when(config.isEnabled()).thenReturn(false);
+
+        recordCalls(20, SLOW_CALL_MILLIS, true);
+
+        assertThat(circuitBreaker.getState(), is(OPEN));
+        circuitBreaker.acquirePermission();
+        assertThat(circuitBreaker.getAvailableConcurrentCalls(), is(3));
+    }
+
+    @Test
+    public void shouldMoveToHalfOpenAfterWaitingWhenDisabled() throws Exception {
+        when(config.isEnabled()).thenReturn(false);
+        recordCalls(4, FAST_CALL_MILLIS, true);
+        clock.advanceSeconds(31);
+
+        recordCalls(2, FAST_CALL_MILLIS, false);
+
+        assertThat(circuitBreaker.getState(), is(CLOSED));
+    }
+
+    private void recordCalls(int numberOfCalls, long durationMillis, boolean failed) throws GatewayUnavailableException {
+        for (int i = 0; i < numberOfCalls; i++) {
+            circuitBreaker.acquirePermission();
+            circuitBreaker.onCallFinished(durationMillis, failed);
+        }
+    }
+
+    private void assertRejected() {
+        try {
+            circuitBreaker.acquirePermission();
+            throw new AssertionError("Expected call to be rejected");
+        } catch (GatewayUnavailableException expected) {
+        }
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2019-08-01T10:00:00Z");
+
+        void advanceSeconds(long seconds) {
+            now = now.plusSeconds(seconds);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package uk.gov.pay.connector.gateway;
+
+import org.junit.Test;
+import uk.gov.pay.connector.gateway.model.OrderRequestType;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static uk.gov.pay.connector.gateway.GatewayOperation.AUTHORISE;
+import static uk.gov.pay.connector.gateway.GatewayOperation.CANCEL;
+import static uk.gov.pay.connector.gateway.GatewayOperation.CAPTURE;
+import static uk.gov.pay.connector.gateway.GatewayOperation.QUERY;
+import static uk.gov.pay.connector.gateway.GatewayOperation.REFUND;
+import static uk.gov.pay.connector.gateway.GatewayOperation.fromOrderRequestType;
+
+public class GatewayOperationTest {
+
+    @Test
+    public void shouldMapEveryOrderRequestTypeToAGatewayOperation() {
+        for (OrderRequestType orderRequestType : OrderRequestType.values()) {
+            fromOrderRequestType(orderRequestType);
+        }
+    }
+
+    @Test
+    public void shouldMapStripeRequestsToAuthorise() {
+        assertThat(fromOrderRequestType(OrderRequestType.STRIPE_TOKEN), is(AUTHORISE));
+        assertThat(fromOrderRequestType(OrderRequestType.STRIPE_CREATE_SOURCE), is(AUTHORISE));
+        assertThat(fromOrderRequestType(OrderRequestType.STRIPE_CREATE_3DS_SOURCE), is(AUTHORISE));
+        assertThat(fromOrderRequestType(OrderRequestType.STRIPE_CREATE_CHARGE), is(AUTHORISE));
+    }
+
+    @Test
+    public void shouldMapOtherRequestsToTheirOwnOperation() {
+        assertThat(fromOrderRequestType(OrderRequestType.AUTHORISE_3DS), is(AUTHORISE));
+        assertThat(fromOrderRequestType(OrderRequestType.CAPTURE), is(CAPTURE));
+        assertThat(fromOrderRequestType(OrderRequestType.CANCEL), is(CANCEL));
+        assertThat(fromOrderRequestType(OrderRequestType.REFUND), is(REFUND));
+        assertThat(fromOrderRequestType(OrderRequestType.QUERY), is(QUERY));
+    }
+}
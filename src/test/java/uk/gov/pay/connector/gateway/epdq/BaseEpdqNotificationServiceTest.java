@@ -12,6 +12,7 @@ import uk.gov.pay.connector.charge.model.domain.ChargeEntity;
 import uk.gov.pay.connector.gateway.processor.ChargeNotificationProcessor;
 import uk.gov.pay.connector.gateway.processor.RefundNotificationProcessor;
 import uk.gov.pay.connector.gatewayaccount.model.GatewayAccountEntity;
+import uk.gov.pay.connector.webhook.service.NotificationDeduplicationService;
 
 import java.nio.charset.StandardCharsets;
 import java.util.List;
@@ -32,6 +33,8 @@ public abstract class BaseEpdqNotificationServiceTest {
     @Mock
     protected RefundNotificationProcessor mockRefundNotificationProcessor;
     @Mock
+    protected NotificationDeduplicationService mockNotificationDeduplicationService;
+    @Mock
     protected ChargeEntity mockCharge;
     @Mock
     protected GatewayAccountEntity mockGatewayAccountEntity;
@@ -46,7 +49,8 @@ public abstract class BaseEpdqNotificationServiceTest {
                 mockChargeDao,
                 new EpdqSha512SignatureGenerator(),
                 mockChargeNotificationProcessor,
-                mockRefundNotificationProcessor
+                mockRefundNotificationProcessor,
+                mockNotificationDeduplicationService
         );
         when(mockCharge.getStatus()).thenReturn(CAPTURE_APPROVED.getValue());
         when(mockCharge.getGatewayAccount()).thenReturn(mockGatewayAccountEntity);
@@ -8,11 +8,15 @@ import io.dropwizard.setup.Environment;
 import org.junit.Before;
 import org.mockito.Mock;
 import uk.gov.pay.connector.app.ConnectorConfiguration;
+import uk.gov.pay.connector.app.GatewayAdaptiveTimeoutConfig;
+import uk.gov.pay.connector.app.GatewayCircuitBreakerConfig;
 import uk.gov.pay.connector.app.GatewayConfig;
 import uk.gov.pay.connector.app.LinksConfig;
 import uk.gov.pay.connector.charge.model.domain.ChargeEntity;
 import uk.gov.pay.connector.common.model.domain.Address;
 import uk.gov.pay.connector.gateway.ClientFactory;
+import uk.gov.pay.connector.gateway.AdaptiveGatewayTimeouts;
+import uk.gov.pay.connector.gateway.GatewayCircuitBreakerRegistry;
 import uk.gov.pay.connector.gateway.GatewayClientFactory;
 import uk.gov.pay.connector.gateway.GatewayOperation;
 import uk.gov.pay.connector.gateway.PaymentGatewayName;
@@ -27,6 +31,7 @@ import uk.gov.pay.connector.gatewayaccount.model.GatewayAccountEntity;
 import uk.gov.pay.connector.model.domain.AuthCardDetailsFixture;
 import uk.gov.pay.connector.refund.model.domain.RefundEntity;
 import uk.gov.pay.connector.util.TestTemplateResourceLoader;
+import uk.gov.pay.connector.util.XrayUtils;
 
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.Entity;
@@ -36,7 +41,9 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
 import java.net.URI;
+import java.time.Clock;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertNotNull;
@@ -92,7 +99,10 @@ public abstract class BaseEpdqPaymentProviderTest {
 
     @Before
     public void setup() {
-        GatewayClientFactory gatewayClientFactory = new GatewayClientFactory(mockClientFactory);
+        GatewayClientFactory gatewayClientFactory = new GatewayClientFactory(mockClientFactory,
+                new GatewayCircuitBreakerRegistry(new GatewayCircuitBreakerConfig(), new MetricRegistry(), Clock.systemUTC()),
+                new AdaptiveGatewayTimeouts(new GatewayAdaptiveTimeoutConfig(), new MetricRegistry(), Clock.systemUTC()),
+                new XrayUtils(false));
 
         mockClientInvocationBuilder = mockClientInvocationBuilder();
         when(environment.metrics()).thenReturn(mockMetricRegistry);
@@ -275,7 +285,7 @@ public abstract class BaseEpdqPaymentProviderTest {
         Response response = mock(Response.class);
         when(mockClientInvocationBuilder.post(any())).thenReturn(response);
 
-        when(response.readEntity(String.class)).thenReturn(responsePayload);
+        when(response.readEntity(byte[].class)).thenReturn(responsePayload.getBytes(UTF_8));
         when(response.getStatus()).thenReturn(responseHttpStatus);
     }
 }
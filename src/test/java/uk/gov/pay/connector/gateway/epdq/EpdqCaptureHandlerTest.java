@@ -18,6 +18,7 @@ import uk.gov.pay.connector.gatewayaccount.model.GatewayAccountEntity;
 import javax.ws.rs.core.Response;
 import java.net.URI;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Collections.emptyMap;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
@@ -52,7 +53,7 @@ public class EpdqCaptureHandlerTest {
     @Test
     public void shouldCapture() throws Exception {
         when(response.getStatus()).thenReturn(HttpStatus.SC_OK);
-        when(response.readEntity(String.class)).thenReturn(load("templates/epdq/capture-success-response.xml"));
+        when(response.readEntity(byte[].class)).thenReturn(load("templates/epdq/capture-success-response.xml").getBytes(UTF_8));
         TestResponse testResponse = new TestResponse(this.response);
         when(client.postRequestFor(any(URI.class), any(GatewayAccountEntity.class), any(GatewayOrder.class), anyMap()))
                 .thenReturn(testResponse);
@@ -74,7 +75,7 @@ public class EpdqCaptureHandlerTest {
     @Test
     public void shouldNotCaptureIfPaymentProviderReturnsUnexpectedStatusCode() throws Exception{
         when(response.getStatus()).thenReturn(HttpStatus.SC_OK);
-        when(response.readEntity(String.class)).thenReturn(load("templates/epdq/capture-error-response.xml"));
+        when(response.readEntity(byte[].class)).thenReturn(load("templates/epdq/capture-error-response.xml").getBytes(UTF_8));
         TestResponse testResponse = new TestResponse(this.response);
         when(client.postRequestFor(any(URI.class), any(GatewayAccountEntity.class), any(GatewayOrder.class), anyMap())).thenReturn(testResponse);
         
@@ -1,10 +1,14 @@
 package uk.gov.pay.connector.gateway.epdq;
 
 import com.google.common.collect.ImmutableList;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.http.NameValuePair;
+import org.apache.http.client.utils.URLEncodedUtils;
 import org.apache.http.message.BasicNameValuePair;
 import org.junit.Test;
 
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -139,4 +143,59 @@ public class EpdqSha512SignatureGeneratorTest {
         epdqSha512SignatureGenerator.sign(params, null);
     }
 
+    @Test
+    public void shouldHashParameterValuesAsUtf8() {
+        List<NameValuePair> params = ImmutableList.of(
+                new BasicNameValuePair("CN", "Jöhn Smïth €"),
+                new BasicNameValuePair("OWNERADDRESS", "\uD83D\uDE00 street \uD800"));
+
+        String passphrase = "MySuperSecretPassphrase";
+
+        String expected = DigestUtils.sha512Hex("CN=Jöhn Smïth €" + passphrase + "OWNERADDRESS=\uD83D\uDE00 street \uD800" + passphrase);
+
+        assertThat(epdqSha512SignatureGenerator.sign(params, passphrase), is(expected));
+    }
+
+    @Test
+    public void shouldFormEncodeParametersFollowedBySignatureInOnePass() {
+        List<NameValuePair> params = ImmutableList.of(
+                new BasicNameValuePair("AMOUNT", "500"),
+                new BasicNameValuePair("CN", "Mr O'Brien & Söhne ☃ \uD83D\uDE00"),
+                new BasicNameValuePair("COMPLUS", ""),
+                new BasicNameValuePair("OWNERADDRESS", "1 High St, Flat 2/3 ~(!)*-_.+"),
+                new BasicNameValuePair("PSPID", "merchant-id"));
+
+        assertFormEncodingMatchesSignedParameters(params, StandardCharsets.UTF_8);
+        assertFormEncodingMatchesSignedParameters(params, Charset.forName("windows-1252"));
+    }
+
+    @Test
+    public void shouldFormEncodeParametersThatAreNotInSigningOrder() {
+        List<NameValuePair> params = ImmutableList.of(
+                new BasicNameValuePair("bBb", "Value2"),
+                new BasicNameValuePair("DDD", "Value4"),
+                new BasicNameValuePair("CCC", ""),
+                new BasicNameValuePair("aaa", "Value1"));
+
+        assertFormEncodingMatchesSignedParameters(params, StandardCharsets.UTF_8);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowAnIllegalArgumentExceptionIfPassphraseIsBlankWhenFormEncoding() {
+        List<NameValuePair> params = ImmutableList.of(new BasicNameValuePair("PARAM1", "Value1"));
+
+        epdqSha512SignatureGenerator.signAndFormEncode(params, " ", StandardCharsets.UTF_8);
+    }
+
+    private void assertFormEncodingMatchesSignedParameters(List<NameValuePair> params, Charset charset) {
+        String passphrase = "MySuperSecretPassphrase";
+
+        String expected = URLEncodedUtils.format(ImmutableList.<NameValuePair>builder()
+                .addAll(params)
+                .add(new BasicNameValuePair("SHASIGN", epdqSha512SignatureGenerator.sign(params, passphrase)))
+                .build(), charset);
+
+        assertThat(epdqSha512SignatureGenerator.signAndFormEncode(params, passphrase, charset), is(expected));
+    }
+
 }
@@ -11,6 +11,7 @@ import uk.gov.pay.connector.gateway.epdq.EpdqOrderRequestBuilder.EpdqTemplateDat
 import uk.gov.pay.connector.gateway.epdq.EpdqSignedPayloadDefinition.EpdqSignedPayloadDefinitionFactory;
 import uk.gov.pay.connector.gateway.epdq.payload.EpdqPayloadDefinition;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static org.hamcrest.core.Is.is;
@@ -49,4 +50,18 @@ public class EpdqSignedPayloadDefinitionTest {
         assertThat(result, is(ImmutableList.of(PARAM_1, PARAM_2, PARAM_3, new BasicNameValuePair("SHASIGN", SIGNATURE))));
     }
 
+    @Test
+    public void shouldFormEncodePayloadWithSignature() {
+        EpdqSignedPayloadDefinition epdqSignedPayloadDefinition = anEpdqSignedPayloadDefinitionFactory(mockSignatureGenerator).create(mockPayloadDefinition);
+
+        when(mockPayloadDefinition.extract(mockEpdqTemplateData)).thenReturn(ImmutableList.of(PARAM_1, PARAM_2, PARAM_3));
+        when(mockEpdqTemplateData.getShaInPassphrase()).thenReturn(SHA_IN_PASSPHRASE);
+        when(mockSignatureGenerator.signAndFormEncode(ImmutableList.of(PARAM_1, PARAM_2, PARAM_3), SHA_IN_PASSPHRASE, StandardCharsets.UTF_8))
+                .thenReturn("Key+1=Value+1&SHASIGN=signature");
+
+        String result = epdqSignedPayloadDefinition.formEncode(mockEpdqTemplateData, StandardCharsets.UTF_8);
+
+        assertThat(result, is("Key+1=Value+1&SHASIGN=signature"));
+    }
+
 }
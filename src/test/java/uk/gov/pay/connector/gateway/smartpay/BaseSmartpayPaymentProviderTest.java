@@ -7,11 +7,16 @@ import io.dropwizard.setup.Environment;
 import org.junit.Before;
 import org.mockito.Mock;
 import uk.gov.pay.connector.app.ConnectorConfiguration;
+import uk.gov.pay.connector.app.GatewayAdaptiveTimeoutConfig;
+import uk.gov.pay.connector.app.GatewayCircuitBreakerConfig;
 import uk.gov.pay.connector.app.GatewayConfig;
 import uk.gov.pay.connector.gateway.ClientFactory;
+import uk.gov.pay.connector.gateway.AdaptiveGatewayTimeouts;
+import uk.gov.pay.connector.gateway.GatewayCircuitBreakerRegistry;
 import uk.gov.pay.connector.gateway.GatewayClientFactory;
 import uk.gov.pay.connector.gateway.PaymentGatewayName;
 import uk.gov.pay.connector.gatewayaccount.model.GatewayAccountEntity;
+import uk.gov.pay.connector.util.XrayUtils;
 
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.Entity;
@@ -20,7 +25,9 @@ import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.Response;
 
 import java.net.URI;
+import java.time.Clock;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
@@ -47,7 +54,10 @@ public abstract class BaseSmartpayPaymentProviderTest {
 
     @Before
     public void setup() {
-        GatewayClientFactory gatewayClientFactory = new GatewayClientFactory(mockClientFactory);
+        GatewayClientFactory gatewayClientFactory = new GatewayClientFactory(mockClientFactory,
+                new GatewayCircuitBreakerRegistry(new GatewayCircuitBreakerConfig(), new MetricRegistry(), Clock.systemUTC()),
+                new AdaptiveGatewayTimeouts(new GatewayAdaptiveTimeoutConfig(), new MetricRegistry(), Clock.systemUTC()),
+                new XrayUtils(false));
 
         when(mockClientFactory.createWithDropwizardClient(eq(PaymentGatewayName.SMARTPAY), any(MetricRegistry.class)))
                 .thenReturn(mockClient);
@@ -81,7 +91,7 @@ public abstract class BaseSmartpayPaymentProviderTest {
         when(mockBuilder.header(anyString(), any(Object.class))).thenReturn(mockBuilder);
 
         Response response = mock(Response.class);
-        when(response.readEntity(String.class)).thenReturn(responsePayload);
+        when(response.readEntity(byte[].class)).thenReturn(responsePayload.getBytes(UTF_8));
         when(mockBuilder.post(any(Entity.class))).thenReturn(response);
 
         when(response.getStatus()).thenReturn(httpStatus);
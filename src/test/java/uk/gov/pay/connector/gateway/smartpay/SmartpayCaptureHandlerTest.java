@@ -18,6 +18,7 @@ import uk.gov.pay.connector.util.TestTemplateResourceLoader;
 import javax.ws.rs.core.Response;
 import java.net.URI;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertTrue;
@@ -46,7 +47,7 @@ public class SmartpayCaptureHandlerTest {
     @Test
     public void shouldCaptureAPaymentSuccessfully() throws Exception {
         when(response.getStatus()).thenReturn(HttpStatus.SC_OK);
-        when(response.readEntity(String.class)).thenReturn(successCaptureResponse());
+        when(response.readEntity(byte[].class)).thenReturn(successCaptureResponse().getBytes(UTF_8));
         TestResponse testResponse = new TestResponse(this.response);
         when(client.postRequestFor(any(URI.class), any(GatewayAccountEntity.class), any(GatewayOrder.class), anyMap()))
                 .thenReturn(testResponse);
@@ -11,13 +11,23 @@ import uk.gov.pay.connector.charge.dao.ChargeDao;
 import uk.gov.pay.connector.charge.model.domain.ChargeEntity;
 import uk.gov.pay.connector.gateway.processor.ChargeNotificationProcessor;
 import uk.gov.pay.connector.gateway.processor.RefundNotificationProcessor;
+import uk.gov.pay.connector.refund.dao.RefundDao;
+import uk.gov.pay.connector.refund.model.domain.RefundEntity;
 import uk.gov.pay.connector.refund.model.domain.RefundStatus;
 import uk.gov.pay.connector.util.TestTemplateResourceLoader;
+import uk.gov.pay.connector.webhook.service.NotificationDeduplicationService;
 
 import java.time.ZonedDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -26,6 +36,7 @@ import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.AUTHORISATIO
 import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.CAPTURED;
 import static uk.gov.pay.connector.gateway.PaymentGatewayName.SMARTPAY;
 import static uk.gov.pay.connector.util.TestTemplateResourceLoader.SMARTPAY_MULTIPLE_NOTIFICATIONS_DIFFERENT_DATES;
+import static uk.gov.pay.connector.util.TestTemplateResourceLoader.SMARTPAY_MULTIPLE_NOTIFICATIONS_SETTLEMENT_BATCH;
 import static uk.gov.pay.connector.util.TestTemplateResourceLoader.SMARTPAY_NOTIFICATION_AUTHORISATION;
 import static uk.gov.pay.connector.util.TestTemplateResourceLoader.SMARTPAY_NOTIFICATION_CAPTURE;
 import static uk.gov.pay.connector.util.TestTemplateResourceLoader.SMARTPAY_NOTIFICATION_CAPTURE_WITH_UNKNOWN_STATUS;
@@ -39,11 +50,17 @@ public class SmartpayNotificationServiceTest {
     @Mock
     private ChargeDao mockChargeDao;
     @Mock
+    private RefundDao mockRefundDao;
+    @Mock
     private ChargeNotificationProcessor mockChargeNotificationProcessor;
     @Mock
     private RefundNotificationProcessor mockRefundNotificationProcessor;
     @Mock
+    private NotificationDeduplicationService mockNotificationDeduplicationService;
+    @Mock
     private ChargeEntity mockCharge;
+    @Mock
+    private RefundEntity mockRefund;
 
     private final String originalReference = "original-reference";
     private final String pspReference = "psp-reference";
@@ -54,12 +71,15 @@ public class SmartpayNotificationServiceTest {
 
         notificationService = new SmartpayNotificationService(
                 mockChargeDao,
+                mockRefundDao,
                 mockChargeNotificationProcessor,
-                mockRefundNotificationProcessor
+                mockRefundNotificationProcessor,
+                mockNotificationDeduplicationService
         );
         when(mockCharge.getStatus()).thenReturn(AUTHORISATION_SUCCESS.getValue());
+        when(mockCharge.getGatewayTransactionId()).thenReturn(originalReference);
 
-        when(mockChargeDao.findByProviderAndTransactionId(SMARTPAY.getName(), originalReference)).thenReturn(Optional.of(mockCharge));
+        when(mockChargeDao.findByProviderAndTransactionIds(eq(SMARTPAY.getName()), anyCollection())).thenReturn(List.of(mockCharge));
     }
 
     @Test
@@ -69,13 +89,15 @@ public class SmartpayNotificationServiceTest {
 
         notificationService.handleNotificationFor(payload);
 
-        verify(mockRefundNotificationProcessor, never()).invoke(any(), any(), any(), any());
+        verify(mockRefundNotificationProcessor, never()).invoke(any(), any(), any(), any(), any());
         verify(mockChargeNotificationProcessor).invoke(pspReference, mockCharge, CAPTURED,
                 ZonedDateTime.parse("2015-10-08T13:48:30+02:00"));  // from notification-capture.json
     }
 
     @Test
     public void shouldUpdateRefund_WhenNotificationIsForRefund() {
+        when(mockRefund.getReference()).thenReturn(pspReference);
+        when(mockRefundDao.findByProviderAndReferences(SMARTPAY.getName(), Set.of(pspReference))).thenReturn(List.of(mockRefund));
         final String payload = sampleSmartpayNotification(SMARTPAY_NOTIFICATION_REFUND,
                 randomId(), originalReference, pspReference);
 
@@ -83,7 +105,7 @@ public class SmartpayNotificationServiceTest {
 
         verify(mockChargeNotificationProcessor, never()).invoke(any(), any(), any(), any());
         verify(mockRefundNotificationProcessor).invoke(SMARTPAY,
-                RefundStatus.REFUNDED, pspReference, originalReference);
+                RefundStatus.REFUNDED, pspReference, originalReference, Optional.of(mockRefund));
     }
 
     @Test
@@ -94,7 +116,7 @@ public class SmartpayNotificationServiceTest {
         notificationService.handleNotificationFor(payload);
 
         verify(mockChargeNotificationProcessor, never()).invoke(any(), any(), any(), any());
-        verify(mockRefundNotificationProcessor, never()).invoke(any(), any(), any(), any());
+        verify(mockRefundNotificationProcessor, never()).invoke(any(), any(), any(), any(), any());
     }
 
     @Test
@@ -105,7 +127,26 @@ public class SmartpayNotificationServiceTest {
         notificationService.handleNotificationFor(payload);
 
         verify(mockChargeNotificationProcessor, times(1)).invoke(any(), any(), any(), any());
-        verify(mockRefundNotificationProcessor, never()).invoke(any(), any(), any(), any());
+        verify(mockRefundNotificationProcessor, never()).invoke(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void shouldLoadChargesAndRefundsForWholeBatchInOneQueryEach() {
+        when(mockRefund.getReference()).thenReturn(pspReference);
+        when(mockRefundDao.findByProviderAndReferences(SMARTPAY.getName(), Set.of(pspReference))).thenReturn(List.of(mockRefund));
+        final String payload = sampleSmartpayNotification(SMARTPAY_MULTIPLE_NOTIFICATIONS_SETTLEMENT_BATCH,
+                randomId(), originalReference, pspReference);
+
+        notificationService.handleNotificationFor(payload);
+
+        verify(mockChargeDao).findByProviderAndTransactionIds(SMARTPAY.getName(), Set.of(originalReference, "unknown-transaction-id"));
+        verify(mockChargeDao, never()).findByProviderAndTransactionId(any(), any());
+        verify(mockRefundDao).findByProviderAndReferences(SMARTPAY.getName(), Set.of(pspReference));
+        verify(mockChargeNotificationProcessor).invoke("8614443049106308", mockCharge, CAPTURED,
+                ZonedDateTime.parse("2015-10-08T13:48:30+02:00"));
+        verify(mockChargeNotificationProcessor, times(1)).invoke(any(), any(), any(), any());
+        verify(mockRefundNotificationProcessor).invoke(SMARTPAY,
+                RefundStatus.REFUNDED, pspReference, originalReference, Optional.of(mockRefund));
     }
 
     @Test
@@ -116,7 +157,7 @@ public class SmartpayNotificationServiceTest {
         notificationService.handleNotificationFor(payload);
 
         verify(mockChargeNotificationProcessor, never()).invoke(any(), any(), any(), any());
-        verify(mockRefundNotificationProcessor, never()).invoke(any(), any(), any(), any());
+        verify(mockRefundNotificationProcessor, never()).invoke(any(), any(), any(), any(), any());
     }
 
     @Test
@@ -127,7 +168,7 @@ public class SmartpayNotificationServiceTest {
         notificationService.handleNotificationFor(payload);
 
         verify(mockChargeNotificationProcessor, never()).invoke(any(), any(), any(), any());
-        verify(mockRefundNotificationProcessor, never()).invoke(any(), any(), any(), any());
+        verify(mockRefundNotificationProcessor, never()).invoke(any(), any(), any(), any(), any());
     }
 
     @Test
@@ -138,7 +179,7 @@ public class SmartpayNotificationServiceTest {
         notificationService.handleNotificationFor(payload);
 
         verify(mockChargeNotificationProcessor, never()).invoke(any(), any(), any(), any());
-        verify(mockRefundNotificationProcessor, never()).invoke(any(), any(), any(), any());
+        verify(mockRefundNotificationProcessor, never()).invoke(any(), any(), any(), any(), any());
     }
 
     @Test
@@ -148,7 +189,36 @@ public class SmartpayNotificationServiceTest {
         notificationService.handleNotificationFor(payload);
 
         verify(mockChargeNotificationProcessor, never()).invoke(any(), any(), any(), any());
-        verify(mockRefundNotificationProcessor, never()).invoke(any(), any(), any(), any());
+        verify(mockRefundNotificationProcessor, never()).invoke(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void shouldSplitNotificationIntoOneNotificationPerTransaction() {
+        final String payload = sampleSmartpayNotification(SMARTPAY_MULTIPLE_NOTIFICATIONS_SETTLEMENT_BATCH,
+                randomId(), originalReference, pspReference);
+
+        List<String> parts = notificationService.splitByTransaction(payload);
+
+        assertThat(parts.size(), is(2));
+        assertThat(notificationService.transactionIdFor(parts.get(0)), is(Optional.of(originalReference)));
+        assertThat(notificationService.transactionIdFor(parts.get(1)), is(Optional.of("unknown-transaction-id")));
+        assertThat(parts.get(0), containsString("\"live\":\"false\""));
+        assertThat(parts.get(0), containsString("8614443049106308"));
+        assertThat(parts.get(0), containsString(pspReference));
+        assertThat(parts.get(1), containsString("8614443049106309"));
+    }
+
+    @Test
+    public void shouldNotSplitNotificationForOneTransaction() {
+        final String payload = sampleSmartpayNotification(SMARTPAY_MULTIPLE_NOTIFICATIONS_DIFFERENT_DATES,
+                randomId(), originalReference, pspReference);
+
+        assertThat(notificationService.splitByTransaction(payload), is(List.of(payload)));
+    }
+
+    @Test
+    public void shouldNotSplitInvalidPayload() {
+        assertThat(notificationService.splitByTransaction("invalid-payload"), is(List.of("invalid-payload")));
     }
 
     private static String sampleSmartpayNotification(String location,
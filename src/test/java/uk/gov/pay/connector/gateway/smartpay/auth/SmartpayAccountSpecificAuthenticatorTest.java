@@ -1,12 +1,13 @@
 package uk.gov.pay.connector.gateway.smartpay.auth;
 
+import com.codahale.metrics.MetricRegistry;
 import io.dropwizard.auth.basic.BasicCredentials;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import uk.gov.pay.connector.app.NotificationCredentialsCacheConfig;
 import uk.gov.pay.connector.gatewayaccount.dao.GatewayAccountDao;
 import uk.gov.pay.connector.gatewayaccount.model.GatewayAccountEntity;
 import uk.gov.pay.connector.usernotification.model.domain.NotificationCredentials;
@@ -17,6 +18,8 @@ import java.util.Optional;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -31,12 +34,16 @@ public class SmartpayAccountSpecificAuthenticatorTest {
     @Mock
     HashUtil hashUtil;
 
-    @InjectMocks
+    private GatewayAccountEntity gatewayAccountEntity;
+
     private SmartpayAccountSpecificAuthenticator smartpayAccountSpecificAuthenticator;
 
     @Before
     public void setup() {
-        GatewayAccountEntity gatewayAccountEntity = mock(GatewayAccountEntity.class);
+        VerifiedCredentialsCache verifiedCredentialsCache = new VerifiedCredentialsCache(new NotificationCredentialsCacheConfig(), hashUtil, new MetricRegistry());
+        smartpayAccountSpecificAuthenticator = new SmartpayAccountSpecificAuthenticator(gatewayAccountDao, verifiedCredentialsCache);
+
+        gatewayAccountEntity = mock(GatewayAccountEntity.class);
         NotificationCredentials notificationCredentials = mock(NotificationCredentials.class);
         Optional<GatewayAccountEntity> gatewayAccountEntityMayBe = Optional.of(gatewayAccountEntity);
         BasicAuthUser basicAuthUser = mock(BasicAuthUser.class);
@@ -51,6 +58,7 @@ public class SmartpayAccountSpecificAuthenticatorTest {
     @Test
     public void whenAccountMatchesCredentials_shouldReturnBasicAuthUser() {
 
+        when(gatewayAccountEntity.getId()).thenReturn(1L);
         when(hashUtil.check(password, hashedPassword)).thenReturn(true);
 
         Optional<BasicAuthUser> authenticate = smartpayAccountSpecificAuthenticator.authenticate(new BasicCredentials(username, password));
@@ -78,4 +86,24 @@ public class SmartpayAccountSpecificAuthenticatorTest {
 
         assertFalse(authenticate.isPresent());
     }
+
+    @Test
+    public void whenSameCredentialsArePresentedAgain_shouldOnlyCheckPasswordHashOnce() {
+        when(gatewayAccountEntity.getId()).thenReturn(1L);
+
+        assertTrue(smartpayAccountSpecificAuthenticator.authenticate(new BasicCredentials(username, password)).isPresent());
+        assertTrue(smartpayAccountSpecificAuthenticator.authenticate(new BasicCredentials(username, password)).isPresent());
+
+        verify(hashUtil, times(1)).check(password, hashedPassword);
+    }
+
+    @Test
+    public void whenCredentialsDontMatch_shouldCheckPasswordHashEveryTime() {
+        when(hashUtil.check(password, hashedPassword)).thenReturn(false);
+
+        assertFalse(smartpayAccountSpecificAuthenticator.authenticate(new BasicCredentials(username, password)).isPresent());
+        assertFalse(smartpayAccountSpecificAuthenticator.authenticate(new BasicCredentials(username, password)).isPresent());
+
+        verify(hashUtil, times(2)).check(password, hashedPassword);
+    }
 }
@@ -0,0 +1,109 @@
+package uk.gov.pay.connector.gateway.smartpay.auth;
+
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.util.Duration;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import uk.gov.pay.connector.app.NotificationCredentialsCacheConfig;
+import uk.gov.pay.connector.util.HashUtil;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class VerifiedCredentialsCacheTest {
+
+    private static final Long ACCOUNT_ID = 1L;
+    private static final String USERNAME = "MyService";
+    private static final String PASSWORD = "password123";
+    private static final String HASHED_PASSWORD = "$2a$10$hashed";
+
+    @Mock
+    private NotificationCredentialsCacheConfig config;
+
+    @Mock
+    private HashUtil hashUtil;
+
+    private MetricRegistry metricRegistry = new MetricRegistry();
+    private VerifiedCredentialsCache cache;
+
+    @Before
+    public void setUp() {
+        when(config.isEnabled()).thenReturn(true);
+        when(config.getMaximumSize()).thenReturn(10L);
+        when(config.getExpireAfterWrite()).thenReturn(Duration.minutes(5));
+        cache = new VerifiedCredentialsCache(config, hashUtil, metricRegistry);
+    }
+
+    @Test
+    public void shouldOnlyCheckHashOnceForRepeatedValidCredentials() {
+        when(hashUtil.check(PASSWORD, HASHED_PASSWORD)).thenReturn(true);
+
+        assertThat(cache.check(ACCOUNT_ID, USERNAME, PASSWORD, HASHED_PASSWORD), is(true));
+        assertThat(cache.check(ACCOUNT_ID, USERNAME, PASSWORD, HASHED_PASSWORD), is(true));
+
+        verify(hashUtil, times(1)).check(PASSWORD, HASHED_PASSWORD);
+        assertThat(metricRegistry.counter("smartpay-notification-credentials.cache.hits").getCount(), is(1L));
+        assertThat(metricRegistry.counter("smartpay-notification-credentials.cache.misses").getCount(), is(1L));
+    }
+
+    @Test
+    public void shouldNotAcceptDifferentPasswordBecauseAnotherWasVerified() {
+        when(hashUtil.check(PASSWORD, HASHED_PASSWORD)).thenReturn(true);
+        when(hashUtil.check("wrong-password", HASHED_PASSWORD)).thenReturn(false);
+
+        cache.check(ACCOUNT_ID, USERNAME, PASSWORD, HASHED_PASSWORD);
+
+        assertThat(cache.check(ACCOUNT_ID, USERNAME, "wrong-password", HASHED_PASSWORD), is(false));
+    }
+
+    @Test
+    public void shouldCheckAgainWhenStoredHashChanges() {
+        when(hashUtil.check(anyString(), anyString())).thenReturn(true);
+
+        cache.check(ACCOUNT_ID, USERNAME, PASSWORD, HASHED_PASSWORD);
+        cache.check(ACCOUNT_ID, USERNAME, PASSWORD, "$2a$10$rehashed");
+
+        verify(hashUtil).check(PASSWORD, "$2a$10$rehashed");
+    }
+
+    @Test
+    public void shouldCheckAgainAfterAccountIsInvalidated() {
+        when(hashUtil.check(PASSWORD, HASHED_PASSWORD)).thenReturn(true);
+
+        cache.check(ACCOUNT_ID, USERNAME, PASSWORD, HASHED_PASSWORD);
+        cache.invalidate(ACCOUNT_ID);
+        cache.check(ACCOUNT_ID, USERNAME, PASSWORD, HASHED_PASSWORD);
+
+        verify(hashUtil, times(2)).check(PASSWORD, HASHED_PASSWORD);
+    }
+
+    @Test
+    public void shouldKeepOtherAccountsWhenOneIsInvalidated() {
+        when(hashUtil.check(PASSWORD, HASHED_PASSWORD)).thenReturn(true);
+
+        cache.check(ACCOUNT_ID, USERNAME, PASSWORD, HASHED_PASSWORD);
+        cache.invalidate(2L);
+        cache.check(ACCOUNT_ID, USERNAME, PASSWORD, HASHED_PASSWORD);
+
+        verify(hashUtil, times(1)).check(PASSWORD, HASHED_PASSWORD);
+    }
+
+    @Test
+    public void shouldCheckEveryTimeWhenDisabled() {
+        when(config.isEnabled()).thenReturn(false);
+        when(hashUtil.check(PASSWORD, HASHED_PASSWORD)).thenReturn(true);
+
+        cache.check(ACCOUNT_ID, USERNAME, PASSWORD, HASHED_PASSWORD);
+        cache.check(ACCOUNT_ID, USERNAME, PASSWORD, HASHED_PASSWORD);
+
+        verify(hashUtil, times(2)).check(PASSWORD, HASHED_PASSWORD);
+    }
+}
@@ -20,6 +20,7 @@ import uk.gov.pay.connector.gateway.stripe.request.StripeTransferOutRequest;
 import uk.gov.pay.connector.gatewayaccount.model.GatewayAccountEntity;
 import uk.gov.pay.connector.util.JsonObjectMapper;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.apache.http.HttpStatus.SC_UNAUTHORIZED;
 import static org.eclipse.jetty.http.HttpStatus.INTERNAL_SERVER_ERROR_500;
 import static org.hamcrest.CoreMatchers.containsString;
@@ -75,9 +76,9 @@ public class StripeCaptureHandlerTest {
     
     public void shouldCaptureWithFeeAndTransferCorrectAmountToConnectAccount() throws Exception {
         GatewayClient.Response gatewayCaptureResponse = mock(GatewayClient.Response.class);
-        when(gatewayCaptureResponse.getEntity()).thenReturn(load(STRIPE_CAPTURE_SUCCESS_RESPONSE));
+        when(gatewayCaptureResponse.getEntityBytes()).thenReturn(load(STRIPE_CAPTURE_SUCCESS_RESPONSE).getBytes(UTF_8));
         GatewayClient.Response gatewayTransferResponse = mock(GatewayClient.Response.class);
-        when(gatewayTransferResponse.getEntity()).thenReturn(load(STRIPE_TRANSFER_RESPONSE));
+        when(gatewayTransferResponse.getEntityBytes()).thenReturn(load(STRIPE_TRANSFER_RESPONSE).getBytes(UTF_8));
 
         when(gatewayClient.postRequestFor(any(StripeCaptureRequest.class))).thenReturn(gatewayCaptureResponse);
         when(gatewayClient.postRequestFor(any(StripeTransferOutRequest.class))).thenReturn(gatewayTransferResponse);
@@ -108,9 +109,9 @@ public class StripeCaptureHandlerTest {
 
         captureGatewayRequest = CaptureGatewayRequest.valueOf(chargeEntity);
         GatewayClient.Response gatewayCaptureResponse = mock(GatewayClient.Response.class);
-        when(gatewayCaptureResponse.getEntity()).thenReturn(load(STRIPE_CAPTURE_SUCCESS_RESPONSE));
+        when(gatewayCaptureResponse.getEntityBytes()).thenReturn(load(STRIPE_CAPTURE_SUCCESS_RESPONSE).getBytes(UTF_8));
         GatewayClient.Response gatewayTransferResponse = mock(GatewayClient.Response.class);
-        when(gatewayTransferResponse.getEntity()).thenReturn(load(STRIPE_TRANSFER_RESPONSE));
+        when(gatewayTransferResponse.getEntityBytes()).thenReturn(load(STRIPE_TRANSFER_RESPONSE).getBytes(UTF_8));
 
         when(gatewayClient.postRequestFor(any(StripeCaptureRequest.class))).thenReturn(gatewayCaptureResponse);
         when(gatewayClient.postRequestFor(any(StripeTransferOutRequest.class))).thenReturn(gatewayTransferResponse);
@@ -132,9 +133,9 @@ public class StripeCaptureHandlerTest {
 
         captureGatewayRequest = CaptureGatewayRequest.valueOf(chargeEntity);
         GatewayClient.Response gatewayCaptureResponse = mock(GatewayClient.Response.class);
-        when(gatewayCaptureResponse.getEntity()).thenReturn(load(STRIPE_CAPTURE_SUCCESS_RESPONSE));
+        when(gatewayCaptureResponse.getEntityBytes()).thenReturn(load(STRIPE_CAPTURE_SUCCESS_RESPONSE).getBytes(UTF_8));
         GatewayClient.Response gatewayTransferResponse = mock(GatewayClient.Response.class);
-        when(gatewayTransferResponse.getEntity()).thenReturn(load(STRIPE_TRANSFER_RESPONSE));
+        when(gatewayTransferResponse.getEntityBytes()).thenReturn(load(STRIPE_TRANSFER_RESPONSE).getBytes(UTF_8));
 
         when(gatewayClient.postRequestFor(any(StripeCaptureRequest.class))).thenReturn(gatewayCaptureResponse);
         when(gatewayClient.postRequestFor(any(StripeTransferOutRequest.class))).thenReturn(gatewayTransferResponse);
@@ -147,11 +148,11 @@ public class StripeCaptureHandlerTest {
     
     public void shouldCaptureWithoutFee_ifCollectFeeSetToFalse() throws Exception {
         GatewayClient.Response gatewayCaptureResponse = mock(GatewayClient.Response.class);
-        when(gatewayCaptureResponse.getEntity()).thenReturn(load(STRIPE_CAPTURE_SUCCESS_RESPONSE));
+        when(gatewayCaptureResponse.getEntityBytes()).thenReturn(load(STRIPE_CAPTURE_SUCCESS_RESPONSE).getBytes(UTF_8));
         when(gatewayClient.postRequestFor(any(StripeCaptureRequest.class))).thenReturn(gatewayCaptureResponse);
         
         GatewayClient.Response gatewayTransferResponse = mock(GatewayClient.Response.class);
-        when(gatewayTransferResponse.getEntity()).thenReturn(load(STRIPE_TRANSFER_RESPONSE));
+        when(gatewayTransferResponse.getEntityBytes()).thenReturn(load(STRIPE_TRANSFER_RESPONSE).getBytes(UTF_8));
         when(gatewayClient.postRequestFor(any(StripeTransferOutRequest.class))).thenReturn(gatewayTransferResponse);
 
         when(stripeGatewayConfig.isCollectFee()).thenReturn(false);
@@ -168,7 +169,7 @@ public class StripeCaptureHandlerTest {
     @Test
     public void shouldNotDoPostCaptureTransfer_IfChargeIsADestinationCharge() throws Exception {
         GatewayClient.Response gatewayCaptureResponse = mock(GatewayClient.Response.class);
-        when(gatewayCaptureResponse.getEntity()).thenReturn(load(STRIPE_CAPTURE_SUCCESS_RESPONSE_DESTINATION_CHARGE));
+        when(gatewayCaptureResponse.getEntityBytes()).thenReturn(load(STRIPE_CAPTURE_SUCCESS_RESPONSE_DESTINATION_CHARGE).getBytes(UTF_8));
 
         when(gatewayClient.postRequestFor(any(StripeCaptureRequest.class))).thenReturn(gatewayCaptureResponse);
         verify(gatewayClient, never()).postRequestFor(any(StripeTransferOutRequest.class));
@@ -207,7 +208,7 @@ public class StripeCaptureHandlerTest {
     @Test
     public void shouldNotCaptureIfPaymentProviderReturns4XXOnTransfer() throws Exception {
         GatewayClient.Response gatewayCaptureResponse = mock(GatewayClient.Response.class);
-        when(gatewayCaptureResponse.getEntity()).thenReturn(load(STRIPE_CAPTURE_SUCCESS_RESPONSE));
+        when(gatewayCaptureResponse.getEntityBytes()).thenReturn(load(STRIPE_CAPTURE_SUCCESS_RESPONSE).getBytes(UTF_8));
         when(gatewayClient.postRequestFor(any(StripeCaptureRequest.class))).thenReturn(gatewayCaptureResponse);
 
         GatewayErrorException exception = new GatewayErrorException("Unexpected HTTP status code 402 from gateway", load(STRIPE_ERROR_RESPONSE), SC_UNAUTHORIZED);
@@ -225,7 +226,7 @@ public class StripeCaptureHandlerTest {
     @Test
     public void shouldNotCaptureIfPaymentProviderReturns5XXOnTransfer() throws Exception {
         GatewayClient.Response gatewayCaptureResponse = mock(GatewayClient.Response.class);
-        when(gatewayCaptureResponse.getEntity()).thenReturn(load(STRIPE_CAPTURE_SUCCESS_RESPONSE));
+        when(gatewayCaptureResponse.getEntityBytes()).thenReturn(load(STRIPE_CAPTURE_SUCCESS_RESPONSE).getBytes(UTF_8));
         when(gatewayClient.postRequestFor(any(StripeCaptureRequest.class))).thenReturn(gatewayCaptureResponse);
         
         GatewayErrorException exception = new GatewayErrorException("uh oh", "Problem with Stripe servers", INTERNAL_SERVER_ERROR_500);
@@ -15,6 +15,7 @@ import uk.gov.pay.connector.gateway.model.Auth3dsDetails;
 import uk.gov.pay.connector.gatewayaccount.model.GatewayAccountEntity;
 import uk.gov.pay.connector.paymentprocessor.service.Card3dsResponseAuthService;
 import uk.gov.pay.connector.util.TestTemplateResourceLoader;
+import uk.gov.pay.connector.webhook.service.NotificationDeduplicationService;
 
 import javax.ws.rs.WebApplicationException;
 import java.util.List;
@@ -49,6 +50,8 @@ public class StripeNotificationServiceTest {
     private GatewayAccountEntity mockGatewayAccountEntity;
     @Mock
     private StripeGatewayConfig stripeGatewayConfig;
+    @Mock
+    private NotificationDeduplicationService mockNotificationDeduplicationService;
 
     private final String externalId = "external-id";
     private final String sourceId = "source-id";
@@ -58,7 +61,7 @@ public class StripeNotificationServiceTest {
     @Before
     public void setup() {
         notificationService = new StripeNotificationService(mockCard3dsResponseAuthService,
-                mockChargeService, stripeGatewayConfig);
+                mockChargeService, stripeGatewayConfig, mockNotificationDeduplicationService);
 
         StripeWebhookSigningSecrets stripeWebhookSigningSecrets = mock(StripeWebhookSigningSecrets.class);
         when(stripeWebhookSigningSecrets.getTest()).thenReturn(webhookTestSigningSecret);
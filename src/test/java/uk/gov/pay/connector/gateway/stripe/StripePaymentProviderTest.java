@@ -40,6 +40,7 @@ import java.net.URI;
 import java.util.Map;
 import java.util.Optional;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
@@ -97,9 +98,9 @@ public class StripePaymentProviderTest {
         tokensUrl = URI.create(gatewayConfig.getUrl() + "/v1/tokens");
         sourcesUrl = URI.create(gatewayConfig.getUrl() + "/v1/sources");
 
-        when(tokenResponse.getEntity()).thenReturn(successTokenResponse());
-        when(chargeResponse.getEntity()).thenReturn(successChargeResponse());
-        when(sourceResponse.getEntity()).thenReturn(successSourceResponse());
+        when(tokenResponse.getEntityBytes()).thenReturn(successTokenResponse().getBytes(UTF_8));
+        when(chargeResponse.getEntityBytes()).thenReturn(successChargeResponse().getBytes(UTF_8));
+        when(sourceResponse.getEntityBytes()).thenReturn(successSourceResponse().getBytes(UTF_8));
     }
 
     @Test
@@ -119,9 +120,9 @@ public class StripePaymentProviderTest {
         when(gatewayClient.postRequestFor(eq(tokensUrl), any(GatewayAccountEntity.class), any(GatewayOrder.class), any(Map.class))).thenReturn(tokenResponse);
         
         GatewayClient.Response sourceResponseWith3dsRequired = mock(GatewayClient.Response.class);
-        when(sourceResponseWith3dsRequired.getEntity()).thenReturn(successSourceResponseWith3dsRequired(threeDSecureOption));
+        when(sourceResponseWith3dsRequired.getEntityBytes()).thenReturn(successSourceResponseWith3dsRequired(threeDSecureOption).getBytes(UTF_8));
         GatewayClient.Response threeDsSourceResponse = mock(GatewayClient.Response.class);
-        when(threeDsSourceResponse.getEntity()).thenReturn(success3dsSourceResponse());
+        when(threeDsSourceResponse.getEntityBytes()).thenReturn(success3dsSourceResponse().getBytes(UTF_8));
         when(gatewayClient.postRequestFor(eq(sourcesUrl), any(GatewayAccountEntity.class), any(GatewayOrder.class), any(Map.class)))
                 .thenReturn(sourceResponseWith3dsRequired, threeDsSourceResponse);
 
@@ -146,9 +147,9 @@ public class StripePaymentProviderTest {
         when(gatewayClient.postRequestFor(eq(tokensUrl), any(GatewayAccountEntity.class), any(GatewayOrder.class), any(Map.class))).thenReturn(tokenResponse);
 
         GatewayClient.Response sourceResponseWith3dsRequired = mock(GatewayClient.Response.class);
-        when(sourceResponseWith3dsRequired.getEntity()).thenReturn(successSourceResponseWith3dsRequired(threeDSecureOption));
+        when(sourceResponseWith3dsRequired.getEntityBytes()).thenReturn(successSourceResponseWith3dsRequired(threeDSecureOption).getBytes(UTF_8));
         GatewayClient.Response threeDsSourceResponse = mock(GatewayClient.Response.class);
-        when(threeDsSourceResponse.getEntity()).thenReturn(success3dsSourceResponse());
+        when(threeDsSourceResponse.getEntityBytes()).thenReturn(success3dsSourceResponse().getBytes(UTF_8));
         when(gatewayClient.postRequestFor(eq(sourcesUrl), any(GatewayAccountEntity.class), any(GatewayOrder.class), any(Map.class)))
                 .thenReturn(sourceResponseWith3dsRequired, threeDsSourceResponse);
         when(gatewayClient.postRequestFor(any(StripeAuthoriseRequest.class))).thenReturn(chargeResponse);
@@ -168,9 +169,9 @@ public class StripePaymentProviderTest {
         when(gatewayClient.postRequestFor(eq(tokensUrl), any(GatewayAccountEntity.class), any(GatewayOrder.class), any(Map.class))).thenReturn(tokenResponse);
 
         GatewayClient.Response sourceResponseWith3dsRequired = mock(GatewayClient.Response.class);
-        when(sourceResponseWith3dsRequired.getEntity()).thenReturn(successSourceResponseWith3dsRequired("recommended"));
+        when(sourceResponseWith3dsRequired.getEntityBytes()).thenReturn(successSourceResponseWith3dsRequired("recommended").getBytes(UTF_8));
         GatewayClient.Response threeDsSourceResponse = mock(GatewayClient.Response.class);
-        when(threeDsSourceResponse.getEntity()).thenReturn(success3dsSourceResponse("chargeable"));
+        when(threeDsSourceResponse.getEntityBytes()).thenReturn(success3dsSourceResponse("chargeable").getBytes(UTF_8));
         when(gatewayClient.postRequestFor(eq(sourcesUrl), any(GatewayAccountEntity.class), any(GatewayOrder.class), any(Map.class)))
                 .thenReturn(sourceResponseWith3dsRequired, threeDsSourceResponse);
 
@@ -21,6 +21,7 @@ import uk.gov.pay.connector.model.domain.RefundEntityFixture;
 import uk.gov.pay.connector.refund.model.domain.RefundEntity;
 import uk.gov.pay.connector.util.JsonObjectMapper;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.eclipse.jetty.http.HttpStatus.INTERNAL_SERVER_ERROR_500;
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -72,12 +73,12 @@ public class StripeRefundHandlerTest {
     @Test
     public void shouldRefundInFull() throws Exception {
         GatewayClient.Response response = mock(GatewayClient.Response.class);
-        when(response.getEntity()).thenReturn(load(STRIPE_REFUND_FULL_CHARGE_RESPONSE));
+        when(response.getEntityBytes()).thenReturn(load(STRIPE_REFUND_FULL_CHARGE_RESPONSE).getBytes(UTF_8));
         when(gatewayClient.postRequestFor(any(StripeRefundRequest.class))).thenReturn(response);
 
 
         GatewayClient.Response gatewayTransferResponse = mock(GatewayClient.Response.class);
-        when(gatewayTransferResponse.getEntity()).thenReturn(load(STRIPE_TRANSFER_RESPONSE));
+        when(gatewayTransferResponse.getEntityBytes()).thenReturn(load(STRIPE_TRANSFER_RESPONSE).getBytes(UTF_8));
         when(gatewayClient.postRequestFor(any(StripeTransferInRequest.class))).thenReturn(gatewayTransferResponse);
         
         final GatewayRefundResponse refund = refundHandler.refund(refundRequest);
@@ -143,7 +144,7 @@ public class StripeRefundHandlerTest {
     @Test
     public void shouldNotRefund_whenStatusCode4xxOnTransfer() throws Exception {
         GatewayClient.Response response = mock(GatewayClient.Response.class);
-        when(response.getEntity()).thenReturn(load(STRIPE_REFUND_FULL_CHARGE_RESPONSE));
+        when(response.getEntityBytes()).thenReturn(load(STRIPE_REFUND_FULL_CHARGE_RESPONSE).getBytes(UTF_8));
         when(gatewayClient.postRequestFor(any(StripeRefundRequest.class))).thenReturn(response);
         
         GatewayErrorException gatewayClientException = new GatewayErrorException("Unexpected HTTP status code 402 from gateway", load(STRIPE_ERROR_RESPONSE), 402);
@@ -160,7 +161,7 @@ public class StripeRefundHandlerTest {
     @Test
     public void shouldNotRefund_whenStatusCode5xxOnTransfer() throws Exception {
         GatewayClient.Response response = mock(GatewayClient.Response.class);
-        when(response.getEntity()).thenReturn(load(STRIPE_REFUND_FULL_CHARGE_RESPONSE));
+        when(response.getEntityBytes()).thenReturn(load(STRIPE_REFUND_FULL_CHARGE_RESPONSE).getBytes(UTF_8));
         when(gatewayClient.postRequestFor(any(StripeRefundRequest.class))).thenReturn(response);
         
         GatewayErrorException downstreamException = new GatewayErrorException("Problem with Stripe servers", "nginx problem", INTERNAL_SERVER_ERROR_500);
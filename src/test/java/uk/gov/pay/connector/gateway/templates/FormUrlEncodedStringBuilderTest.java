@@ -5,6 +5,7 @@ import org.apache.http.NameValuePair;
 import org.apache.http.message.BasicNameValuePair;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.Answers;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import uk.gov.pay.connector.gateway.epdq.EpdqOrderRequestBuilder;
@@ -20,7 +21,7 @@ import static org.mockito.Mockito.when;
 @RunWith(MockitoJUnitRunner.class)
 public class FormUrlEncodedStringBuilderTest {
 
-    @Mock
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
     private EpdqPayloadDefinition mockPayloadDefinition;
 
     @Mock
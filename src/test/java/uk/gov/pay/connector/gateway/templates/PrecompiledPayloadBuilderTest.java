@@ -0,0 +1,172 @@
+package uk.gov.pay.connector.gateway.templates;
+
+import com.amazonaws.util.json.Jackson;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+import uk.gov.pay.connector.common.model.domain.Address;
+import uk.gov.pay.connector.gateway.OrderRequestBuilder.TemplateData;
+import uk.gov.pay.connector.gateway.model.AuthCardDetails;
+import uk.gov.pay.connector.gateway.smartpay.SmartpayOrderRequestBuilder;
+import uk.gov.pay.connector.gateway.smartpay.SmartpayOrderRequestBuilder.SmartpayTemplateData;
+import uk.gov.pay.connector.gateway.worldpay.WorldpayOrderRequestBuilder;
+import uk.gov.pay.connector.gateway.worldpay.WorldpayOrderRequestBuilder.WorldpayTemplateData;
+import uk.gov.pay.connector.wallets.googlepay.api.GooglePayAuthRequest;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static io.dropwizard.testing.FixtureHelpers.fixture;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static uk.gov.pay.connector.model.domain.AuthCardDetailsFixture.anAuthCardDetails;
+import static uk.gov.pay.connector.model.domain.applepay.ApplePayDecryptedPaymentDataFixture.anApplePayDecryptedPaymentData;
+import static uk.gov.pay.connector.model.domain.applepay.ApplePayPaymentInfoFixture.anApplePayPaymentInfo;
+
+public class PrecompiledPayloadBuilderTest {
+
+    private static final String SPECIAL_CHARS = "<tag attr=\"a\" other='b'> & ; £ é";
+
+    private static final List<Address> ADDRESSES = Arrays.asList(
+            null,
+            new Address("123 My Street", null, "SW8URR", "London", null, "GB"),
+            new Address("123 My Street", "", "SW8URR", "London", "", "GB"),
+            new Address("123 My Street", "This road", "SW8URR", "London", "London county", "GB"),
+            new Address(SPECIAL_CHARS, SPECIAL_CHARS, SPECIAL_CHARS, SPECIAL_CHARS, SPECIAL_CHARS, "GB"));
+
+    @Test
+    public void worldpayAuthoriseOrderShouldMatchTemplate() {
+        for (Address address : ADDRESSES) {
+            for (boolean requires3ds : new boolean[]{false, true}) {
+                WorldpayTemplateData data = worldpayTemplateData();
+                data.setAuthCardDetails(card(address, "Mr Test"));
+                data.setRequires3ds(requires3ds);
+                data.setSessionId("uniqueSessionId");
+                assertSameAsTemplate("/worldpay/WorldpayAuthoriseOrderTemplate.xml", WorldpayOrderRequestBuilder.AUTHORISE_ORDER_TEMPLATE_BUILDER, data);
+            }
+        }
+
+        WorldpayTemplateData data = worldpayTemplateData();
+        data.setTransactionId(SPECIAL_CHARS);
+        data.setDescription(SPECIAL_CHARS);
+        data.setAuthCardDetails(card(ADDRESSES.get(4), SPECIAL_CHARS));
+        assertSameAsTemplate("/worldpay/WorldpayAuthoriseOrderTemplate.xml", WorldpayOrderRequestBuilder.AUTHORISE_ORDER_TEMPLATE_BUILDER, data);
+    }
+
+    @Test
+    public void worldpayApplePayOrderShouldMatchTemplate() {
+        for (String cardholderName : new String[]{null, "Mr. Payment", SPECIAL_CHARS}) {
+            for (String eciIndicator : new String[]{null, "7"}) {
+                WorldpayTemplateData data = worldpayTemplateData();
+                data.setWalletAuthorisationData(anApplePayDecryptedPaymentData()
+                        .withApplePaymentInfo(anApplePayPaymentInfo().withCardholderName(cardholderName).build())
+                        .withEciIndicator(eciIndicator)
+                        .build());
+                assertSameAsTemplate("/worldpay/WorldpayAuthoriseApplePayOrderTemplate.xml", WorldpayOrderRequestBuilder.AUTHORISE_APPLE_PAY_ORDER_TEMPLATE_BUILDER, data);
+            }
+        }
+    }
+
+    @Test
+    public void worldpayGooglePayOrderShouldMatchTemplate() throws Exception {
+        WorldpayTemplateData data = worldpayTemplateData();
+        data.setWalletAuthorisationData(Jackson.getObjectMapper().readValue(fixture("googlepay/example-auth-request.json"), GooglePayAuthRequest.class));
+        assertSameAsTemplate("/worldpay/WorldpayAuthoriseGooglePayOrderTemplate.xml", WorldpayOrderRequestBuilder.AUTHORISE_GOOGLE_PAY_ORDER_TEMPLATE_BUILDER, data);
+    }
+
+    @Test
+    public void worldpayModificationOrdersShouldMatchTemplates() {
+        for (String value : new String[]{"plain-value", SPECIAL_CHARS}) {
+            WorldpayTemplateData data = worldpayTemplateData();
+            data.setTransactionId(value);
+            data.setReference(value);
+            data.setSessionId(value);
+            data.setPaResponse3ds(value);
+            data.setCaptureDate(new DateTime(2018, 3, 7, 10, 0, DateTimeZone.UTC));
+            assertSameAsTemplate("/worldpay/Worldpay3dsResponseAuthOrderTemplate.xml", WorldpayOrderRequestBuilder.AUTH_3DS_RESPONSE_ORDER_TEMPLATE_BUILDER, data);
+            assertSameAsTemplate("/worldpay/WorldpayCaptureOrderTemplate.xml", WorldpayOrderRequestBuilder.CAPTURE_ORDER_TEMPLATE_BUILDER, data);
+            assertSameAsTemplate("/worldpay/WorldpayCancelOrderTemplate.xml", WorldpayOrderRequestBuilder.CANCEL_ORDER_TEMPLATE_BUILDER, data);
+            assertSameAsTemplate("/worldpay/WorldpayRefundOrderTemplate.xml", WorldpayOrderRequestBuilder.REFUND_ORDER_TEMPLATE_BUILDER, data);
+            assertSameAsTemplate("/worldpay/WorldpayInquiryOrderTemplate.xml", WorldpayOrderRequestBuilder.INQUIRY_TEMPLATE_BUILDER, data);
+        }
+    }
+
+    @Test
+    public void smartpayAuthoriseOrdersShouldMatchTemplates() {
+        for (Address address : ADDRESSES) {
+            SmartpayTemplateData data = smartpayTemplateData();
+            data.setAuthCardDetails(card(address, "Mr Test"));
+            assertSameAsTemplate("/smartpay/SmartpayAuthoriseOrderTemplate.xml", SmartpayOrderRequestBuilder.AUTHORISE_ORDER_TEMPLATE_BUILDER, data);
+            assertSameAsTemplate("/smartpay/Smartpay3dsRequiredOrderTemplate.xml", SmartpayOrderRequestBuilder.REQUIRED_3DS_ORDER_TEMPLATE_BUILDER, data);
+        }
+
+        SmartpayTemplateData data = smartpayTemplateData();
+        data.setPaymentPlatformReference(SPECIAL_CHARS);
+        data.setDescription(SPECIAL_CHARS);
+        data.setAuthCardDetails(card(ADDRESSES.get(4), SPECIAL_CHARS));
+        assertSameAsTemplate("/smartpay/SmartpayAuthoriseOrderTemplate.xml", SmartpayOrderRequestBuilder.AUTHORISE_ORDER_TEMPLATE_BUILDER, data);
+        assertSameAsTemplate("/smartpay/Smartpay3dsRequiredOrderTemplate.xml", SmartpayOrderRequestBuilder.REQUIRED_3DS_ORDER_TEMPLATE_BUILDER, data);
+    }
+
+    @Test
+    public void smartpayModificationOrdersShouldMatchTemplates() {
+        for (String value : new String[]{"plain-value", SPECIAL_CHARS}) {
+            SmartpayTemplateData data = smartpayTemplateData();
+            data.setTransactionId(value);
+            data.setReference(value);
+            data.setMd("md-value");
+            data.setPaResponse("pa-response-value");
+            assertSameAsTemplate("/smartpay/SmartpayAuthorise3dsOrderTemplate.xml", SmartpayOrderRequestBuilder.AUTHORISE_3DS_ORDER_TEMPLATE_BUILDER, data);
+            assertSameAsTemplate("/smartpay/SmartpayCaptureOrderTemplate.xml", SmartpayOrderRequestBuilder.CAPTURE_ORDER_TEMPLATE_BUILDER, data);
+            assertSameAsTemplate("/smartpay/SmartpayCancelOrderTemplate.xml", SmartpayOrderRequestBuilder.CANCEL_ORDER_TEMPLATE_BUILDER, data);
+            assertSameAsTemplate("/smartpay/SmartpayRefundOrderTemplate.xml", SmartpayOrderRequestBuilder.REFUND_ORDER_TEMPLATE_BUILDER, data);
+        }
+    }
+
+    @Test
+    public void shouldFailLikeTheTemplateWhenARequiredValueIsMissing() {
+        WorldpayTemplateData data = worldpayTemplateData();
+        data.setTransactionId(null);
+        try {
+            WorldpayOrderRequestBuilder.CANCEL_ORDER_TEMPLATE_BUILDER.buildWith(data);
+            fail("Expected missing transactionId to fail the build");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("transactionId"));
+        }
+    }
+
+    private static void assertSameAsTemplate(String templatePath, PayloadBuilder precompiled, TemplateData data) {
+        assertThat(templatePath, precompiled.buildWith(data), is(new TemplateBuilder(templatePath).buildWith(data)));
+    }
+
+    private static AuthCardDetails card(Address address, String cardHolder) {
+        return anAuthCardDetails()
+                .withCardHolder(cardHolder)
+                .withEndDate("08/21")
+                .withAddress(address)
+                .withAcceptHeader("text/html")
+                .withUserAgentHeader("Mozilla/5.0 (\"quoted\" & <bracketed>)")
+                .build();
+    }
+
+    private static WorldpayTemplateData worldpayTemplateData() {
+        WorldpayTemplateData data = new WorldpayTemplateData();
+        data.setMerchantCode("MERCHANTCODE");
+        data.setTransactionId("MyUniqueTransactionId!");
+        data.setDescription("This is the description");
+        data.setAmount("500");
+        return data;
+    }
+
+    private static SmartpayTemplateData smartpayTemplateData() {
+        SmartpayTemplateData data = new SmartpayTemplateData();
+        data.setMerchantCode("MERCHANTCODE");
+        data.setTransactionId("MyUniqueTransactionId!");
+        data.setPaymentPlatformReference("MyPlatformReference");
+        data.setDescription("This is the description");
+        data.setAmount("2000");
+        return data;
+    }
+}
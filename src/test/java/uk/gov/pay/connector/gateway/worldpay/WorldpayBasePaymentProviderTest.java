@@ -8,14 +8,19 @@ import io.dropwizard.setup.Environment;
 import org.junit.Before;
 import org.mockito.Mock;
 import uk.gov.pay.connector.app.ConnectorConfiguration;
+import uk.gov.pay.connector.app.GatewayAdaptiveTimeoutConfig;
+import uk.gov.pay.connector.app.GatewayCircuitBreakerConfig;
 import uk.gov.pay.connector.app.GatewayConfig;
 import uk.gov.pay.connector.gateway.ClientFactory;
+import uk.gov.pay.connector.gateway.AdaptiveGatewayTimeouts;
+import uk.gov.pay.connector.gateway.GatewayCircuitBreakerRegistry;
 import uk.gov.pay.connector.gateway.GatewayClient;
 import uk.gov.pay.connector.gateway.GatewayClientFactory;
 import uk.gov.pay.connector.gateway.GatewayOperation;
 import uk.gov.pay.connector.gateway.PaymentGatewayName;
 import uk.gov.pay.connector.gateway.model.GatewayError;
 import uk.gov.pay.connector.gatewayaccount.model.GatewayAccountEntity;
+import uk.gov.pay.connector.util.XrayUtils;
 
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.Entity;
@@ -24,9 +29,11 @@ import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.NewCookie;
 import javax.ws.rs.core.Response;
 import java.net.URI;
+import java.time.Clock;
 import java.util.Collections;
 import java.util.Map;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertNotNull;
@@ -73,7 +80,10 @@ public abstract class WorldpayBasePaymentProviderTest {
         gatewayAccountEntity = aServiceAccount();
         gatewayAccountEntity.setCredentials(ImmutableMap.of("merchant_id", "MERCHANTCODE"));
         
-        GatewayClientFactory gatewayClientFactory = new GatewayClientFactory(mockClientFactory);
+        GatewayClientFactory gatewayClientFactory = new GatewayClientFactory(mockClientFactory,
+                new GatewayCircuitBreakerRegistry(new GatewayCircuitBreakerConfig(), new MetricRegistry(), Clock.systemUTC()),
+                new AdaptiveGatewayTimeouts(new GatewayAdaptiveTimeoutConfig(), new MetricRegistry(), Clock.systemUTC()),
+                new XrayUtils(false));
 
         when(mockMetricRegistry.histogram(anyString())).thenReturn(mockHistogram);
         when(mockMetricRegistry.counter(anyString())).thenReturn(mockCounter);
@@ -124,7 +134,7 @@ public abstract class WorldpayBasePaymentProviderTest {
                 Collections.singletonMap(WORLDPAY_MACHINE_COOKIE_NAME, NewCookie.valueOf("value-from-worldpay"));
 
         Response response = mock(Response.class);
-        when(response.readEntity(String.class)).thenReturn(responsePayload);
+        when(response.readEntity(byte[].class)).thenReturn(responsePayload.getBytes(UTF_8));
         when(mockBuilder.post(any(Entity.class))).thenReturn(response);
         when(response.getCookies()).thenReturn(responseCookies);
 
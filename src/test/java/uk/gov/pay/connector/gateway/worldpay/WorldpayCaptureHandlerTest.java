@@ -18,6 +18,7 @@ import uk.gov.pay.connector.gatewayaccount.model.GatewayAccountEntity;
 import javax.ws.rs.core.Response;
 import java.net.URI;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertTrue;
@@ -51,7 +52,7 @@ public class WorldpayCaptureHandlerTest {
     @Test
     public void shouldCaptureAPaymentSuccessfully() throws Exception {
         when(response.getStatus()).thenReturn(HttpStatus.SC_OK);
-        when(response.readEntity(String.class)).thenReturn(load("templates/worldpay/capture-success-response.xml"));
+        when(response.readEntity(byte[].class)).thenReturn(load("templates/worldpay/capture-success-response.xml").getBytes(UTF_8));
         GatewayClient.Response response = new TestResponse(this.response);
         when(client.postRequestFor(any(URI.class), any(GatewayAccountEntity.class), any(GatewayOrder.class), anyMap())).thenReturn(response);
         
@@ -70,7 +71,7 @@ public class WorldpayCaptureHandlerTest {
     @Test
     public void shouldErrorIfOrderReferenceNotKnownInCapture() throws Exception {
         when(response.getStatus()).thenReturn(HttpStatus.SC_OK);
-        when(response.readEntity(String.class)).thenReturn(load("templates/worldpay/error-response.xml"));
+        when(response.readEntity(byte[].class)).thenReturn(load("templates/worldpay/error-response.xml").getBytes(UTF_8));
         TestResponse testResponse = new TestResponse(this.response);
         when(client.postRequestFor(any(URI.class), any(GatewayAccountEntity.class), any(GatewayOrder.class), anyMap())).thenReturn(testResponse);
 
@@ -12,6 +12,7 @@ import uk.gov.pay.connector.gateway.processor.RefundNotificationProcessor;
 import uk.gov.pay.connector.refund.model.domain.RefundStatus;
 import uk.gov.pay.connector.util.DnsUtils;
 import uk.gov.pay.connector.util.TestTemplateResourceLoader;
+import uk.gov.pay.connector.webhook.service.NotificationDeduplicationService;
 
 import java.util.Arrays;
 import java.util.List;
@@ -44,6 +45,8 @@ public class WorldpayNotificationServiceTest {
     @Mock
     private RefundNotificationProcessor mockRefundNotificationProcessor;
     @Mock
+    private NotificationDeduplicationService mockNotificationDeduplicationService;
+    @Mock
     private ChargeEntity mockCharge;
 
     private final String ipAddress = "1.1.1.1";
@@ -57,7 +60,8 @@ public class WorldpayNotificationServiceTest {
                 mockWorldpayConfiguration,
                 mockDnsUtils,
                 mockChargeNotificationProcessor,
-                mockRefundNotificationProcessor
+                mockRefundNotificationProcessor,
+                mockNotificationDeduplicationService
         );
         when(mockChargeDao.findByProviderAndTransactionId(WORLDPAY.getName(), transactionId)).thenReturn(Optional.of(mockCharge));
     }
@@ -202,6 +206,39 @@ public class WorldpayNotificationServiceTest {
         verify(mockRefundNotificationProcessor, never()).invoke(any(), any(), any(), any());
     }
 
+    @Test
+    public void givenAnAppliedNotification_shouldRecordItAsApplied() {
+        final String payload = sampleWorldpayNotification(transactionId, referenceId, "CAPTURED", "10", "03", "2017");
+        WorldpayNotification expectedNotification = new WorldpayNotification("MERCHANTCODE", "CAPTURED", 10, 3, 2017, transactionId, referenceId);
+        when(mockChargeNotificationProcessor.invoke(transactionId, mockCharge, CAPTURED, expectedNotification.getGatewayEventDate())).thenReturn(true);
+
+        notificationService.handleNotificationFor(ipAddress, payload);
+
+        verify(mockNotificationDeduplicationService).recordApplied(WORLDPAY, transactionId + "/" + referenceId,
+                "CAPTURED", expectedNotification.getGatewayEventDate());
+    }
+
+    @Test
+    public void givenANotificationThatWasNotApplied_shouldNotRecordIt() {
+        final String payload = sampleWorldpayNotification(transactionId, referenceId, "CAPTURED", "10", "03", "2017");
+
+        notificationService.handleNotificationFor(ipAddress, payload);
+
+        verify(mockNotificationDeduplicationService, never()).recordApplied(any(), any(), any(), any());
+    }
+
+    @Test
+    public void givenADuplicateNotification_shouldNotLookUpTheCharge() {
+        final String payload = sampleWorldpayNotification(transactionId, referenceId, "CAPTURED", "10", "03", "2017");
+        when(mockNotificationDeduplicationService.isDuplicate(any(), any(), any(), any())).thenReturn(true);
+
+        final boolean result = notificationService.handleNotificationFor(ipAddress, payload);
+        assertTrue(result);
+
+        verify(mockChargeDao, never()).findByProviderAndTransactionId(anyString(), anyString());
+        verify(mockChargeNotificationProcessor, never()).invoke(any(), any(), any(), any());
+    }
+
     @Test
     public void ifPayloadNotValidXml_shouldIgnoreNotification() {
         String payload = "<not></valid>";
@@ -0,0 +1,129 @@
+package uk.gov.pay.connector.gatewayaccount.service;
+
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.dropwizard.jackson.Jackson;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.Before;
+import org.junit.Test;
+import uk.gov.pay.connector.app.GatewayAccountCacheConfig;
+import uk.gov.pay.connector.gatewayaccount.model.GatewayAccountEntity;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static uk.gov.pay.connector.gatewayaccount.model.GatewayAccountEntity.Type.TEST;
+
+public class GatewayAccountCacheTest {
+
+    private static final long ACCOUNT_ID = 42L;
+
+    private final ObjectMapper objectMapper = Jackson.newObjectMapper();
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+    private final AtomicInteger loads = new AtomicInteger();
+    private GatewayAccountCache gatewayAccountCache;
+
+    @Before
+    public void setUp() {
+        gatewayAccountCache = new GatewayAccountCache(new GatewayAccountCacheConfig(), objectMapper, metricRegistry);
+    }
+
+    @Test
+    public void shouldServeRepeatedRequestsFromOneLoad() throws IOException {
+        get("first service");
+
+        assertThat(serviceName(get("second service").getApiJson()), is("first service"));
+        assertThat(loads.get(), is(1));
+        assertThat(metricRegistry.getGauges().get("gateway-account-cache.hit-rate").getValue(), is(0.5));
+    }
+
+    @Test
+    public void shouldLeaveThePasswordOutOfTheFrontendView() throws IOException {
+        JsonNode credentials = objectMapper.readTree(get("a service").getFrontendJson()).get("credentials");
+
+        assertThat(credentials.get("username").asText(), is("a-username"));
+        assertThat(credentials.has("password"), is(false));
+    }
+
+    @Test
+    public void shouldReloadAfterInvalidation() throws IOException {
+        get("old name");
+
+        gatewayAccountCache.invalidate(ACCOUNT_ID);
+
+        assertThat(serviceName(get("new name").getApiJson()), is("new name"));
+    }
+
+    @Test
+    public void shouldReloadAfterInvalidatingEverything() throws IOException {
+        get("old name");
+
+        gatewayAccountCache.invalidateAll();
+
+        assertThat(serviceName(get("new name").getApiJson()), is("new name"));
+    }
+
+    @Test
+    public void shouldInvalidateAgainWhenTheOutermostTransactionEnds() throws Throwable {
+        GatewayAccountCache.AfterTransaction afterTransaction = new GatewayAccountCache.AfterTransaction(() -> gatewayAccountCache);
+        MethodInvocation outer = mock(MethodInvocation.class);
+        MethodInvocation inner = mock(MethodInvocation.class);
+        when(inner.proceed()).then(invocation -> {
+            gatewayAccountCache.invalidate(ACCOUNT_ID);
+            // another request reads the account before the transaction commits
+            assertThat(serviceName(get("old name").getApiJson()), is("old name"));
+            return null;
+        });
+        when(outer.proceed()).then(invocation -> afterTransaction.invoke(inner));
+
+        afterTransaction.invoke(outer);
+
+        assertThat(serviceName(get("new name").getApiJson()), is("new name"));
+    }
+
+    @Test
+    public void shouldNotCacheALoadThatOverlapsAnInvalidation() throws IOException {
+        gatewayAccountCache.get(ACCOUNT_ID, () -> {
+            gatewayAccountCache.invalidate(ACCOUNT_ID);
+            return Optional.of(anAccount("old name"));
+        });
+
+        assertThat(serviceName(get("new name").getApiJson()), is("new name"));
+    }
+
+    @Test
+    public void shouldNotCacheAnAccountThatWasNotFound() throws IOException {
+        gatewayAccountCache.get(ACCOUNT_ID, Optional::empty);
+
+        assertThat(serviceName(get("a service").getApiJson()), is("a service"));
+    }
+
+    private GatewayAccountCache.Snapshot get(String serviceName) {
+        return gatewayAccountCache.get(ACCOUNT_ID, () -> {
+            loads.incrementAndGet();
+            return Optional.of(anAccount(serviceName));
+        }).get();
+    }
+
+    private GatewayAccountEntity anAccount(String serviceName) {
+        Map<String, String> credentials = new HashMap<>();
+        credentials.put("username", "a-username");
+        credentials.put("password", "a-password");
+        GatewayAccountEntity gatewayAccount = new GatewayAccountEntity("worldpay", credentials, TEST);
+        gatewayAccount.setId(ACCOUNT_ID);
+        gatewayAccount.setServiceName(serviceName);
+        return gatewayAccount;
+    }
+
+    private String serviceName(byte[] json) throws IOException {
+        return objectMapper.readTree(json).get("service_name").asText();
+    }
+}
@@ -6,22 +6,32 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.eclipse.persistence.jpa.JpaHelper;
+import org.eclipse.persistence.sessions.SessionEvent;
+import org.eclipse.persistence.sessions.SessionEventAdapter;
+import org.eclipse.persistence.sessions.SessionEventListener;
+import org.eclipse.persistence.sessions.server.Server;
 import org.junit.rules.ExpectedException;
 import uk.gov.pay.commons.model.charge.ExternalMetadata;
 import uk.gov.pay.connector.charge.dao.ChargeDao;
+import uk.gov.pay.connector.charge.dao.SearchCursor;
 import uk.gov.pay.connector.charge.dao.SearchParams;
 import uk.gov.pay.connector.charge.model.CardHolderName;
 import uk.gov.pay.connector.charge.model.FirstDigitsCardNumber;
 import uk.gov.pay.connector.charge.model.LastDigitsCardNumber;
 import uk.gov.pay.connector.charge.model.ServicePaymentReference;
 import uk.gov.pay.connector.charge.model.domain.ChargeEntity;
+import uk.gov.pay.connector.charge.model.domain.ChargeSearchResult;
 import uk.gov.pay.connector.charge.model.domain.ChargeStatus;
+import uk.gov.pay.connector.charge.util.RefundCalculator;
 import uk.gov.pay.connector.gatewayaccount.model.GatewayAccountEntity;
 import uk.gov.pay.connector.it.dao.DatabaseFixtures.TestCharge;
 import uk.gov.pay.connector.refund.model.domain.RefundEntity;
+import uk.gov.pay.connector.refund.model.domain.RefundStatus;
 import uk.gov.pay.connector.util.DateTimeUtils;
 import uk.gov.pay.connector.util.RandomIdGenerator;
 
+import javax.persistence.EntityManagerFactory;
 import java.io.IOException;
 import java.time.Duration;
 import java.time.ZoneId;
@@ -33,6 +43,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.time.ZonedDateTime.now;
 import static java.util.Arrays.asList;
@@ -46,9 +57,7 @@ import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
-import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.AUTHORISATION_3DS_REQUIRED;
 import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.AUTHORISATION_READY;
-import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.AUTHORISATION_REJECTED;
 import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.AUTHORISATION_SUCCESS;
 import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.CAPTURED;
 import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.CAPTURE_APPROVED;
@@ -61,6 +70,9 @@ import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.SYSTEM_CANCE
 import static uk.gov.pay.connector.common.model.api.ExternalChargeState.EXTERNAL_CREATED;
 import static uk.gov.pay.connector.common.model.api.ExternalChargeState.EXTERNAL_STARTED;
 import static uk.gov.pay.connector.gatewayaccount.model.GatewayAccountEntity.Type.TEST;
+import static uk.gov.pay.connector.refund.model.domain.RefundStatus.REFUNDED;
+import static uk.gov.pay.connector.refund.model.domain.RefundStatus.REFUND_ERROR;
+import static uk.gov.pay.connector.refund.model.domain.RefundStatus.REFUND_SUBMITTED;
 import static uk.gov.pay.connector.model.domain.ChargeEntityFixture.aValidChargeEntity;
 
 public class ChargeDaoIT extends DaoITestBase {
@@ -375,6 +387,37 @@ public class ChargeDaoIT extends DaoITestBase {
         assertThat(charges.get(1).getId(), is(testCharge1.getChargeId()));
     }
 
+    @Test
+    public void searchChargesAfterCursor_shouldSeekPastChargesCreatedAtTheSameTime() {
+        // given
+        ZonedDateTime createdDate = now().truncatedTo(ChronoUnit.SECONDS);
+        TestCharge testCharge1 = insertNewChargeWithId(101L, createdDate.minusHours(1));
+        TestCharge testCharge2 = insertNewChargeWithId(102L, createdDate);
+        TestCharge testCharge3 = insertNewChargeWithId(103L, createdDate);
+        TestCharge testCharge4 = insertNewChargeWithId(104L, createdDate.plusHours(1));
+
+        // when
+        SearchParams params = new SearchParams()
+                .withGatewayAccountId(defaultTestAccount.getAccountId())
+                .withAfter(SearchCursor.START)
+                .withDisplaySize(2L);
+        List<ChargeEntity> charges = chargeDao.findAllBy(params);
+
+        // then
+        assertThat(charges.size(), is(2));
+        assertThat(charges.get(0).getId(), is(testCharge4.getChargeId()));
+        assertThat(charges.get(1).getId(), is(testCharge3.getChargeId()));
+
+        // when
+        params.withAfter(SearchCursor.after(charges.get(1).getCreatedDate(), charges.get(1).getId()));
+        charges = chargeDao.findAllBy(params);
+
+        // then
+        assertThat(charges.size(), is(2));
+        assertThat(charges.get(0).getId(), is(testCharge2.getChargeId()));
+        assertThat(charges.get(1).getId(), is(testCharge1.getChargeId()));
+    }
+
     @Test
     public void shouldGetTotalCount_5_when_displaySizeIs_2() {
         // given
@@ -867,6 +910,61 @@ public class ChargeDaoIT extends DaoITestBase {
         assertThat(createdDateTime, within(1, ChronoUnit.MINUTES, now()));
     }
 
+    @Test
+    public void findSearchResultsBy_shouldReadWhatTheChargeEntityHas() {
+        TestCharge testCharge = insertCapturedChargeWithFeeAndRefunds(now().minusHours(1));
+        SearchParams params = new SearchParams()
+                .withGatewayAccountId(defaultTestAccount.getAccountId());
+
+        List<ChargeSearchResult> results = chargeDao.findSearchResultsBy(params);
+
+        assertThat(results.size(), is(1));
+        ChargeSearchResult result = results.get(0);
+        ChargeEntity charge = chargeDao.findById(testCharge.getChargeId()).get();
+        assertThat(result.getExternalId(), is(charge.getExternalId()));
+        assertThat(result.getPaymentProvider(), is(charge.getGatewayAccount().getGatewayName()));
+        assertThat(result.getCreatedDate(), is(charge.getCreatedDate()));
+        assertThat(result.getFeeAmount(), is(charge.getFeeAmount()));
+        assertThat(result.getRefundedAmount(), is(RefundCalculator.getRefundedAmount(charge)));
+        assertThat(result.getRefundedAmount(), is(300L));
+        assertThat(result.getCaptureSubmitTime(), is(charge.getCaptureSubmitTime()));
+        assertThat(result.getCapturedTime(), is(charge.getCapturedTime()));
+        assertThat(result.getCardDetails().get().getCardBrand(), is("Visa"));
+        assertThat(result.getCardDetails().get().getLastDigitsCardNumber(), is(charge.getCardDetails().getLastDigitsCardNumber()));
+        assertThat(result.getCardDetails().get().getCardHolderName(), is(charge.getCardDetails().getCardHolderName()));
+    }
+
+    @Test
+    public void findSearchResultsBy_shouldReadAPageInTwoQueriesHoweverLongItIs() {
+        for (int i = 0; i < 20; i++) {
+            insertCapturedChargeWithFeeAndRefunds(now().minusMinutes(i));
+        }
+        SearchParams params = new SearchParams()
+                .withGatewayAccountId(defaultTestAccount.getAccountId())
+                .withPage(1L)
+                .withDisplaySize(20L);
+
+        // Counts every query EclipseLink runs, including those that load a charge's eager associations
+        AtomicInteger queries = new AtomicInteger();
+        SessionEventListener queryCounter = new SessionEventAdapter() {
+            @Override
+            public void preExecuteQuery(SessionEvent event) {
+                queries.incrementAndGet();
+            }
+        };
+        Server server = JpaHelper.getServerSession(env.getInstance(EntityManagerFactory.class));
+        server.getEventManager().addListener(queryCounter);
+        List<ChargeSearchResult> results;
+        try {
+            results = chargeDao.findSearchResultsBy(params);
+        } finally {
+            server.getEventManager().removeListener(queryCounter);
+        }
+
+        assertThat(results.size(), is(20));
+        assertThat(queries.get(), is(2));
+    }
+
     @Test
     public void chargeEvents_shouldRecordTransactionIdWithEachStatusChange() {
         Long chargeId = 56735L;
@@ -1200,117 +1298,6 @@ public class ChargeDaoIT extends DaoITestBase {
         assertThat(charges.size(), is(0));
     }
 
-    @Test
-    public void findByAccountBetweenDatesWithStatusIn_findsChargeWithMatchingAccountAndStatusInsideRange() {
-        TestCharge charge = DatabaseFixtures
-                .withDatabaseTestHelper(databaseTestHelper)
-                .aTestCharge()
-                .withTestAccount(defaultTestAccount)
-                .withChargeId(nextLong())
-                .withChargeStatus(CAPTURE_APPROVED_RETRY)
-                .withCreatedDate(now().minusMinutes(30))
-                .insert();
-
-        ArrayList<ChargeStatus> statuses = Lists.newArrayList(CAPTURE_APPROVED, CAPTURE_APPROVED_RETRY, CAPTURE_READY);
-
-        List<ChargeEntity> charges = chargeDao.findByAccountBetweenDatesWithStatusIn(
-                defaultTestAccount.getAccountId(),
-                now().minusMinutes(45),
-                now().minusMinutes(15),
-                statuses);
-
-        assertThat(charges.size(), is(1));
-        assertThat(charges.get(0).getId(), is(charge.getChargeId()));
-    }
-
-    @Test
-    public void findByAccountBetweenDatesWithStatusIn_findsNoneWithNonMatchingAccountButMatchingStatusInsideRange() {
-        DatabaseFixtures
-                .withDatabaseTestHelper(databaseTestHelper)
-                .aTestCharge()
-                .withTestAccount(defaultTestAccount)
-                .withChargeId(nextLong())
-                .withChargeStatus(AUTHORISATION_SUCCESS)
-                .withCreatedDate(now().minusMinutes(30))
-                .insert();
-
-        ArrayList<ChargeStatus> statuses = Lists.newArrayList(AUTHORISATION_SUCCESS, AUTHORISATION_REJECTED);
-
-        List<ChargeEntity> charges = chargeDao.findByAccountBetweenDatesWithStatusIn(
-                100_000L,
-                now().minusMinutes(45),
-                now().minusMinutes(15),
-                statuses);
-
-        assertThat(charges.size(), is(0));
-    }
-
-    @Test
-    public void findByAccountBetweenDatesWithStatusIn_findsNoneWithMatchingAccountButNonMatchingStatusInsideRange() {
-        DatabaseFixtures
-                .withDatabaseTestHelper(databaseTestHelper)
-                .aTestCharge()
-                .withTestAccount(defaultTestAccount)
-                .withChargeId(nextLong())
-                .withChargeStatus(CAPTURED)
-                .withCreatedDate(now().minusMinutes(30))
-                .insert();
-
-        ArrayList<ChargeStatus> statuses = Lists.newArrayList(CREATED, ENTERING_CARD_DETAILS);
-
-        List<ChargeEntity> charges = chargeDao.findByAccountBetweenDatesWithStatusIn(
-                defaultTestAccount.getAccountId(),
-                now().minusMinutes(45),
-                now().minusMinutes(15),
-                statuses);
-
-        assertThat(charges.size(), is(0));
-    }
-
-    @Test
-    public void findByAccountBetweenDatesWithStatusIn_findsNoneWithMatchingAccountAndStatusBeforeRange() {
-        DatabaseFixtures
-                .withDatabaseTestHelper(databaseTestHelper)
-                .aTestCharge()
-                .withTestAccount(defaultTestAccount)
-                .withChargeId(nextLong())
-                .withChargeStatus(CAPTURED)
-                .withCreatedDate(now().minusMinutes(40))
-                .insert();
-
-        ArrayList<ChargeStatus> statuses = Lists.newArrayList(CAPTURE_SUBMITTED, CAPTURED);
-
-        List<ChargeEntity> charges = chargeDao.findByAccountBetweenDatesWithStatusIn(
-                defaultTestAccount.getAccountId(),
-                now().minusMinutes(30),
-                now().minusMinutes(5),
-                statuses);
-
-        assertThat(charges.size(), is(0));
-    }
-
-    @Test
-    public void findByAccountBetweenDatesWithStatusIn_findsNoneWithMatchingAccountAndStatusAfterRange() {
-        DatabaseFixtures
-                .withDatabaseTestHelper(databaseTestHelper)
-                .aTestCharge()
-                .withTestAccount(defaultTestAccount)
-                .withChargeId(nextLong())
-                .withChargeStatus(AUTHORISATION_SUCCESS)
-                .withCreatedDate(now().minusMinutes(5))
-                .insert();
-
-        ArrayList<ChargeStatus> statuses = Lists.newArrayList(AUTHORISATION_SUCCESS, AUTHORISATION_3DS_REQUIRED);
-
-        List<ChargeEntity> charges = chargeDao.findByAccountBetweenDatesWithStatusIn(
-                defaultTestAccount.getAccountId(),
-                now().minusMinutes(60),
-                now().minusMinutes(30),
-                statuses);
-
-        assertThat(charges.size(), is(0));
-    }
-
     @Test
     public void testFindChargeByTokenId() {
         TestCharge charge = DatabaseFixtures
@@ -1639,6 +1626,46 @@ public class ChargeDaoIT extends DaoITestBase {
         return testCharge;
     }
 
+    private TestCharge insertCapturedChargeWithFeeAndRefunds(ZonedDateTime createdDate) {
+        TestCharge testCharge = DatabaseFixtures
+                .withDatabaseTestHelper(databaseTestHelper)
+                .aTestCharge()
+                .withTestAccount(defaultTestAccount)
+                .withAmount(1000L)
+                .withChargeStatus(CAPTURED)
+                .withCreatedDate(createdDate)
+                .insert();
+        defaultTestCardDetails
+                .withChargeId(testCharge.getChargeId())
+                .update();
+        DatabaseFixtures.withDatabaseTestHelper(databaseTestHelper)
+                .aTestFee()
+                .withTestCharge(testCharge)
+                .withFeeCollected(50L)
+                .insert();
+        DatabaseFixtures.withDatabaseTestHelper(databaseTestHelper)
+                .aTestChargeEvent()
+                .withTestCharge(testCharge)
+                .withChargeStatus(CAPTURE_SUBMITTED)
+                .withDate(createdDate.plusSeconds(1))
+                .insert();
+        DatabaseFixtures.withDatabaseTestHelper(databaseTestHelper)
+                .aTestChargeEvent()
+                .withTestCharge(testCharge)
+                .withChargeStatus(CAPTURED)
+                .withDate(createdDate.plusSeconds(2))
+                .insert();
+        for (RefundStatus status : asList(REFUNDED, REFUND_SUBMITTED, REFUND_ERROR)) {
+            DatabaseFixtures.withDatabaseTestHelper(databaseTestHelper)
+                    .aTestRefund()
+                    .withTestCharge(testCharge)
+                    .withAmount(status == REFUNDED ? 100L : 200L)
+                    .withRefundStatus(status)
+                    .insert();
+        }
+        return testCharge;
+    }
+
     private void insertTestRefund() {
         this.defaultTestRefund = DatabaseFixtures
                 .withDatabaseTestHelper(databaseTestHelper)
@@ -3,6 +3,7 @@ package uk.gov.pay.connector.it.dao;
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
+import com.google.inject.Module;
 import com.google.inject.Singleton;
 import com.google.inject.persist.PersistService;
 import com.google.inject.persist.jpa.JpaPersistModule;
@@ -37,6 +38,10 @@ public class GuicedTestEnvironment {
         return injector.getInstance(daoClass);
     }
 
+    public Injector withModules(Module... modules) {
+        return injector.createChildInjector(modules);
+    }
+
     public class DataAccessModule extends AbstractModule {
 
         @Override
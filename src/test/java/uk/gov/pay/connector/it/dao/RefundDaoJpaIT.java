@@ -1,6 +1,5 @@
 package uk.gov.pay.connector.it.dao;
 
-import com.google.common.collect.Lists;
 import org.junit.Before;
 import org.junit.Test;
 import uk.gov.pay.connector.charge.dao.SearchParams;
@@ -13,7 +12,6 @@ import uk.gov.pay.connector.refund.model.domain.RefundHistory;
 import uk.gov.pay.connector.refund.model.domain.RefundStatus;
 
 import java.time.ZonedDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -29,7 +27,6 @@ import static uk.gov.pay.connector.matcher.RefundsMatcher.aRefundMatching;
 import static uk.gov.pay.connector.model.domain.RefundEntityFixture.userExternalId;
 import static uk.gov.pay.connector.refund.model.domain.RefundStatus.CREATED;
 import static uk.gov.pay.connector.refund.model.domain.RefundStatus.REFUNDED;
-import static uk.gov.pay.connector.refund.model.domain.RefundStatus.REFUND_ERROR;
 import static uk.gov.pay.connector.refund.model.domain.RefundStatus.REFUND_SUBMITTED;
 
 
@@ -166,117 +163,6 @@ public class RefundDaoJpaIT extends DaoITestBase {
                 .insert();
     }
 
-    @Test
-    public void findBetweenDatesWithStatusIn_shouldFindRefundWithMatchingStatusInsideRange() {
-        DatabaseFixtures
-                .withDatabaseTestHelper(databaseTestHelper)
-                .aTestRefund()
-                .withTestCharge(chargeTestRecord)
-                .withReference("reference")
-                .withRefundStatus(REFUNDED)
-                .withCreatedDate(now().minusMinutes(30))
-                .insert();
-
-        ArrayList<RefundStatus> statuses = Lists.newArrayList(REFUND_SUBMITTED, REFUNDED);
-
-        List<RefundEntity> refunds = refundDao.findByAccountBetweenDatesWithStatusIn(
-                sandboxAccount.getAccountId(),
-                now().minusMinutes(45),
-                now().minusMinutes(15),
-                statuses);
-
-        assertThat(refunds.size(), is(1));
-        assertThat(refunds.get(0).getReference(), is("reference"));
-    }
-
-    @Test
-    public void findBetweenDatesWithStatusIn_shouldFindNoneWithNonMatchingAccountButMatchingStatusInsideRange() {
-        DatabaseFixtures
-                .withDatabaseTestHelper(databaseTestHelper)
-                .aTestRefund()
-                .withTestCharge(chargeTestRecord)
-                .withReference("reference")
-                .withRefundStatus(REFUND_SUBMITTED)
-                .withCreatedDate(now().minusMinutes(30))
-                .insert();
-
-        ArrayList<RefundStatus> statuses = Lists.newArrayList(REFUND_SUBMITTED);
-
-        List<RefundEntity> refunds = refundDao.findByAccountBetweenDatesWithStatusIn(
-                100_000L,
-                now().minusMinutes(45),
-                now().minusMinutes(15),
-                statuses);
-
-        assertThat(refunds.size(), is(0));
-    }
-
-    @Test
-    public void findBetweenDatesWithStatusIn_shouldFindNoneWithMatchingAccountButNonMatchingStatusInsideRange() {
-        DatabaseFixtures
-                .withDatabaseTestHelper(databaseTestHelper)
-                .aTestRefund()
-                .withTestCharge(chargeTestRecord)
-                .withReference("reference")
-                .withRefundStatus(REFUNDED)
-                .withCreatedDate(now().minusMinutes(20))
-                .insert();
-
-        ArrayList<RefundStatus> statuses = Lists.newArrayList(CREATED, REFUND_SUBMITTED, REFUND_ERROR);
-
-        List<RefundEntity> refunds = refundDao.findByAccountBetweenDatesWithStatusIn(
-                sandboxAccount.getAccountId(),
-                now().minusMinutes(30),
-                now().minusMinutes(10),
-                statuses);
-
-        assertThat(refunds.size(), is(0));
-    }
-
-    @Test
-    public void findBetweenDatesWithStatusIn_shouldFindNoneWithMatchingAccountAndMatchingStatusBeforeRange() {
-        DatabaseFixtures
-                .withDatabaseTestHelper(databaseTestHelper)
-                .aTestRefund()
-                .withTestCharge(chargeTestRecord)
-                .withReference("reference")
-                .withRefundStatus(REFUND_SUBMITTED)
-                .withCreatedDate(now().minusMinutes(90))
-                .insert();
-
-        ArrayList<RefundStatus> statuses = Lists.newArrayList(REFUND_SUBMITTED, REFUNDED, REFUND_ERROR);
-
-        List<RefundEntity> refunds = refundDao.findByAccountBetweenDatesWithStatusIn(
-                sandboxAccount.getAccountId(),
-                now().minusMinutes(60),
-                now().minusMinutes(30),
-                statuses);
-
-        assertThat(refunds.size(), is(0));
-    }
-
-    @Test
-    public void findBetweenDatesWithStatusIn_shouldFindNoneWithMatchingAccountAndMatchingStatusAfterRange() {
-        DatabaseFixtures
-                .withDatabaseTestHelper(databaseTestHelper)
-                .aTestRefund()
-                .withTestCharge(chargeTestRecord)
-                .withReference("reference")
-                .withRefundStatus(REFUNDED)
-                .withCreatedDate(now().minusMinutes(15))
-                .insert();
-
-        ArrayList<RefundStatus> statuses = Lists.newArrayList(REFUND_SUBMITTED, REFUNDED, REFUND_ERROR);
-
-        List<RefundEntity> refunds = refundDao.findByAccountBetweenDatesWithStatusIn(
-                sandboxAccount.getAccountId(),
-                now().minusMinutes(60),
-                now().minusMinutes(30),
-                statuses);
-
-        assertThat(refunds.size(), is(0));
-    }
-
     @Test
     public void persist_shouldCreateARefund() {
         ChargeEntity chargeEntity = new ChargeEntity();
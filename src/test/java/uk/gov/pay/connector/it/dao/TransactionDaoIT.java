@@ -1,38 +1,59 @@
 package uk.gov.pay.connector.it.dao;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.Before;
 import org.junit.Test;
+import org.postgresql.util.PGobject;
 import uk.gov.pay.commons.model.SupportedLanguage;
 import uk.gov.pay.commons.model.charge.ExternalMetadata;
+import uk.gov.pay.connector.charge.dao.SearchCursor;
 import uk.gov.pay.connector.charge.dao.SearchParams;
 import uk.gov.pay.connector.charge.dao.TransactionDao;
 import uk.gov.pay.connector.charge.model.CardHolderName;
 import uk.gov.pay.connector.charge.model.FirstDigitsCardNumber;
 import uk.gov.pay.connector.charge.model.LastDigitsCardNumber;
+import uk.gov.pay.connector.charge.model.LastDigitsCardNumberConverter;
 import uk.gov.pay.connector.charge.model.ServicePaymentReference;
 import uk.gov.pay.connector.charge.model.TransactionSearchStrategyTransactionType;
 import uk.gov.pay.connector.charge.model.domain.ChargeStatus;
 import uk.gov.pay.connector.charge.model.domain.Transaction;
 import uk.gov.pay.connector.charge.model.domain.TransactionType;
+import uk.gov.pay.connector.common.model.domain.UTCDateTimeConverter;
 import uk.gov.pay.connector.it.dao.DatabaseFixtures.TestCharge;
 import uk.gov.pay.connector.refund.model.domain.RefundStatus;
 import uk.gov.pay.connector.util.DateTimeUtils;
 import uk.gov.pay.connector.wallets.WalletType;
 
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.io.IOException;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static java.time.ZonedDateTime.now;
 import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
 import static org.exparity.hamcrest.date.ZonedDateTimeMatchers.within;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.core.Is.is;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
 import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.AUTHORISATION_READY;
 import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.ENTERING_CARD_DETAILS;
 import static uk.gov.pay.connector.common.model.api.ExternalChargeState.EXTERNAL_CREATED;
@@ -430,6 +451,111 @@ public class TransactionDaoIT extends DaoITestBase {
 
     }
 
+    @Test
+    public void searchWithCursor_shouldPageThroughChargesAndRefundsCreatedAtTheSameTimeWithoutDuplicatesOrGaps() {
+
+        // given charges and refunds sharing a created date, whose IDs come from different sequences and can collide
+        ZonedDateTime sameTime = ZonedDateTime.of(2019, 9, 2, 12, 0, 0, 0, ZoneOffset.UTC);
+        DatabaseFixtures.TestCharge olderCharge = insertNewChargeWithId(1L, sameTime.minusHours(1));
+        insertNewRefundForCharge(olderCharge, REFUND_USER_EXTERNAL_ID, 2L, sameTime);
+        DatabaseFixtures.TestCharge charge1 = insertNewChargeWithId(3L, sameTime);
+        insertNewRefundForCharge(charge1, REFUND_USER_EXTERNAL_ID, 4L, sameTime);
+        insertNewRefundForCharge(charge1, REFUND_USER_EXTERNAL_ID, 5L, sameTime);
+        DatabaseFixtures.TestCharge charge2 = insertNewChargeWithId(6L, sameTime);
+        insertNewRefundForCharge(charge2, REFUND_USER_EXTERNAL_ID, 7L, sameTime);
+        insertNewChargeWithId(8L, sameTime);
+        insertNewChargeWithId(9L, sameTime.plusHours(1));
+
+        List<Transaction> all = transactionDao.findAllBy(defaultTestAccount.getAccountId(), new SearchParams());
+
+        // when paging through them two at a time with a cursor
+        List<Transaction> paged = new ArrayList<>();
+        SearchCursor after = SearchCursor.START;
+        List<Transaction> page;
+        do {
+            page = transactionDao.findAllBy(defaultTestAccount.getAccountId(), new SearchParams()
+                    .withAfter(after)
+                    .withDisplaySize(2L));
+            paged.addAll(page);
+            if (!page.isEmpty()) {
+                Transaction last = page.get(page.size() - 1);
+                after = SearchCursor.after(last.getCreatedDate(), last.getTransactionType(), last.getTransactionId());
+            }
+        } while (page.size() == 2);
+
+        // then every transaction is seen exactly once, in search order
+        assertThat(all.size(), is(9));
+        assertThat(paged.size(), is(all.size()));
+
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < all.size(); i++) {
+            String key = paged.get(i).getTransactionType() + ":" + paged.get(i).getTransactionId();
+            assertThat("duplicate " + key, seen.add(key), is(true));
+            assertThat(paged.get(i).getTransactionType(), is(all.get(i).getTransactionType()));
+            assertThat(paged.get(i).getTransactionId(), is(all.get(i).getTransactionId()));
+        }
+    }
+
+    @Test
+    public void searchWithCursor_shouldStartTheScanOfTheKeysetIndexAtTheCursor() throws Exception {
+
+        // given
+        ZonedDateTime createdDate = ZonedDateTime.of(2019, 9, 2, 12, 0, 0, 0, ZoneOffset.UTC);
+        insertNewChargeWithId(1L, createdDate.minusHours(1));
+        insertNewChargeWithId(2L, createdDate);
+
+        EntityManager entityManager = env.getInstance(EntityManager.class);
+        List<String> statements = new ArrayList<>();
+        List<Query> queries = new ArrayList<>();
+        EntityManager recordingEntityManager = mock(EntityManager.class, delegatesTo(entityManager));
+        doAnswer(invocation -> {
+            Query query = mock(Query.class, delegatesTo(entityManager.createNativeQuery(invocation.getArgument(0), (String) invocation.getArgument(1))));
+            statements.add(invocation.getArgument(0));
+            queries.add(query);
+            return query;
+        }).when(recordingEntityManager).createNativeQuery(anyString(), anyString());
+        TransactionDao recordingTransactionDao = new TransactionDao(() -> recordingEntityManager,
+                new UTCDateTimeConverter(), new LastDigitsCardNumberConverter(), new ObjectMapper());
+
+        // when a page after a cursor is read
+        recordingTransactionDao.findAllBy(defaultTestAccount.getAccountId(), new SearchParams()
+                .withAfter(SearchCursor.after(createdDate, TransactionType.CHARGE, 2L))
+                .withDisplaySize(2L));
+
+        // then the plan of that search bounds the keyset index by created date, not just by gateway account
+        List<Object> bindValues = mockingDetails(queries.get(0)).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("setParameter"))
+                .map(invocation -> invocation.getArgument(1))
+                .collect(toList());
+        List<String> indexConditions = new ArrayList<>();
+        collectIndexConditions(explain(entityManager, statements.get(0), bindValues), "idx_charges_gateway_account_id_created_date_id", indexConditions);
+
+        assertThat(indexConditions, hasItem(containsString("created_date")));
+    }
+
+    private JsonNode explain(EntityManager entityManager, String sql, List<Object> bindValues) throws IOException {
+        entityManager.getTransaction().begin();
+        try {
+            entityManager.createNativeQuery("SET LOCAL enable_seqscan = off").executeUpdate();
+            entityManager.createNativeQuery("SET LOCAL enable_bitmapscan = off").executeUpdate();
+            Query explain = entityManager.createNativeQuery("EXPLAIN (FORMAT JSON) " + sql);
+            for (int i = 0; i < bindValues.size(); i++) {
+                explain.setParameter(i + 1, bindValues.get(i));
+            }
+            Object plan = explain.getSingleResult();
+            return new ObjectMapper().readTree(plan instanceof PGobject ? ((PGobject) plan).getValue() : plan.toString());
+        } finally {
+            entityManager.getTransaction().rollback();
+        }
+    }
+
+    private void collectIndexConditions(JsonNode node, String indexName, List<String> indexConditions) {
+        if (indexName.equals(node.path("Index Name").asText())) {
+            indexConditions.add(node.path("Index Cond").asText());
+        }
+        node.forEach(child -> collectIndexConditions(child, indexName, indexConditions));
+    }
+
     @Test
     public void shouldGetExpectedTotalCount() {
 
@@ -455,6 +581,49 @@ public class TransactionDaoIT extends DaoITestBase {
 
     }
 
+    @Test
+    public void shouldEstimateTheTotalFromTheQueryPlan() {
+
+        // given
+        DatabaseFixtures.TestCharge charge = insertNewChargeWithId(1L, now().plusHours(1));
+        insertNewRefundForCharge(charge, REFUND_USER_EXTERNAL_ID, 2L, now().plusHours(2));
+
+        SearchParams params = new SearchParams()
+                .withPage(1L)
+                .withDisplaySize(2L);
+
+        // when
+        Optional<Long> estimate = transactionDao.estimateTotalFor(defaultTestAccount.getAccountId(), params);
+
+        // then the planner's estimate comes from table statistics, so only its presence is certain
+        assertThat(estimate.isPresent(), is(true));
+        assertThat(estimate.get() >= 0, is(true));
+    }
+
+    @Test
+    public void streamAllBy_shouldPassEveryMatchingTransactionToTheConsumerInSearchOrder() {
+
+        // given
+        DatabaseFixtures.TestCharge testCharge = insertNewChargeWithId(1L, now());
+        insertNewRefundForCharge(testCharge, REFUND_USER_EXTERNAL_ID, 2L, now().plusSeconds(1));
+        insertNewChargeWithId(3L, now().plusSeconds(2));
+
+        List<Transaction> streamed = new ArrayList<>();
+
+        // when the fetch size is smaller than the number of rows
+        transactionDao.streamAllBy(defaultTestAccount.getAccountId(), new SearchParams(), 2, streamed::add);
+
+        // then
+        List<Transaction> found = transactionDao.findAllBy(defaultTestAccount.getAccountId(), new SearchParams());
+        assertThat(streamed.size(), is(3));
+        for (int i = 0; i < found.size(); i++) {
+            assertThat(streamed.get(i).getTransactionType(), is(found.get(i).getTransactionType()));
+            assertThat(streamed.get(i).getTransactionId(), is(found.get(i).getTransactionId()));
+            assertThat(streamed.get(i).getExternalId(), is(found.get(i).getExternalId()));
+            assertThat(streamed.get(i).getAmount(), is(found.get(i).getAmount()));
+        }
+    }
+
     @Test
     public void searchChargesByFullReferenceOnly() {
 
@@ -0,0 +1,196 @@
+package uk.gov.pay.connector.it.dao;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.gov.pay.connector.charge.model.domain.ChargeStatus;
+import uk.gov.pay.connector.common.model.api.ExternalChargeState;
+import uk.gov.pay.connector.refund.model.domain.RefundStatus;
+import uk.gov.pay.connector.report.dao.RollupBackfillDao;
+import uk.gov.pay.connector.report.dao.TransactionsSummaryDao;
+import uk.gov.pay.connector.report.model.domain.TransactionsSummary;
+
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.AUTHORISATION_SUCCESS;
+import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.CAPTURED;
+import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.CAPTURE_SUBMITTED;
+import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.CAPTURE_ERROR;
+import static uk.gov.pay.connector.refund.model.domain.RefundStatus.REFUNDED;
+import static uk.gov.pay.connector.refund.model.domain.RefundStatus.REFUND_SUBMITTED;
+
+public class TransactionsSummaryDaoIT extends DaoITestBase {
+
+    private static final ZonedDateTime MIDNIGHT_MONDAY = ZonedDateTime.parse("2019-09-02T00:00:00Z");
+    private static final ZonedDateTime MIDNIGHT_TUESDAY = MIDNIGHT_MONDAY.plusDays(1);
+    private static final ZonedDateTime MIDNIGHT_WEDNESDAY = MIDNIGHT_MONDAY.plusDays(2);
+    private static final ZonedDateTime MIDNIGHT_THURSDAY = MIDNIGHT_MONDAY.plusDays(3);
+
+    private TransactionsSummaryDao transactionsSummaryDao;
+    private RollupBackfillDao rollupBackfillDao;
+    private DatabaseFixtures.TestAccount testAccount;
+
+    @Before
+    public void setUp() {
+        databaseTestHelper.truncateAllData();
+        transactionsSummaryDao = env.getInstance(TransactionsSummaryDao.class);
+        rollupBackfillDao = env.getInstance(RollupBackfillDao.class);
+        testAccount = DatabaseFixtures
+                .withDatabaseTestHelper(databaseTestHelper)
+                .aTestAccount()
+                .insert();
+    }
+
+    @After
+    public void finishRollupBackfill() {
+        databaseTestHelper.finishRollupBackfill(TransactionsSummaryDao.ROLLUP);
+    }
+
+    @Test
+    public void chargeSuccessStatesShouldBeTheSameInTheTriggerAsInTheDao() {
+        for (ChargeStatus status : ChargeStatus.values()) {
+            assertThat(status.getValue(), databaseTestHelper.chargeCountsInDailyTransactionSummary(status),
+                    is(status.toExternal() == ExternalChargeState.EXTERNAL_SUCCESS));
+        }
+    }
+
+    @Test
+    public void summarise_shouldCountOnlySuccessfulPaymentsAndRefunds() {
+        DatabaseFixtures.TestCharge captured = insertCharge(1000L, CAPTURED, MIDNIGHT_TUESDAY.plusHours(10));
+        insertCharge(2000L, CAPTURE_SUBMITTED, MIDNIGHT_TUESDAY.plusHours(11));
+        insertCharge(4000L, AUTHORISATION_SUCCESS, MIDNIGHT_TUESDAY.plusHours(12));
+        insertRefund(captured, 100L, REFUNDED, MIDNIGHT_TUESDAY.plusHours(13));
+        insertRefund(captured, 200L, REFUND_SUBMITTED, MIDNIGHT_TUESDAY.plusHours(14));
+
+        TransactionsSummary summary = transactionsSummaryDao.summarise(testAccount.getAccountId(), MIDNIGHT_TUESDAY, MIDNIGHT_WEDNESDAY);
+
+        assertThat(summary, is(new TransactionsSummary(2, 3000L, 1, 100L)));
+    }
+
+    @Test
+    public void summarise_shouldFollowChargesAndRefundsIntoAndOutOfSuccessStates() {
+        DatabaseFixtures.TestCharge charge = insertCharge(1000L, AUTHORISATION_SUCCESS, MIDNIGHT_TUESDAY.plusHours(10));
+        DatabaseFixtures.TestCharge captured = insertCharge(2000L, CAPTURED, MIDNIGHT_TUESDAY.plusHours(11));
+        DatabaseFixtures.TestRefund refund = insertRefund(captured, 500L, REFUND_SUBMITTED, MIDNIGHT_TUESDAY.plusHours(12));
+
+        databaseTestHelper.updateChargeStatus(charge.getChargeId(), CAPTURE_SUBMITTED);
+        databaseTestHelper.updateChargeStatus(charge.getChargeId(), CAPTURED);
+        databaseTestHelper.updateChargeStatus(captured.getChargeId(), CAPTURE_ERROR);
+        databaseTestHelper.updateRefundStatus(refund.getId(), REFUNDED);
+
+        TransactionsSummary summary = transactionsSummaryDao.summarise(testAccount.getAccountId(), MIDNIGHT_TUESDAY, MIDNIGHT_WEDNESDAY);
+
+        assertThat(summary, is(new TransactionsSummary(1, 1000L, 1, 500L)));
+    }
+
+    @Test
+    public void summarise_shouldIncludeOnlyThePartsOfEdgeDaysInsideTheRange() {
+        insertCharge(1L, CAPTURED, MIDNIGHT_MONDAY.plusHours(9));
+        insertCharge(10L, CAPTURED, MIDNIGHT_MONDAY.plusHours(15));
+        insertCharge(100L, CAPTURED, MIDNIGHT_TUESDAY.plusHours(12));
+        insertCharge(1000L, CAPTURED, MIDNIGHT_WEDNESDAY.plusHours(9));
+        insertCharge(10000L, CAPTURED, MIDNIGHT_WEDNESDAY.plusHours(15));
+        insertCharge(100000L, CAPTURED, MIDNIGHT_THURSDAY.plusHours(12));
+
+        TransactionsSummary summary = transactionsSummaryDao.summarise(testAccount.getAccountId(),
+                MIDNIGHT_MONDAY.plusHours(12), MIDNIGHT_WEDNESDAY.plusHours(12));
+
+        assertThat(summary, is(new TransactionsSummary(3, 1110L, 0, 0L)));
+    }
+
+    @Test
+    public void summarise_shouldAggregateARangeWithinOneDayWithoutTheRollup() {
+        insertCharge(1L, CAPTURED, MIDNIGHT_TUESDAY.plusHours(9));
+        insertCharge(10L, CAPTURED, MIDNIGHT_TUESDAY.plusHours(15));
+
+        TransactionsSummary summary = transactionsSummaryDao.summarise(testAccount.getAccountId(),
+                MIDNIGHT_TUESDAY.plusHours(12), MIDNIGHT_TUESDAY.plusHours(18));
+
+        assertThat(summary, is(new TransactionsSummary(1, 10L, 0, 0L)));
+    }
+
+    @Test
+    public void summarise_shouldNotIncludeOtherAccounts() {
+        DatabaseFixtures.TestAccount otherAccount = DatabaseFixtures
+                .withDatabaseTestHelper(databaseTestHelper)
+                .aTestAccount()
+                .withAccountId(testAccount.getAccountId() + 1)
+                .insert();
+        DatabaseFixtures
+                .withDatabaseTestHelper(databaseTestHelper)
+                .aTestCharge()
+                .withTestAccount(otherAccount)
+                .withAmount(1000L)
+                .withChargeStatus(CAPTURED)
+                .withCreatedDate(MIDNIGHT_TUESDAY.plusHours(12))
+                .insert();
+
+        TransactionsSummary summary = transactionsSummaryDao.summarise(testAccount.getAccountId(), MIDNIGHT_MONDAY, MIDNIGHT_THURSDAY);
+
+        assertThat(summary, is(TransactionsSummary.EMPTY));
+    }
+
+    @Test
+    public void summarise_shouldAggregateChargesAndRefundsUntilTheRollupHasBeenBackfilled() {
+        DatabaseFixtures.TestCharge captured = insertCharge(1000L, CAPTURED, MIDNIGHT_MONDAY.plusHours(10));
+        insertCharge(2000L, CAPTURE_SUBMITTED, MIDNIGHT_TUESDAY.plusHours(11));
+        insertRefund(captured, 100L, REFUNDED, MIDNIGHT_TUESDAY.plusHours(13));
+        databaseTestHelper.startRollupBackfill(TransactionsSummaryDao.ROLLUP,
+                MIDNIGHT_MONDAY.toLocalDate(), MIDNIGHT_TUESDAY.toLocalDate());
+
+        TransactionsSummary expectedSummary = new TransactionsSummary(2, 3000L, 1, 100L);
+        assertThat(transactionsSummaryDao.summarise(testAccount.getAccountId(), MIDNIGHT_MONDAY, MIDNIGHT_WEDNESDAY), is(expectedSummary));
+
+        assertThat(rollupBackfillDao.backfillNextDay(TransactionsSummaryDao.ROLLUP, transactionsSummaryDao::rebuildDay),
+                is(Optional.of(MIDNIGHT_MONDAY.toLocalDate())));
+        assertThat(rollupBackfillDao.isBackfilled(TransactionsSummaryDao.ROLLUP), is(false));
+        assertThat(rollupBackfillDao.backfillNextDay(TransactionsSummaryDao.ROLLUP, transactionsSummaryDao::rebuildDay),
+                is(Optional.of(MIDNIGHT_TUESDAY.toLocalDate())));
+        assertThat(rollupBackfillDao.backfillNextDay(TransactionsSummaryDao.ROLLUP, transactionsSummaryDao::rebuildDay),
+                is(Optional.<LocalDate>empty()));
+        assertThat(rollupBackfillDao.isBackfilled(TransactionsSummaryDao.ROLLUP), is(true));
+
+        assertThat(transactionsSummaryDao.summarise(testAccount.getAccountId(), MIDNIGHT_MONDAY, MIDNIGHT_WEDNESDAY), is(expectedSummary));
+    }
+
+    @Test
+    public void rebuildDay_shouldReplaceTheRollupForTheDay() {
+        DatabaseFixtures.TestCharge captured = insertCharge(1000L, CAPTURED, MIDNIGHT_TUESDAY.plusHours(10));
+        insertCharge(2000L, CAPTURED, MIDNIGHT_TUESDAY.plusHours(11));
+        insertRefund(captured, 100L, REFUNDED, MIDNIGHT_TUESDAY.plusHours(13));
+
+        transactionsSummaryDao.rebuildDay(MIDNIGHT_TUESDAY.toLocalDate());
+        insertCharge(4000L, CAPTURED, MIDNIGHT_TUESDAY.plusHours(14));
+
+        TransactionsSummary summary = transactionsSummaryDao.summarise(testAccount.getAccountId(), MIDNIGHT_TUESDAY, MIDNIGHT_WEDNESDAY);
+
+        assertThat(summary, is(new TransactionsSummary(3, 7000L, 1, 100L)));
+    }
+
+    private DatabaseFixtures.TestCharge insertCharge(long amount, ChargeStatus status, ZonedDateTime createdDate) {
+        return DatabaseFixtures
+                .withDatabaseTestHelper(databaseTestHelper)
+                .aTestCharge()
+                .withTestAccount(testAccount)
+                .withAmount(amount)
+                .withChargeStatus(status)
+                .withCreatedDate(createdDate)
+                .insert();
+    }
+
+    private DatabaseFixtures.TestRefund insertRefund(DatabaseFixtures.TestCharge charge, long amount, RefundStatus status,
+                                                     ZonedDateTime createdDate) {
+        return DatabaseFixtures
+                .withDatabaseTestHelper(databaseTestHelper)
+                .aTestRefund()
+                .withTestCharge(charge)
+                .withAmount(amount)
+                .withRefundStatus(status)
+                .withCreatedDate(createdDate)
+                .insert();
+    }
+}
@@ -27,6 +27,8 @@ import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
 import static java.lang.String.format;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.core.IsInstanceOf.instanceOf;
 import static org.junit.Assert.assertEquals;
@@ -35,6 +37,7 @@ import static org.junit.Assert.fail;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.when;
 import static uk.gov.pay.connector.gateway.GatewayOperation.AUTHORISE;
+import static uk.gov.pay.connector.gateway.GatewayOperation.CAPTURE;
 import static uk.gov.pay.connector.gateway.PaymentGatewayName.SMARTPAY;
 import static uk.gov.pay.connector.gateway.PaymentGatewayName.WORLDPAY;
 
@@ -212,6 +215,26 @@ public class ClientFactoryIT {
         assertGatewayFailure(request, authOverriddenTimeout);
     }
 
+    @Test
+    public void shouldShareOneConnectionPoolAcrossOperationsForAGateway() {
+        app = startApp(DEFAULT_DROPWIZARD_CONFIG, false);
+
+        wireMockRule.stubFor(get(urlPathEqualTo("/hello"))
+                .willReturn(aResponse().withBody("world").withStatus(200)));
+
+        MetricRegistry metricRegistry = new MetricRegistry();
+        ClientFactory clientFactory = new ClientFactory(app.getEnvironment(), app.getConfiguration());
+        Client authClient = clientFactory.createWithDropwizardClient(WORLDPAY, AUTHORISE, metricRegistry);
+        Client captureClient = clientFactory.createWithDropwizardClient(WORLDPAY, CAPTURE, metricRegistry);
+
+        authClient.target(getServerUrl()).path("hello").request().get().close();
+        captureClient.target(getServerUrl()).path("hello").request().get().close();
+
+        wireMockRule.verify(2, getRequestedFor(urlEqualTo("/hello")));
+        assertThat(metricRegistry.getGauges().keySet(), hasItem("org.apache.http.conn.HttpClientConnectionManager.worldpay.available-connections"));
+        assertThat(metricRegistry.getGauges().get("org.apache.http.conn.HttpClientConnectionManager.worldpay.available-connections").getValue(), is(1));
+    }
+
     private void assertGatewayFailure(Invocation.Builder request, Long authOverriddenTimeout) {
         long startTime = System.currentTimeMillis();
 
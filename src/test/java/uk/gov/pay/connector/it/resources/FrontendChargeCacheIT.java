@@ -0,0 +1,78 @@
+package uk.gov.pay.connector.it.resources;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import uk.gov.pay.connector.app.ConnectorApp;
+import uk.gov.pay.connector.it.base.ChargingITestBase;
+import uk.gov.pay.connector.junit.ConfigOverride;
+import uk.gov.pay.connector.junit.DropwizardConfig;
+import uk.gov.pay.connector.junit.DropwizardJUnitRunner;
+
+import static javax.ws.rs.core.Response.Status.NO_CONTENT;
+import static javax.ws.rs.core.Response.Status.OK;
+import static org.hamcrest.Matchers.is;
+import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.AUTHORISATION_SUCCESS;
+import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.CREATED;
+import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.ENTERING_CARD_DETAILS;
+import static uk.gov.pay.connector.it.JsonRequestHelper.buildJsonAuthorisationDetailsFor;
+import static uk.gov.pay.connector.util.JsonEncoder.toJson;
+
+@RunWith(DropwizardJUnitRunner.class)
+@DropwizardConfig(app = ConnectorApp.class, config = "config/test-it-config.yaml",
+        configOverrides = {@ConfigOverride(key = "frontendChargeCache.enabled", value = "true")}
+)
+public class FrontendChargeCacheIT extends ChargingITestBase {
+
+    public FrontendChargeCacheIT() {
+        super("sandbox");
+    }
+
+    @Test
+    public void shouldServeTheNewStatusFromAWarmCacheOnceTheStatusIsUpdated() {
+        String chargeId = createNewCharge(CREATED);
+        assertFrontendChargeStatusIs(chargeId, CREATED.getValue());
+        assertFrontendChargeStatusIs(chargeId, CREATED.getValue());
+
+        connectorRestApiClient
+                .withChargeId(chargeId)
+                .putChargeStatus(toJson(ImmutableMap.of("new_status", ENTERING_CARD_DETAILS.getValue())))
+                .statusCode(NO_CONTENT.getStatusCode());
+
+        assertFrontendChargeStatusIs(chargeId, ENTERING_CARD_DETAILS.getValue());
+    }
+
+    @Test
+    public void shouldServeTheNewStatusFromAWarmCacheOnceTheChargeIsAuthorised() {
+        String chargeId = createNewCharge(ENTERING_CARD_DETAILS);
+        assertFrontendChargeStatusIs(chargeId, ENTERING_CARD_DETAILS.getValue());
+
+        givenSetup()
+                .body(buildJsonAuthorisationDetailsFor("4444333322221111", "visa"))
+                .post(authoriseChargeUrlFor(chargeId))
+                .then()
+                .statusCode(200);
+
+        assertFrontendChargeStatusIs(chargeId, AUTHORISATION_SUCCESS.getValue());
+    }
+
+    @Test
+    public void shouldServeTheChangedGatewayAccountFromAWarmCacheOnceTheAccountIsChanged() {
+        String chargeId = createNewCharge(CREATED);
+        connectorRestApiClient
+                .withChargeId(chargeId)
+                .getFrontendCharge()
+                .body("gateway_account.allow_zero_amount", is(false));
+
+        givenSetup()
+                .body(toJson(ImmutableMap.of("op", "replace", "path", "allow_zero_amount", "value", true)))
+                .patch("/v1/api/accounts/" + accountId)
+                .then()
+                .statusCode(OK.getStatusCode());
+
+        connectorRestApiClient
+                .withChargeId(chargeId)
+                .getFrontendCharge()
+                .body("gateway_account.allow_zero_amount", is(true));
+    }
+}
@@ -0,0 +1,67 @@
+package uk.gov.pay.connector.it.resources;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import uk.gov.pay.connector.app.ConnectorApp;
+import uk.gov.pay.connector.junit.ConfigOverride;
+import uk.gov.pay.connector.junit.DropwizardConfig;
+import uk.gov.pay.connector.junit.DropwizardJUnitRunner;
+
+import static javax.ws.rs.core.Response.Status.OK;
+import static org.hamcrest.Matchers.is;
+import static uk.gov.pay.connector.util.JsonEncoder.toJson;
+
+@RunWith(DropwizardJUnitRunner.class)
+@DropwizardConfig(app = ConnectorApp.class, config = "config/test-it-config.yaml",
+        configOverrides = {@ConfigOverride(key = "gatewayAccountCache.enabled", value = "true")})
+public class GatewayAccountCacheIT extends GatewayAccountResourceTestBase {
+
+    @Test
+    public void shouldServeTheChangedAccountOnceACachedAccountIsPatched() {
+        String gatewayAccountId = extractGatewayAccountId(
+                createAGatewayAccountFor(testContext.getPort(), "worldpay", "old-desc", "old-id"));
+
+        givenSetup()
+                .get(ACCOUNTS_API_URL + gatewayAccountId)
+                .then()
+                .statusCode(OK.getStatusCode())
+                .body("description", is("old-desc"));
+
+        givenSetup()
+                .body(toJson(ImmutableMap.of("description", "new-desc")))
+                .patch(ACCOUNTS_API_URL + gatewayAccountId + "/description-analytics-id")
+                .then()
+                .statusCode(OK.getStatusCode());
+
+        givenSetup()
+                .get(ACCOUNTS_API_URL + gatewayAccountId)
+                .then()
+                .statusCode(OK.getStatusCode())
+                .body("description", is("new-desc"))
+                .body("analytics_id", is("old-id"));
+    }
+
+    @Test
+    public void shouldServeTheChangedAccountOnceACachedAccountsEmailCollectionModeIsChanged() {
+        String gatewayAccountId = extractGatewayAccountId(createAGatewayAccountFor(testContext.getPort(), "worldpay"));
+
+        givenSetup()
+                .get(ACCOUNTS_API_URL + gatewayAccountId)
+                .then()
+                .statusCode(OK.getStatusCode())
+                .body("email_collection_mode", is("MANDATORY"));
+
+        givenSetup()
+                .body(toJson(ImmutableMap.of("op", "replace", "path", "email_collection_mode", "value", "OFF")))
+                .patch(ACCOUNTS_API_URL + gatewayAccountId)
+                .then()
+                .statusCode(OK.getStatusCode());
+
+        givenSetup()
+                .get(ACCOUNTS_API_URL + gatewayAccountId)
+                .then()
+                .statusCode(OK.getStatusCode())
+                .body("email_collection_mode", is("OFF"));
+    }
+}
@@ -1,5 +1,7 @@
 package uk.gov.pay.connector.it.resources;
 
+import com.google.inject.persist.UnitOfWork;
+import io.dropwizard.jackson.Jackson;
 import io.dropwizard.testing.junit.ResourceTestRule;
 import org.junit.After;
 import org.junit.Before;
@@ -9,8 +11,11 @@ import uk.gov.pay.connector.cardtype.dao.CardTypeDao;
 import uk.gov.pay.connector.cardtype.dao.CardTypeEntityBuilder;
 import uk.gov.pay.connector.cardtype.model.domain.CardTypeEntity;
 import uk.gov.pay.connector.cardtype.resource.CardTypesResource;
+import uk.gov.pay.connector.cardtype.service.CardTypeIndex;
 
 import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -24,14 +29,15 @@ import static org.mockito.Mockito.when;
 
 public class PayersCardTypesResourceITest {
     private static final CardTypeDao mockedDao = mock(CardTypeDao.class);
+    private static final CardTypeIndex cardTypeIndex = new CardTypeIndex(mockedDao, mock(UnitOfWork.class), Jackson.newObjectMapper());
     @ClassRule
-    public static ResourceTestRule resources = ResourceTestRule.builder().addResource(new CardTypesResource(mockedDao)).build();
-    private CardTypeEntity cardTypeEntity;
+    public static ResourceTestRule resources = ResourceTestRule.builder().addResource(new CardTypesResource(cardTypeIndex)).build();
+    private static CardTypeEntity cardTypeEntity = CardTypeEntityBuilder.aCardTypeEntity().build();
 
     @Before
     public void setUp() {
-        cardTypeEntity = CardTypeEntityBuilder.aCardTypeEntity().build();
         when(mockedDao.findAll()).thenReturn(Collections.singletonList(cardTypeEntity));
+        cardTypeIndex.refresh();
     }
 
     @After
@@ -50,4 +56,19 @@ public class PayersCardTypesResourceITest {
         CardTypeEntity visaCard = cardTypeEntities.get(0);
         assertThat(visaCard, is(cardTypeEntity));
     }
+
+    @Test
+    public void shouldReturnNotModifiedWhenTheClientHasTheCurrentCardTypes() {
+        String eTag = resources.target("/v1/api/card-types")
+                .request()
+                .get()
+                .getHeaderString(HttpHeaders.ETAG);
+
+        Response response = resources.target("/v1/api/card-types")
+                .request()
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .get();
+
+        assertThat(response.getStatus(), is(304));
+    }
 }
@@ -5,21 +5,26 @@ import org.hamcrest.core.Is;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import uk.gov.pay.commons.model.charge.ExternalMetadata;
 import uk.gov.pay.connector.app.ConnectorApp;
 import uk.gov.pay.connector.charge.model.domain.ChargeStatus;
 import uk.gov.pay.connector.junit.DropwizardConfig;
 import uk.gov.pay.connector.junit.DropwizardJUnitRunner;
 import uk.gov.pay.connector.junit.DropwizardTestContext;
 import uk.gov.pay.connector.junit.TestContext;
+import uk.gov.pay.connector.refund.model.domain.RefundStatus;
 import uk.gov.pay.connector.util.DatabaseTestHelper;
 import uk.gov.pay.connector.util.RestAssuredClient;
 
 import javax.ws.rs.core.HttpHeaders;
+import java.time.ZonedDateTime;
+import java.util.Map;
 
 import static io.restassured.http.ContentType.JSON;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static javax.ws.rs.core.Response.Status.OK;
 import static org.apache.commons.lang.math.RandomUtils.nextLong;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static uk.gov.pay.connector.util.AddChargeParams.AddChargeParamsBuilder.anAddChargeParams;
 
@@ -56,6 +61,51 @@ public class SearchChargesIT {
                 .body("results[0].gateway_transaction_id", Is.is("txId-1234"));
     }
 
+    @Test
+    public void searchResultsShouldBeTheSameAsTheChargesFoundOnTheirOwn() {
+        long chargeId = RandomUtils.nextInt();
+        String externalChargeId = "charge" + chargeId;
+        ZonedDateTime createdDate = ZonedDateTime.parse("2019-09-02T10:15:30.123Z");
+        databaseTestHelper.addCharge(anAddChargeParams()
+                .withChargeId(chargeId)
+                .withExternalChargeId(externalChargeId)
+                .withGatewayAccountId(accountId)
+                .withAmount(1000)
+                .withStatus(ChargeStatus.CAPTURED)
+                .withTransactionId("txId-5678")
+                .withEmail("payer@example.com")
+                .withDelayedCapture(true)
+                .withCorporateSurcharge(250L)
+                .withCreatedDate(createdDate)
+                .withExternalMetadata(new ExternalMetadata(Map.of("key1", true, "key2", 123, "key3", "string1")))
+                .build());
+        databaseTestHelper.updateChargeCardDetails(chargeId, "visa", "1234", "123456", "Mr Payer", "11/99",
+                "line1", "line2", "postcode", "city", "county", "GB");
+        databaseTestHelper.updateCharge3dsDetails(chargeId, "http://issuer.example.com", "pa-request", "html-out");
+        databaseTestHelper.addFee("fee" + chargeId, chargeId, 50L, 50L, createdDate.plusMinutes(2), "fee-txId");
+        databaseTestHelper.addEvent(chargeId, ChargeStatus.CAPTURE_SUBMITTED.getValue(), createdDate.plusMinutes(1));
+        databaseTestHelper.addEvent(chargeId, ChargeStatus.CAPTURED.getValue(), createdDate.plusMinutes(2));
+        databaseTestHelper.addRefund("refund" + chargeId, "refund-reference", 300L, RefundStatus.REFUNDED,
+                chargeId, "refund-txId", createdDate.plusMinutes(3));
+
+        Map<String, Object> charge = connectorRestApiClient
+                .withAccountId(accountId)
+                .withChargeId(externalChargeId)
+                .getCharge()
+                .statusCode(OK.getStatusCode())
+                .extract().jsonPath().getMap("$");
+
+        Map<String, Object> searchResult = connectorRestApiClient
+                .withAccountId(accountId)
+                .withHeader(HttpHeaders.ACCEPT, APPLICATION_JSON)
+                .getChargesV1()
+                .statusCode(OK.getStatusCode())
+                .body("results.size()", is(1))
+                .extract().jsonPath().getMap("results[0]");
+
+        assertThat(searchResult, is(charge));
+    }
+
     private void addCharge(String gatewayTransactionId, ChargeStatus chargeStatus) {
         long chargeId = RandomUtils.nextInt();
         String externalChargeId = "charge" + chargeId;
@@ -10,12 +10,13 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import uk.gov.pay.connector.app.ConnectorConfiguration;
-import uk.gov.pay.connector.cardtype.model.domain.CardTypeEntity;
+import uk.gov.pay.connector.cardtype.service.CardTypeIndex;
 import uk.gov.pay.connector.charge.exception.ChargeNotFoundRuntimeException;
 import uk.gov.pay.connector.charge.model.CardDetailsEntity;
 import uk.gov.pay.connector.charge.model.domain.ChargeEntity;
 import uk.gov.pay.connector.charge.model.domain.ChargeStatus;
 import uk.gov.pay.connector.charge.service.ChargeService;
+import uk.gov.pay.connector.charge.service.FrontendChargeCache;
 import uk.gov.pay.connector.common.exception.IllegalStateRuntimeException;
 import uk.gov.pay.connector.common.exception.OperationAlreadyInProgressRuntimeException;
 import uk.gov.pay.connector.common.model.api.ErrorResponse;
@@ -39,9 +40,9 @@ import uk.gov.pay.connector.paymentprocessor.api.AuthorisationResponse;
 import uk.gov.pay.connector.queue.StateTransitionQueue;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 
-import static com.google.common.collect.Lists.newArrayList;
 import static java.lang.String.format;
 import static junit.framework.TestCase.assertTrue;
 import static org.hamcrest.CoreMatchers.notNullValue;
@@ -55,6 +56,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -101,6 +103,9 @@ public class CardAuthoriseServiceTest extends CardServiceTest {
     @Mock
     private EventQueue eventQueue;
 
+    @Mock
+    private CardTypeIndex mockedCardTypeIndex;
+
     private CardAuthoriseService cardAuthorisationService;
 
     @Before
@@ -110,11 +115,11 @@ public class CardAuthoriseServiceTest extends CardServiceTest {
 
         ConnectorConfiguration mockConfiguration = mock(ConnectorConfiguration.class);
         ChargeService chargeService = new ChargeService(null, mockedChargeDao, mockedChargeEventDao,
-                null, null, mockConfiguration, null, stateTransitionQueue, eventQueue);
+                null, null, mockConfiguration, null, stateTransitionQueue, eventQueue, mock(FrontendChargeCache.class));
 
         CardAuthoriseBaseService cardAuthoriseBaseService = new CardAuthoriseBaseService(mockExecutorService, mockEnvironment);
         cardAuthorisationService = new CardAuthoriseService(
-                mockedCardTypeDao,
+                mockedCardTypeIndex,
                 mockedProviders,
                 cardAuthoriseBaseService,
                 chargeService,
@@ -126,9 +131,22 @@ public class CardAuthoriseServiceTest extends CardServiceTest {
         when(mockedChargeDao.findByExternalId(charge.getExternalId())).thenReturn(Optional.of(charge));
     }
 
+    @Before
+    public void configurePaymentProviderMock() {
+        lenient().when(mockedPaymentProvider.authoriseAsync(any())).thenAnswer(invocation -> {
+            try {
+                return CompletableFuture.completedFuture(mockedPaymentProvider.authorise(invocation.getArgument(0)));
+            } catch (GatewayException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+    }
+
     public void mockExecutorServiceWillReturnCompletedResultWithSupplierReturnValue() {
-        doAnswer(invocation -> Pair.of(COMPLETED, ((Supplier) invocation.getArguments()[0]).get()))
-                .when(mockExecutorService).execute(any(Supplier.class));
+        doAnswer(invocation -> {
+            Supplier<CompletableFuture<Supplier<?>>> task = invocation.getArgument(0);
+            return Pair.of(COMPLETED, task.get().join().get());
+        }).when(mockExecutorService).executeAsync(any(Supplier.class));
     }
 
     private GatewayResponse mockAuthResponse(String TRANSACTION_ID, AuthoriseStatus authoriseStatus, String errorCode) {
@@ -403,9 +421,6 @@ public class CardAuthoriseServiceTest extends CardServiceTest {
         AuthCardDetails authCardDetails = AuthCardDetailsFixture.anAuthCardDetails().build();
 
         GatewayAccountEntity gatewayAccountEntity = new GatewayAccountEntity();
-        CardTypeEntity cardTypeEntity = new CardTypeEntity();
-        cardTypeEntity.setRequires3ds(true);
-        cardTypeEntity.setBrand(authCardDetails.getCardBrand());
         gatewayAccountEntity.setType(GatewayAccountEntity.Type.LIVE);
         gatewayAccountEntity.setGatewayName("worldpay");
         gatewayAccountEntity.setRequires3ds(false);
@@ -416,7 +431,7 @@ public class CardAuthoriseServiceTest extends CardServiceTest {
                 .withStatus(ENTERING_CARD_DETAILS)
                 .build();
 
-        when(mockedCardTypeDao.findByBrand(authCardDetails.getCardBrand())).thenReturn(newArrayList(cardTypeEntity));
+        when(mockedCardTypeIndex.brandRequires3ds(authCardDetails.getCardBrand())).thenReturn(true);
         when(mockedChargeDao.findByExternalId(charge.getExternalId())).thenReturn(Optional.of(charge));
 
         mockExecutorServiceWillReturnCompletedResultWithSupplierReturnValue();
@@ -578,7 +593,7 @@ public class CardAuthoriseServiceTest extends CardServiceTest {
     @Test
     public void doAuthorise_shouldThrowAnOperationAlreadyInProgressRuntimeException_whenTimeout() {
 
-        when(mockExecutorService.execute(any())).thenReturn(Pair.of(IN_PROGRESS, null));
+        when(mockExecutorService.executeAsync(any())).thenReturn(Pair.of(IN_PROGRESS, null));
         AuthCardDetails authCardDetails = AuthCardDetailsFixture.anAuthCardDetails().build();
 
         try {
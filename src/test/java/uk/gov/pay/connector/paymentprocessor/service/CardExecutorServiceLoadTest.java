@@ -0,0 +1,129 @@
+package uk.gov.pay.connector.paymentprocessor.service;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Snapshot;
+import io.dropwizard.setup.Environment;
+import org.junit.Before;
+import org.junit.Test;
+import uk.gov.pay.connector.app.ConnectorConfiguration;
+import uk.gov.pay.connector.app.ExecutorServiceConfig;
+import uk.gov.pay.connector.app.ExecutorServiceConfig.ExecutionMode;
+import uk.gov.pay.connector.util.XrayUtils;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static uk.gov.pay.connector.app.ExecutorServiceConfig.ExecutionMode.THREAD_POOL;
+import static uk.gov.pay.connector.app.ExecutorServiceConfig.ExecutionMode.VIRTUAL_THREADS;
+import static uk.gov.pay.connector.paymentprocessor.service.CardExecutorService.ExecutionStatus.IN_PROGRESS;
+
+/**
+ * Submits 10,000 concurrent slow authorisations to the CardExecutorService in each execution mode and reports the
+ * card-executor.delay histogram, peak thread count and peak heap use. Too slow for every build, so it only runs with
+ * {@code mvn test -Dtest=CardExecutorServiceLoadTest -DrunLoadTests=true}.
+ */
+public class CardExecutorServiceLoadTest {
+
+    private static final int CONCURRENT_AUTHS = 10_000;
+    private static final long SLOW_AUTH_MILLIS = 1_500;
+
+    @Before
+    public void setUp() {
+        assumeTrue(Boolean.getBoolean("runLoadTests"));
+    }
+
+    @Test
+    public void slowAuthsOnThreadPool() throws Exception {
+        runLoad(THREAD_POOL);
+    }
+
+    @Test
+    public void slowAuthsOnVirtualThreads() throws Exception {
+        assumeTrue("Virtual threads need Java 21", Runtime.version().feature() >= 21);
+
+        LoadResult result = runLoad(VIRTUAL_THREADS);
+
+        assertThat(result.queueDelay.getMax(), lessThan(SLOW_AUTH_MILLIS));
+    }
+
+    private LoadResult runLoad(ExecutionMode executionMode) throws Exception {
+        System.gc();
+        MetricRegistry metricRegistry = new MetricRegistry();
+        CardExecutorService cardExecutorService = new CardExecutorService(configurationFor(executionMode),
+                environmentWith(metricRegistry), new XrayUtils(false));
+
+        AtomicLong peakHeapBytes = new AtomicLong();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> peakHeapBytes.accumulateAndGet(
+                ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(), Math::max), 0, 50, TimeUnit.MILLISECONDS);
+        ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+
+        CountDownLatch completed = new CountDownLatch(CONCURRENT_AUTHS);
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < CONCURRENT_AUTHS; i++) {
+            assertThat(cardExecutorService.execute(() -> slowAuth(completed)).getLeft(), is(IN_PROGRESS));
+        }
+        completed.await(10, TimeUnit.MINUTES);
+        long elapsed = System.currentTimeMillis() - start;
+        sampler.shutdownNow();
+
+        LoadResult result = new LoadResult(metricRegistry.histogram("card-executor.delay").getSnapshot(),
+                ManagementFactory.getThreadMXBean().getPeakThreadCount(), peakHeapBytes.get());
+        System.out.printf("%s: %d slow auths completed in %d ms - queue delay p50=%.0f ms p99=%.0f ms max=%d ms, peak threads=%d, peak heap=%d MB%n",
+                executionMode, CONCURRENT_AUTHS, elapsed,
+                result.queueDelay.getMedian(), result.queueDelay.get99thPercentile(), result.queueDelay.getMax(),
+                result.peakThreads, result.peakHeapBytes / (1024 * 1024));
+
+        assertThat(completed.getCount(), is(0L));
+        cardExecutorService.getExecutor().shutdownNow();
+        return result;
+    }
+
+    private static Object slowAuth(CountDownLatch completed) {
+        try {
+            Thread.sleep(SLOW_AUTH_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        completed.countDown();
+        return null;
+    }
+
+    private static ConnectorConfiguration configurationFor(ExecutionMode executionMode) {
+        ExecutorServiceConfig executorServiceConfig = mock(ExecutorServiceConfig.class);
+        when(executorServiceConfig.getExecutionMode()).thenReturn(executionMode);
+        when(executorServiceConfig.getThreadsPerCpu()).thenReturn(100);
+        when(executorServiceConfig.getTimeoutInSeconds()).thenReturn(0);
+        ConnectorConfiguration configuration = mock(ConnectorConfiguration.class);
+        when(configuration.getExecutorServiceConfig()).thenReturn(executorServiceConfig);
+        return configuration;
+    }
+
+    private static Environment environmentWith(MetricRegistry metricRegistry) {
+        Environment environment = mock(Environment.class);
+        when(environment.metrics()).thenReturn(metricRegistry);
+        return environment;
+    }
+
+    private static class LoadResult {
+        private final Snapshot queueDelay;
+        private final int peakThreads;
+        private final long peakHeapBytes;
+
+        LoadResult(Snapshot queueDelay, int peakThreads, long peakHeapBytes) {
+            this.queueDelay = queueDelay;
+            this.peakThreads = peakThreads;
+            this.peakHeapBytes = peakHeapBytes;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package uk.gov.pay.connector.paymentprocessor.service;
+
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.setup.Environment;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.MDC;
+import uk.gov.pay.connector.app.ConnectorConfiguration;
+import uk.gov.pay.connector.app.ExecutorServiceConfig;
+import uk.gov.pay.connector.util.XrayUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static uk.gov.pay.connector.app.ExecutorServiceConfig.ExecutionMode.THREAD_POOL;
+import static uk.gov.pay.connector.paymentprocessor.service.CardExecutorService.ExecutionStatus.COMPLETED;
+import static uk.gov.pay.connector.paymentprocessor.service.CardExecutorService.ExecutionStatus.FAILED;
+import static uk.gov.pay.connector.paymentprocessor.service.CardExecutorService.ExecutionStatus.IN_PROGRESS;
+
+public class CardExecutorServiceTest {
+
+    private final XrayUtils xrayUtils = mock(XrayUtils.class);
+    private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+    private CardExecutorService cardExecutorService;
+
+    @Before
+    public void setUp() {
+        ExecutorServiceConfig executorServiceConfig = mock(ExecutorServiceConfig.class);
+        when(executorServiceConfig.getExecutionMode()).thenReturn(THREAD_POOL);
+        when(executorServiceConfig.getThreadsPerCpu()).thenReturn(1);
+        when(executorServiceConfig.getTimeoutInSeconds()).thenReturn(1);
+        ConnectorConfiguration configuration = mock(ConnectorConfiguration.class);
+        when(configuration.getExecutorServiceConfig()).thenReturn(executorServiceConfig);
+        Environment environment = mock(Environment.class);
+        when(environment.metrics()).thenReturn(new MetricRegistry());
+
+        doAnswer(invocation -> calls.add("begin segment")).when(xrayUtils).beginSegment();
+        doAnswer(invocation -> calls.add("end segment")).when(xrayUtils).endSegment();
+
+        cardExecutorService = new CardExecutorService(configuration, environment, xrayUtils);
+    }
+
+    @After
+    public void tearDown() {
+        cardExecutorService.getExecutor().shutdownNow();
+        MDC.clear();
+    }
+
+    @Test
+    public void executeAsync_shouldCompleteOnTheExecutorWithTheCallersMdcOnceTheGatewayCallCompletes() {
+        MDC.put("chargeId", "charge-external-id");
+        CompletableFuture<String> gatewayCall = new CompletableFuture<>();
+        Thread caller = Thread.currentThread();
+
+        CompletableFuture.runAsync(() -> gatewayCall.complete("AUTHORISED"));
+        Pair<CardExecutorService.ExecutionStatus, String> result = cardExecutorService.executeAsync(() ->
+                gatewayCall.thenApply(status -> (Supplier<String>) () -> {
+                    assertThat(Thread.currentThread(), is(not(caller)));
+                    return status + " for " + MDC.get("chargeId");
+                }));
+
+        assertThat(result.getLeft(), is(COMPLETED));
+        assertThat(result.getRight(), is("AUTHORISED for charge-external-id"));
+    }
+
+    @Test
+    public void executeAsync_shouldReportInProgressWhileTheGatewayCallIsOutstanding() {
+        Pair<CardExecutorService.ExecutionStatus, String> result =
+                cardExecutorService.executeAsync(CompletableFuture::new);
+
+        assertThat(result.getLeft(), is(IN_PROGRESS));
+        assertThat(result.getRight(), is(nullValue()));
+    }
+
+    @Test
+    public void executeAsync_shouldReportFailedWhenCompletingTheOperationThrows() {
+        Pair<CardExecutorService.ExecutionStatus, String> result = cardExecutorService.executeAsync(() ->
+                CompletableFuture.completedFuture(() -> {
+                    throw new IllegalStateException("charge not found");
+                }));
+
+        assertThat(result.getLeft(), is(FAILED));
+    }
+
+    @Test
+    public void executeAsync_shouldRunTheTaskAndItsCompletionEachInTheirOwnSegment() {
+        Pair<CardExecutorService.ExecutionStatus, String> result = cardExecutorService.executeAsync(() -> {
+            calls.add("start gateway call");
+            return CompletableFuture.completedFuture(() -> {
+                calls.add("complete operation");
+                return "AUTHORISED";
+            });
+        });
+
+        assertThat(result.getLeft(), is(COMPLETED));
+        assertThat(calls, contains("begin segment", "start gateway call", "end segment",
+                "begin segment", "complete operation", "end segment"));
+    }
+}
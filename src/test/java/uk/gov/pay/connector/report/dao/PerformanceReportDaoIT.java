@@ -1,5 +1,6 @@
 package uk.gov.pay.connector.report.dao;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -11,8 +12,10 @@ import uk.gov.pay.connector.report.model.domain.GatewayAccountPerformanceReportE
 import uk.gov.pay.connector.report.model.domain.PerformanceReportEntity;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import static java.math.BigDecimal.ZERO;
@@ -23,11 +26,14 @@ import static org.junit.Assert.assertThat;
 public class PerformanceReportDaoIT extends DaoITestBase {
 
     private PerformanceReportDao performanceReportDao;
+    private RollupBackfillDao rollupBackfillDao;
     private DatabaseFixtures.TestAccount testAccountFixture;
 
     @Before
     public void setUp() {
+        databaseTestHelper.truncateAllData();
         performanceReportDao = env.getInstance(PerformanceReportDao.class);
+        rollupBackfillDao = env.getInstance(RollupBackfillDao.class);
         testAccountFixture = DatabaseFixtures
                 .withDatabaseTestHelper(databaseTestHelper)
                 .aTestAccount()
@@ -35,6 +41,11 @@ public class PerformanceReportDaoIT extends DaoITestBase {
                 .insert();
     }
 
+    @After
+    public void finishRollupBackfill() {
+        databaseTestHelper.finishRollupBackfill(PerformanceReportDao.ROLLUP);
+    }
+
     private void insertCharge(DatabaseFixtures.TestAccount account, long amount, ZonedDateTime createdDate) {
         DatabaseFixtures
                 .withDatabaseTestHelper(databaseTestHelper)
@@ -107,4 +118,95 @@ public class PerformanceReportDaoIT extends DaoITestBase {
         assertThat(performanceReportEntity.getTotalAmount(), is(closeTo(new BigDecimal("12"), ZERO)));
         assertThat(performanceReportEntity.getTotalVolume(), is(2L));
     }
+
+    @Test
+    public void shouldFollowChargesIntoAndOutOfCapturedForAGivenDay() {
+        ZonedDateTime date = ZonedDateTime.parse("2017-11-22T10:00:00Z");
+        DatabaseFixtures.TestCharge captured = insertChargeWithStatus(testAccountFixture, 7L, date, ChargeStatus.CAPTURED);
+        DatabaseFixtures.TestCharge submitted = insertChargeWithStatus(testAccountFixture, 3L, date, ChargeStatus.CAPTURE_SUBMITTED);
+        insertCharge(testAccountFixture, 20L, date);
+
+        databaseTestHelper.updateChargeStatus(submitted.getChargeId(), ChargeStatus.CAPTURED);
+        databaseTestHelper.updateChargeStatus(captured.getChargeId(), ChargeStatus.CAPTURE_ERROR);
+
+        PerformanceReportEntity performanceReportEntity = performanceReportDao.aggregateNumberAndValueOfPaymentsForAGivenDay(date);
+        assertThat(performanceReportEntity.getTotalVolume(), is(2L));
+        assertThat(performanceReportEntity.getTotalAmount(), is(closeTo(new BigDecimal("23"), ZERO)));
+        assertThat(performanceReportEntity.getAverageAmount(), is(closeTo(new BigDecimal("11.5"), ZERO)));
+    }
+
+    @Test
+    public void shouldKeepMinimumAndMaximumAmountsWhenAChargeLeavesCaptured() {
+        DatabaseFixtures.TestAccount gatewayAccount = DatabaseFixtures
+                .withDatabaseTestHelper(databaseTestHelper)
+                .aTestAccount()
+                .withAccountId(175L)
+                .withType(GatewayAccountEntity.Type.LIVE)
+                .insert();
+        ZonedDateTime date = ZonedDateTime.parse("2017-11-23T10:00:00Z");
+        insertCharge(gatewayAccount, 5L, date);
+        insertCharge(gatewayAccount, 50L, date);
+        DatabaseFixtures.TestCharge largest = insertChargeWithStatus(gatewayAccount, 500L, date, ChargeStatus.CAPTURED);
+
+        databaseTestHelper.updateChargeStatus(largest.getChargeId(), ChargeStatus.CAPTURE_ERROR);
+
+        GatewayAccountPerformanceReportEntity report = performanceReportDao.aggregateNumberAndValueOfPaymentsByGatewayAccount()
+                .filter(performance -> performance.getGatewayAccountId() == 175L)
+                .findFirst()
+                .get();
+        assertThat(report.getTotalVolume(), is(2L));
+        assertThat(report.getMinAmount(), is(5L));
+        assertThat(report.getMaxAmount(), is(50L));
+    }
+
+    @Test
+    public void shouldRebuildADayFromTheCharges() {
+        ZonedDateTime date = ZonedDateTime.parse("2017-11-24T10:00:00Z");
+        insertCharge(testAccountFixture, 4L, date);
+        insertCharge(testAccountFixture, 8L, date);
+        databaseTestHelper.deleteDailyCapturedPayments();
+
+        assertThat(performanceReportDao.aggregateNumberAndValueOfPaymentsForAGivenDay(date).getTotalVolume(), is(0L));
+
+        performanceReportDao.rebuildDailyCapturedPayments(date.toLocalDate());
+
+        PerformanceReportEntity performanceReportEntity = performanceReportDao.aggregateNumberAndValueOfPaymentsForAGivenDay(date);
+        assertThat(performanceReportEntity.getTotalVolume(), is(2L));
+        assertThat(performanceReportEntity.getTotalAmount(), is(closeTo(new BigDecimal("12"), ZERO)));
+    }
+
+    @Test
+    public void shouldAggregateCapturedChargesUntilTheRollupHasBeenBackfilled() {
+        ZonedDateTime date = ZonedDateTime.parse("2017-11-25T10:00:00Z");
+        insertCharge(testAccountFixture, 4L, date);
+        insertCharge(testAccountFixture, 8L, date);
+        databaseTestHelper.deleteDailyCapturedPayments();
+        databaseTestHelper.startRollupBackfill(PerformanceReportDao.ROLLUP, date.toLocalDate(), date.toLocalDate());
+
+        assertThat(performanceReportDao.aggregateNumberAndValueOfPaymentsForAGivenDay(date).getTotalVolume(), is(2L));
+        assertThat(performanceReportDao.aggregateNumberAndValueOfPayments().getTotalVolume(), is(2L));
+        assertThat(performanceReportDao.aggregateNumberAndValueOfPaymentsByGatewayAccount().count(), is(1L));
+
+        assertThat(rollupBackfillDao.backfillNextDay(PerformanceReportDao.ROLLUP, performanceReportDao::rebuildDailyCapturedPayments),
+                is(Optional.of(date.toLocalDate())));
+        assertThat(rollupBackfillDao.backfillNextDay(PerformanceReportDao.ROLLUP, performanceReportDao::rebuildDailyCapturedPayments),
+                is(Optional.<LocalDate>empty()));
+        assertThat(rollupBackfillDao.isBackfilled(PerformanceReportDao.ROLLUP), is(true));
+
+        PerformanceReportEntity performanceReportEntity = performanceReportDao.aggregateNumberAndValueOfPaymentsForAGivenDay(date);
+        assertThat(performanceReportEntity.getTotalVolume(), is(2L));
+        assertThat(performanceReportEntity.getTotalAmount(), is(closeTo(new BigDecimal("12"), ZERO)));
+    }
+
+    private DatabaseFixtures.TestCharge insertChargeWithStatus(DatabaseFixtures.TestAccount account, long amount,
+                                                               ZonedDateTime createdDate, ChargeStatus status) {
+        return DatabaseFixtures
+                .withDatabaseTestHelper(databaseTestHelper)
+                .aTestCharge()
+                .withTestAccount(account)
+                .withAmount(amount)
+                .withChargeStatus(status)
+                .withCreatedDate(createdDate)
+                .insert();
+    }
 }
@@ -0,0 +1,80 @@
+package uk.gov.pay.connector.report.managed;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import uk.gov.pay.connector.report.dao.RollupBackfillDao;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RollupBackfillWorkerTest {
+
+    private static final LocalDate DAY = LocalDate.parse("2019-09-02");
+
+    @Mock
+    private RollupBackfillDao rollupBackfillDao;
+
+    @Mock
+    private ScheduledExecutorService executorService;
+
+    @Mock
+    private Consumer<LocalDate> rebuildFirstRollup;
+
+    @Mock
+    private Consumer<LocalDate> rebuildSecondRollup;
+
+    private RollupBackfillWorker worker;
+
+    @Before
+    public void setUp() {
+        worker = new RollupBackfillWorker(rollupBackfillDao,
+                ImmutableMap.of("first_rollup", rebuildFirstRollup, "second_rollup", rebuildSecondRollup),
+                executorService);
+    }
+
+    @Test
+    public void shouldBackfillEachRollupUntilItIsComplete() {
+        when(rollupBackfillDao.backfillNextDay("first_rollup", rebuildFirstRollup))
+                .thenReturn(Optional.of(DAY), Optional.of(DAY.plusDays(1)), Optional.empty());
+        when(rollupBackfillDao.backfillNextDay("second_rollup", rebuildSecondRollup))
+                .thenReturn(Optional.empty());
+
+        worker.backfill();
+
+        verify(rollupBackfillDao, times(3)).backfillNextDay("first_rollup", rebuildFirstRollup);
+        verify(rollupBackfillDao).backfillNextDay("second_rollup", rebuildSecondRollup);
+    }
+
+    @Test
+    public void shouldCarryOnWithTheNextRollupWhenOneFails() {
+        when(rollupBackfillDao.backfillNextDay("first_rollup", rebuildFirstRollup))
+                .thenThrow(new RuntimeException("could not serialize access"));
+        when(rollupBackfillDao.backfillNextDay("second_rollup", rebuildSecondRollup))
+                .thenReturn(Optional.of(DAY), Optional.empty());
+
+        worker.backfill();
+
+        verify(rollupBackfillDao, times(2)).backfillNextDay("second_rollup", rebuildSecondRollup);
+    }
+
+    @Test
+    public void shouldStopBackfillingOnceStopped() {
+        when(executorService.isShutdown()).thenReturn(true);
+
+        worker.backfill();
+
+        verify(rollupBackfillDao, times(0)).backfillNextDay(any(), any());
+    }
+}
@@ -1,26 +1,18 @@
 package uk.gov.pay.connector.report.resource;
 
-import com.google.common.collect.ImmutableList;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
-import uk.gov.pay.connector.charge.dao.ChargeDao;
-import uk.gov.pay.connector.charge.model.domain.ChargeEntity;
-import uk.gov.pay.connector.charge.model.domain.ChargeStatus;
 import uk.gov.pay.connector.gatewayaccount.dao.GatewayAccountDao;
 import uk.gov.pay.connector.gatewayaccount.model.GatewayAccountEntity;
-import uk.gov.pay.connector.refund.dao.RefundDao;
-import uk.gov.pay.connector.refund.model.domain.RefundEntity;
-import uk.gov.pay.connector.refund.model.domain.RefundStatus;
+import uk.gov.pay.connector.report.dao.TransactionsSummaryDao;
 import uk.gov.pay.connector.report.model.TransactionsSummaryResponse;
+import uk.gov.pay.connector.report.model.domain.TransactionsSummary;
 
 import javax.ws.rs.core.Response;
 import java.time.ZonedDateTime;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
 import java.util.Optional;
 
 import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
@@ -31,21 +23,10 @@ import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
-import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.CAPTURED;
-import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.CAPTURE_APPROVED;
-import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.CAPTURE_APPROVED_RETRY;
-import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.CAPTURE_READY;
-import static uk.gov.pay.connector.charge.model.domain.ChargeStatus.CAPTURE_SUBMITTED;
-import static uk.gov.pay.connector.refund.model.domain.RefundStatus.REFUNDED;
 
 @RunWith(MockitoJUnitRunner.class)
 public class TransactionsSummaryResourceTest {
 
-    private static final List<ChargeStatus> CHARGE_SUCCESS_STATUSES =
-            ImmutableList.of(CAPTURE_APPROVED, CAPTURE_APPROVED_RETRY, CAPTURE_READY, CAPTURED, CAPTURE_SUBMITTED);
-
-    private static final List<RefundStatus> REFUND_SUCCESS_STATUSES = Collections.singletonList(REFUNDED);
-
     private static final Long GATEWAY_ACCOUNT_ID = 12345L;
 
     private static final String MIDNIGHT_THURSDAY = "2017-11-23T00:00:00Z";
@@ -61,44 +42,23 @@ public class TransactionsSummaryResourceTest {
     private GatewayAccountDao mockGatewayAccountDao;
 
     @Mock
-    private ChargeDao mockChargeDao;
-
-    @Mock
-    private RefundDao mockRefundDao;
-
-    @Mock
-    private ChargeEntity mock25PoundsChargeEntity, mock50PoundsChargeEntity, mock100PoundsChargeEntity;
-
-    @Mock
-    private RefundEntity mock10PoundsRefundEntity, mock2Pounds50RefundEntity;
+    private TransactionsSummaryDao mockTransactionsSummaryDao;
 
     private TransactionsSummaryResource resource;
 
     @Before
     public void setUp() {
-        given(mock25PoundsChargeEntity.getAmount()).willReturn(GBP_25_00);
-        given(mock50PoundsChargeEntity.getAmount()).willReturn(GBP_50_00);
-        given(mock100PoundsChargeEntity.getAmount()).willReturn(GBP_100_00);
-
-        given(mock10PoundsRefundEntity.getAmount()).willReturn(GBP_10_00);
-        given(mock2Pounds50RefundEntity.getAmount()).willReturn(GBP_2_50);
-
         given(mockGatewayAccountDao.findById(any(Long.class))).willReturn(Optional.empty());
         given(mockGatewayAccountDao.findById(GATEWAY_ACCOUNT_ID)).willReturn(Optional.of(mock(GatewayAccountEntity.class)));
 
-
-        resource = new TransactionsSummaryResource(mockGatewayAccountDao, mockChargeDao, mockRefundDao);
+        resource = new TransactionsSummaryResource(mockGatewayAccountDao, mockTransactionsSummaryDao);
     }
 
     @Test
     public void validGatewayAccountIdFromDateAndToDateProducesCorrectSummary() {
-        given(mockChargeDao.findByAccountBetweenDatesWithStatusIn(GATEWAY_ACCOUNT_ID,
-                ZonedDateTime.parse(MIDNIGHT_THURSDAY), ZonedDateTime.parse(MIDNIGHT_FRIDAY), CHARGE_SUCCESS_STATUSES))
-                .willReturn(Arrays.asList(mock25PoundsChargeEntity, mock50PoundsChargeEntity, mock100PoundsChargeEntity));
-
-        given(mockRefundDao.findByAccountBetweenDatesWithStatusIn(GATEWAY_ACCOUNT_ID,
-                ZonedDateTime.parse(MIDNIGHT_THURSDAY), ZonedDateTime.parse(MIDNIGHT_FRIDAY), REFUND_SUCCESS_STATUSES))
-                .willReturn(Arrays.asList(mock10PoundsRefundEntity, mock2Pounds50RefundEntity));
+        given(mockTransactionsSummaryDao.summarise(GATEWAY_ACCOUNT_ID,
+                ZonedDateTime.parse(MIDNIGHT_THURSDAY), ZonedDateTime.parse(MIDNIGHT_FRIDAY)))
+                .willReturn(new TransactionsSummary(3, GBP_25_00 + GBP_50_00 + GBP_100_00, 2, GBP_10_00 + GBP_2_50));
 
         Response result = resource.getPaymentsSummary(GATEWAY_ACCOUNT_ID, MIDNIGHT_THURSDAY, MIDNIGHT_FRIDAY);
 
@@ -109,6 +109,14 @@ public class DefaultExternalRefundAvailabilityCalculatorTest {
 
     }
 
+    @Test
+    public void shouldGetChargeRefundAvailabilityFromStatusAndAmountAvailable() {
+        assertThat(defaultExternalRefundAvailabilityCalculator.calculate(CAPTURE_SUBMITTED, 500L), is(EXTERNAL_PENDING));
+        assertThat(defaultExternalRefundAvailabilityCalculator.calculate(CAPTURED, 1L), is(EXTERNAL_AVAILABLE));
+        assertThat(defaultExternalRefundAvailabilityCalculator.calculate(CAPTURED, 0L), is(EXTERNAL_FULL));
+        assertThat(defaultExternalRefundAvailabilityCalculator.calculate(EXPIRED, 500L), is(EXTERNAL_UNAVAILABLE));
+    }
+
     private static ChargeEntity chargeEntity(ChargeStatus status) {
         GatewayAccountEntity gatewayAccountEntity = new GatewayAccountEntity("sandbox", newHashMap(), GatewayAccountEntity.Type.TEST);
         return aValidChargeEntity().withGatewayAccountEntity(gatewayAccountEntity).withStatus(status).build();
@@ -10,6 +10,7 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
 import uk.gov.pay.connector.cardtype.dao.CardTypeDao;
+import uk.gov.pay.connector.charge.service.FrontendChargeCache;
 import uk.gov.pay.connector.common.model.api.jsonpatch.JsonPatchRequest;
 import uk.gov.pay.connector.gatewayaccount.dao.GatewayAccountDao;
 import uk.gov.pay.connector.gatewayaccount.exception.DigitalWalletNotSupportedGatewayException;
@@ -17,6 +18,7 @@ import uk.gov.pay.connector.gatewayaccount.model.EmailCollectionMode;
 import uk.gov.pay.connector.gatewayaccount.model.GatewayAccount;
 import uk.gov.pay.connector.gatewayaccount.model.GatewayAccountEntity;
 import uk.gov.pay.connector.gatewayaccount.model.GatewayAccountResourceDTO;
+import uk.gov.pay.connector.gatewayaccount.service.GatewayAccountCache;
 import uk.gov.pay.connector.gatewayaccount.service.GatewayAccountService;
 
 import java.util.Arrays;
@@ -39,6 +41,10 @@ public class GatewayAccountServiceTest {
     @Mock
     private CardTypeDao mockCardTypeDao;
     @Mock
+    private GatewayAccountCache mockGatewayAccountCache;
+    @Mock
+    private FrontendChargeCache mockFrontendChargeCache;
+    @Mock
     private GatewayAccountEntity mockGatewayAccountEntity;
     @Mock
     private GatewayAccountEntity getMockGatewayAccountEntity1;
@@ -49,7 +55,7 @@ public class GatewayAccountServiceTest {
 
     @Before
     public void setUp() {
-        gatewayAccountService = new GatewayAccountService(mockGatewayAccountDao, mockCardTypeDao);
+        gatewayAccountService = new GatewayAccountService(mockGatewayAccountDao, mockCardTypeDao, mockGatewayAccountCache, mockFrontendChargeCache);
         when(getMockGatewayAccountEntity1.getType()).thenReturn("test");
         when(getMockGatewayAccountEntity1.getServiceName()).thenReturn("service one");
         when(getMockGatewayAccountEntity2.getType()).thenReturn("test");
@@ -106,6 +112,9 @@ public class GatewayAccountServiceTest {
         assertThat(optionalGatewayAccount.isPresent(), is(true));
         verify(entity).setNotifySettings(settings);
         verify(mockGatewayAccountDao).merge(entity);
+        verify(mockGatewayAccountCache).invalidate(gatewayAccountId);
+        verify(mockFrontendChargeCache).invalidateAccount(gatewayAccountId);
+        verify(mockGatewayAccountDao).publishChange(gatewayAccountId);
     }
 
     @Test
@@ -0,0 +1,189 @@
+package uk.gov.pay.connector.service;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.ImmutableList;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import uk.gov.pay.connector.app.GatewayAdaptiveTimeoutConfig;
+import uk.gov.pay.connector.app.GatewayCircuitBreakerConfig;
+import uk.gov.pay.connector.gateway.AdaptiveGatewayTimeouts;
+import uk.gov.pay.connector.gateway.GatewayCircuitBreakerRegistry;
+import uk.gov.pay.connector.gateway.GatewayClient;
+import uk.gov.pay.connector.gateway.GatewayException;
+import uk.gov.pay.connector.gateway.GatewayOrder;
+import uk.gov.pay.connector.gateway.model.OrderRequestType;
+import uk.gov.pay.connector.gatewayaccount.model.GatewayAccountEntity;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.core.MediaType;
+import java.net.ConnectException;
+import java.net.HttpCookie;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyMap;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GatewayClientAsyncTest {
+
+    private static final URI WORLDPAY_API_ENDPOINT = URI.create("http://www.example.com/worldpay/order");
+    private GatewayClient gatewayClient;
+
+    @Mock
+    private Client mockClient;
+    @Mock
+    private HttpClient mockAsyncClient;
+    @Mock
+    private HttpResponse<byte[]> mockHttpResponse;
+
+    @Mock
+    private MetricRegistry mockMetricRegistry;
+    @Mock
+    private Histogram mockHistogram;
+    @Mock
+    private Counter mockCounter;
+
+    @Mock
+    private GatewayAccountEntity mockGatewayAccountEntity;
+
+    @Mock
+    private GatewayOrder mockGatewayOrder;
+
+    @Before
+    public void setup() {
+        gatewayClient = new GatewayClient(mockClient, mockAsyncClient, null,
+                new GatewayCircuitBreakerRegistry(new GatewayCircuitBreakerConfig(), mockMetricRegistry, Clock.systemUTC()),
+                new AdaptiveGatewayTimeouts(new GatewayAdaptiveTimeoutConfig(), mockMetricRegistry, Clock.systemUTC()), mockMetricRegistry);
+        when(mockMetricRegistry.histogram(anyString())).thenReturn(mockHistogram);
+
+        when(mockGatewayAccountEntity.getGatewayName()).thenReturn("worldpay");
+        when(mockGatewayAccountEntity.getType()).thenReturn("worldpay");
+
+        when(mockGatewayOrder.getOrderRequestType()).thenReturn(OrderRequestType.AUTHORISE);
+        when(mockGatewayOrder.getPayload()).thenReturn("a-sample-payload");
+        when(mockGatewayOrder.getMediaType()).thenReturn(MediaType.APPLICATION_XML_TYPE);
+    }
+
+    @Test
+    public void shouldCompleteWithResponseAndCookiesWhenProviderReturnsOk() throws Exception {
+        givenGatewayResponds(200, Map.of("Set-Cookie", List.of("machine=some-machine-cookie")));
+
+        GatewayClient.Response response = gatewayClient.postRequestForAsync(WORLDPAY_API_ENDPOINT, mockGatewayAccountEntity,
+                mockGatewayOrder, ImmutableList.of(new HttpCookie("machine", "value")), emptyMap()).get();
+
+        assertThat(response.getStatus(), is(200));
+        assertThat(response.getEntity(), is("a-response"));
+        assertThat(response.getResponseCookies().get("machine"), is("some-machine-cookie"));
+        verify(mockHistogram).update(anyLong());
+
+        ArgumentCaptor<HttpRequest> requestCaptor = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(mockAsyncClient).sendAsync(requestCaptor.capture(), any(HttpResponse.BodyHandler.class));
+        assertThat(requestCaptor.getValue().headers().firstValue("Cookie").get(), is("machine=value"));
+    }
+
+    @Test
+    public void shouldCompleteWithGatewayErrorWhenProviderFails() throws Exception {
+        when(mockMetricRegistry.counter(anyString())).thenReturn(mockCounter);
+        givenGatewayResponds(500, emptyMap());
+
+        assertAsyncFailure(GatewayException.GatewayErrorException.class);
+        verify(mockCounter).inc();
+    }
+
+    @Test
+    public void shouldCompleteWithConnectionTimeoutWhenGatewayTimesOut() throws Exception {
+        when(mockMetricRegistry.counter(anyString())).thenReturn(mockCounter);
+        when(mockAsyncClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.failedFuture(new HttpTimeoutException("request timed out")));
+
+        assertAsyncFailure(GatewayException.GatewayConnectionTimeoutException.class);
+        verify(mockCounter).inc();
+    }
+
+    @Test
+    public void shouldCompleteWithGenericGatewayErrorWhenConnectionFails() throws Exception {
+        when(mockMetricRegistry.counter(anyString())).thenReturn(mockCounter);
+        when(mockAsyncClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.failedFuture(new ConnectException("connection refused")));
+
+        assertAsyncFailure(GatewayException.GenericGatewayException.class);
+        verify(mockCounter).inc();
+    }
+
+    @Test
+    public void shouldLeaveTimedOutRequestsOutOfTheAdaptiveTimeout() throws Exception {
+        AdaptiveGatewayTimeouts adaptiveTimeouts = mock(AdaptiveGatewayTimeouts.class);
+        gatewayClient = new GatewayClient(mockClient, mockAsyncClient, null,
+                new GatewayCircuitBreakerRegistry(new GatewayCircuitBreakerConfig(), mockMetricRegistry, Clock.systemUTC()),
+                adaptiveTimeouts, mockMetricRegistry);
+        when(mockMetricRegistry.counter(anyString())).thenReturn(mockCounter);
+        when(mockAsyncClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.failedFuture(new HttpTimeoutException("request timed out")));
+
+        assertAsyncFailure(GatewayException.GatewayConnectionTimeoutException.class);
+        verify(mockHistogram).update(anyLong());
+        verify(adaptiveTimeouts, never()).recordResponseTime(anyString(), anyLong());
+    }
+
+    @Test
+    public void shouldReleaseTheBulkheadPermitWhenTheRequestCannotBeSent() throws Exception {
+        GatewayCircuitBreakerConfig circuitBreakerConfig = spy(new GatewayCircuitBreakerConfig());
+        when(circuitBreakerConfig.isEnabled()).thenReturn(true);
+        GatewayCircuitBreakerRegistry circuitBreakers = new GatewayCircuitBreakerRegistry(circuitBreakerConfig, mockMetricRegistry, Clock.systemUTC());
+        gatewayClient = new GatewayClient(mockClient, mockAsyncClient, null, circuitBreakers,
+                new AdaptiveGatewayTimeouts(new GatewayAdaptiveTimeoutConfig(), mockMetricRegistry, Clock.systemUTC()), mockMetricRegistry);
+        when(mockMetricRegistry.counter(anyString())).thenReturn(mockCounter);
+        when(mockAsyncClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenThrow(new IllegalArgumentException("unsupported URI"));
+
+        assertAsyncFailure(GatewayException.GenericGatewayException.class);
+        assertThat(circuitBreakers.forOrder("worldpay", OrderRequestType.AUTHORISE).getAvailableConcurrentCalls(),
+                is(circuitBreakerConfig.getMaxConcurrentCalls()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenGatewayResponds(int status, Map<String, List<String>> headers) {
+        when(mockHttpResponse.statusCode()).thenReturn(status);
+        when(mockHttpResponse.body()).thenReturn("a-response".getBytes(UTF_8));
+        when(mockHttpResponse.headers()).thenReturn(HttpHeaders.of(headers, (name, value) -> true));
+        when(mockAsyncClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(mockHttpResponse));
+    }
+
+    private void assertAsyncFailure(Class<? extends GatewayException> expected) throws InterruptedException {
+        try {
+            gatewayClient.postRequestForAsync(WORLDPAY_API_ENDPOINT, mockGatewayAccountEntity, mockGatewayOrder, emptyMap()).get();
+            fail("Expected the async gateway request to fail");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(expected));
+        }
+    }
+}
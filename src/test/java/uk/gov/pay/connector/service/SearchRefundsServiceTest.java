@@ -1,5 +1,6 @@
 package uk.gov.pay.connector.service;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.collect.ImmutableMap;
 import com.jayway.jsonassert.JsonAssert;
 import org.junit.Before;
@@ -9,9 +10,11 @@ import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import uk.gov.pay.connector.app.SearchTotalsConfig;
 import uk.gov.pay.connector.charge.dao.SearchParams;
 import uk.gov.pay.connector.charge.model.domain.ChargeEntity;
 import uk.gov.pay.connector.common.model.api.ErrorResponse;
+import uk.gov.pay.connector.common.service.search.SearchTotals;
 import uk.gov.pay.connector.gatewayaccount.model.GatewayAccountEntity;
 import uk.gov.pay.connector.refund.dao.RefundDao;
 import uk.gov.pay.connector.refund.model.domain.RefundEntity;
@@ -61,7 +64,7 @@ public class SearchRefundsServiceTest {
     public void setUp() {
         gatewayAccount = new GatewayAccountEntity("sandbox", new HashMap<>(), TEST);
         gatewayAccount.setId(ACCOUNT_ID);
-        searchRefundsService = new SearchRefundsService(refundDao);
+        searchRefundsService = new SearchRefundsService(refundDao, new SearchTotals(new SearchTotalsConfig(), new MetricRegistry()));
     }
 
     @Test(expected = IllegalArgumentException.class)
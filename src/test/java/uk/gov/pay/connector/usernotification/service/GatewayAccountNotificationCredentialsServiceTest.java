@@ -12,6 +12,7 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
 import uk.gov.pay.connector.common.exception.CredentialsException;
+import uk.gov.pay.connector.gateway.smartpay.auth.VerifiedCredentialsCache;
 import uk.gov.pay.connector.gatewayaccount.dao.GatewayAccountDao;
 import uk.gov.pay.connector.gatewayaccount.model.GatewayAccountEntity;
 import uk.gov.pay.connector.usernotification.model.domain.NotificationCredentials;
@@ -41,9 +42,12 @@ public class GatewayAccountNotificationCredentialsServiceTest {
     @Mock
     HashUtil hashUtil;
 
+    @Mock
+    VerifiedCredentialsCache verifiedCredentialsCache;
+
     @Before
     public void setup() {
-        gatewayAccountNotificationCredentialsService = new GatewayAccountNotificationCredentialsService(gatewayDao, hashUtil);
+        gatewayAccountNotificationCredentialsService = new GatewayAccountNotificationCredentialsService(gatewayDao, hashUtil, verifiedCredentialsCache);
     }
 
     @Test
@@ -69,6 +73,21 @@ public class GatewayAccountNotificationCredentialsServiceTest {
         inOrder.verify(gatewayDao).merge(gatewayAccount);
     }
 
+    @Test
+    public void shouldForgetVerifiedCredentialsForAccountWhenCredentialsChange() throws CredentialsException {
+        GatewayAccountEntity gatewayAccount = mock(GatewayAccountEntity.class);
+        Map<String, String> credentials = ImmutableMap.of("username", "bob", "password", "bobssecret");
+
+        when(gatewayAccount.getId()).thenReturn(42L);
+        when(hashUtil.hash("bobssecret")).thenReturn("bobshashedsecret");
+
+        gatewayAccountNotificationCredentialsService.setCredentialsForAccount(credentials, gatewayAccount);
+
+        InOrder inOrder = Mockito.inOrder(gatewayDao, verifiedCredentialsCache);
+        inOrder.verify(gatewayDao).merge(gatewayAccount);
+        inOrder.verify(verifiedCredentialsCache).invalidate(42L);
+    }
+
     @Test
     public void shouldUpdateExistingNotificationCredentialIfPresent() throws CredentialsException {
         GatewayAccountEntity gatewayAccount = mock(GatewayAccountEntity.class);
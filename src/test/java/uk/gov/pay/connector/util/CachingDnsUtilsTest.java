@@ -0,0 +1,156 @@
+package uk.gov.pay.connector.util;
+
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.util.Duration;
+import org.junit.Before;
+import org.junit.Test;
+import uk.gov.pay.connector.app.ReverseDnsCacheConfig;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CachingDnsUtilsTest {
+
+    private static final String WORLDPAY_DOMAIN = "worldpay.com";
+    private static final String WORLDPAY_IP = "195.35.90.1";
+    private static final String OTHER_IP = "10.0.0.1";
+
+    private ReverseDnsCacheConfig config;
+    private MutableClock clock = new MutableClock();
+    private MetricRegistry metricRegistry = new MetricRegistry();
+    private List<Runnable> pendingRefreshes = new ArrayList<>();
+    private Map<String, Boolean> dnsAnswers = new HashMap<>();
+    private Map<String, Integer> lookups = new HashMap<>();
+    private CachingDnsUtils dnsUtils;
+
+    @Before
+    public void setUp() {
+        config = mock(ReverseDnsCacheConfig.class);
+        when(config.isEnabled()).thenReturn(true);
+        when(config.getMaximumSize()).thenReturn(100L);
+        when(config.getPositiveTtl()).thenReturn(Duration.minutes(10));
+        when(config.getNegativeTtl()).thenReturn(Duration.seconds(30));
+        when(config.getRefreshAhead()).thenReturn(Duration.minutes(1));
+        dnsAnswers.put(WORLDPAY_IP, true);
+        dnsAnswers.put(OTHER_IP, false);
+        dnsUtils = createDnsUtils();
+    }
+
+    @Test
+    public void shouldLookUpOnceForRepeatedNotificationsFromTheSameIp() {
+        assertThat(dnsUtils.ipMatchesDomain(WORLDPAY_IP, WORLDPAY_DOMAIN), is(true));
+        assertThat(dnsUtils.ipMatchesDomain(WORLDPAY_IP, WORLDPAY_DOMAIN), is(true));
+        assertThat(dnsUtils.ipMatchesDomain(WORLDPAY_IP, WORLDPAY_DOMAIN), is(true));
+
+        assertThat(lookups.get(WORLDPAY_IP), is(1));
+        assertThat(metricRegistry.counter("reverse-dns.cache.misses").getCount(), is(1L));
+        assertThat(metricRegistry.counter("reverse-dns.cache.hits").getCount(), is(2L));
+        assertThat(metricRegistry.timer("reverse-dns.lookup").getCount(), is(1L));
+    }
+
+    @Test
+    public void shouldKeyOnFirstForwardedIp() {
+        dnsUtils.ipMatchesDomain(WORLDPAY_IP + ", 10.1.1.1", WORLDPAY_DOMAIN);
+        dnsUtils.ipMatchesDomain(WORLDPAY_IP + ", 10.2.2.2", WORLDPAY_DOMAIN);
+
+        assertThat(lookups.get(WORLDPAY_IP), is(1));
+    }
+
+    @Test
+    public void shouldCacheMismatchesOnlyForNegativeTtl() {
+        assertThat(dnsUtils.ipMatchesDomain(OTHER_IP, WORLDPAY_DOMAIN), is(false));
+        clock.advanceSeconds(29);
+        assertThat(dnsUtils.ipMatchesDomain(OTHER_IP, WORLDPAY_DOMAIN), is(false));
+        assertThat(lookups.get(OTHER_IP), is(1));
+
+        clock.advanceSeconds(1);
+        dnsAnswers.put(OTHER_IP, true);
+
+        assertThat(dnsUtils.ipMatchesDomain(OTHER_IP, WORLDPAY_DOMAIN), is(true));
+        assertThat(lookups.get(OTHER_IP), is(2));
+        assertThat(pendingRefreshes.isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldLookUpAgainOncePositiveTtlExpires() {
+        dnsUtils.ipMatchesDomain(WORLDPAY_IP, WORLDPAY_DOMAIN);
+        clock.advanceSeconds(600);
+        dnsAnswers.put(WORLDPAY_IP, false);
+
+        assertThat(dnsUtils.ipMatchesDomain(WORLDPAY_IP, WORLDPAY_DOMAIN), is(false));
+        assertThat(lookups.get(WORLDPAY_IP), is(2));
+    }
+
+    @Test
+    public void shouldRefreshMatchInBackgroundShortlyBeforeItExpires() {
+        dnsUtils.ipMatchesDomain(WORLDPAY_IP, WORLDPAY_DOMAIN);
+        clock.advanceSeconds(540);
+
+        assertThat(dnsUtils.ipMatchesDomain(WORLDPAY_IP, WORLDPAY_DOMAIN), is(true));
+        assertThat(dnsUtils.ipMatchesDomain(WORLDPAY_IP, WORLDPAY_DOMAIN), is(true));
+        assertThat(pendingRefreshes.size(), is(1));
+        assertThat(lookups.get(WORLDPAY_IP), is(1));
+
+        pendingRefreshes.remove(0).run();
+        assertThat(lookups.get(WORLDPAY_IP), is(2));
+
+        clock.advanceSeconds(120);
+        assertThat(dnsUtils.ipMatchesDomain(WORLDPAY_IP, WORLDPAY_DOMAIN), is(true));
+        assertThat(lookups.get(WORLDPAY_IP), is(2));
+        assertThat(pendingRefreshes.isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldLookUpEveryTimeWhenDisabled() {
+        when(config.isEnabled()).thenReturn(false);
+        dnsUtils = createDnsUtils();
+
+        dnsUtils.ipMatchesDomain(WORLDPAY_IP, WORLDPAY_DOMAIN);
+        dnsUtils.ipMatchesDomain(WORLDPAY_IP, WORLDPAY_DOMAIN);
+
+        assertThat(lookups.get(WORLDPAY_IP), is(2));
+    }
+
+    private CachingDnsUtils createDnsUtils() {
+        return new CachingDnsUtils(config, metricRegistry, clock, pendingRefreshes::add) {
+            @Override
+            protected boolean ipAddressMatchesDomain(String ipAddress, String domain) {
+                lookups.merge(ipAddress, 1, Integer::sum);
+                return dnsAnswers.get(ipAddress);
+            }
+        };
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2019-08-01T10:00:00Z");
+
+        void advanceSeconds(long seconds) {
+            now = now.plusSeconds(seconds);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -5,10 +5,12 @@ import org.apache.commons.lang.math.RandomUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.postgresql.util.PGobject;
 import org.skife.jdbi.v2.DBI;
+import org.skife.jdbi.v2.util.BooleanColumnMapper;
 import org.skife.jdbi.v2.util.StringColumnMapper;
 import uk.gov.pay.commons.model.charge.ExternalMetadata;
 import uk.gov.pay.connector.cardtype.model.domain.CardTypeEntity;
 import uk.gov.pay.connector.charge.exception.ExternalMetadataConverterException;
+import uk.gov.pay.connector.charge.model.domain.ChargeStatus;
 import uk.gov.pay.connector.common.model.domain.Address;
 import uk.gov.pay.connector.gateway.model.AuthCardDetails;
 import uk.gov.pay.connector.gatewayaccount.model.EmailCollectionMode;
@@ -18,8 +20,10 @@ import uk.gov.pay.connector.refund.model.domain.RefundStatus;
 import uk.gov.pay.connector.usernotification.model.domain.EmailNotificationType;
 import uk.gov.pay.connector.wallets.WalletType;
 
+import java.sql.Date;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Map;
@@ -473,6 +477,64 @@ public class DatabaseTestHelper {
         );
     }
 
+    public void updateChargeStatus(Long chargeId, ChargeStatus status) {
+        jdbi.withHandle(handle ->
+                handle
+                        .createStatement("UPDATE charges SET status=:status WHERE id=:id")
+                        .bind("id", chargeId)
+                        .bind("status", status.getValue())
+                        .execute()
+        );
+    }
+
+    public void updateRefundStatus(Long refundId, RefundStatus status) {
+        jdbi.withHandle(handle ->
+                handle
+                        .createStatement("UPDATE refunds SET status=:status WHERE id=:id")
+                        .bind("id", refundId)
+                        .bind("status", status.getValue())
+                        .execute()
+        );
+    }
+
+    public boolean chargeCountsInDailyTransactionSummary(ChargeStatus status) {
+        return jdbi.withHandle(h ->
+                h.createQuery("SELECT charge_counts_in_daily_transaction_summary(:status)")
+                        .bind("status", status.getValue())
+                        .map(BooleanColumnMapper.PRIMITIVE)
+                        .first()
+        );
+    }
+
+    /**
+     * Empties {@code rollup} and marks the days from {@code fromDay} to {@code toDay} as still to be backfilled, as if
+     * they were from before the rollup's triggers were added.
+     */
+    public void startRollupBackfill(String rollup, LocalDate fromDay, LocalDate toDay) {
+        jdbi.withHandle(handle -> handle.createStatement("DELETE FROM " + rollup).execute());
+        jdbi.withHandle(handle ->
+                handle
+                        .createStatement("UPDATE rollup_backfills SET next_day = :fromDay, last_day = :toDay WHERE rollup = :rollup")
+                        .bind("rollup", rollup)
+                        .bind("fromDay", Date.valueOf(fromDay))
+                        .bind("toDay", Date.valueOf(toDay))
+                        .execute()
+        );
+    }
+
+    public void finishRollupBackfill(String rollup) {
+        jdbi.withHandle(handle ->
+                handle
+                        .createStatement("UPDATE rollup_backfills SET next_day = NULL WHERE rollup = :rollup")
+                        .bind("rollup", rollup)
+                        .execute()
+        );
+    }
+
+    public void deleteDailyCapturedPayments() {
+        jdbi.withHandle(h -> h.createStatement("DELETE FROM daily_captured_payments").execute());
+    }
+
     public String getChargeStatus(Long chargeId) {
         return jdbi.withHandle(h ->
                 h.createQuery("SELECT status from charges WHERE id = :charge_id")
@@ -682,6 +744,8 @@ public class DatabaseTestHelper {
     public void truncateAllData() {
         jdbi.withHandle(h -> h.createStatement("TRUNCATE TABLE gateway_accounts CASCADE").execute());
         jdbi.withHandle(h -> h.createStatement("TRUNCATE TABLE emitted_events CASCADE").execute());
+        jdbi.withHandle(h -> h.createStatement("TRUNCATE TABLE notification_inbox CASCADE").execute());
+        jdbi.withHandle(h -> h.createStatement("TRUNCATE TABLE notification_fingerprints CASCADE").execute());
     }
 
     public Long getChargeIdByExternalId(String externalChargeId) {
@@ -736,6 +800,22 @@ public class DatabaseTestHelper {
         );
     }
 
+    public Map<String, Object> readNotificationInbox(Long id) {
+        return jdbi.withHandle(handle ->
+                handle.createQuery("SELECT * from notification_inbox WHERE id = :id")
+                        .bind("id", id)
+                        .first()
+        );
+    }
+
+    public int countSessionsWaitingForLocks() {
+        return jdbi.withHandle(handle ->
+                handle.createQuery("SELECT count(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock' AND datname = current_database()")
+                        .mapTo(Integer.class)
+                        .first()
+        );
+    }
+
     public List<Map<String, Object>> readEmittedEvents() {
         return jdbi.withHandle(handle ->
                 handle.createQuery("SELECT * from emitted_events").list()
@@ -91,6 +91,25 @@ public class XMLUnmarshallerSecurityTest {
         XMLUnmarshaller.unmarshall(xmlData, XMLUnmarshallingAttackTest.class);
     }
 
+    @Test
+    public void preventXEE_entityExpansion_shouldStillFailWhenUnmarshallingWithAPooledReader() throws Exception {
+
+        for (int i = 0; i < 3; i++) {
+            XMLUnmarshallingAttackTest unmarshall = XMLUnmarshaller.unmarshall("<foo>hola</foo>", XMLUnmarshallingAttackTest.class);
+            assertThat(unmarshall.getValue(), is("hola"));
+        }
+
+        String xmlData = "<!DOCTYPE foo [" +
+                "<!ENTITY a \"1234567890\" >" +
+                "]> " +
+                "<foo>&a;&a;</foo>";
+
+        expectedException.expect(XMLUnmarshallerException.class);
+        expectedException.expectCause(is(unmarshalExceptionWithLinkedSAXParseException("JAXP00010001: The parser has encountered more than \"1\" entity expansions in this document; this is the limit imposed by the JDK.")));
+
+        XMLUnmarshaller.unmarshall(xmlData, XMLUnmarshallingAttackTest.class);
+    }
+
     private Matcher<Throwable> unmarshalExceptionWithLinkedSAXParseException(final String expectedMessage) {
         return new TypeSafeMatcher<Throwable>() {
             @Override
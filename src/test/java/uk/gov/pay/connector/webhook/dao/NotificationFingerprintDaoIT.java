@@ -0,0 +1,45 @@
+package uk.gov.pay.connector.webhook.dao;
+
+import org.junit.Before;
+import org.junit.Test;
+import uk.gov.pay.connector.it.dao.DaoITestBase;
+
+import java.time.ZonedDateTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static uk.gov.pay.connector.gateway.PaymentGatewayName.WORLDPAY;
+
+public class NotificationFingerprintDaoIT extends DaoITestBase {
+
+    private static final ZonedDateTime NOW = ZonedDateTime.parse("2019-08-01T10:00:00Z");
+    private static final String FINGERPRINT = "0123456789abcdef0123456789abcdef";
+    private static final String OLD_FINGERPRINT = "fedcba9876543210fedcba9876543210";
+
+    private NotificationFingerprintDao notificationFingerprintDao;
+
+    @Before
+    public void setUp() {
+        notificationFingerprintDao = env.getInstance(NotificationFingerprintDao.class);
+        databaseTestHelper.truncateAllData();
+    }
+
+    @Test
+    public void record_shouldIgnoreAFingerprintThatIsAlreadyRecorded() {
+        notificationFingerprintDao.record(FINGERPRINT, WORLDPAY, NOW);
+        notificationFingerprintDao.record(FINGERPRINT, WORLDPAY, NOW.plusMinutes(1));
+
+        assertThat(notificationFingerprintDao.exists(FINGERPRINT), is(true));
+        assertThat(notificationFingerprintDao.exists(OLD_FINGERPRINT), is(false));
+    }
+
+    @Test
+    public void deleteRecordedBefore_shouldOnlyKeepRecentFingerprints() {
+        notificationFingerprintDao.record(OLD_FINGERPRINT, WORLDPAY, NOW.minusDays(8));
+        notificationFingerprintDao.record(FINGERPRINT, WORLDPAY, NOW.minusDays(1));
+
+        assertThat(notificationFingerprintDao.deleteRecordedBefore(NOW.minusDays(7)), is(1));
+        assertThat(notificationFingerprintDao.findFingerprintsRecordedSince(NOW.minusDays(7)), contains(FINGERPRINT));
+    }
+}
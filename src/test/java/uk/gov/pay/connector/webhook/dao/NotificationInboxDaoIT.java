@@ -0,0 +1,82 @@
+package uk.gov.pay.connector.webhook.dao;
+
+import org.junit.Before;
+import org.junit.Test;
+import uk.gov.pay.connector.gateway.PaymentGatewayName;
+import uk.gov.pay.connector.it.dao.DaoITestBase;
+import uk.gov.pay.connector.webhook.model.NotificationInboxEntity;
+
+import java.sql.Timestamp;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static uk.gov.pay.connector.gateway.PaymentGatewayName.EPDQ;
+import static uk.gov.pay.connector.gateway.PaymentGatewayName.WORLDPAY;
+
+public class NotificationInboxDaoIT extends DaoITestBase {
+
+    private static final ZonedDateTime NOW = ZonedDateTime.parse("2019-08-01T10:00:00Z");
+
+    private NotificationInboxDao notificationInboxDao;
+
+    @Before
+    public void setUp() {
+        notificationInboxDao = env.getInstance(NotificationInboxDao.class);
+        databaseTestHelper.truncateAllData();
+    }
+
+    @Test
+    public void claimNextBatch_shouldLeaseOldestDueNotifications() {
+        NotificationInboxEntity first = store(WORLDPAY, "worldpay:a", NOW.minusMinutes(2));
+        NotificationInboxEntity second = store(EPDQ, "epdq:b", NOW.minusMinutes(1));
+        store(EPDQ, "epdq:c", NOW.plusMinutes(1));
+
+        List<Long> claimed = notificationInboxDao.claimNextBatch(10, NOW, NOW.plusMinutes(5));
+
+        assertThat(claimed, contains(first.getId(), second.getId()));
+        Map<String, Object> leased = databaseTestHelper.readNotificationInbox(first.getId());
+        assertThat(leased.get("attempts"), is(1));
+        assertThat(leased.get("available_date"), is(Timestamp.valueOf("2019-08-01 10:05:00")));
+        assertThat(leased.get("status"), is("PENDING"));
+    }
+
+    @Test
+    public void claimNextBatch_shouldNotReturnLeasedNotificationsAgain() {
+        store(WORLDPAY, "worldpay:a", NOW);
+
+        notificationInboxDao.claimNextBatch(10, NOW, NOW.plusMinutes(5));
+
+        assertThat(notificationInboxDao.claimNextBatch(10, NOW.plusMinutes(1), NOW.plusMinutes(6)).isEmpty(), is(true));
+    }
+
+    @Test
+    public void claimNextBatch_shouldHoldBackLaterNotificationsForSameTransaction() {
+        NotificationInboxEntity capture = store(WORLDPAY, "worldpay:a", NOW.minusMinutes(2));
+        store(WORLDPAY, "worldpay:a", NOW.minusMinutes(1));
+        NotificationInboxEntity unordered = store(WORLDPAY, null, NOW.minusMinutes(1));
+
+        List<Long> claimed = notificationInboxDao.claimNextBatch(10, NOW, NOW.plusMinutes(5));
+
+        assertThat(claimed, contains(capture.getId(), unordered.getId()));
+    }
+
+    @Test
+    public void countPending_andOldestReceivedDate_shouldReflectPendingNotifications() {
+        store(WORLDPAY, "worldpay:a", NOW.minusMinutes(2));
+        store(EPDQ, "epdq:b", NOW.minusMinutes(1));
+
+        assertThat(notificationInboxDao.countPending(), is(2L));
+        assertThat(notificationInboxDao.findOldestPendingReceivedDate(), is(Optional.of(NOW.minusMinutes(2))));
+    }
+
+    private NotificationInboxEntity store(PaymentGatewayName gateway, String orderingKey, ZonedDateTime receivedDate) {
+        NotificationInboxEntity notification = new NotificationInboxEntity(gateway, "payload", orderingKey, receivedDate);
+        notificationInboxDao.persist(notification);
+        return notification;
+    }
+}
@@ -0,0 +1,73 @@
+package uk.gov.pay.connector.webhook.managed;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import uk.gov.pay.connector.app.NotificationInboxConfig;
+import uk.gov.pay.connector.webhook.service.NotificationInboxService;
+
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class NotificationInboxWorkerTest {
+
+    @Mock
+    private NotificationInboxService notificationInboxService;
+
+    @Mock
+    private NotificationInboxConfig config;
+
+    @Mock
+    private ScheduledExecutorService executorService;
+
+    private NotificationInboxWorker worker;
+
+    @Before
+    public void setUp() {
+        when(config.getBatchSize()).thenReturn(2);
+        worker = new NotificationInboxWorker(notificationInboxService, config, executorService);
+    }
+
+    @Test
+    public void shouldKeepClaimingWhileBatchesAreFull() {
+        when(notificationInboxService.claimNextBatch()).thenReturn(List.of(1L, 2L), List.of(3L));
+
+        worker.drainInbox();
+
+        verify(notificationInboxService, times(2)).claimNextBatch();
+        verify(notificationInboxService).process(1L);
+        verify(notificationInboxService).process(2L);
+        verify(notificationInboxService).process(3L);
+        verify(notificationInboxService, never()).recordFailure(1L);
+    }
+
+    @Test
+    public void shouldRecordFailureAndCarryOnWithTheRestOfTheBatch() {
+        when(notificationInboxService.claimNextBatch()).thenReturn(List.of(1L, 2L), List.of());
+        doThrow(new RuntimeException("charge not found")).when(notificationInboxService).process(1L);
+
+        worker.drainInbox();
+
+        verify(notificationInboxService).recordFailure(1L);
+        verify(notificationInboxService).process(2L);
+        verify(notificationInboxService, never()).recordFailure(2L);
+    }
+
+    @Test
+    public void shouldStopDrainingWhenClaimingFails() {
+        when(notificationInboxService.claimNextBatch()).thenThrow(new RuntimeException("connection refused"));
+
+        worker.drainInbox();
+
+        verify(notificationInboxService).claimNextBatch();
+    }
+}
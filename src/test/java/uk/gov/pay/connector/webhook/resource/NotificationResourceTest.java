@@ -0,0 +1,109 @@
+package uk.gov.pay.connector.webhook.resource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import uk.gov.pay.connector.gateway.epdq.EpdqNotificationService;
+import uk.gov.pay.connector.gateway.smartpay.SmartpayNotificationService;
+import uk.gov.pay.connector.gateway.stripe.StripeNotificationService;
+import uk.gov.pay.connector.gateway.worldpay.WorldpayNotificationService;
+import uk.gov.pay.connector.webhook.service.NotificationInboxService;
+
+import javax.ws.rs.core.Response;
+
+import static javax.ws.rs.core.Response.Status.FORBIDDEN;
+import static javax.ws.rs.core.Response.Status.OK;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static uk.gov.pay.connector.gateway.PaymentGatewayName.EPDQ;
+import static uk.gov.pay.connector.gateway.PaymentGatewayName.SMARTPAY;
+import static uk.gov.pay.connector.gateway.PaymentGatewayName.WORLDPAY;
+
+@RunWith(MockitoJUnitRunner.class)
+public class NotificationResourceTest {
+
+    private static final String PAYLOAD = "notification-payload";
+    private static final String IP_ADDRESS = "10.0.0.1";
+
+    @Mock
+    private WorldpayNotificationService mockWorldpayNotificationService;
+    @Mock
+    private EpdqNotificationService mockEpdqNotificationService;
+    @Mock
+    private SmartpayNotificationService mockSmartpayNotificationService;
+    @Mock
+    private StripeNotificationService mockStripeNotificationService;
+    @Mock
+    private NotificationInboxService mockNotificationInboxService;
+
+    private NotificationResource resource;
+
+    @Before
+    public void setUp() {
+        resource = new NotificationResource(mockWorldpayNotificationService, mockEpdqNotificationService,
+                mockSmartpayNotificationService, mockStripeNotificationService, mockNotificationInboxService);
+    }
+
+    @Test
+    public void shouldStoreSmartpayNotificationInInboxWhenInboxIsEnabled() {
+        given(mockNotificationInboxService.isEnabled()).willReturn(true);
+
+        Response response = resource.authoriseSmartpayNotifications(PAYLOAD);
+
+        assertThat(response.getStatus(), is(OK.getStatusCode()));
+        assertThat(response.getEntity(), is("[accepted]"));
+        verify(mockNotificationInboxService).store(SMARTPAY, PAYLOAD);
+        verifyZeroInteractions(mockSmartpayNotificationService);
+    }
+
+    @Test
+    public void shouldStoreEpdqNotificationInInboxWhenInboxIsEnabled() {
+        given(mockNotificationInboxService.isEnabled()).willReturn(true);
+
+        Response response = resource.authoriseEpdqNotifications(PAYLOAD);
+
+        assertThat(response.getStatus(), is(OK.getStatusCode()));
+        verify(mockNotificationInboxService).store(EPDQ, PAYLOAD);
+        verifyZeroInteractions(mockEpdqNotificationService);
+    }
+
+    @Test
+    public void shouldStoreWorldpayNotificationFromTrustedSourceInInboxWhenInboxIsEnabled() {
+        given(mockNotificationInboxService.isEnabled()).willReturn(true);
+        given(mockWorldpayNotificationService.isNotificationFromTrustedSource(IP_ADDRESS)).willReturn(true);
+
+        Response response = resource.authoriseWorldpayNotifications(PAYLOAD, IP_ADDRESS);
+
+        assertThat(response.getStatus(), is(OK.getStatusCode()));
+        verify(mockNotificationInboxService).store(WORLDPAY, PAYLOAD);
+        verify(mockWorldpayNotificationService, never()).handleNotificationFor(any(), any());
+    }
+
+    @Test
+    public void shouldRejectWorldpayNotificationFromUntrustedSourceWithoutStoringItWhenInboxIsEnabled() {
+        given(mockNotificationInboxService.isEnabled()).willReturn(true);
+        given(mockWorldpayNotificationService.isNotificationFromTrustedSource(IP_ADDRESS)).willReturn(false);
+
+        Response response = resource.authoriseWorldpayNotifications(PAYLOAD, IP_ADDRESS);
+
+        assertThat(response.getStatus(), is(FORBIDDEN.getStatusCode()));
+        verify(mockNotificationInboxService, never()).store(any(), any());
+    }
+
+    @Test
+    public void shouldHandleNotificationStraightAwayWhenInboxIsDisabled() {
+        given(mockNotificationInboxService.isEnabled()).willReturn(false);
+
+        resource.authoriseSmartpayNotifications(PAYLOAD);
+
+        verify(mockSmartpayNotificationService).handleNotificationFor(PAYLOAD);
+        verify(mockNotificationInboxService, never()).store(any(), any());
+    }
+}
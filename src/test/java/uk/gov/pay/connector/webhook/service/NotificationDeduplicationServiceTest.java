@@ -0,0 +1,147 @@
+package uk.gov.pay.connector.webhook.service;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import uk.gov.pay.connector.app.NotificationDeduplicationConfig;
+import uk.gov.pay.connector.webhook.dao.NotificationFingerprintDao;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.pay.connector.gateway.PaymentGatewayName.EPDQ;
+import static uk.gov.pay.connector.gateway.PaymentGatewayName.WORLDPAY;
+
+@RunWith(MockitoJUnitRunner.class)
+public class NotificationDeduplicationServiceTest {
+
+    private static final ZonedDateTime NOW = ZonedDateTime.parse("2019-08-01T10:00:00Z");
+    private static final ZonedDateTime EVENT_DATE = ZonedDateTime.parse("2019-08-01T09:59:00Z");
+
+    @Mock
+    private NotificationFingerprintDao notificationFingerprintDao;
+
+    private MetricRegistry metricRegistry = new MetricRegistry();
+    private NotificationDeduplicationService notificationDeduplicationService;
+
+    @Before
+    public void setUp() {
+        Clock clock = Clock.fixed(Instant.from(NOW), ZoneOffset.UTC);
+        notificationDeduplicationService = new NotificationDeduplicationService(notificationFingerprintDao,
+                new NotificationDeduplicationConfig(), metricRegistry, clock);
+    }
+
+    @Test
+    public void fingerprint_shouldIgnoreTheOffsetOfTheEventDate() {
+        String utc = NotificationDeduplicationService.fingerprint(WORLDPAY, "transaction-id", "CAPTURED", EVENT_DATE);
+        String bst = NotificationDeduplicationService.fingerprint(WORLDPAY, "transaction-id", "CAPTURED",
+                EVENT_DATE.withZoneSameInstant(ZoneOffset.ofHours(1)));
+
+        assertThat(utc, is(bst));
+        assertThat(utc.length(), is(32));
+    }
+
+    @Test
+    public void fingerprint_shouldDifferByGatewayStatusAndEventDate() {
+        String fingerprint = NotificationDeduplicationService.fingerprint(WORLDPAY, "transaction-id", "CAPTURED", EVENT_DATE);
+
+        assertThat(NotificationDeduplicationService.fingerprint(EPDQ, "transaction-id", "CAPTURED", EVENT_DATE), is(not(fingerprint)));
+        assertThat(NotificationDeduplicationService.fingerprint(WORLDPAY, "transaction-id", "REFUNDED", EVENT_DATE), is(not(fingerprint)));
+        assertThat(NotificationDeduplicationService.fingerprint(WORLDPAY, "transaction-id", "CAPTURED", null), is(not(fingerprint)));
+    }
+
+    @Test
+    public void isDuplicate_shouldCheckTheDatabaseUntilTheFilterIsLoaded() {
+        String fingerprint = NotificationDeduplicationService.fingerprint(WORLDPAY, "transaction-id", "CAPTURED", EVENT_DATE);
+        when(notificationFingerprintDao.exists(fingerprint)).thenReturn(true);
+
+        assertThat(notificationDeduplicationService.isDuplicate(WORLDPAY, "transaction-id", "CAPTURED", EVENT_DATE), is(true));
+        assertThat(metricRegistry.counter("notification-deduplication.worldpay.suppressed").getCount(), is(1L));
+    }
+
+    @Test
+    public void isDuplicate_shouldNotQueryForNotificationsTheLoadedFilterHasNotSeen() {
+        when(notificationFingerprintDao.findFingerprintsRecordedSince(NOW.minusDays(7))).thenReturn(List.of());
+        notificationDeduplicationService.loadFilter();
+
+        assertThat(notificationDeduplicationService.isDuplicate(WORLDPAY, "transaction-id", "CAPTURED", EVENT_DATE), is(false));
+        verify(notificationFingerprintDao, never()).exists(anyString());
+    }
+
+    @Test
+    public void isDuplicate_shouldSuppressNotificationsLoadedIntoTheFilter() {
+        String fingerprint = NotificationDeduplicationService.fingerprint(WORLDPAY, "transaction-id", "CAPTURED", EVENT_DATE);
+        when(notificationFingerprintDao.findFingerprintsRecordedSince(NOW.minusDays(7))).thenReturn(List.of(fingerprint));
+        when(notificationFingerprintDao.exists(fingerprint)).thenReturn(true);
+        notificationDeduplicationService.loadFilter();
+
+        assertThat(notificationDeduplicationService.isDuplicate(WORLDPAY, "transaction-id", "CAPTURED", EVENT_DATE), is(true));
+        verify(notificationFingerprintDao).deleteRecordedBefore(NOW.minusDays(7));
+    }
+
+    @Test
+    public void isDuplicate_shouldNotSuppressAFilterFalsePositive() {
+        String fingerprint = NotificationDeduplicationService.fingerprint(WORLDPAY, "transaction-id", "CAPTURED", EVENT_DATE);
+        when(notificationFingerprintDao.findFingerprintsRecordedSince(NOW.minusDays(7))).thenReturn(List.of(fingerprint));
+        notificationDeduplicationService.loadFilter();
+
+        assertThat(notificationDeduplicationService.isDuplicate(WORLDPAY, "transaction-id", "CAPTURED", EVENT_DATE), is(false));
+        assertThat(metricRegistry.counter("notification-deduplication.filter.false-positives").getCount(), is(1L));
+    }
+
+    @Test
+    public void loadFilter_shouldForgetFingerprintsThatHaveExpiredSinceItWasLastLoaded() {
+        String fingerprint = NotificationDeduplicationService.fingerprint(WORLDPAY, "transaction-id", "CAPTURED", EVENT_DATE);
+        when(notificationFingerprintDao.findFingerprintsRecordedSince(NOW.minusDays(7)))
+                .thenReturn(List.of(fingerprint), List.of());
+        notificationDeduplicationService.loadFilter();
+
+        notificationDeduplicationService.loadFilter();
+
+        assertThat(notificationDeduplicationService.isDuplicate(WORLDPAY, "transaction-id", "CAPTURED", EVENT_DATE), is(false));
+        verify(notificationFingerprintDao, never()).exists(anyString());
+        verify(notificationFingerprintDao, times(2)).deleteRecordedBefore(NOW.minusDays(7));
+    }
+
+    @Test
+    public void loadFilter_shouldKeepFingerprintsRecordedWhileItRuns() {
+        String fingerprint = NotificationDeduplicationService.fingerprint(WORLDPAY, "transaction-id", "CAPTURED", EVENT_DATE);
+        when(notificationFingerprintDao.findFingerprintsRecordedSince(NOW.minusDays(7))).thenAnswer(invocation -> {
+            notificationDeduplicationService.recordApplied(WORLDPAY, "transaction-id", "CAPTURED", EVENT_DATE);
+            return List.of();
+        });
+        when(notificationFingerprintDao.exists(fingerprint)).thenReturn(true);
+
+        notificationDeduplicationService.loadFilter();
+
+        assertThat(notificationDeduplicationService.isDuplicate(WORLDPAY, "transaction-id", "CAPTURED", EVENT_DATE), is(true));
+    }
+
+    @Test
+    public void recordApplied_shouldPersistTheFingerprintAndAddItToTheFilter() {
+        when(notificationFingerprintDao.findFingerprintsRecordedSince(any())).thenReturn(List.of());
+        notificationDeduplicationService.loadFilter();
+        String fingerprint = NotificationDeduplicationService.fingerprint(WORLDPAY, "transaction-id", "CAPTURED", EVENT_DATE);
+        when(notificationFingerprintDao.exists(fingerprint)).thenReturn(true);
+
+        notificationDeduplicationService.recordApplied(WORLDPAY, "transaction-id", "CAPTURED", EVENT_DATE);
+
+        verify(notificationFingerprintDao).record(fingerprint, WORLDPAY, NOW);
+        assertThat(notificationDeduplicationService.isDuplicate(WORLDPAY, "transaction-id", "CAPTURED", EVENT_DATE), is(true));
+    }
+}
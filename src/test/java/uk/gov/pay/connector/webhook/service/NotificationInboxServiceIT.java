@@ -0,0 +1,101 @@
+package uk.gov.pay.connector.webhook.service;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.inject.AbstractModule;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.gov.pay.connector.app.NotificationInboxConfig;
+import uk.gov.pay.connector.gateway.epdq.EpdqNotificationService;
+import uk.gov.pay.connector.gateway.smartpay.SmartpayNotificationService;
+import uk.gov.pay.connector.gateway.worldpay.WorldpayNotificationService;
+import uk.gov.pay.connector.it.dao.DaoITestBase;
+import uk.gov.pay.connector.webhook.dao.NotificationInboxDao;
+import uk.gov.pay.connector.webhook.model.NotificationInboxEntity;
+
+import java.time.Clock;
+import java.time.ZonedDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static uk.gov.pay.connector.gateway.PaymentGatewayName.WORLDPAY;
+
+public class NotificationInboxServiceIT extends DaoITestBase {
+
+    private final WorldpayNotificationService worldpayNotificationService = mock(WorldpayNotificationService.class);
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    private NotificationInboxDao notificationInboxDao;
+    private NotificationInboxService notificationInboxService;
+
+    @Before
+    public void setUp() {
+        databaseTestHelper.truncateAllData();
+        notificationInboxDao = env.getInstance(NotificationInboxDao.class);
+        notificationInboxService = env.withModules(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(WorldpayNotificationService.class).toInstance(worldpayNotificationService);
+                bind(EpdqNotificationService.class).toInstance(mock(EpdqNotificationService.class));
+                bind(SmartpayNotificationService.class).toInstance(mock(SmartpayNotificationService.class));
+                bind(NotificationInboxConfig.class).toInstance(new NotificationInboxConfig());
+                bind(MetricRegistry.class).toInstance(new MetricRegistry());
+                bind(Clock.class).toInstance(Clock.systemUTC());
+                try {
+                    bind(NotificationInboxService.class).toConstructor(NotificationInboxService.class.getConstructor(
+                            NotificationInboxDao.class, WorldpayNotificationService.class, EpdqNotificationService.class,
+                            SmartpayNotificationService.class, NotificationInboxConfig.class, MetricRegistry.class, Clock.class));
+                } catch (NoSuchMethodException e) {
+                    addError(e);
+                }
+            }
+        }).getInstance(NotificationInboxService.class);
+    }
+
+    @After
+    public void shutDownWorkers() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void process_shouldApplyANotificationOnceWhenTwoWorkersProcessItAtTheSameTime() throws Exception {
+        NotificationInboxEntity notification = new NotificationInboxEntity(WORLDPAY, "payload", "worldpay:a", ZonedDateTime.now());
+        notificationInboxDao.persist(notification);
+
+        CountDownLatch firstWorkerApplying = new CountDownLatch(1);
+        CountDownLatch firstWorkerMayFinish = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            firstWorkerApplying.countDown();
+            firstWorkerMayFinish.await(10, SECONDS);
+            return null;
+        }).when(worldpayNotificationService).handleVerifiedNotificationFor("payload");
+
+        Future<?> firstWorker = executor.submit(() -> notificationInboxService.process(notification.getId()));
+        assertThat(firstWorkerApplying.await(10, SECONDS), is(true));
+
+        Future<?> secondWorker = executor.submit(() -> notificationInboxService.process(notification.getId()));
+        waitForASessionToBlockOnALock();
+        firstWorkerMayFinish.countDown();
+
+        firstWorker.get(10, SECONDS);
+        secondWorker.get(10, SECONDS);
+
+        verify(worldpayNotificationService, times(1)).handleVerifiedNotificationFor("payload");
+        assertThat(databaseTestHelper.readNotificationInbox(notification.getId()).get("status"), is("PROCESSED"));
+    }
+
+    private void waitForASessionToBlockOnALock() throws InterruptedException {
+        for (int i = 0; i < 100 && databaseTestHelper.countSessionsWaitingForLocks() == 0; i++) {
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package uk.gov.pay.connector.webhook.service;
+
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.util.Duration;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import uk.gov.pay.connector.app.NotificationInboxConfig;
+import uk.gov.pay.connector.gateway.epdq.EpdqNotificationService;
+import uk.gov.pay.connector.gateway.smartpay.SmartpayNotificationService;
+import uk.gov.pay.connector.gateway.worldpay.WorldpayNotificationService;
+import uk.gov.pay.connector.webhook.dao.NotificationInboxDao;
+import uk.gov.pay.connector.webhook.model.NotificationInboxEntity;
+import uk.gov.pay.connector.webhook.model.NotificationInboxStatus;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.pay.connector.gateway.PaymentGatewayName.EPDQ;
+import static uk.gov.pay.connector.gateway.PaymentGatewayName.SMARTPAY;
+import static uk.gov.pay.connector.gateway.PaymentGatewayName.WORLDPAY;
+
+@RunWith(MockitoJUnitRunner.class)
+public class NotificationInboxServiceTest {
+
+    private static final ZonedDateTime NOW = ZonedDateTime.parse("2019-08-01T10:00:00Z");
+    private static final String PAYLOAD = "notification-payload";
+
+    @Mock
+    private NotificationInboxDao notificationInboxDao;
+    @Mock
+    private WorldpayNotificationService worldpayNotificationService;
+    @Mock
+    private EpdqNotificationService epdqNotificationService;
+    @Mock
+    private SmartpayNotificationService smartpayNotificationService;
+    @Mock
+    private NotificationInboxConfig config;
+
+    private MetricRegistry metricRegistry = new MetricRegistry();
+    private NotificationInboxService notificationInboxService;
+
+    @Before
+    public void setUp() {
+        Clock clock = Clock.fixed(Instant.from(NOW), ZoneOffset.UTC);
+        notificationInboxService = new NotificationInboxService(notificationInboxDao, worldpayNotificationService,
+                epdqNotificationService, smartpayNotificationService, config, metricRegistry, clock);
+    }
+
+    @Test
+    public void shouldStoreNotificationKeyedOnItsTransaction() {
+        when(worldpayNotificationService.transactionIdFor(PAYLOAD)).thenReturn(Optional.of("transaction-id"));
+
+        notificationInboxService.store(WORLDPAY, PAYLOAD);
+
+        ArgumentCaptor<NotificationInboxEntity> captor = ArgumentCaptor.forClass(NotificationInboxEntity.class);
+        verify(notificationInboxDao).persist(captor.capture());
+        NotificationInboxEntity stored = captor.getValue();
+        assertThat(stored.getGateway(), is(WORLDPAY));
+        assertThat(stored.getPayload(), is(PAYLOAD));
+        assertThat(stored.getOrderingKey(), is("worldpay:transaction-id"));
+        assertThat(stored.getStatus(), is(NotificationInboxStatus.PENDING));
+        assertThat(stored.getReceivedDate(), is(NOW));
+        assertThat(stored.getAvailableDate(), is(NOW));
+        assertThat(metricRegistry.counter("notification-inbox.worldpay.received").getCount(), is(1L));
+    }
+
+    @Test
+    public void shouldStoreNotificationWithoutOrderingKeyWhenTransactionIsUnknown() {
+        when(epdqNotificationService.transactionIdFor(PAYLOAD)).thenReturn(Optional.empty());
+
+        notificationInboxService.store(EPDQ, PAYLOAD);
+
+        ArgumentCaptor<NotificationInboxEntity> captor = ArgumentCaptor.forClass(NotificationInboxEntity.class);
+        verify(notificationInboxDao).persist(captor.capture());
+        assertThat(captor.getValue().getOrderingKey(), is(nullValue()));
+    }
+
+    @Test
+    public void shouldStoreSmartpayNotificationForSeveralTransactionsKeyedOnEachTransaction() {
+        when(smartpayNotificationService.splitByTransaction(PAYLOAD)).thenReturn(List.of("first-part", "second-part"));
+        when(smartpayNotificationService.transactionIdFor("first-part")).thenReturn(Optional.of("first-transaction-id"));
+        when(smartpayNotificationService.transactionIdFor("second-part")).thenReturn(Optional.of("second-transaction-id"));
+
+        notificationInboxService.store(SMARTPAY, PAYLOAD);
+
+        ArgumentCaptor<NotificationInboxEntity> captor = ArgumentCaptor.forClass(NotificationInboxEntity.class);
+        verify(notificationInboxDao, times(2)).persist(captor.capture());
+        assertThat(captor.getAllValues().get(0).getPayload(), is("first-part"));
+        assertThat(captor.getAllValues().get(0).getOrderingKey(), is("smartpay:first-transaction-id"));
+        assertThat(captor.getAllValues().get(1).getPayload(), is("second-part"));
+        assertThat(captor.getAllValues().get(1).getOrderingKey(), is("smartpay:second-transaction-id"));
+        assertThat(metricRegistry.counter("notification-inbox.smartpay.received").getCount(), is(2L));
+    }
+
+    @Test
+    public void shouldClaimBatchWithLease() {
+        when(config.getBatchSize()).thenReturn(50);
+        when(config.getLeaseDuration()).thenReturn(Duration.minutes(5));
+        when(notificationInboxDao.claimNextBatch(50, NOW, NOW.plusMinutes(5))).thenReturn(List.of(1L, 2L));
+
+        assertThat(notificationInboxService.claimNextBatch(), is(List.of(1L, 2L)));
+    }
+
+    @Test
+    public void shouldApplyPendingNotificationAndMarkItProcessed() {
+        NotificationInboxEntity notification = new NotificationInboxEntity(EPDQ, PAYLOAD, null, NOW.minusSeconds(3));
+        when(notificationInboxDao.findByIdForUpdate(1L)).thenReturn(Optional.of(notification));
+
+        notificationInboxService.process(1L);
+
+        verify(epdqNotificationService).handleNotificationFor(PAYLOAD);
+        assertThat(notification.getStatus(), is(NotificationInboxStatus.PROCESSED));
+        assertThat(notification.getProcessedDate(), is(NOW));
+        assertThat(metricRegistry.timer("notification-inbox.epdq.processing-lag").getCount(), is(1L));
+    }
+
+    @Test
+    public void shouldApplyWorldpayNotificationWithoutCheckingSourceAgain() {
+        NotificationInboxEntity notification = new NotificationInboxEntity(WORLDPAY, PAYLOAD, null, NOW);
+        when(notificationInboxDao.findByIdForUpdate(1L)).thenReturn(Optional.of(notification));
+
+        notificationInboxService.process(1L);
+
+        verify(worldpayNotificationService).handleVerifiedNotificationFor(PAYLOAD);
+    }
+
+    @Test
+    public void shouldNotReplayNotificationThatIsAlreadyProcessed() {
+        NotificationInboxEntity notification = new NotificationInboxEntity(SMARTPAY, PAYLOAD, null, NOW);
+        notification.markProcessed(NOW);
+        when(notificationInboxDao.findByIdForUpdate(1L)).thenReturn(Optional.of(notification));
+
+        notificationInboxService.process(1L);
+
+        verifyZeroInteractions(smartpayNotificationService);
+    }
+
+    @Test
+    public void shouldRetryFailedNotificationAfterBackoff() {
+        NotificationInboxEntity notification = claimedNotification(2);
+        when(notificationInboxDao.findByIdForUpdate(1L)).thenReturn(Optional.of(notification));
+        when(config.getMaximumAttempts()).thenReturn(10);
+        when(config.getRetryDelay()).thenReturn(Duration.seconds(30));
+
+        notificationInboxService.recordFailure(1L);
+
+        verify(notification).retryAfter(NOW.plusSeconds(60));
+        verify(notification, never()).markFailed(any());
+        assertThat(metricRegistry.counter("notification-inbox.smartpay.retried").getCount(), is(1L));
+    }
+
+    @Test
+    public void shouldGiveUpAfterMaximumAttempts() {
+        NotificationInboxEntity notification = claimedNotification(10);
+        when(notificationInboxDao.findByIdForUpdate(1L)).thenReturn(Optional.of(notification));
+        when(config.getMaximumAttempts()).thenReturn(10);
+
+        notificationInboxService.recordFailure(1L);
+
+        verify(notification).markFailed(NOW);
+        verify(notification, never()).retryAfter(any());
+        assertThat(metricRegistry.counter("notification-inbox.smartpay.failed").getCount(), is(1L));
+    }
+
+    private static NotificationInboxEntity claimedNotification(int attempts) {
+        NotificationInboxEntity notification = mock(NotificationInboxEntity.class);
+        when(notification.getGateway()).thenReturn(SMARTPAY);
+        when(notification.getAttempts()).thenReturn(attempts);
+        return notification;
+    }
+}